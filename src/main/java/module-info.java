@@ -13,6 +13,10 @@ module org.example.tourplanner {
     requires com.fasterxml.jackson.datatype.jsr310;
     requires com.fasterxml.jackson.databind;
     requires java.desktop;
+    requires java.sql;
+    requires org.postgresql.jdbc;
+    requires java.xml;
+    requires jdk.httpserver;
     requires jdk.jsobject;
     requires org.slf4j;
     requires itextpdf;
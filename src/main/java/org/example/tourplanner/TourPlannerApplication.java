@@ -6,6 +6,10 @@ import javafx.scene.Scene;
 import javafx.stage.Stage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.business.service.BackendPool;
+import org.example.tourplanner.business.service.ChangeFeedClient;
+import org.example.tourplanner.business.sync.OfflineWriteQueue;
+import org.example.tourplanner.business.tiles.TileService;
 
 import java.io.IOException;
 
@@ -28,6 +32,16 @@ public class TourPlannerApplication extends Application {
         }
     }
 
+    @Override
+    public void stop() {
+        logger.info("Stopping Tour Planner Application");
+        TileService.shutdownIfStarted();
+        ChangeFeedClient.shutdownIfStarted();
+        // Zusammengeführte Änderungen noch senden, Ungesendetes folgt beim nächsten Start
+        OfflineWriteQueue.shutdownIfStarted();
+        BackendPool.shutdownIfStarted();
+    }
+
     public static void main(String[] args) {
         launch();
     }
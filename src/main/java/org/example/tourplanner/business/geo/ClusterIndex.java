@@ -0,0 +1,277 @@
+package org.example.tourplanner.business.geo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hierarchical grid clustering of map points for the overview map.
+ *
+ * Every zoom level has a grid of CELL_PIXELS sized cells in Web Mercator; a cell holds one
+ * cluster with the count and weighted centroid of its points. Each level is built from the
+ * level below (a cell contains exactly four cells of the next zoom), so building is
+ * O(n log n) per level and a viewport query only touches the visible cells.
+ */
+public class ClusterIndex {
+    /** Cell size on screen; clusters are at least this far apart */
+    public static final int CELL_PIXELS = 64;
+    /** Deepest clustered zoom; higher zoom levels use this level */
+    public static final int MAX_LEVEL = 17;
+
+    private static final double MAX_LATITUDE = 85.05112878;
+    private static final int INDEX_BITS = 25;
+    private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+    private final Level[] levels = new Level[MAX_LEVEL + 1];
+    private final int pointCount;
+
+    /**
+     * A cluster or single point of a query result
+     */
+    public static final class Cluster {
+        private final double latitude;
+        private final double longitude;
+        private final int count;
+        private final int point;
+        private final int expansionZoom;
+
+        Cluster(double latitude, double longitude, int count, int point, int expansionZoom) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.count = count;
+            this.point = point;
+            this.expansionZoom = expansionZoom;
+        }
+
+        public double getLatitude() {
+            return latitude;
+        }
+
+        public double getLongitude() {
+            return longitude;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * Index of one of the points in the cluster (the point itself if count is 1)
+         */
+        public int getPoint() {
+            return point;
+        }
+
+        /**
+         * Zoom at which the cluster splits up, -1 if its points are at the same spot
+         */
+        public int getExpansionZoom() {
+            return expansionZoom;
+        }
+    }
+
+    // Zellen einer Zoomstufe, sortiert nach Zeile und Spalte
+    private static final class Level {
+        final long[] keys;
+        final float[] x;
+        final float[] y;
+        final int[] count;
+        final int[] point;
+        final byte[] expansion;
+
+        Level(int size) {
+            keys = new long[size];
+            x = new float[size];
+            y = new float[size];
+            count = new int[size];
+            point = new int[size];
+            expansion = new byte[size];
+        }
+
+        Level trim(int size) {
+            if (size == keys.length) {
+                return this;
+            }
+            Level trimmed = new Level(size);
+            System.arraycopy(keys, 0, trimmed.keys, 0, size);
+            System.arraycopy(x, 0, trimmed.x, 0, size);
+            System.arraycopy(y, 0, trimmed.y, 0, size);
+            System.arraycopy(count, 0, trimmed.count, 0, size);
+            System.arraycopy(point, 0, trimmed.point, 0, size);
+            System.arraycopy(expansion, 0, trimmed.expansion, 0, size);
+            return trimmed;
+        }
+    }
+
+    /**
+     * Builds the index; point i is at {latitudes[i], longitudes[i]}
+     */
+    public ClusterIndex(double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("latitudes and longitudes differ in length");
+        }
+        if (latitudes.length > INDEX_MASK) {
+            throw new IllegalArgumentException("Too many points: " + latitudes.length);
+        }
+        pointCount = latitudes.length;
+
+        double[] x = new double[pointCount];
+        double[] y = new double[pointCount];
+        for (int i = 0; i < pointCount; i++) {
+            x[i] = mercatorX(longitudes[i]);
+            y[i] = mercatorY(latitudes[i]);
+        }
+        levels[MAX_LEVEL] = buildLeafLevel(x, y);
+        for (int level = MAX_LEVEL - 1; level >= 0; level--) {
+            levels[level] = buildParentLevel(levels[level + 1], level);
+        }
+    }
+
+    public int getPointCount() {
+        return pointCount;
+    }
+
+    /**
+     * Clusters and single points inside the bounding box at a map zoom level
+     */
+    public List<Cluster> getClusters(double south, double west, double north, double east, int zoom) {
+        int levelNumber = Math.max(0, Math.min(MAX_LEVEL, zoom));
+        Level level = levels[levelNumber];
+        long side = side(levelNumber);
+
+        long minX = cell(mercatorX(west), side);
+        long maxX = cell(mercatorX(east), side);
+        long minY = cell(mercatorY(north), side);
+        long maxY = cell(mercatorY(south), side);
+
+        List<Cluster> result = new ArrayList<>();
+        for (long row = minY; row <= maxY; row++) {
+            long lastKey = row * side + maxX;
+            int i = lowerBound(level.keys, row * side + minX);
+            for (; i < level.keys.length && level.keys[i] <= lastKey; i++) {
+                result.add(new Cluster(latitude(level.y[i]), longitude(level.x[i]),
+                        level.count[i], level.point[i], level.expansion[i]));
+            }
+        }
+        return result;
+    }
+
+    private static Level buildLeafLevel(double[] x, double[] y) {
+        int n = x.length;
+        long side = side(MAX_LEVEL);
+        long[] packed = new long[n];
+        for (int i = 0; i < n; i++) {
+            long key = cell(y[i], side) * side + cell(x[i], side);
+            packed[i] = (key << INDEX_BITS) | i;
+        }
+        Arrays.sort(packed);
+
+        Level level = new Level(n);
+        int size = 0;
+        for (int start = 0; start < n; ) {
+            long key = packed[start] >>> INDEX_BITS;
+            int end = start;
+            double sumX = 0;
+            double sumY = 0;
+            while (end < n && (packed[end] >>> INDEX_BITS) == key) {
+                int point = (int) (packed[end] & INDEX_MASK);
+                sumX += x[point];
+                sumY += y[point];
+                end++;
+            }
+            int count = end - start;
+            level.keys[size] = key;
+            level.x[size] = (float) (sumX / count);
+            level.y[size] = (float) (sumY / count);
+            level.count[size] = count;
+            level.point[size] = (int) (packed[start] & INDEX_MASK);
+            // Mehrere Punkte in der kleinsten Zelle liegen praktisch übereinander
+            level.expansion[size] = -1;
+            size++;
+            start = end;
+        }
+        return level.trim(size);
+    }
+
+    private static Level buildParentLevel(Level children, int levelNumber) {
+        int n = children.keys.length;
+        long childSide = side(levelNumber + 1);
+        long side = side(levelNumber);
+        long[] packed = new long[n];
+        for (int i = 0; i < n; i++) {
+            long row = children.keys[i] / childSide;
+            long column = children.keys[i] % childSide;
+            long key = (row >> 1) * side + (column >> 1);
+            packed[i] = (key << INDEX_BITS) | i;
+        }
+        Arrays.sort(packed);
+
+        Level level = new Level(n);
+        int size = 0;
+        for (int start = 0; start < n; ) {
+            long key = packed[start] >>> INDEX_BITS;
+            int end = start;
+            double sumX = 0;
+            double sumY = 0;
+            int count = 0;
+            while (end < n && (packed[end] >>> INDEX_BITS) == key) {
+                int child = (int) (packed[end] & INDEX_MASK);
+                sumX += (double) children.x[child] * children.count[child];
+                sumY += (double) children.y[child] * children.count[child];
+                count += children.count[child];
+                end++;
+            }
+            int first = (int) (packed[start] & INDEX_MASK);
+            level.keys[size] = key;
+            level.x[size] = (float) (sumX / count);
+            level.y[size] = (float) (sumY / count);
+            level.count[size] = count;
+            level.point[size] = children.point[first];
+            // Nur ein Kind: zerfällt erst dort, wo das Kind zerfällt
+            level.expansion[size] = end - start == 1 ? children.expansion[first] : (byte) (levelNumber + 1);
+            size++;
+            start = end;
+        }
+        return level.trim(size);
+    }
+
+    private static int lowerBound(long[] keys, long key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long side(int level) {
+        // 256 px Kacheln: 2^level * 256 / CELL_PIXELS Zellen pro Seite
+        return (1L << level) * (256 / CELL_PIXELS);
+    }
+
+    private static long cell(double coordinate, long side) {
+        return Math.max(0, Math.min(side - 1, (long) Math.floor(coordinate * side)));
+    }
+
+    static double mercatorX(double longitude) {
+        return (Math.max(-180, Math.min(180, longitude)) + 180) / 360;
+    }
+
+    static double mercatorY(double latitude) {
+        double sin = Math.sin(Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude))));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+
+    private static double longitude(double x) {
+        return x * 360 - 180;
+    }
+
+    private static double latitude(double y) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * y))));
+    }
+}
@@ -0,0 +1,282 @@
+package org.example.tourplanner.business.geo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Segment-level grid index over route polylines for corridor queries
+ * ("which routes pass within 2 km of this point").
+ *
+ * Routes are spread over partitions by key; each partition has its own grid and lock, so
+ * queries run on all partitions in parallel. A grid cell stores runs of consecutive segments
+ * of a route (slot, first segment, count) instead of single segments, which keeps the index
+ * about as large as the number of cell crossings.
+ */
+public class CorridorIndex<K> {
+    private static final double CELL_DEGREES = 0.05;
+    private static final long COLUMNS = (long) Math.ceil(360 / CELL_DEGREES) + 1;
+    private static final double METERS_PER_DEGREE = 111_320.0;
+
+    private static final int COUNT_BITS = 20;
+    private static final int FIRST_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+    private static final long FIRST_MASK = (1L << FIRST_BITS) - 1;
+    private static final int MAX_POINTS = 1 << FIRST_BITS;
+
+    private final List<Partition<K>> partitions = new ArrayList<>();
+
+    public CorridorIndex() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public CorridorIndex(int partitionCount) {
+        for (int i = 0; i < Math.max(1, partitionCount); i++) {
+            partitions.add(new Partition<>());
+        }
+    }
+
+    /**
+     * Adds or replaces the route of a key
+     * @param points {lat, lon} pairs
+     */
+    public void put(K key, double[][] points) {
+        if (points.length > MAX_POINTS) {
+            throw new IllegalArgumentException("Route has too many points: " + points.length);
+        }
+        partitionOf(key).put(key, points);
+    }
+
+    public boolean remove(K key) {
+        return partitionOf(key).remove(key);
+    }
+
+    public boolean contains(K key) {
+        return partitionOf(key).contains(key);
+    }
+
+    public int size() {
+        return partitions.stream().mapToInt(Partition::size).sum();
+    }
+
+    public void clear() {
+        partitions.forEach(Partition::clear);
+    }
+
+    /**
+     * Routes passing within the distance of the point, closest approach first
+     */
+    public List<SpatialIndex.Hit<K>> near(double latitude, double longitude, double distanceKm) {
+        Map<K, Double> closest = new HashMap<>();
+        partitions.parallelStream()
+                .map(partition -> partition.near(latitude, longitude, distanceKm * 1000))
+                .forEachOrdered(closest::putAll);
+
+        List<SpatialIndex.Hit<K>> result = new ArrayList<>(closest.size());
+        closest.forEach((key, meters) -> result.add(new SpatialIndex.Hit<>(key, meters / 1000.0)));
+        result.sort(Comparator.comparingDouble(SpatialIndex.Hit::getDistanceKm));
+        return result;
+    }
+
+    private Partition<K> partitionOf(K key) {
+        return partitions.get(Math.floorMod(key.hashCode(), partitions.size()));
+    }
+
+    private static long cellKey(long row, long column) {
+        return row * COLUMNS + column;
+    }
+
+    private static long row(double latitude) {
+        return (long) Math.floor((Math.max(-90, Math.min(90, latitude)) + 90) / CELL_DEGREES);
+    }
+
+    private static long column(double longitude) {
+        return (long) Math.floor((Math.max(-180, Math.min(180, longitude)) + 180) / CELL_DEGREES);
+    }
+
+    private static final class Route<K> {
+        final K key;
+        final float[] latitudes;
+        final float[] longitudes;
+        long[] cells;
+
+        Route(K key, double[][] points) {
+            this.key = key;
+            latitudes = new float[points.length];
+            longitudes = new float[points.length];
+            for (int i = 0; i < points.length; i++) {
+                latitudes[i] = (float) points[i][0];
+                longitudes[i] = (float) points[i][1];
+            }
+        }
+    }
+
+    // Wachsende long-Liste ohne Boxing, ein Eintrag pro Segmentlauf
+    private static final class RunList {
+        long[] values = new long[2];
+        int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void removeSlot(int slot) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (slotOf(values[i]) != slot) {
+                    values[kept++] = values[i];
+                }
+            }
+            size = kept;
+        }
+    }
+
+    private static long run(int slot, int first, int count) {
+        return ((long) slot << (FIRST_BITS + COUNT_BITS)) | ((long) first << COUNT_BITS) | count;
+    }
+
+    private static int slotOf(long run) {
+        return (int) (run >>> (FIRST_BITS + COUNT_BITS));
+    }
+
+    private static final class Partition<K> {
+        private final List<Route<K>> slots = new ArrayList<>();
+        private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+        private final Map<K, Integer> slotByKey = new HashMap<>();
+        private final Map<Long, RunList> cells = new HashMap<>();
+
+        synchronized void put(K key, double[][] points) {
+            remove(key);
+            Route<K> route = new Route<>(key, points);
+            int slot = freeSlots.isEmpty() ? slots.size() : freeSlots.pop();
+            if (slot == slots.size()) {
+                slots.add(route);
+            } else {
+                slots.set(slot, route);
+            }
+            slotByKey.put(key, slot);
+
+            // Offene Läufe je Zelle: {erstes Segment, letztes Segment}
+            Map<Long, int[]> open = new HashMap<>();
+            for (int s = 0; s + 1 < points.length; s++) {
+                long minRow = row(Math.min(points[s][0], points[s + 1][0]));
+                long maxRow = row(Math.max(points[s][0], points[s + 1][0]));
+                long minColumn = column(Math.min(points[s][1], points[s + 1][1]));
+                long maxColumn = column(Math.max(points[s][1], points[s + 1][1]));
+                for (long r = minRow; r <= maxRow; r++) {
+                    for (long c = minColumn; c <= maxColumn; c++) {
+                        long cell = cellKey(r, c);
+                        int[] current = open.get(cell);
+                        if (current != null && current[1] == s - 1) {
+                            current[1] = s;
+                        } else {
+                            if (current != null) {
+                                addRun(cell, slot, current);
+                            }
+                            open.put(cell, new int[]{s, s});
+                        }
+                    }
+                }
+            }
+            open.forEach((cell, current) -> addRun(cell, slot, current));
+            route.cells = open.keySet().stream().mapToLong(Long::longValue).toArray();
+        }
+
+        private void addRun(long cell, int slot, int[] segments) {
+            int count = segments[1] - segments[0] + 1;
+            cells.computeIfAbsent(cell, c -> new RunList()).add(run(slot, segments[0], count));
+        }
+
+        synchronized boolean remove(K key) {
+            Integer slot = slotByKey.remove(key);
+            if (slot == null) {
+                return false;
+            }
+            for (long cell : slots.get(slot).cells) {
+                RunList runs = cells.get(cell);
+                runs.removeSlot(slot);
+                if (runs.size == 0) {
+                    cells.remove(cell);
+                }
+            }
+            slots.set(slot, null);
+            freeSlots.push(slot);
+            return true;
+        }
+
+        synchronized boolean contains(K key) {
+            return slotByKey.containsKey(key);
+        }
+
+        synchronized int size() {
+            return slotByKey.size();
+        }
+
+        synchronized void clear() {
+            slots.clear();
+            freeSlots.clear();
+            slotByKey.clear();
+            cells.clear();
+        }
+
+        /**
+         * Closest approach in meters of every route in reach
+         */
+        synchronized Map<K, Double> near(double latitude, double longitude, double meters) {
+            // Lokale Projektion um den Suchpunkt, genau genug für Korridore von einigen km
+            double xScale = METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude));
+            double latDelta = meters / METERS_PER_DEGREE;
+            double lonDelta = meters / Math.max(1.0, xScale);
+
+            Map<Integer, Double> closest = new HashMap<>();
+            for (long r = row(latitude - latDelta); r <= row(latitude + latDelta); r++) {
+                for (long c = column(longitude - lonDelta); c <= column(longitude + lonDelta); c++) {
+                    RunList runs = cells.get(cellKey(r, c));
+                    if (runs == null) {
+                        continue;
+                    }
+                    for (int i = 0; i < runs.size; i++) {
+                        long value = runs.values[i];
+                        int slot = slotOf(value);
+                        int first = (int) ((value >>> COUNT_BITS) & FIRST_MASK);
+                        int count = (int) (value & COUNT_MASK);
+                        Route<K> route = slots.get(slot);
+                        double best = closest.getOrDefault(slot, Double.MAX_VALUE);
+                        for (int s = first; s < first + count; s++) {
+                            best = Math.min(best, segmentDistance(route, s, latitude, longitude, xScale));
+                        }
+                        if (best <= meters) {
+                            closest.put(slot, best);
+                        }
+                    }
+                }
+            }
+
+            Map<K, Double> result = new HashMap<>();
+            closest.forEach((slot, distance) -> result.put(slots.get(slot).key, distance));
+            return result;
+        }
+
+        private static double segmentDistance(Route<?> route, int segment, double latitude, double longitude,
+                                              double xScale) {
+            double ax = (route.longitudes[segment] - longitude) * xScale;
+            double ay = (route.latitudes[segment] - latitude) * METERS_PER_DEGREE;
+            double bx = (route.longitudes[segment + 1] - longitude) * xScale;
+            double by = (route.latitudes[segment + 1] - latitude) * METERS_PER_DEGREE;
+            double dx = bx - ax;
+            double dy = by - ay;
+            double lengthSquared = dx * dx + dy * dy;
+            double t = lengthSquared > 0 ? Math.max(0, Math.min(1, -(ax * dx + ay * dy) / lengthSquared)) : 0;
+            double px = ax + t * dx;
+            double py = ay + t * dy;
+            return Math.sqrt(px * px + py * py);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.tourplanner.business.geo;
+
+/**
+ * Geographic helper functions shared by routing, map and index code
+ */
+public final class GeoMath {
+    public static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    // Fixed-point scale used for coordinates (same as OSM: 1e-7 degrees)
+    public static final double FIXED_POINT_SCALE = 1e7;
+
+    private GeoMath() {}
+
+    /**
+     * Great-circle distance between two coordinates in meters
+     */
+    public static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * Length of a polyline of {lat, lon} points in meters
+     */
+    public static double pathMeters(double[][] points) {
+        double meters = 0;
+        for (int i = 1; i < points.length; i++) {
+            meters += haversineMeters(points[i - 1][0], points[i - 1][1], points[i][0], points[i][1]);
+        }
+        return meters;
+    }
+
+    public static int toFixed(double degrees) {
+        return (int) Math.round(degrees * FIXED_POINT_SCALE);
+    }
+
+    public static double fromFixed(int fixed) {
+        return fixed / FIXED_POINT_SCALE;
+    }
+}
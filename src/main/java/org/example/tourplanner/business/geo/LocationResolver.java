@@ -0,0 +1,81 @@
+package org.example.tourplanner.business.geo;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Offline lookup of location names (and "lat,lon" strings) to coordinates.
+ * Used wherever we need coordinates without asking the backend.
+ */
+public final class LocationResolver {
+    // Österreich als Standard-Zentrum
+    public static final double[] DEFAULT_CENTER = {47.6965, 13.3457};
+
+    private static final Pattern COORDINATE_PATTERN =
+            Pattern.compile("\\s*(-?\\d{1,2}(?:\\.\\d+)?)\\s*[,;]\\s*(-?\\d{1,3}(?:\\.\\d+)?)\\s*");
+
+    private LocationResolver() {}
+
+    /**
+     * Resolves a location to {lat, lon}
+     * @return coordinates or null if the location is unknown
+     */
+    public static double[] resolve(String location) {
+        if (location == null || location.isBlank()) {
+            return null;
+        }
+
+        Matcher matcher = COORDINATE_PATTERN.matcher(location);
+        if (matcher.matches()) {
+            double lat = Double.parseDouble(matcher.group(1));
+            double lon = Double.parseDouble(matcher.group(2));
+            if (Math.abs(lat) <= 90 && Math.abs(lon) <= 180) {
+                return new double[]{lat, lon};
+            }
+            return null;
+        }
+
+        return switch (location.toLowerCase(Locale.ROOT).trim()) {
+            case "vienna", "wien" -> new double[]{48.2082, 16.3738};
+            case "salzburg" -> new double[]{47.8095, 13.0550};
+            case "graz" -> new double[]{47.0707, 15.4395};
+            case "linz" -> new double[]{48.3069, 14.2858};
+            case "innsbruck" -> new double[]{47.2692, 11.4041};
+            case "klagenfurt" -> new double[]{46.6250, 14.3050};
+            case "bregenz" -> new double[]{47.5031, 9.7471};
+            case "st. pölten", "st poelten" -> new double[]{48.2058, 15.6232};
+            case "eisenstadt" -> new double[]{47.8450, 16.5200};
+            case "villach" -> new double[]{46.6111, 13.8558};
+            case "wels" -> new double[]{48.1597, 14.0264};
+            case "dornbirn" -> new double[]{47.4124, 9.7436};
+            case "berlin" -> new double[]{52.5200, 13.4050};
+            case "munich", "münchen" -> new double[]{48.1351, 11.5820};
+            case "prague", "prag" -> new double[]{50.0755, 14.4378};
+            case "budapest" -> new double[]{47.4979, 19.0402};
+            case "zurich", "zürich" -> new double[]{47.3769, 8.5417};
+            case "amsterdam" -> new double[]{52.3676, 4.9041};
+            case "netherlands", "holland" -> new double[]{52.1326, 5.2913};
+            case "london" -> new double[]{51.5074, -0.1278};
+            case "paris" -> new double[]{48.8566, 2.3522};
+            case "brussels", "brüssel" -> new double[]{50.8503, 4.3517};
+            case "madrid" -> new double[]{40.4168, -3.7038};
+            case "barcelona" -> new double[]{41.3851, 2.1734};
+            case "lisbon", "lissabon" -> new double[]{38.7223, -9.1393};
+            case "rome", "rom" -> new double[]{41.9028, 12.4964};
+            case "milan", "mailand" -> new double[]{45.4642, 9.1900};
+            case "florence", "florenz" -> new double[]{43.7696, 11.2558};
+            case "venice", "venedig" -> new double[]{45.4408, 12.3155};
+            case "naples", "neapel" -> new double[]{40.8518, 14.2681};
+            default -> null;
+        };
+    }
+
+    /**
+     * Resolves a location, falling back to the center of Austria
+     */
+    public static double[] resolveOrDefault(String location) {
+        double[] coords = resolve(location);
+        return coords != null ? coords : DEFAULT_CENTER.clone();
+    }
+}
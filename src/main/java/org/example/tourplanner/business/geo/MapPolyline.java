@@ -0,0 +1,60 @@
+package org.example.tourplanner.business.geo;
+
+/**
+ * Route line prepared for map.html: encoded points plus the zoom level from which each
+ * point is drawn. Points that would not be visible even at the highest zoom are dropped.
+ */
+public class MapPolyline {
+    private final String encodedPoints;
+    private final String encodedLevels;
+    private final int pointCount;
+    private final int originalPointCount;
+
+    private MapPolyline(String encodedPoints, String encodedLevels, int pointCount, int originalPointCount) {
+        this.encodedPoints = encodedPoints;
+        this.encodedLevels = encodedLevels;
+        this.pointCount = pointCount;
+        this.originalPointCount = originalPointCount;
+    }
+
+    /**
+     * @param points {lat, lon} pairs of the full route geometry
+     */
+    public static MapPolyline of(double[][] points) {
+        int[] levels = PolylineSimplifier.minZoomLevels(points, 1.0);
+        int visible = 0;
+        for (int level : levels) {
+            if (level <= PolylineSimplifier.MAX_ZOOM) {
+                visible++;
+            }
+        }
+        double[][] kept = new double[visible][];
+        int[] keptLevels = new int[visible];
+        int i = 0;
+        for (int p = 0; p < points.length; p++) {
+            if (levels[p] <= PolylineSimplifier.MAX_ZOOM) {
+                kept[i] = points[p];
+                keptLevels[i] = levels[p];
+                i++;
+            }
+        }
+        return new MapPolyline(PolylineEncoder.encode(kept), PolylineEncoder.encodeLevels(keptLevels),
+                visible, points.length);
+    }
+
+    public String getEncodedPoints() {
+        return encodedPoints;
+    }
+
+    public String getEncodedLevels() {
+        return encodedLevels;
+    }
+
+    public int getPointCount() {
+        return pointCount;
+    }
+
+    public int getOriginalPointCount() {
+        return originalPointCount;
+    }
+}
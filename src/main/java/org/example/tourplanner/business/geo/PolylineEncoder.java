@@ -0,0 +1,89 @@
+package org.example.tourplanner.business.geo;
+
+import java.util.Arrays;
+
+/**
+ * Encoded polyline format (as used by Google Maps and OpenRouteService, precision 5):
+ * delta-encoded coordinates as base64-like ASCII, about 4-6 bytes per point instead of ~40 in JSON.
+ * Decoded in map.html by decodePolyline().
+ */
+public final class PolylineEncoder {
+    private static final double FACTOR = 1e5;
+
+    private PolylineEncoder() {}
+
+    /**
+     * Encodes {lat, lon} points
+     */
+    public static String encode(double[][] points) {
+        StringBuilder out = new StringBuilder(points.length * 6);
+        long previousLat = 0;
+        long previousLon = 0;
+        for (double[] point : points) {
+            long lat = Math.round(point[0] * FACTOR);
+            long lon = Math.round(point[1] * FACTOR);
+            encodeValue(lat - previousLat, out);
+            encodeValue(lon - previousLon, out);
+            previousLat = lat;
+            previousLon = lon;
+        }
+        return out.toString();
+    }
+
+    /**
+     * Decodes a polyline to {lat, lon} points
+     * @throws IllegalArgumentException if the string is truncated
+     */
+    public static double[][] decode(String encoded) {
+        double[][] points = new double[16][];
+        int count = 0;
+        int[] index = {0};
+        long lat = 0;
+        long lon = 0;
+        while (index[0] < encoded.length()) {
+            lat += decodeValue(encoded, index);
+            lon += decodeValue(encoded, index);
+            if (count == points.length) {
+                points = Arrays.copyOf(points, count * 2);
+            }
+            points[count++] = new double[]{lat / FACTOR, lon / FACTOR};
+        }
+        return Arrays.copyOf(points, count);
+    }
+
+    /**
+     * One character per point: 'A' + minimum zoom level (see {@link PolylineSimplifier#minZoomLevels})
+     */
+    public static String encodeLevels(int[] levels) {
+        char[] chars = new char[levels.length];
+        for (int i = 0; i < levels.length; i++) {
+            chars[i] = (char) ('A' + levels[i]);
+        }
+        return new String(chars);
+    }
+
+    private static void encodeValue(long value, StringBuilder out) {
+        // Zickzack: Vorzeichen ins unterste Bit
+        long v = value < 0 ? ~(value << 1) : value << 1;
+        while (v >= 0x20) {
+            out.append((char) ((0x20 | (v & 0x1f)) + 63));
+            v >>= 5;
+        }
+        out.append((char) (v + 63));
+    }
+
+    private static long decodeValue(String encoded, int[] index) {
+        long result = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (index[0] >= encoded.length()) {
+                throw new IllegalArgumentException("Truncated polyline");
+            }
+            b = encoded.charAt(index[0]++) - 63;
+            result |= (long) (b & 0x1f) << shift;
+            shift += 5;
+        } while (b >= 0x20);
+        return (result & 1) != 0 ? ~(result >> 1) : result >> 1;
+    }
+}
@@ -0,0 +1,150 @@
+package org.example.tourplanner.business.geo;
+
+import java.util.Arrays;
+
+/**
+ * Douglas-Peucker simplification of {lat, lon} polylines.
+ * Instead of cutting at one tolerance, every point gets the zoom level from which it is
+ * visible, so the map can pick the detail for the current zoom without asking Java again.
+ */
+public final class PolylineSimplifier {
+    /** Highest zoom level of the OSM tiles used in map.html */
+    public static final int MAX_ZOOM = 19;
+
+    // Meter pro Pixel am Äquator auf Zoomstufe 0 (256px Kacheln)
+    private static final double METERS_PER_PIXEL_Z0 = 156_543.034;
+
+    private PolylineSimplifier() {}
+
+    /**
+     * Significance of every point: the largest Douglas-Peucker tolerance (meters) at which
+     * the point is still kept. End points are infinitely significant.
+     * Significance never exceeds that of the enclosing split point, so simplifying at any
+     * tolerance yields the same result as a classic Douglas-Peucker run.
+     */
+    public static double[] significance(double[][] points) {
+        int n = points.length;
+        double[] result = new double[n];
+        if (n == 0) {
+            return result;
+        }
+        result[0] = Double.POSITIVE_INFINITY;
+        result[n - 1] = Double.POSITIVE_INFINITY;
+
+        double lonScale = Math.cos(Math.toRadians(points[0][0]));
+        // Explizite Stacks statt Rekursion: Routen mit vielen tausend Punkten
+        int[] stackFrom = new int[64];
+        int[] stackTo = new int[64];
+        double[] stackLimit = new double[64];
+        int size = 0;
+        stackFrom[size] = 0;
+        stackTo[size] = n - 1;
+        stackLimit[size] = Double.POSITIVE_INFINITY;
+        size++;
+
+        while (size > 0) {
+            size--;
+            int from = stackFrom[size];
+            int to = stackTo[size];
+            double limit = stackLimit[size];
+            if (to - from < 2) {
+                continue;
+            }
+
+            int split = -1;
+            double maxDistance = -1;
+            for (int i = from + 1; i < to; i++) {
+                double d = segmentDistanceMeters(points[i], points[from], points[to], lonScale);
+                if (d > maxDistance) {
+                    maxDistance = d;
+                    split = i;
+                }
+            }
+            double value = Math.min(maxDistance, limit);
+            result[split] = value;
+
+            if (size + 2 > stackFrom.length) {
+                stackFrom = Arrays.copyOf(stackFrom, size * 2 + 2);
+                stackTo = Arrays.copyOf(stackTo, size * 2 + 2);
+                stackLimit = Arrays.copyOf(stackLimit, size * 2 + 2);
+            }
+            stackFrom[size] = from;
+            stackTo[size] = split;
+            stackLimit[size] = value;
+            size++;
+            stackFrom[size] = split;
+            stackTo[size] = to;
+            stackLimit[size] = value;
+            size++;
+        }
+        return result;
+    }
+
+    /**
+     * Classic Douglas-Peucker: keeps the points deviating more than toleranceMeters
+     */
+    public static double[][] simplify(double[][] points, double toleranceMeters) {
+        double[] significance = significance(points);
+        return Arrays.stream(indicesAbove(significance, toleranceMeters))
+                .mapToObj(i -> points[i])
+                .toArray(double[][]::new);
+    }
+
+    /**
+     * Minimum zoom level per point at which it deviates at least pixelTolerance pixels
+     * from the simplified line. Points with a value above MAX_ZOOM are never visible.
+     */
+    public static int[] minZoomLevels(double[][] points, double pixelTolerance) {
+        double[] significance = significance(points);
+        int[] levels = new int[points.length];
+        if (points.length == 0) {
+            return levels;
+        }
+        double metersPerPixelZ0 = METERS_PER_PIXEL_Z0 * Math.cos(Math.toRadians(points[0][0])) * pixelTolerance;
+        for (int i = 0; i < points.length; i++) {
+            if (Double.isInfinite(significance[i])) {
+                levels[i] = 0;
+            } else if (significance[i] <= 0) {
+                levels[i] = MAX_ZOOM + 1;
+            } else {
+                // kleinste Zoomstufe z mit metersPerPixel(z) <= Signifikanz
+                int zoom = (int) Math.ceil(Math.log(metersPerPixelZ0 / significance[i]) / Math.log(2));
+                levels[i] = Math.max(0, Math.min(MAX_ZOOM + 1, zoom));
+            }
+        }
+        return levels;
+    }
+
+    /**
+     * Tolerance in meters equivalent to one pixel at the given zoom and latitude
+     */
+    public static double metersPerPixel(int zoom, double latitude) {
+        return METERS_PER_PIXEL_Z0 * Math.cos(Math.toRadians(latitude)) / (1 << zoom);
+    }
+
+    private static int[] indicesAbove(double[] significance, double tolerance) {
+        int[] indices = new int[significance.length];
+        int count = 0;
+        for (int i = 0; i < significance.length; i++) {
+            if (significance[i] > tolerance) {
+                indices[count++] = i;
+            }
+        }
+        return Arrays.copyOf(indices, count);
+    }
+
+    /**
+     * Distance of p to segment a-b in meters (equirectangular, fine for route-sized extents)
+     */
+    private static double segmentDistanceMeters(double[] p, double[] a, double[] b, double lonScale) {
+        double ax = a[1] * lonScale, ay = a[0];
+        double bx = b[1] * lonScale, by = b[0];
+        double px = p[1] * lonScale, py = p[0];
+        double dx = bx - ax, dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, ((px - ax) * dx + (py - ay) * dy) / lengthSquared));
+        double ex = px - (ax + t * dx);
+        double ey = py - (ay + t * dy);
+        return Math.toRadians(Math.sqrt(ex * ex + ey * ey)) * GeoMath.EARTH_RADIUS_METERS;
+    }
+}
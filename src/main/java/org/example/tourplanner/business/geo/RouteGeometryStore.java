@@ -0,0 +1,362 @@
+package org.example.tourplanner.business.geo;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.config.ConfigurationManager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of route geometries, read through a memory mapping.
+ *
+ * Layout (little-endian):
+ * <pre>
+ * header   magic "TPRS" (int32), version (int32)
+ * record   key (int64), payloadLength (int32), crc32 of payload (int32), payload
+ * payload  varint pointCount, then per point zigzag-varint deltas of latE6 and lonE6
+ * </pre>
+ * A later record with the same key replaces the earlier one. The key to offset index is
+ * rebuilt on open by skipping from header to header; a torn record at the end is cut off.
+ */
+public class RouteGeometryStore {
+    private static final Logger logger = LogManager.getLogger(RouteGeometryStore.class);
+    private static RouteGeometryStore instance;
+
+    static final int MAGIC = 0x53525054; // "TPRS" little-endian
+    static final int VERSION = 1;
+    static final int FILE_HEADER_BYTES = 8;
+    static final int RECORD_HEADER_BYTES = 16;
+    private static final double FIXED_SCALE = 1e6;
+    // Punkte, die weniger als einen halben Meter von der Linie abweichen, werden nicht gespeichert
+    private static final double STORE_TOLERANCE_METERS = 0.5;
+    private static final long MIN_COMPACTION_BYTES = 256 * 1024;
+
+    private final Path file;
+    private FileChannel channel;
+    private volatile MappedByteBuffer mapped;
+    private final Map<Long, Long> index = new HashMap<>();
+    private long fileSize;
+    private long deadBytes;
+
+    RouteGeometryStore(Path file) throws IOException {
+        this.file = file;
+        open();
+    }
+
+    /**
+     * Store at "route.geometry.path" (default ~/TourPlanner/Routes/route-geometry.bin)
+     * @return the store or null if the file cannot be opened
+     */
+    public static synchronized RouteGeometryStore getInstance() {
+        if (instance == null) {
+            String configured = ConfigurationManager.getInstance().getProperty("route.geometry.path", "");
+            Path path = configured.isBlank()
+                    ? Paths.get(System.getProperty("user.home"), "TourPlanner", "Routes", "route-geometry.bin")
+                    : Paths.get(configured);
+            try {
+                instance = new RouteGeometryStore(path);
+            } catch (IOException e) {
+                logger.error("Could not open route geometry store {}", path, e);
+                return null;
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Key of the route between two locations for a transport type; the same inputs always
+     * give the same key, so a tour finds its geometry without knowing a database id
+     */
+    public static long keyFor(String from, String to, String transportType) {
+        String normalized = normalize(from) + '\u0000' + normalize(to) + '\u0000' + normalize(transportType);
+        // FNV-1a 64 bit
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < normalized.length(); i++) {
+            hash ^= normalized.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Appends a geometry ({lat, lon} points); replaces an earlier one with the same key
+     */
+    public synchronized void put(long key, double[][] points) throws IOException {
+        if (points == null || points.length < 2) {
+            return;
+        }
+        byte[] payload = encode(PolylineSimplifier.simplify(points, STORE_TOLERANCE_METERS));
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + payload.length).order(ByteOrder.LITTLE_ENDIAN);
+        record.putLong(key).putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        long offset = fileSize;
+        while (record.hasRemaining()) {
+            channel.write(record, offset + record.position());
+        }
+        channel.force(false);
+        fileSize += RECORD_HEADER_BYTES + payload.length;
+
+        Long previous = index.put(key, offset);
+        if (previous != null) {
+            ensureMapped(previous);
+            deadBytes += recordSize(previous);
+        }
+    }
+
+    /**
+     * Geometry as {lat, lon} points
+     * @return points or null if the key is unknown
+     */
+    public double[][] get(long key) {
+        long offset;
+        MappedByteBuffer buffer;
+        synchronized (this) {
+            Long found = index.get(key);
+            if (found == null) {
+                return null;
+            }
+            offset = found;
+            try {
+                ensureMapped(offset);
+            } catch (IOException e) {
+                logger.error("Could not map route geometry store {}", file, e);
+                return null;
+            }
+            buffer = mapped;
+        }
+        // Absolute Zugriffe verändern den Puffer nicht und sind ohne Lock lesbar
+        int length = buffer.getInt((int) offset + 8);
+        return decode(buffer, (int) offset + RECORD_HEADER_BYTES, length);
+    }
+
+    public synchronized boolean contains(long key) {
+        return index.containsKey(key);
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public synchronized long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * Rewrites the file with only the current record of every key
+     */
+    public synchronized void compact() throws IOException {
+        remap();
+        List<long[]> live = new ArrayList<>();
+        for (Map.Entry<Long, Long> entry : index.entrySet()) {
+            live.add(new long[]{entry.getValue(), entry.getKey()});
+        }
+        live.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            out.write(fileHeader());
+            for (long[] record : live) {
+                int size = (int) recordSize(record[0]);
+                ByteBuffer slice = mapped.duplicate();
+                slice.position((int) record[0]).limit((int) record[0] + size);
+                while (slice.hasRemaining()) {
+                    out.write(slice);
+                }
+            }
+            out.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        close();
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        long before = fileSize;
+        open();
+        logger.info("Compacted route geometry store from {} to {} KB", before / 1024, fileSize / 1024);
+    }
+
+    public synchronized void close() throws IOException {
+        mapped = null;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void open() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        index.clear();
+        deadBytes = 0;
+        fileSize = channel.size();
+        if (fileSize == 0) {
+            channel.write(fileHeader(), 0);
+            fileSize = FILE_HEADER_BYTES;
+        }
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException("Route geometry store too large to map: " + file);
+        }
+        remap();
+        if (fileSize < FILE_HEADER_BYTES || mapped.getInt(0) != MAGIC) {
+            throw new IOException("Not a route geometry store: " + file);
+        }
+        if (mapped.getInt(4) != VERSION) {
+            throw new IOException("Unsupported route geometry store version " + mapped.getInt(4) + " in " + file);
+        }
+        scan();
+        logger.info("Route geometry store {} has {} routes ({} KB)", file, index.size(), fileSize / 1024);
+
+        if (deadBytes > MIN_COMPACTION_BYTES && deadBytes > fileSize / 2) {
+            compact();
+        }
+    }
+
+    /**
+     * Builds the index; cuts off a torn or corrupt tail left by an interrupted write
+     */
+    private void scan() throws IOException {
+        long position = FILE_HEADER_BYTES;
+        CRC32 crc = new CRC32();
+        while (position + RECORD_HEADER_BYTES <= fileSize) {
+            int p = (int) position;
+            long key = mapped.getLong(p);
+            int length = mapped.getInt(p + 8);
+            if (length < 0 || position + RECORD_HEADER_BYTES + length > fileSize) {
+                break;
+            }
+            ByteBuffer payload = mapped.duplicate();
+            payload.position(p + RECORD_HEADER_BYTES).limit(p + RECORD_HEADER_BYTES + length);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != mapped.getInt(p + 12)) {
+                break;
+            }
+            Long previous = index.put(key, position);
+            if (previous != null) {
+                deadBytes += recordSize(previous);
+            }
+            position += RECORD_HEADER_BYTES + length;
+        }
+        if (position != fileSize) {
+            logger.warn("Route geometry store {} has {} bytes of incomplete data at the end, truncating",
+                    file, fileSize - position);
+            mapped = null;
+            channel.truncate(position);
+            fileSize = position;
+            remap();
+        }
+    }
+
+    /**
+     * Extends the mapping if the record at offset was appended after the last remap
+     */
+    private void ensureMapped(long offset) throws IOException {
+        if (mapped == null || offset + RECORD_HEADER_BYTES > mapped.capacity()
+                || offset + recordSize(offset) > mapped.capacity()) {
+            remap();
+        }
+    }
+
+    private void remap() throws IOException {
+        mapped = (MappedByteBuffer) channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize)
+                .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private long recordSize(long offset) {
+        return RECORD_HEADER_BYTES + (long) mapped.getInt((int) offset + 8);
+    }
+
+    private static ByteBuffer fileHeader() {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).flip();
+        return header;
+    }
+
+    static byte[] encode(double[][] points) {
+        ByteBuffer out = ByteBuffer.allocate(5 + points.length * 20);
+        writeVarint(out, points.length);
+        long previousLat = 0;
+        long previousLon = 0;
+        for (double[] point : points) {
+            long lat = Math.round(point[0] * FIXED_SCALE);
+            long lon = Math.round(point[1] * FIXED_SCALE);
+            writeVarint(out, zigzag(lat - previousLat));
+            writeVarint(out, zigzag(lon - previousLon));
+            previousLat = lat;
+            previousLon = lon;
+        }
+        byte[] bytes = new byte[out.position()];
+        out.flip().get(bytes);
+        return bytes;
+    }
+
+    static double[][] decode(ByteBuffer buffer, int start, int length) {
+        int[] position = {start};
+        int count = (int) readVarint(buffer, position);
+        double[][] points = new double[count][];
+        long lat = 0;
+        long lon = 0;
+        for (int i = 0; i < count; i++) {
+            lat += unzigzag(readVarint(buffer, position));
+            lon += unzigzag(readVarint(buffer, position));
+            points[i] = new double[]{lat / FIXED_SCALE, lon / FIXED_SCALE};
+        }
+        if (position[0] != start + length) {
+            throw new IllegalStateException("Corrupt route geometry record at " + start);
+        }
+        return points;
+    }
+
+    private static void writeVarint(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static long readVarint(ByteBuffer buffer, int[] position) {
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get(position[0]++);
+            result |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return result;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
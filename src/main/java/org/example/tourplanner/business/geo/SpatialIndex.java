@@ -0,0 +1,239 @@
+package org.example.tourplanner.business.geo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * In-memory grid index of points on a lat/lon grid, one point per key.
+ * Supports incremental updates and bounding box, radius and k-nearest queries.
+ */
+public class SpatialIndex<K> {
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private final double cellDegrees;
+    private final long columns;
+    private final Map<Long, List<Entry<K>>> cells = new HashMap<>();
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+
+    private static final class Entry<K> {
+        final K key;
+        final double latitude;
+        final double longitude;
+        final long cell;
+
+        Entry(K key, double latitude, double longitude, long cell) {
+            this.key = key;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.cell = cell;
+        }
+    }
+
+    /**
+     * A key with its distance to the query point
+     */
+    public static final class Hit<K> {
+        private final K key;
+        private final double distanceKm;
+
+        Hit(K key, double distanceKm) {
+            this.key = key;
+            this.distanceKm = distanceKm;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+    }
+
+    /**
+     * Grid with 0.1 degree cells (about 11 km)
+     */
+    public SpatialIndex() {
+        this(0.1);
+    }
+
+    public SpatialIndex(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+        this.columns = (long) Math.ceil(360 / cellDegrees) + 1;
+    }
+
+    /**
+     * Adds a point or moves the existing point of the key
+     */
+    public synchronized void put(K key, double latitude, double longitude) {
+        remove(key);
+        long cell = row(latitude) * columns + column(longitude);
+        Entry<K> entry = new Entry<>(key, latitude, longitude, cell);
+        entries.put(key, entry);
+        cells.computeIfAbsent(cell, c -> new ArrayList<>(4)).add(entry);
+    }
+
+    public synchronized boolean remove(K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        List<Entry<K>> cell = cells.get(entry.cell);
+        cell.remove(entry);
+        if (cell.isEmpty()) {
+            cells.remove(entry.cell);
+        }
+        return true;
+    }
+
+    public synchronized void clear() {
+        cells.clear();
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Keys with points inside the box
+     */
+    public synchronized List<K> withinBox(double south, double west, double north, double east) {
+        List<K> result = new ArrayList<>();
+        forEachInCells(row(south), row(north), column(west), column(east), entry -> {
+            if (entry.latitude >= south && entry.latitude <= north
+                    && entry.longitude >= west && entry.longitude <= east) {
+                result.add(entry.key);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Keys within the radius, nearest first
+     */
+    public synchronized List<Hit<K>> withinRadius(double latitude, double longitude, double radiusKm) {
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        double lonDelta = radiusKm / (KM_PER_DEGREE * Math.max(0.01, Math.cos(Math.toRadians(
+                Math.min(89.9, Math.abs(latitude) + latDelta)))));
+
+        List<Hit<K>> result = new ArrayList<>();
+        forEachInCells(row(latitude - latDelta), row(latitude + latDelta),
+                column(longitude - lonDelta), column(longitude + lonDelta), entry -> {
+                    double distance = GeoMath.haversineMeters(latitude, longitude,
+                            entry.latitude, entry.longitude) / 1000.0;
+                    if (distance <= radiusKm) {
+                        result.add(new Hit<>(entry.key, distance));
+                    }
+                });
+        result.sort(Comparator.comparingDouble(Hit::getDistanceKm));
+        return result;
+    }
+
+    /**
+     * The k keys nearest to the point, nearest first.
+     * Searches rings of cells around the point until no unseen cell can be closer than the k-th hit.
+     */
+    public synchronized List<Hit<K>> nearest(double latitude, double longitude, int k) {
+        if (k <= 0 || entries.isEmpty()) {
+            return List.of();
+        }
+        // Max-Heap der bisher besten k Treffer
+        PriorityQueue<Hit<K>> best = new PriorityQueue<>(
+                Comparator.comparingDouble((Hit<K> hit) -> hit.distanceKm).reversed());
+        long centerRow = row(latitude);
+        long centerColumn = column(longitude);
+        Consumer<Entry<K>> visit = entry -> {
+            double distance = GeoMath.haversineMeters(latitude, longitude,
+                    entry.latitude, entry.longitude) / 1000.0;
+            if (best.size() < k) {
+                best.add(new Hit<>(entry.key, distance));
+            } else if (distance < best.peek().distanceKm) {
+                best.poll();
+                best.add(new Hit<>(entry.key, distance));
+            }
+        };
+
+        for (long ring = 0; ; ring++) {
+            // Weit verstreute Punkte: alle prüfen statt immer größerer, leerer Ringe
+            if ((2 * ring + 1) * (2 * ring + 1) > 4L * cells.size()) {
+                best.clear();
+                entries.values().forEach(visit);
+                break;
+            }
+            if (ring == 0) {
+                forEachInCell(centerRow, centerColumn, visit);
+            } else {
+                for (long c = centerColumn - ring; c <= centerColumn + ring; c++) {
+                    forEachInCell(centerRow - ring, c, visit);
+                    forEachInCell(centerRow + ring, c, visit);
+                }
+                for (long r = centerRow - ring + 1; r < centerRow + ring; r++) {
+                    forEachInCell(r, centerColumn - ring, visit);
+                    forEachInCell(r, centerColumn + ring, visit);
+                }
+            }
+            if (best.size() == k && best.peek().distanceKm <= minDistanceOutsideRing(latitude, ring)) {
+                break;
+            }
+        }
+
+        List<Hit<K>> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Hit::getDistanceKm));
+        return result;
+    }
+
+    // Untere Schranke für den Abstand zu Punkten außerhalb des Rings (Zellen werden zu den Polen schmäler)
+    private double minDistanceOutsideRing(double latitude, long ring) {
+        double maxLatitude = Math.min(90, Math.abs(latitude) + (ring + 1) * cellDegrees);
+        double cellKm = cellDegrees * KM_PER_DEGREE * Math.cos(Math.toRadians(maxLatitude));
+        return ring * Math.max(0, cellKm);
+    }
+
+    private void forEachInCells(long minRow, long maxRow, long minColumn, long maxColumn, Consumer<Entry<K>> action) {
+        long area = (maxRow - minRow + 1) * (maxColumn - minColumn + 1);
+        if (area > cells.size()) {
+            // Großes Gebiet: nur belegte Zellen prüfen
+            for (Map.Entry<Long, List<Entry<K>>> cell : cells.entrySet()) {
+                long row = cell.getKey() / columns;
+                long column = cell.getKey() % columns;
+                if (row >= minRow && row <= maxRow && column >= minColumn && column <= maxColumn) {
+                    cell.getValue().forEach(action);
+                }
+            }
+            return;
+        }
+        for (long row = minRow; row <= maxRow; row++) {
+            for (long column = minColumn; column <= maxColumn; column++) {
+                forEachInCell(row, column, action);
+            }
+        }
+    }
+
+    private void forEachInCell(long row, long column, Consumer<Entry<K>> action) {
+        if (row < 0 || column < 0 || column >= columns) {
+            return;
+        }
+        List<Entry<K>> cell = cells.get(row * columns + column);
+        if (cell != null) {
+            cell.forEach(action);
+        }
+    }
+
+    private long row(double latitude) {
+        return (long) Math.floor((Math.max(-90, Math.min(90, latitude)) + 90) / cellDegrees);
+    }
+
+    private long column(double longitude) {
+        return (long) Math.floor((Math.max(-180, Math.min(180, longitude)) + 180) / cellDegrees);
+    }
+}
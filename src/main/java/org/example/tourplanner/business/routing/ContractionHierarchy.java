@@ -0,0 +1,572 @@
+package org.example.tourplanner.business.routing;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Contraction hierarchy for one transport profile.
+ * Nodes are contracted in order of importance and shortcuts keep distances intact, so a
+ * query only has to search "upwards" from both ends and touches a few hundred nodes.
+ */
+public class ContractionHierarchy {
+    private static final Logger logger = LogManager.getLogger(ContractionHierarchy.class);
+
+    // Settled-node limit for witness searches; giving up only adds a redundant shortcut
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    private final RoadGraph graph;
+    private final TransportProfile profile;
+    private final int nodeCount;
+
+    // Upward arcs u -> v with rank(v) > rank(u), grouped by u
+    private final int[] upFirst;
+    private final int[] upTarget;
+    private final int[] upWeight;
+    private final int[] upDistance;
+    private final int[] upMiddle;
+
+    // Arcs u -> v with rank(u) > rank(v), grouped by v and searched backwards
+    private final int[] downFirst;
+    private final int[] downSource;
+    private final int[] downWeight;
+    private final int[] downDistance;
+    private final int[] downMiddle;
+
+    private final ThreadLocal<QueryState> queryState;
+
+    private ContractionHierarchy(RoadGraph graph, TransportProfile profile, Arcs[] out, int[] rank) {
+        this.graph = graph;
+        this.profile = profile;
+        this.nodeCount = graph.nodeCount();
+
+        int upCount = 0;
+        int downCount = 0;
+        for (int u = 0; u < nodeCount; u++) {
+            for (int i = 0; i < out[u].size; i++) {
+                if (rank[out[u].node[i]] > rank[u]) {
+                    upCount++;
+                } else {
+                    downCount++;
+                }
+            }
+        }
+
+        upFirst = new int[nodeCount + 1];
+        upTarget = new int[upCount];
+        upWeight = new int[upCount];
+        upDistance = new int[upCount];
+        upMiddle = new int[upCount];
+        downFirst = new int[nodeCount + 1];
+        downSource = new int[downCount];
+        downWeight = new int[downCount];
+        downDistance = new int[downCount];
+        downMiddle = new int[downCount];
+
+        for (int u = 0; u < nodeCount; u++) {
+            for (int i = 0; i < out[u].size; i++) {
+                int v = out[u].node[i];
+                if (rank[v] > rank[u]) {
+                    upFirst[u + 1]++;
+                } else {
+                    downFirst[v + 1]++;
+                }
+            }
+        }
+        for (int n = 0; n < nodeCount; n++) {
+            upFirst[n + 1] += upFirst[n];
+            downFirst[n + 1] += downFirst[n];
+        }
+
+        int[] upCursor = Arrays.copyOf(upFirst, nodeCount);
+        int[] downCursor = Arrays.copyOf(downFirst, nodeCount);
+        for (int u = 0; u < nodeCount; u++) {
+            Arcs arcs = out[u];
+            for (int i = 0; i < arcs.size; i++) {
+                int v = arcs.node[i];
+                if (rank[v] > rank[u]) {
+                    int slot = upCursor[u]++;
+                    upTarget[slot] = v;
+                    upWeight[slot] = arcs.weight[i];
+                    upDistance[slot] = arcs.distance[i];
+                    upMiddle[slot] = arcs.middle[i];
+                } else {
+                    int slot = downCursor[v]++;
+                    downSource[slot] = u;
+                    downWeight[slot] = arcs.weight[i];
+                    downDistance[slot] = arcs.distance[i];
+                    downMiddle[slot] = arcs.middle[i];
+                }
+            }
+        }
+
+        this.queryState = ThreadLocal.withInitial(() -> new QueryState(nodeCount));
+    }
+
+    /**
+     * Contracts all nodes of the graph for the given profile
+     */
+    public static ContractionHierarchy build(RoadGraph graph, TransportProfile profile) {
+        long start = System.currentTimeMillis();
+        Contractor contractor = new Contractor(graph, profile);
+        int shortcuts = contractor.contractAll();
+        ContractionHierarchy hierarchy = new ContractionHierarchy(graph, profile, contractor.out, contractor.rank);
+        logger.info("Built contraction hierarchy for {} ({} nodes, {} shortcuts) in {} ms",
+                profile, graph.nodeCount(), shortcuts, System.currentTimeMillis() - start);
+        return hierarchy;
+    }
+
+    public RoadGraph getGraph() {
+        return graph;
+    }
+
+    public TransportProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Bidirectional upward search between two graph nodes
+     * @return fastest path or null if the target cannot be reached
+     */
+    public OfflinePath route(int source, int target) {
+        if (source == target) {
+            return new OfflinePath(new int[]{source}, 0, 0);
+        }
+
+        QueryState state = queryState.get();
+        state.reset();
+        state.relaxForward(source, 0, -1, -1);
+        state.relaxBackward(target, 0, -1, -1);
+
+        long best = Long.MAX_VALUE;
+        int meeting = -1;
+        while (true) {
+            boolean forwardOpen = !state.forwardHeap.isEmpty() && state.forwardHeap.peekKey() < best;
+            boolean backwardOpen = !state.backwardHeap.isEmpty() && state.backwardHeap.peekKey() < best;
+            if (!forwardOpen && !backwardOpen) {
+                break;
+            }
+
+            if (forwardOpen) {
+                long entry = state.forwardHeap.pop();
+                int node = MinHeap.node(entry);
+                int dist = MinHeap.key(entry);
+                if (dist <= state.forwardDist[node]) {
+                    if (state.backwardDist[node] != Integer.MAX_VALUE && (long) dist + state.backwardDist[node] < best) {
+                        best = (long) dist + state.backwardDist[node];
+                        meeting = node;
+                    }
+                    for (int a = upFirst[node]; a < upFirst[node + 1]; a++) {
+                        state.relaxForward(upTarget[a], dist + upWeight[a], a, node);
+                    }
+                }
+            }
+
+            if (backwardOpen) {
+                long entry = state.backwardHeap.pop();
+                int node = MinHeap.node(entry);
+                int dist = MinHeap.key(entry);
+                if (dist <= state.backwardDist[node]) {
+                    if (state.forwardDist[node] != Integer.MAX_VALUE && (long) dist + state.forwardDist[node] < best) {
+                        best = (long) dist + state.forwardDist[node];
+                        meeting = node;
+                    }
+                    for (int a = downFirst[node]; a < downFirst[node + 1]; a++) {
+                        state.relaxBackward(downSource[a], dist + downWeight[a], a, node);
+                    }
+                }
+            }
+        }
+
+        if (meeting < 0) {
+            return null;
+        }
+        return unpack(state, source, meeting);
+    }
+
+    private OfflinePath unpack(QueryState state, int source, int meeting) {
+        IntList nodes = new IntList();
+        nodes.add(source);
+        long weight = 0;
+        long distance = 0;
+
+        // Vorwärtsteil: Bögen von source bis zum Treffpunkt einsammeln
+        IntList forwardArcs = new IntList();
+        for (int node = meeting; node != source; ) {
+            int arc = state.forwardArc[node];
+            forwardArcs.add(arc);
+            node = state.forwardParent[node];
+        }
+        for (int i = forwardArcs.size - 1; i >= 0; i--) {
+            int arc = forwardArcs.values[i];
+            int from = nodes.values[nodes.size - 1];
+            weight += upWeight[arc];
+            distance += upDistance[arc];
+            expand(from, upTarget[arc], upMiddle[arc], nodes);
+        }
+
+        // Rückwärtsteil: vom Treffpunkt entlang der Abwärtsbögen zum Ziel
+        for (int node = meeting; state.backwardArc[node] >= 0; ) {
+            int arc = state.backwardArc[node];
+            int next = state.backwardParent[node];
+            weight += downWeight[arc];
+            distance += downDistance[arc];
+            expand(node, next, downMiddle[arc], nodes);
+            node = next;
+        }
+
+        return new OfflinePath(Arrays.copyOf(nodes.values, nodes.size), weight, distance);
+    }
+
+    /**
+     * Appends the original nodes of arc from -> to (excluding from) to the list
+     */
+    private void expand(int from, int to, int middle, IntList nodes) {
+        IntList stack = new IntList();
+        stack.add(from);
+        stack.add(to);
+        stack.add(middle);
+        while (stack.size > 0) {
+            int mid = stack.values[--stack.size];
+            int b = stack.values[--stack.size];
+            int a = stack.values[--stack.size];
+            if (mid < 0) {
+                nodes.add(b);
+                continue;
+            }
+            // a -> mid liegt abwärts (rank(a) > rank(mid)), mid -> b aufwärts
+            int first = findDownArc(a, mid);
+            int second = findUpArc(mid, b);
+            stack.add(mid);
+            stack.add(b);
+            stack.add(upMiddle[second]);
+            stack.add(a);
+            stack.add(mid);
+            stack.add(downMiddle[first]);
+        }
+    }
+
+    private int findUpArc(int from, int to) {
+        int best = -1;
+        for (int a = upFirst[from]; a < upFirst[from + 1]; a++) {
+            if (upTarget[a] == to && (best < 0 || upWeight[a] < upWeight[best])) {
+                best = a;
+            }
+        }
+        if (best < 0) {
+            throw new IllegalStateException("Missing arc " + from + " -> " + to);
+        }
+        return best;
+    }
+
+    private int findDownArc(int from, int to) {
+        int best = -1;
+        for (int a = downFirst[to]; a < downFirst[to + 1]; a++) {
+            if (downSource[a] == from && (best < 0 || downWeight[a] < downWeight[best])) {
+                best = a;
+            }
+        }
+        if (best < 0) {
+            throw new IllegalStateException("Missing arc " + from + " -> " + to);
+        }
+        return best;
+    }
+
+    /**
+     * Per-thread search state, reset in O(touched nodes) between queries
+     */
+    private static final class QueryState {
+        final int[] forwardDist;
+        final int[] backwardDist;
+        final int[] forwardParent;
+        final int[] backwardParent;
+        final int[] forwardArc;
+        final int[] backwardArc;
+        final MinHeap forwardHeap = new MinHeap();
+        final MinHeap backwardHeap = new MinHeap();
+        final IntList touched = new IntList();
+
+        QueryState(int nodeCount) {
+            forwardDist = new int[nodeCount];
+            backwardDist = new int[nodeCount];
+            forwardParent = new int[nodeCount];
+            backwardParent = new int[nodeCount];
+            forwardArc = new int[nodeCount];
+            backwardArc = new int[nodeCount];
+            Arrays.fill(forwardDist, Integer.MAX_VALUE);
+            Arrays.fill(backwardDist, Integer.MAX_VALUE);
+        }
+
+        void reset() {
+            for (int i = 0; i < touched.size; i++) {
+                int node = touched.values[i];
+                forwardDist[node] = Integer.MAX_VALUE;
+                backwardDist[node] = Integer.MAX_VALUE;
+            }
+            touched.size = 0;
+            forwardHeap.clear();
+            backwardHeap.clear();
+        }
+
+        void relaxForward(int node, int dist, int arc, int parent) {
+            if (dist < forwardDist[node]) {
+                if (forwardDist[node] == Integer.MAX_VALUE && backwardDist[node] == Integer.MAX_VALUE) {
+                    touched.add(node);
+                }
+                forwardDist[node] = dist;
+                forwardArc[node] = arc;
+                forwardParent[node] = parent;
+                forwardHeap.push(dist, node);
+            }
+        }
+
+        void relaxBackward(int node, int dist, int arc, int parent) {
+            if (dist < backwardDist[node]) {
+                if (forwardDist[node] == Integer.MAX_VALUE && backwardDist[node] == Integer.MAX_VALUE) {
+                    touched.add(node);
+                }
+                backwardDist[node] = dist;
+                backwardArc[node] = arc;
+                backwardParent[node] = parent;
+                backwardHeap.push(dist, node);
+            }
+        }
+    }
+
+    /**
+     * Growable int array
+     */
+    static final class IntList {
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    /**
+     * Growable adjacency list of one node used during contraction
+     */
+    private static final class Arcs {
+        int[] node = new int[4];
+        int[] weight = new int[4];
+        int[] distance = new int[4];
+        int[] middle = new int[4];
+        int size;
+
+        /**
+         * Adds the arc or improves an existing parallel arc; returns true if something changed
+         */
+        boolean addOrImprove(int target, int arcWeight, int arcDistance, int arcMiddle) {
+            for (int i = 0; i < size; i++) {
+                if (node[i] == target) {
+                    if (arcWeight < weight[i]) {
+                        weight[i] = arcWeight;
+                        distance[i] = arcDistance;
+                        middle[i] = arcMiddle;
+                        return true;
+                    }
+                    return false;
+                }
+            }
+            if (size == node.length) {
+                node = Arrays.copyOf(node, size * 2);
+                weight = Arrays.copyOf(weight, size * 2);
+                distance = Arrays.copyOf(distance, size * 2);
+                middle = Arrays.copyOf(middle, size * 2);
+            }
+            node[size] = target;
+            weight[size] = arcWeight;
+            distance[size] = arcDistance;
+            middle[size] = arcMiddle;
+            size++;
+            return true;
+        }
+    }
+
+    /**
+     * Node ordering and shortcut creation
+     */
+    private static final class Contractor {
+        final int n;
+        final Arcs[] out;
+        final Arcs[] in;
+        final int[] rank;
+        final boolean[] contracted;
+        final int[] contractedNeighbours;
+
+        // Witness search state
+        final int[] witnessDist;
+        final IntList witnessTouched = new IntList();
+        final MinHeap witnessHeap = new MinHeap();
+
+        Contractor(RoadGraph graph, TransportProfile profile) {
+            n = graph.nodeCount();
+            out = new Arcs[n];
+            in = new Arcs[n];
+            for (int i = 0; i < n; i++) {
+                out[i] = new Arcs();
+                in[i] = new Arcs();
+            }
+            for (int u = 0; u < n; u++) {
+                for (int e = graph.firstEdge(u); e < graph.firstEdge(u + 1); e++) {
+                    int weight = graph.edgeWeight(e, profile);
+                    int v = graph.edgeTarget(e);
+                    if (weight == RoadGraph.UNREACHABLE || v == u) {
+                        continue;
+                    }
+                    addArc(u, v, weight, graph.edgeDistance(e), -1);
+                }
+            }
+            rank = new int[n];
+            contracted = new boolean[n];
+            contractedNeighbours = new int[n];
+            witnessDist = new int[n];
+            Arrays.fill(witnessDist, Integer.MAX_VALUE);
+        }
+
+        void addArc(int u, int v, int weight, int distance, int middle) {
+            if (out[u].addOrImprove(v, weight, distance, middle)) {
+                in[v].addOrImprove(u, weight, distance, middle);
+            }
+        }
+
+        int contractAll() {
+            PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+            for (int v = 0; v < n; v++) {
+                queue.add(new long[]{priority(v), v});
+            }
+
+            int shortcuts = 0;
+            int order = 0;
+            while (!queue.isEmpty()) {
+                long[] top = queue.poll();
+                int v = (int) top[1];
+                if (contracted[v]) {
+                    continue;
+                }
+                // Lazy update: Priorität neu berechnen und ggf. zurückstellen
+                long current = priority(v);
+                if (!queue.isEmpty() && current > queue.peek()[0]) {
+                    queue.add(new long[]{current, v});
+                    continue;
+                }
+
+                shortcuts += contract(v, false);
+                contracted[v] = true;
+                rank[v] = order++;
+                for (int i = 0; i < out[v].size; i++) {
+                    contractedNeighbours[out[v].node[i]]++;
+                }
+                for (int i = 0; i < in[v].size; i++) {
+                    contractedNeighbours[in[v].node[i]]++;
+                }
+            }
+            return shortcuts;
+        }
+
+        long priority(int v) {
+            int degree = 0;
+            for (int i = 0; i < out[v].size; i++) {
+                degree += contracted[out[v].node[i]] ? 0 : 1;
+            }
+            for (int i = 0; i < in[v].size; i++) {
+                degree += contracted[in[v].node[i]] ? 0 : 1;
+            }
+            int shortcuts = contract(v, true);
+            return 2L * (shortcuts - degree) + contractedNeighbours[v];
+        }
+
+        /**
+         * Adds the shortcuts needed to bypass v (or only counts them when simulating)
+         */
+        int contract(int v, boolean simulate) {
+            int shortcuts = 0;
+            Arcs incoming = in[v];
+            Arcs outgoing = out[v];
+            for (int i = 0; i < incoming.size; i++) {
+                int u = incoming.node[i];
+                if (contracted[u]) {
+                    continue;
+                }
+                int inWeight = incoming.weight[i];
+
+                int maxWeight = 0;
+                for (int j = 0; j < outgoing.size; j++) {
+                    int w = outgoing.node[j];
+                    if (!contracted[w] && w != u) {
+                        maxWeight = Math.max(maxWeight, inWeight + outgoing.weight[j]);
+                    }
+                }
+                if (maxWeight == 0) {
+                    continue;
+                }
+
+                witnessSearch(u, v, maxWeight);
+                for (int j = 0; j < outgoing.size; j++) {
+                    int w = outgoing.node[j];
+                    if (contracted[w] || w == u) {
+                        continue;
+                    }
+                    int viaWeight = inWeight + outgoing.weight[j];
+                    if (witnessDist[w] > viaWeight) {
+                        shortcuts++;
+                        if (!simulate) {
+                            addArc(u, w, viaWeight, incoming.distance[i] + outgoing.distance[j], v);
+                        }
+                    }
+                }
+            }
+            return shortcuts;
+        }
+
+        /**
+         * Bounded Dijkstra from u that ignores v and contracted nodes
+         */
+        void witnessSearch(int u, int v, int maxWeight) {
+            for (int i = 0; i < witnessTouched.size; i++) {
+                witnessDist[witnessTouched.values[i]] = Integer.MAX_VALUE;
+            }
+            witnessTouched.size = 0;
+            witnessHeap.clear();
+
+            witnessDist[u] = 0;
+            witnessTouched.add(u);
+            witnessHeap.push(0, u);
+            int settled = 0;
+            while (!witnessHeap.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+                long entry = witnessHeap.pop();
+                int node = MinHeap.node(entry);
+                int dist = MinHeap.key(entry);
+                if (dist > witnessDist[node]) {
+                    continue;
+                }
+                if (dist > maxWeight) {
+                    break;
+                }
+                settled++;
+                Arcs arcs = out[node];
+                for (int i = 0; i < arcs.size; i++) {
+                    int next = arcs.node[i];
+                    if (next == v || contracted[next]) {
+                        continue;
+                    }
+                    int candidate = dist + arcs.weight[i];
+                    if (candidate < witnessDist[next]) {
+                        if (witnessDist[next] == Integer.MAX_VALUE) {
+                            witnessTouched.add(next);
+                        }
+                        witnessDist[next] = candidate;
+                        witnessHeap.push(candidate, next);
+                    }
+                }
+            }
+        }
+    }
+}
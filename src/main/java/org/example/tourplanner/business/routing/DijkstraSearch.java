@@ -0,0 +1,77 @@
+package org.example.tourplanner.business.routing;
+
+import java.util.Arrays;
+
+/**
+ * Plain Dijkstra on the road graph. Used as reference for the contraction hierarchy
+ * and for searches that need every settled node rather than a single path.
+ */
+public class DijkstraSearch {
+    private final RoadGraph graph;
+    private final TransportProfile profile;
+
+    public DijkstraSearch(RoadGraph graph, TransportProfile profile) {
+        this.graph = graph;
+        this.profile = profile;
+    }
+
+    /**
+     * Shortest (fastest) path between two nodes
+     * @return path or null if the target is unreachable
+     */
+    public OfflinePath route(int source, int target) {
+        int n = graph.nodeCount();
+        int[] dist = new int[n];
+        int[] parentEdge = new int[n];
+        int[] parentNode = new int[n];
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        dist[source] = 0;
+        parentNode[source] = -1;
+
+        MinHeap heap = new MinHeap();
+        heap.push(0, source);
+        while (!heap.isEmpty()) {
+            long entry = heap.pop();
+            int node = MinHeap.node(entry);
+            int d = MinHeap.key(entry);
+            if (d > dist[node]) {
+                continue;
+            }
+            if (node == target) {
+                break;
+            }
+            for (int e = graph.firstEdge(node); e < graph.firstEdge(node + 1); e++) {
+                int weight = graph.edgeWeight(e, profile);
+                if (weight == RoadGraph.UNREACHABLE) {
+                    continue;
+                }
+                int next = graph.edgeTarget(e);
+                long candidate = (long) d + weight;
+                if (candidate < dist[next]) {
+                    dist[next] = (int) candidate;
+                    parentEdge[next] = e;
+                    parentNode[next] = node;
+                    heap.push((int) candidate, next);
+                }
+            }
+        }
+
+        if (dist[target] == Integer.MAX_VALUE) {
+            return null;
+        }
+
+        int length = 1;
+        long distance = 0;
+        for (int node = target; node != source; node = parentNode[node]) {
+            distance += graph.edgeDistance(parentEdge[node]);
+            length++;
+        }
+        int[] nodes = new int[length];
+        int node = target;
+        for (int i = length - 1; i >= 0; i--) {
+            nodes[i] = node;
+            node = parentNode[node];
+        }
+        return new OfflinePath(nodes, dist[target], distance);
+    }
+}
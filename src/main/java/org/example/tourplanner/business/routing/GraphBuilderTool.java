@@ -0,0 +1,27 @@
+package org.example.tourplanner.business.routing;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Command line tool that converts an OSM XML extract into the binary road-graph format.
+ *
+ * Usage: GraphBuilderTool &lt;input.osm&gt; &lt;output.graph&gt;
+ */
+public class GraphBuilderTool {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("Usage: GraphBuilderTool <input.osm> <output.graph>");
+            System.exit(1);
+        }
+        Path input = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+
+        long start = System.currentTimeMillis();
+        RoadGraph graph = OsmGraphImporter.importFile(input);
+        RoadGraphFile.write(graph, output);
+        System.out.printf("Converted %s -> %s (%d nodes, %d edges) in %d ms%n",
+                input, output, graph.nodeCount(), graph.edgeCount(), System.currentTimeMillis() - start);
+    }
+}
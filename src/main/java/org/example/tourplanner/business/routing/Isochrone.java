@@ -0,0 +1,35 @@
+package org.example.tourplanner.business.routing;
+
+/**
+ * Area reachable from a start point within a time budget
+ */
+public class Isochrone {
+    private final TransportProfile profile;
+    private final int minutes;
+    private final double[][] polygon;
+    private final int reachableNodes;
+
+    public Isochrone(TransportProfile profile, int minutes, double[][] polygon, int reachableNodes) {
+        this.profile = profile;
+        this.minutes = minutes;
+        this.polygon = polygon;
+        this.reachableNodes = reachableNodes;
+    }
+
+    public TransportProfile getProfile() {
+        return profile;
+    }
+
+    public int getMinutes() {
+        return minutes;
+    }
+
+    /** Outline as {lat, lon} pairs, empty if too few nodes are reachable */
+    public double[][] getPolygon() {
+        return polygon;
+    }
+
+    public int getReachableNodes() {
+        return reachableNodes;
+    }
+}
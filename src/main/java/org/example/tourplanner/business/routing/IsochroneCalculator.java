@@ -0,0 +1,156 @@
+package org.example.tourplanner.business.routing;
+
+import java.util.Arrays;
+
+/**
+ * Bounded Dijkstra from a start node plus outline extraction for isochrones.
+ * One search up to the largest budget serves all smaller budgets, because Dijkstra
+ * settles nodes in order of travel time: every budget is a prefix of the settled list.
+ */
+public class IsochroneCalculator {
+    private static final int DEFAULT_SECTORS = 72;
+
+    private final RoadGraph graph;
+
+    public IsochroneCalculator(RoadGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Settles all nodes reachable from source within maxTimeDs (deciseconds)
+     */
+    public ReachableSet reachable(int source, TransportProfile profile, int maxTimeDs) {
+        int n = graph.nodeCount();
+        int[] dist = new int[n];
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        ContractionHierarchy.IntList nodes = new ContractionHierarchy.IntList();
+        ContractionHierarchy.IntList times = new ContractionHierarchy.IntList();
+
+        MinHeap heap = new MinHeap();
+        dist[source] = 0;
+        heap.push(0, source);
+        while (!heap.isEmpty()) {
+            long entry = heap.pop();
+            int node = MinHeap.node(entry);
+            int time = MinHeap.key(entry);
+            if (time > dist[node]) {
+                continue;
+            }
+            if (time > maxTimeDs) {
+                break;
+            }
+            nodes.add(node);
+            times.add(time);
+            for (int e = graph.firstEdge(node); e < graph.firstEdge(node + 1); e++) {
+                int weight = graph.edgeWeight(e, profile);
+                if (weight == RoadGraph.UNREACHABLE) {
+                    continue;
+                }
+                int next = graph.edgeTarget(e);
+                long candidate = (long) time + weight;
+                if (candidate < dist[next] && candidate <= maxTimeDs) {
+                    dist[next] = (int) candidate;
+                    heap.push((int) candidate, next);
+                }
+            }
+        }
+        return new ReachableSet(source, Arrays.copyOf(nodes.values, nodes.size), Arrays.copyOf(times.values, times.size));
+    }
+
+    /**
+     * Star-shaped outline of the nodes reachable within the budget: the farthest reachable
+     * node in each angular sector around the start. Follows valleys and road corridors
+     * much better than a convex hull while staying O(reachable nodes).
+     * @return polygon as {lat, lon} pairs, empty if fewer than three sectors are covered
+     */
+    public double[][] outline(ReachableSet set, int budgetDs) {
+        return outline(set, budgetDs, DEFAULT_SECTORS);
+    }
+
+    public double[][] outline(ReachableSet set, int budgetDs, int sectors) {
+        double originLat = graph.latitude(set.getSource());
+        double originLon = graph.longitude(set.getSource());
+        double lonScale = Math.cos(Math.toRadians(originLat));
+
+        int[] farthest = new int[sectors];
+        double[] farthestDist = new double[sectors];
+        Arrays.fill(farthest, -1);
+
+        int count = set.countWithin(budgetDs);
+        int[] nodes = set.getNodes();
+        for (int i = 0; i < count; i++) {
+            int node = nodes[i];
+            double dy = graph.latitude(node) - originLat;
+            double dx = (graph.longitude(node) - originLon) * lonScale;
+            double d = dx * dx + dy * dy;
+            if (d == 0) {
+                continue;
+            }
+            double angle = Math.atan2(dy, dx) + Math.PI;
+            int sector = Math.min(sectors - 1, (int) (angle / (2 * Math.PI) * sectors));
+            if (d > farthestDist[sector]) {
+                farthestDist[sector] = d;
+                farthest[sector] = node;
+            }
+        }
+
+        int covered = 0;
+        for (int node : farthest) {
+            covered += node >= 0 ? 1 : 0;
+        }
+        if (covered < 3) {
+            return new double[0][];
+        }
+        double[][] polygon = new double[covered][];
+        int i = 0;
+        for (int node : farthest) {
+            if (node >= 0) {
+                polygon[i++] = new double[]{graph.latitude(node), graph.longitude(node)};
+            }
+        }
+        return polygon;
+    }
+
+    /**
+     * Nodes settled by a bounded search, in order of increasing travel time
+     */
+    public static class ReachableSet {
+        private final int source;
+        private final int[] nodes;
+        private final int[] times;
+
+        ReachableSet(int source, int[] nodes, int[] times) {
+            this.source = source;
+            this.nodes = nodes;
+            this.times = times;
+        }
+
+        public int getSource() {
+            return source;
+        }
+
+        public int[] getNodes() {
+            return nodes;
+        }
+
+        /** Travel time in deciseconds, parallel to getNodes() */
+        public int[] getTimes() {
+            return times;
+        }
+
+        /**
+         * Number of leading nodes reachable within the budget
+         */
+        public int countWithin(int budgetDs) {
+            int index = Arrays.binarySearch(times, budgetDs);
+            if (index < 0) {
+                return -index - 1;
+            }
+            // Bei gleichen Zeiten bis zum letzten Treffer weiterlaufen
+            while (index + 1 < times.length && times[index + 1] == budgetDs) {
+                index++;
+            }
+            return index + 1;
+        }
+    }
+}
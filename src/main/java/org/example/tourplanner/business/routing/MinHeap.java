@@ -0,0 +1,70 @@
+package org.example.tourplanner.business.routing;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of (key, node) pairs packed into longs.
+ * Keys must be non-negative ints; stale entries are skipped by the caller (lazy deletion).
+ */
+final class MinHeap {
+    private long[] entries = new long[64];
+    private int size;
+
+    void push(int key, int node) {
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+        long entry = ((long) key << 32) | (node & 0xFFFFFFFFL);
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (entries[parent] <= entry) {
+                break;
+            }
+            entries[i] = entries[parent];
+            i = parent;
+        }
+        entries[i] = entry;
+    }
+
+    /** Removes the smallest entry and returns it packed; use {@link #key} and {@link #node} to unpack */
+    long pop() {
+        long top = entries[0];
+        long last = entries[--size];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && entries[child + 1] < entries[child]) {
+                child++;
+            }
+            if (last <= entries[child]) {
+                break;
+            }
+            entries[i] = entries[child];
+            i = child;
+        }
+        entries[i] = last;
+        return top;
+    }
+
+    int peekKey() {
+        return key(entries[0]);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    static int key(long entry) {
+        return (int) (entry >>> 32);
+    }
+
+    static int node(long entry) {
+        return (int) entry;
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.tourplanner.business.routing;
+
+import org.example.tourplanner.business.geo.GeoMath;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Grid index for snapping coordinates to the nearest graph node
+ */
+public class NodeLocator {
+    // ~1 km Zellen
+    private static final int CELL_SIZE_E7 = 100_000;
+    private static final int MAX_RINGS = 50;
+
+    private final RoadGraph graph;
+    private final long[] cellKeys;
+    private final int[] cellStart;
+    private final int[] nodesByCell;
+
+    public NodeLocator(RoadGraph graph) {
+        this.graph = graph;
+        int n = graph.nodeCount();
+
+        long[] keyed = new long[n];
+        for (int node = 0; node < n; node++) {
+            keyed[node] = cellKey(graph.latitudeE7(node), graph.longitudeE7(node));
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(keyed[a], keyed[b]));
+
+        nodesByCell = new int[n];
+        long[] keys = new long[n];
+        int[] starts = new int[n + 1];
+        int cells = 0;
+        for (int i = 0; i < n; i++) {
+            int node = order[i];
+            nodesByCell[i] = node;
+            if (cells == 0 || keys[cells - 1] != keyed[node]) {
+                keys[cells] = keyed[node];
+                starts[cells] = i;
+                cells++;
+            }
+        }
+        starts[cells] = n;
+        cellKeys = Arrays.copyOf(keys, cells);
+        cellStart = Arrays.copyOf(starts, cells + 1);
+    }
+
+    /**
+     * Nearest node accepted by the filter
+     * @return node index or -1 if none is within about 50 km
+     */
+    public int nearest(double lat, double lon, IntPredicate accept) {
+        int latE7 = GeoMath.toFixed(lat);
+        int lonE7 = GeoMath.toFixed(lon);
+        int centerRow = Math.floorDiv(latE7, CELL_SIZE_E7);
+        int centerCol = Math.floorDiv(lonE7, CELL_SIZE_E7);
+
+        int best = -1;
+        double bestMeters = Double.MAX_VALUE;
+        int foundInRing = -1;
+        for (int ring = 0; ring <= MAX_RINGS; ring++) {
+            for (int row = centerRow - ring; row <= centerRow + ring; row++) {
+                for (int col = centerCol - ring; col <= centerCol + ring; col++) {
+                    if (Math.abs(row - centerRow) != ring && Math.abs(col - centerCol) != ring) {
+                        continue;
+                    }
+                    int cell = Arrays.binarySearch(cellKeys, ((long) row << 32) | (col & 0xFFFFFFFFL));
+                    if (cell < 0) {
+                        continue;
+                    }
+                    for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                        int node = nodesByCell[i];
+                        if (!accept.test(node)) {
+                            continue;
+                        }
+                        double meters = GeoMath.haversineMeters(lat, lon, graph.latitude(node), graph.longitude(node));
+                        if (meters < bestMeters) {
+                            bestMeters = meters;
+                            best = node;
+                        }
+                    }
+                }
+            }
+            // Ein Ring mehr, da ein Nachbar in der Diagonale näher liegen kann
+            if (best >= 0 && foundInRing < 0) {
+                foundInRing = ring;
+            } else if (foundInRing >= 0) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    private static long cellKey(int latE7, int lonE7) {
+        long row = Math.floorDiv(latE7, CELL_SIZE_E7);
+        long col = Math.floorDiv(lonE7, CELL_SIZE_E7);
+        return (row << 32) | (col & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.tourplanner.business.routing;
+
+/**
+ * Result of an offline shortest-path query
+ */
+public class OfflinePath {
+    private final int[] nodes;
+    private final long travelTimeDs;
+    private final long distanceDm;
+
+    public OfflinePath(int[] nodes, long travelTimeDs, long distanceDm) {
+        this.nodes = nodes;
+        this.travelTimeDs = travelTimeDs;
+        this.distanceDm = distanceDm;
+    }
+
+    /** Graph nodes along the path, source first */
+    public int[] getNodes() {
+        return nodes;
+    }
+
+    /** Travel time in deciseconds */
+    public long getTravelTimeDs() {
+        return travelTimeDs;
+    }
+
+    /** Length in decimeters */
+    public long getDistanceDm() {
+        return distanceDm;
+    }
+
+    public double getDistanceKm() {
+        return distanceDm / 10_000.0;
+    }
+
+    public double getTravelTimeMinutes() {
+        return travelTimeDs / 600.0;
+    }
+}
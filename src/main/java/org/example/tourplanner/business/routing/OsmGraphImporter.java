@@ -0,0 +1,309 @@
+package org.example.tourplanner.business.routing;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.business.geo.GeoMath;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports an OSM XML extract (.osm) into a {@link RoadGraph}.
+ * Pass 1 reads the highway ways, pass 2 reads only the coordinates of nodes used by them,
+ * so node coordinates of the whole extract never have to be held in memory.
+ */
+public class OsmGraphImporter {
+    private static final Logger logger = LogManager.getLogger(OsmGraphImporter.class);
+    private static final TransportProfile[] PROFILES = TransportProfile.values();
+
+    private static final int FORWARD = 1;
+    private static final int BACKWARD = 2;
+    private static final Set<String> YES_VALUES = Set.of("yes", "true", "1");
+    private static final Set<String> DENIED_VALUES = Set.of("no", "private");
+    private static final Set<String> ALLOWED_VALUES = Set.of("yes", "designated", "permissive");
+
+    // Way data collected in pass 1
+    private long[] wayRefs = new long[8192];
+    private int wayRefCount;
+    private int[] wayStarts = new int[1025];
+    private int[] waySpeeds = new int[1024 * PROFILES.length];
+    private int[] wayDirections = new int[1024 * PROFILES.length];
+    private int wayCount;
+
+    // Node data collected in pass 2
+    private long[] usedNodeIds;
+    private int[] nodeLatitudes;
+    private int[] nodeLongitudes;
+    private boolean[] nodeFound;
+
+    private OsmGraphImporter() {}
+
+    /**
+     * Reads an OSM XML file and builds the road graph for all transport profiles
+     */
+    public static RoadGraph importFile(Path osmFile) throws IOException {
+        long start = System.currentTimeMillis();
+        OsmGraphImporter importer = new OsmGraphImporter();
+        try {
+            importer.readWays(osmFile);
+            importer.readNodes(osmFile);
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid OSM file: " + osmFile, e);
+        }
+        RoadGraph graph = importer.buildGraph();
+        logger.info("Imported {} with {} nodes and {} edges in {} ms",
+                osmFile, graph.nodeCount(), graph.edgeCount(), System.currentTimeMillis() - start);
+        return graph;
+    }
+
+    private void readWays(Path osmFile) throws IOException, XMLStreamException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(osmFile))) {
+            XMLStreamReader reader = createReader(in);
+            boolean inWay = false;
+            int refStart = 0;
+            Map<String, String> tags = new HashMap<>();
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if ("way".equals(name)) {
+                        inWay = true;
+                        refStart = wayRefCount;
+                        tags.clear();
+                    } else if (inWay && "nd".equals(name)) {
+                        addWayRef(Long.parseLong(reader.getAttributeValue(null, "ref")));
+                    } else if (inWay && "tag".equals(name)) {
+                        tags.put(reader.getAttributeValue(null, "k"), reader.getAttributeValue(null, "v"));
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && "way".equals(reader.getLocalName())) {
+                    inWay = false;
+                    if (!acceptWay(tags, refStart)) {
+                        wayRefCount = refStart;
+                    }
+                }
+            }
+            reader.close();
+        }
+
+        // Sortierte, eindeutige Node-IDs dienen als Index für Pass 2
+        long[] ids = Arrays.copyOf(wayRefs, wayRefCount);
+        Arrays.sort(ids);
+        int unique = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) {
+                ids[unique++] = ids[i];
+            }
+        }
+        usedNodeIds = Arrays.copyOf(ids, unique);
+    }
+
+    private boolean acceptWay(Map<String, String> tags, int refStart) {
+        String highway = tags.get("highway");
+        String area = tags.get("area");
+        if (highway == null || wayRefCount - refStart < 2 || area != null && YES_VALUES.contains(area)) {
+            return false;
+        }
+
+        int[] speeds = new int[PROFILES.length];
+        int[] directions = new int[PROFILES.length];
+        boolean usable = false;
+        for (TransportProfile profile : PROFILES) {
+            int speed = speedFor(profile, highway, tags);
+            if (speed > 0) {
+                speeds[profile.ordinal()] = speed;
+                directions[profile.ordinal()] = directionsFor(profile, highway, tags);
+                usable = true;
+            }
+        }
+        if (!usable) {
+            return false;
+        }
+
+        if (wayCount + 1 == wayStarts.length) {
+            wayStarts = Arrays.copyOf(wayStarts, wayStarts.length * 2);
+            waySpeeds = Arrays.copyOf(waySpeeds, waySpeeds.length * 2);
+            wayDirections = Arrays.copyOf(wayDirections, wayDirections.length * 2);
+        }
+        wayStarts[wayCount] = refStart;
+        System.arraycopy(speeds, 0, waySpeeds, wayCount * PROFILES.length, PROFILES.length);
+        System.arraycopy(directions, 0, wayDirections, wayCount * PROFILES.length, PROFILES.length);
+        wayCount++;
+        wayStarts[wayCount] = wayRefCount;
+        return true;
+    }
+
+    private int speedFor(TransportProfile profile, String highway, Map<String, String> tags) {
+        String specificAccess = tags.get(profile.getAccessTag());
+        if (specificAccess != null && DENIED_VALUES.contains(specificAccess)) {
+            return 0;
+        }
+        boolean explicitlyAllowed = specificAccess != null && ALLOWED_VALUES.contains(specificAccess);
+        String access = tags.get("access");
+        if (!explicitlyAllowed && access != null && DENIED_VALUES.contains(access)) {
+            return 0;
+        }
+
+        int speed = profile.speedKmh(highway);
+        if (speed == 0 && explicitlyAllowed) {
+            speed = profile.getDefaultSpeedKmh();
+        }
+        if (speed > 0 && profile == TransportProfile.CAR) {
+            int maxSpeed = parseMaxSpeed(tags.get("maxspeed"));
+            if (maxSpeed > 0) {
+                // Durchschnittlich etwas unter dem Tempolimit
+                speed = Math.max(5, (int) Math.round(maxSpeed * 0.9));
+            }
+        }
+        return speed;
+    }
+
+    private int directionsFor(TransportProfile profile, String highway, Map<String, String> tags) {
+        if (!profile.obeysOneway()) {
+            return FORWARD | BACKWARD;
+        }
+        if (profile == TransportProfile.BICYCLE && "no".equals(tags.get("oneway:bicycle"))) {
+            return FORWARD | BACKWARD;
+        }
+        String oneway = tags.get("oneway");
+        if (oneway != null && ("-1".equals(oneway) || "reverse".equals(oneway))) {
+            return BACKWARD;
+        }
+        if (oneway != null && YES_VALUES.contains(oneway)) {
+            return FORWARD;
+        }
+        if (oneway == null && ("motorway".equals(highway) || "roundabout".equals(tags.get("junction")))) {
+            return FORWARD;
+        }
+        return FORWARD | BACKWARD;
+    }
+
+    private static int parseMaxSpeed(String maxSpeed) {
+        if (maxSpeed == null) {
+            return 0;
+        }
+        int end = 0;
+        while (end < maxSpeed.length() && Character.isDigit(maxSpeed.charAt(end))) {
+            end++;
+        }
+        if (end == 0) {
+            return 0;
+        }
+        int value = Integer.parseInt(maxSpeed.substring(0, end));
+        return maxSpeed.contains("mph") ? (int) Math.round(value * 1.609) : value;
+    }
+
+    private void readNodes(Path osmFile) throws IOException, XMLStreamException {
+        nodeLatitudes = new int[usedNodeIds.length];
+        nodeLongitudes = new int[usedNodeIds.length];
+        nodeFound = new boolean[usedNodeIds.length];
+
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(osmFile))) {
+            XMLStreamReader reader = createReader(in);
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                String name = reader.getLocalName();
+                if ("way".equals(name)) {
+                    // Nodes stehen in OSM-Dateien vor den Ways
+                    break;
+                }
+                if (!"node".equals(name)) {
+                    continue;
+                }
+                long id = Long.parseLong(reader.getAttributeValue(null, "id"));
+                int index = Arrays.binarySearch(usedNodeIds, id);
+                if (index >= 0) {
+                    nodeLatitudes[index] = GeoMath.toFixed(Double.parseDouble(reader.getAttributeValue(null, "lat")));
+                    nodeLongitudes[index] = GeoMath.toFixed(Double.parseDouble(reader.getAttributeValue(null, "lon")));
+                    nodeFound[index] = true;
+                }
+            }
+            reader.close();
+        }
+    }
+
+    private RoadGraph buildGraph() {
+        RoadGraphBuilder builder = new RoadGraphBuilder();
+        int[] graphNode = new int[usedNodeIds.length];
+        int missing = 0;
+        for (int i = 0; i < usedNodeIds.length; i++) {
+            if (nodeFound[i]) {
+                graphNode[i] = builder.addNode(nodeLatitudes[i], nodeLongitudes[i]);
+            } else {
+                graphNode[i] = -1;
+                missing++;
+            }
+        }
+        if (missing > 0) {
+            logger.warn("{} way nodes are missing in the extract and were skipped", missing);
+        }
+
+        int[] forwardWeights = new int[PROFILES.length];
+        int[] backwardWeights = new int[PROFILES.length];
+        for (int way = 0; way < wayCount; way++) {
+            for (int r = wayStarts[way]; r < wayStarts[way + 1] - 1; r++) {
+                int fromIndex = indexOf(wayRefs[r]);
+                int toIndex = indexOf(wayRefs[r + 1]);
+                int from = graphNode[fromIndex];
+                int to = graphNode[toIndex];
+                if (from < 0 || to < 0) {
+                    continue;
+                }
+
+                double meters = GeoMath.haversineMeters(
+                        GeoMath.fromFixed(nodeLatitudes[fromIndex]), GeoMath.fromFixed(nodeLongitudes[fromIndex]),
+                        GeoMath.fromFixed(nodeLatitudes[toIndex]), GeoMath.fromFixed(nodeLongitudes[toIndex]));
+                int distanceDm = Math.max(1, (int) Math.round(meters * 10));
+
+                for (int p = 0; p < PROFILES.length; p++) {
+                    int speed = waySpeeds[way * PROFILES.length + p];
+                    int directions = wayDirections[way * PROFILES.length + p];
+                    int weight = speed > 0 ? travelTime(distanceDm, speed) : RoadGraph.UNREACHABLE;
+                    forwardWeights[p] = (directions & FORWARD) != 0 ? weight : RoadGraph.UNREACHABLE;
+                    backwardWeights[p] = (directions & BACKWARD) != 0 ? weight : RoadGraph.UNREACHABLE;
+                }
+                builder.addEdge(from, to, distanceDm, forwardWeights);
+                builder.addEdge(to, from, distanceDm, backwardWeights);
+            }
+        }
+        return builder.build();
+    }
+
+    private int indexOf(long nodeId) {
+        return Arrays.binarySearch(usedNodeIds, nodeId);
+    }
+
+    /**
+     * Travel time in deciseconds for a distance in decimeters at the given speed
+     */
+    static int travelTime(int distanceDm, int speedKmh) {
+        return Math.max(1, (int) Math.round(distanceDm * 3.6 / speedKmh));
+    }
+
+    private void addWayRef(long ref) {
+        if (wayRefCount == wayRefs.length) {
+            wayRefs = Arrays.copyOf(wayRefs, wayRefs.length * 2);
+        }
+        wayRefs[wayRefCount++] = ref;
+    }
+
+    private static XMLStreamReader createReader(InputStream in) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory.createXMLStreamReader(in);
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.tourplanner.business.routing;
+
+import org.example.tourplanner.business.geo.GeoMath;
+
+/**
+ * Directed road graph in compressed-sparse-row layout.
+ * The outgoing edges of node n are the edge ids firstEdge(n) .. firstEdge(n + 1) - 1.
+ */
+public interface RoadGraph {
+    /** Weight of an edge the profile may not use */
+    int UNREACHABLE = Integer.MAX_VALUE;
+
+    int nodeCount();
+
+    int edgeCount();
+
+    /** Latitude in 1e-7 degrees */
+    int latitudeE7(int node);
+
+    /** Longitude in 1e-7 degrees */
+    int longitudeE7(int node);
+
+    /** First outgoing edge of a node; valid for node == nodeCount() as end marker */
+    int firstEdge(int node);
+
+    int edgeTarget(int edge);
+
+    /** Edge length in decimeters */
+    int edgeDistance(int edge);
+
+    /** Travel time in deciseconds, or UNREACHABLE */
+    int edgeWeight(int edge, TransportProfile profile);
+
+    default double latitude(int node) {
+        return GeoMath.fromFixed(latitudeE7(node));
+    }
+
+    default double longitude(int node) {
+        return GeoMath.fromFixed(longitudeE7(node));
+    }
+
+    /**
+     * True if the profile can leave the node over at least one edge
+     */
+    default boolean isAccessible(int node, TransportProfile profile) {
+        for (int e = firstEdge(node); e < firstEdge(node + 1); e++) {
+            if (edgeWeight(e, profile) != UNREACHABLE) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
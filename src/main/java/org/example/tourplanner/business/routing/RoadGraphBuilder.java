@@ -0,0 +1,137 @@
+package org.example.tourplanner.business.routing;
+
+import java.util.Arrays;
+
+/**
+ * Collects nodes and edges in any order and packs them into a CSR {@link RoadGraph}
+ */
+public class RoadGraphBuilder {
+    private static final TransportProfile[] PROFILES = TransportProfile.values();
+
+    private int[] latitudes = new int[1024];
+    private int[] longitudes = new int[1024];
+    private int nodeCount;
+
+    private int[] edgeSources = new int[4096];
+    private int[] edgeTargets = new int[4096];
+    private int[] edgeDistances = new int[4096];
+    private int[][] edgeWeights = new int[PROFILES.length][4096];
+    private int edgeCount;
+
+    /**
+     * Adds a node and returns its index
+     */
+    public int addNode(int latitudeE7, int longitudeE7) {
+        if (nodeCount == latitudes.length) {
+            latitudes = Arrays.copyOf(latitudes, nodeCount * 2);
+            longitudes = Arrays.copyOf(longitudes, nodeCount * 2);
+        }
+        latitudes[nodeCount] = latitudeE7;
+        longitudes[nodeCount] = longitudeE7;
+        return nodeCount++;
+    }
+
+    /**
+     * Adds a directed edge. Edges no profile can use are dropped.
+     * @param weights travel time in deciseconds per profile (indexed by ordinal), UNREACHABLE if not usable
+     */
+    public void addEdge(int from, int to, int distanceDm, int[] weights) {
+        if (from < 0 || from >= nodeCount || to < 0 || to >= nodeCount) {
+            throw new IllegalArgumentException("Edge references unknown node: " + from + " -> " + to);
+        }
+        boolean usable = false;
+        for (int weight : weights) {
+            usable |= weight != RoadGraph.UNREACHABLE;
+        }
+        if (!usable || from == to) {
+            return;
+        }
+
+        if (edgeCount == edgeSources.length) {
+            int newSize = edgeCount * 2;
+            edgeSources = Arrays.copyOf(edgeSources, newSize);
+            edgeTargets = Arrays.copyOf(edgeTargets, newSize);
+            edgeDistances = Arrays.copyOf(edgeDistances, newSize);
+            for (int p = 0; p < PROFILES.length; p++) {
+                edgeWeights[p] = Arrays.copyOf(edgeWeights[p], newSize);
+            }
+        }
+        edgeSources[edgeCount] = from;
+        edgeTargets[edgeCount] = to;
+        edgeDistances[edgeCount] = distanceDm;
+        for (int p = 0; p < PROFILES.length; p++) {
+            edgeWeights[p][edgeCount] = weights[p];
+        }
+        edgeCount++;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Sorts edges by source node (counting sort) and builds the graph
+     */
+    public RoadGraph build() {
+        int[] firstEdge = new int[nodeCount + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            firstEdge[edgeSources[e] + 1]++;
+        }
+        for (int n = 0; n < nodeCount; n++) {
+            firstEdge[n + 1] += firstEdge[n];
+        }
+
+        int[] cursor = Arrays.copyOf(firstEdge, nodeCount);
+        int[] targets = new int[edgeCount];
+        int[] distances = new int[edgeCount];
+        int[][] weights = new int[PROFILES.length][edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            int slot = cursor[edgeSources[e]]++;
+            targets[slot] = edgeTargets[e];
+            distances[slot] = edgeDistances[e];
+            for (int p = 0; p < PROFILES.length; p++) {
+                weights[p][slot] = edgeWeights[p][e];
+            }
+        }
+
+        return new ArrayRoadGraph(
+                Arrays.copyOf(latitudes, nodeCount),
+                Arrays.copyOf(longitudes, nodeCount),
+                firstEdge, targets, distances, weights);
+    }
+
+    /**
+     * Heap-backed graph as produced by the builder
+     */
+    static final class ArrayRoadGraph implements RoadGraph {
+        private final int[] latitudes;
+        private final int[] longitudes;
+        private final int[] firstEdge;
+        private final int[] targets;
+        private final int[] distances;
+        private final int[][] weights;
+
+        ArrayRoadGraph(int[] latitudes, int[] longitudes, int[] firstEdge,
+                       int[] targets, int[] distances, int[][] weights) {
+            this.latitudes = latitudes;
+            this.longitudes = longitudes;
+            this.firstEdge = firstEdge;
+            this.targets = targets;
+            this.distances = distances;
+            this.weights = weights;
+        }
+
+        @Override public int nodeCount() { return latitudes.length; }
+        @Override public int edgeCount() { return targets.length; }
+        @Override public int latitudeE7(int node) { return latitudes[node]; }
+        @Override public int longitudeE7(int node) { return longitudes[node]; }
+        @Override public int firstEdge(int node) { return firstEdge[node]; }
+        @Override public int edgeTarget(int edge) { return targets[edge]; }
+        @Override public int edgeDistance(int edge) { return distances[edge]; }
+        @Override public int edgeWeight(int edge, TransportProfile profile) { return weights[profile.ordinal()][edge]; }
+    }
+}
@@ -0,0 +1,183 @@
+package org.example.tourplanner.business.routing;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary CSR road-graph format, opened via memory mapping without any parsing.
+ *
+ * Layout (all values little-endian int32):
+ * <pre>
+ * header   magic "TPRG", version, nodeCount, edgeCount, profileCount
+ * nodes    latitudeE7[nodeCount], longitudeE7[nodeCount]
+ * offsets  firstEdge[nodeCount + 1]
+ * edges    target[edgeCount], distanceDm[edgeCount]
+ * weights  weightDs[profileCount][edgeCount]   (ordinal order of TransportProfile)
+ * </pre>
+ */
+public final class RoadGraphFile {
+    private static final Logger logger = LogManager.getLogger(RoadGraphFile.class);
+
+    static final int MAGIC = 0x47525054; // "TPRG" little-endian
+    static final int VERSION = 1;
+    static final int HEADER_INTS = 5;
+    private static final TransportProfile[] PROFILES = TransportProfile.values();
+
+    private RoadGraphFile() {}
+
+    /**
+     * True if the file starts with the graph file magic
+     */
+    public static boolean isGraphFile(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            return channel.read(header) == 4 && header.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes a graph; the file is written to a temp file first and moved into place
+     */
+    public static void write(RoadGraph graph, Path file) throws IOException {
+        int n = graph.nodeCount();
+        int m = graph.edgeCount();
+        long totalBytes = 4L * (HEADER_INTS + 2L * n + (n + 1) + 2L * m + (long) PROFILES.length * m);
+        if (totalBytes > Integer.MAX_VALUE) {
+            throw new IOException("Graph too large for a single mapping: " + totalBytes + " bytes");
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16)) {
+            LittleEndianWriter writer = new LittleEndianWriter(out);
+            writer.writeInt(MAGIC);
+            writer.writeInt(VERSION);
+            writer.writeInt(n);
+            writer.writeInt(m);
+            writer.writeInt(PROFILES.length);
+            for (int i = 0; i < n; i++) writer.writeInt(graph.latitudeE7(i));
+            for (int i = 0; i < n; i++) writer.writeInt(graph.longitudeE7(i));
+            for (int i = 0; i <= n; i++) writer.writeInt(graph.firstEdge(i));
+            for (int e = 0; e < m; e++) writer.writeInt(graph.edgeTarget(e));
+            for (int e = 0; e < m; e++) writer.writeInt(graph.edgeDistance(e));
+            for (TransportProfile profile : PROFILES) {
+                for (int e = 0; e < m; e++) writer.writeInt(graph.edgeWeight(e, profile));
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Wrote road graph {} ({} nodes, {} edges, {} KB)", file, n, m, totalBytes / 1024);
+    }
+
+    /**
+     * Maps a graph file read-only. Only the header is validated; everything else is paged in lazily.
+     */
+    public static RoadGraph open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Graph file too large to map: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            IntBuffer ints = buffer.asIntBuffer();
+            if (size < 4L * HEADER_INTS || ints.get(0) != MAGIC) {
+                throw new IOException("Not a road graph file: " + file);
+            }
+            if (ints.get(1) != VERSION) {
+                throw new IOException("Unsupported road graph version " + ints.get(1) + " in " + file);
+            }
+            int n = ints.get(2);
+            int m = ints.get(3);
+            int profiles = ints.get(4);
+            if (profiles != PROFILES.length) {
+                throw new IOException("Road graph has " + profiles + " profiles, expected " + PROFILES.length);
+            }
+            long expected = 4L * (HEADER_INTS + 2L * n + (n + 1) + 2L * m + (long) profiles * m);
+            if (expected != size) {
+                throw new IOException("Truncated road graph file: " + file);
+            }
+            return new MappedRoadGraph(ints, n, m);
+        }
+    }
+
+    /**
+     * RoadGraph view on a mapped file; all accessors are absolute reads at precomputed offsets
+     */
+    static final class MappedRoadGraph implements RoadGraph {
+        private final IntBuffer ints;
+        private final int nodeCount;
+        private final int edgeCount;
+        private final int latitudeOffset;
+        private final int longitudeOffset;
+        private final int firstEdgeOffset;
+        private final int targetOffset;
+        private final int distanceOffset;
+        private final int weightOffset;
+
+        MappedRoadGraph(IntBuffer ints, int nodeCount, int edgeCount) {
+            this.ints = ints;
+            this.nodeCount = nodeCount;
+            this.edgeCount = edgeCount;
+            this.latitudeOffset = HEADER_INTS;
+            this.longitudeOffset = latitudeOffset + nodeCount;
+            this.firstEdgeOffset = longitudeOffset + nodeCount;
+            this.targetOffset = firstEdgeOffset + nodeCount + 1;
+            this.distanceOffset = targetOffset + edgeCount;
+            this.weightOffset = distanceOffset + edgeCount;
+        }
+
+        @Override public int nodeCount() { return nodeCount; }
+        @Override public int edgeCount() { return edgeCount; }
+        @Override public int latitudeE7(int node) { return ints.get(latitudeOffset + node); }
+        @Override public int longitudeE7(int node) { return ints.get(longitudeOffset + node); }
+        @Override public int firstEdge(int node) { return ints.get(firstEdgeOffset + node); }
+        @Override public int edgeTarget(int edge) { return ints.get(targetOffset + edge); }
+        @Override public int edgeDistance(int edge) { return ints.get(distanceOffset + edge); }
+
+        @Override
+        public int edgeWeight(int edge, TransportProfile profile) {
+            return ints.get(weightOffset + profile.ordinal() * edgeCount + edge);
+        }
+    }
+
+    /**
+     * Small buffered little-endian int writer (DataOutputStream is big-endian)
+     */
+    private static final class LittleEndianWriter {
+        private final OutputStream out;
+        private final byte[] scratch = new byte[4];
+
+        LittleEndianWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        void writeInt(int value) throws IOException {
+            scratch[0] = (byte) value;
+            scratch[1] = (byte) (value >>> 8);
+            scratch[2] = (byte) (value >>> 16);
+            scratch[3] = (byte) (value >>> 24);
+            out.write(scratch);
+        }
+    }
+}
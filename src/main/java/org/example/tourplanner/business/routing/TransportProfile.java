@@ -0,0 +1,90 @@
+package org.example.tourplanner.business.routing;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Transport types supported by the offline router, with their road access rules
+ * and travel speeds per OSM highway class.
+ */
+public enum TransportProfile {
+    CAR("motor_vehicle", true, 50, Map.ofEntries(
+            Map.entry("motorway", 120), Map.entry("motorway_link", 60),
+            Map.entry("trunk", 100), Map.entry("trunk_link", 50),
+            Map.entry("primary", 80), Map.entry("primary_link", 50),
+            Map.entry("secondary", 70), Map.entry("secondary_link", 45),
+            Map.entry("tertiary", 60), Map.entry("tertiary_link", 40),
+            Map.entry("unclassified", 50), Map.entry("residential", 40),
+            Map.entry("living_street", 10), Map.entry("service", 20),
+            Map.entry("road", 30))),
+
+    BICYCLE("bicycle", true, 18, Map.ofEntries(
+            Map.entry("primary", 18), Map.entry("primary_link", 18),
+            Map.entry("secondary", 18), Map.entry("secondary_link", 18),
+            Map.entry("tertiary", 18), Map.entry("tertiary_link", 18),
+            Map.entry("unclassified", 18), Map.entry("residential", 18),
+            Map.entry("living_street", 12), Map.entry("service", 15),
+            Map.entry("road", 16), Map.entry("cycleway", 20),
+            Map.entry("track", 12), Map.entry("path", 10))),
+
+    WALKING("foot", false, 5, Map.ofEntries(
+            Map.entry("primary", 5), Map.entry("primary_link", 5),
+            Map.entry("secondary", 5), Map.entry("secondary_link", 5),
+            Map.entry("tertiary", 5), Map.entry("tertiary_link", 5),
+            Map.entry("unclassified", 5), Map.entry("residential", 5),
+            Map.entry("living_street", 5), Map.entry("service", 5),
+            Map.entry("road", 5), Map.entry("cycleway", 5),
+            Map.entry("track", 5), Map.entry("path", 5),
+            Map.entry("footway", 5), Map.entry("pedestrian", 5),
+            Map.entry("steps", 2)));
+
+    private final String accessTag;
+    private final boolean obeysOneway;
+    private final int defaultSpeedKmh;
+    private final Map<String, Integer> speedsKmh;
+
+    TransportProfile(String accessTag, boolean obeysOneway, int defaultSpeedKmh, Map<String, Integer> speedsKmh) {
+        this.accessTag = accessTag;
+        this.obeysOneway = obeysOneway;
+        this.defaultSpeedKmh = defaultSpeedKmh;
+        this.speedsKmh = speedsKmh;
+    }
+
+    /**
+     * Maps the transport type strings used in the UI ("Car", "Bicycle", ...) to a profile
+     * @return profile or null if the transport type cannot be routed offline
+     */
+    public static TransportProfile fromTransportType(String transportType) {
+        if (transportType == null) {
+            return null;
+        }
+        return switch (transportType.toLowerCase(Locale.ROOT).trim()) {
+            case "car" -> CAR;
+            case "bicycle", "bike" -> BICYCLE;
+            case "walking", "foot", "hiking" -> WALKING;
+            default -> null;
+        };
+    }
+
+    /**
+     * Travel speed on a highway class, or 0 if the profile may not use it
+     */
+    public int speedKmh(String highway) {
+        Integer speed = speedsKmh.get(highway);
+        return speed != null ? speed : 0;
+    }
+
+    /** OSM access key that overrides general access for this profile (e.g. "bicycle") */
+    public String getAccessTag() {
+        return accessTag;
+    }
+
+    public boolean obeysOneway() {
+        return obeysOneway;
+    }
+
+    /** Speed used for the straight-line legs to and from the road network */
+    public int getDefaultSpeedKmh() {
+        return defaultSpeedKmh;
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.tourplanner.business.service;
+
+import java.util.Arrays;
+
+/**
+ * Response timeout learned from the latest response times of one endpoint class: a few times
+ * the 99th percentile, within fixed bounds. Until enough answers were seen the upper bound applies.
+ */
+final class AdaptiveTimeout {
+    static final int WINDOW = 256;
+    static final int MIN_SAMPLES = 20;
+    static final long MIN_TIMEOUT_MS = 2_000;
+    static final long MAX_TIMEOUT_MS = 30_000;
+    private static final double PERCENTILE = 0.99;
+    private static final int HEADROOM = 3;
+
+    private final long[] samples = new long[WINDOW];
+    private int count;
+    private int next;
+    private long timeoutMs = MAX_TIMEOUT_MS;
+    private boolean stale;
+
+    synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % WINDOW;
+        count = Math.min(count + 1, WINDOW);
+        stale = true;
+    }
+
+    synchronized long getTimeoutMs() {
+        if (stale) {
+            stale = false;
+            timeoutMs = count < MIN_SAMPLES ? MAX_TIMEOUT_MS
+                    : Math.max(MIN_TIMEOUT_MS, Math.min(MAX_TIMEOUT_MS, percentile(PERCENTILE) * HEADROOM));
+        }
+        return timeoutMs;
+    }
+
+    /**
+     * @return the percentile of the recorded response times in ms, 0 without any
+     */
+    synchronized long percentile(double p) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return sorted[Math.min(count - 1, (int) Math.ceil(p * count) - 1)];
+    }
+
+    synchronized int getSampleCount() {
+        return count;
+    }
+}
@@ -0,0 +1,131 @@
+package org.example.tourplanner.business.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One backend replica as seen by {@link BackendPool}: requests in flight, a moving average of
+ * the response time and whether it is currently ejected after repeated failures
+ */
+public final class BackendNode {
+    // Gewicht der neuesten Messung im gleitenden Mittel
+    private static final double ALPHA = 0.3;
+    static final int EJECT_AFTER_FAILURES = 3;
+    static final long BASE_EJECTION_MS = 10_000;
+    static final long MAX_EJECTION_MS = 300_000;
+
+    private final String baseUrl;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private double latencyMillis;
+    private int consecutiveFailures;
+    private int ejections;
+    private long ejectedUntil;
+    private boolean ejected;
+    private long requests;
+    private long failures;
+
+    BackendNode(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Requests sent to this backend that have not been answered yet
+     */
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    /**
+     * Moving average of the time until the response headers arrived, 0 before the first answer
+     */
+    public synchronized double getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public synchronized boolean isEjected() {
+        return ejected;
+    }
+
+    /**
+     * Requests and health checks sent to this backend
+     */
+    public synchronized long getRequests() {
+        return requests;
+    }
+
+    public synchronized long getFailures() {
+        return failures;
+    }
+
+    /**
+     * Not ejected, or the ejection is over and the next request tries it again
+     */
+    synchronized boolean isAvailable(long nowNanos) {
+        return !ejected || nowNanos - ejectedUntil >= 0;
+    }
+
+    synchronized long getEjectedUntil() {
+        return ejectedUntil;
+    }
+
+    /**
+     * Lower is better: slow backends and backends with many open requests get fewer new ones
+     */
+    synchronized double score() {
+        return (latencyMillis + 1) * (outstanding.get() + 1);
+    }
+
+    void started() {
+        outstanding.incrementAndGet();
+    }
+
+    void finished() {
+        outstanding.decrementAndGet();
+    }
+
+    /**
+     * @return true if the backend was ejected until now
+     */
+    synchronized boolean succeeded(long elapsedNanos) {
+        requests++;
+        double millis = elapsedNanos / 1_000_000.0;
+        latencyMillis = latencyMillis == 0 ? millis : ALPHA * millis + (1 - ALPHA) * latencyMillis;
+        return readmit();
+    }
+
+    /**
+     * @return true if the backend is ejected by this failure
+     */
+    synchronized boolean failed(long nowNanos) {
+        requests++;
+        failures++;
+        consecutiveFailures++;
+        if (consecutiveFailures < EJECT_AFTER_FAILURES || (ejected && nowNanos - ejectedUntil < 0)) {
+            return false;
+        }
+        // Jede weitere Sperre ohne Erfolg dazwischen dauert doppelt so lang
+        long ejectionMs = Math.min(MAX_EJECTION_MS, BASE_EJECTION_MS << Math.min(ejections, 10));
+        ejections++;
+        ejected = true;
+        ejectedUntil = nowNanos + TimeUnit.MILLISECONDS.toNanos(ejectionMs);
+        return true;
+    }
+
+    private boolean readmit() {
+        boolean wasEjected = ejected;
+        consecutiveFailures = 0;
+        ejections = 0;
+        ejected = false;
+        return wasEjected;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return baseUrl + " (" + Math.round(latencyMillis) + " ms, " + outstanding.get() + " open"
+                + (ejected ? ", ejected" : "") + ")";
+    }
+}
@@ -0,0 +1,391 @@
+package org.example.tourplanner.business.service;
+
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.http.Header;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.config.ConfigurationManager;
+import org.example.tourplanner.config.HttpClientConfig;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spreads backend requests over the replicas configured in "backend.urls". Requests are built
+ * with {@link HttpClientConfig#getBaseUrl()} as usual and sent through {@link #execute}, which
+ * picks the better of two random replicas (response time times open requests), ejects a replica
+ * after repeated failures and retries idempotent requests on another one. A timer probes every
+ * replica, so ejected ones are taken back as soon as they answer again.
+ * <p>
+ * The pool also bounds the number of open requests with a {@link ConcurrencyLimiter} and sets
+ * each request's response timeout from the response times seen for its {@link EndpointClass}.
+ */
+public class BackendPool {
+    private static final Logger logger = LogManager.getLogger(BackendPool.class);
+    static final int MAX_ATTEMPTS = 3;
+    private static final int PROBE_TIMEOUT_SECONDS = 2;
+    private static final int CONNECT_TIMEOUT_SECONDS = 5;
+    private static BackendPool instance;
+
+    private final List<BackendNode> nodes;
+    private final String healthPath;
+    private final CloseableHttpClient probeClient;
+    private final ConcurrencyLimiter limiter;
+    private final Map<EndpointClass, AdaptiveTimeout> timeouts = new EnumMap<>(EndpointClass.class);
+    private Timer probeTimer;
+
+    BackendPool(List<String> baseUrls, String healthPath) {
+        this(baseUrls, healthPath, new ConcurrencyLimiter());
+    }
+
+    BackendPool(List<String> baseUrls, String healthPath, ConcurrencyLimiter limiter) {
+        List<BackendNode> created = new ArrayList<>();
+        for (String baseUrl : baseUrls) {
+            created.add(new BackendNode(baseUrl));
+        }
+        this.nodes = Collections.unmodifiableList(created);
+        this.healthPath = healthPath;
+        this.limiter = limiter;
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            timeouts.put(endpointClass, new AdaptiveTimeout());
+        }
+        this.probeClient = HttpClients.custom()
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(PROBE_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                        .setResponseTimeout(PROBE_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                        .build())
+                .disableAutomaticRetries()
+                .build();
+    }
+
+    public static synchronized BackendPool getInstance() {
+        if (instance == null) {
+            ConfigurationManager config = ConfigurationManager.getInstance();
+            instance = new BackendPool(HttpClientConfig.getBackendUrls(),
+                    config.getProperty("backend.health.path", "/health").trim());
+            long interval = parseLong(config.getProperty("backend.health.interval.seconds", "10"), 10);
+            // Mit nur einem Backend gibt es nichts auszuweichen
+            if (instance.nodes.size() > 1 && interval > 0) {
+                instance.startProbing(TimeUnit.SECONDS.toMillis(interval));
+            }
+        }
+        return instance;
+    }
+
+    public static synchronized void shutdownIfStarted() {
+        if (instance != null) {
+            instance.stopProbing();
+        }
+    }
+
+    public List<BackendNode> getNodes() {
+        return nodes;
+    }
+
+    public ConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    /**
+     * The response timeout requests of this class currently get
+     */
+    public long getTimeoutMillis(EndpointClass endpointClass) {
+        return timeouts.get(endpointClass).getTimeoutMs();
+    }
+
+    public String getStatistics() {
+        StringBuilder statistics = new StringBuilder(String.format(
+                "limit %d (%d open, %d queued, %d refused, %d timeouts/overloads), timeouts",
+                limiter.getLimit(), limiter.getInFlight(), limiter.getQueued(), limiter.getRejected(),
+                limiter.getDropped()));
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            statistics.append(String.format(" %s %.1f s", endpointClass.name().toLowerCase(),
+                    getTimeoutMillis(endpointClass) / 1000.0));
+        }
+        for (BackendNode node : nodes) {
+            statistics.append(", ").append(node);
+        }
+        return statistics.toString();
+    }
+
+    /**
+     * Executes the request on one of the backends. Requests to other hosts are executed unchanged.
+     * Idempotent requests (GET, HEAD, PUT, DELETE or with an Idempotency-Key) are repeated on
+     * another backend after a connection failure or a 502/503/504; other requests only if the
+     * connection could not be established, since then the backend never saw them. Conditional
+     * requests (If-Match) count as other requests: if the first attempt was applied, a repeat
+     * would fail with 412 against the version it just wrote.
+     * <p>
+     * Event streams and requests with their own RequestConfig keep their timeouts and are not limited.
+     * Other requests hold their slot and count as open on their backend until the response body
+     * has been read or the response closed; the response time is measured up to that point.
+     * @throws IOException also if too many requests are open already
+     */
+    public CloseableHttpResponse execute(CloseableHttpClient httpClient, HttpUriRequestBase request) throws IOException {
+        String uri = uriOf(request);
+        BackendNode origin = uri != null ? nodeFor(uri) : null;
+        if (origin == null) {
+            return httpClient.execute(request);
+        }
+        String path = uri.substring(origin.getBaseUrl().length());
+        if (request.getConfig() != null || isStream(request)) {
+            return send(httpClient, request, path, null, 0);
+        }
+        if (!limiter.acquire()) {
+            throw new IOException("Too many open backend requests (limit " + limiter.getLimit() + ")");
+        }
+        boolean handedOver = false;
+        try {
+            AdaptiveTimeout timeout = timeouts.get(EndpointClass.of(path));
+            long timeoutMs = timeout.getTimeoutMs();
+            request.setConfig(RequestConfig.custom()
+                    .setConnectTimeout(CONNECT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    .setResponseTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                    .build());
+            CloseableHttpResponse response;
+            try {
+                response = send(httpClient, request, path, timeout, timeoutMs);
+            } catch (SocketTimeoutException e) {
+                handedOver = true;
+                limiter.dropped();
+                throw e;
+            }
+            handedOver = true;
+            int code = response.getCode();
+            // Der Platz bleibt belegt, bis der Aufrufer den Inhalt gelesen oder die Antwort geschlossen hat
+            ReleasingEntity.attach(response, timedOut -> {
+                if (timedOut || code == 429 || code == 503) {
+                    limiter.dropped();
+                } else if (code < 500) {
+                    limiter.succeeded();
+                } else {
+                    limiter.ignored();
+                }
+            });
+            return response;
+        } finally {
+            if (!handedOver) {
+                limiter.ignored();
+            }
+        }
+    }
+
+    private CloseableHttpResponse send(CloseableHttpClient httpClient, HttpUriRequestBase request, String path,
+                                       AdaptiveTimeout timeout, long timeoutMs) throws IOException {
+        boolean repeatable = isIdempotent(request) && request.getFirstHeader("If-Match") == null;
+        int attempts = Math.min(MAX_ATTEMPTS, nodes.size());
+        Set<BackendNode> tried = new HashSet<>();
+        IOException lastError = null;
+        for (int attempt = 1; attempt <= attempts; attempt++) {
+            BackendNode node = choose(tried);
+            if (node == null) {
+                break;
+            }
+            tried.add(node);
+            request.setUri(URI.create(node.getBaseUrl() + path));
+            long start = System.nanoTime();
+            node.started();
+            CloseableHttpResponse response;
+            try {
+                response = httpClient.execute(request);
+            } catch (IOException e) {
+                node.finished();
+                if (request.isCancelled()) {
+                    throw e;
+                }
+                if (timeout != null && e instanceof SocketTimeoutException) {
+                    // Zählt als Messung, sonst würde die Zeitgrenze bei einem langsamer werdenden Backend nie wachsen
+                    timeout.record(timeoutMs);
+                }
+                failed(node, e.getMessage());
+                lastError = e;
+                if (!repeatable && !(e instanceof ConnectException)) {
+                    throw e;
+                }
+                if (attempt < attempts) {
+                    logger.debug("{} {} failed on {}, trying another backend", request.getMethod(), path, node.getBaseUrl());
+                }
+                continue;
+            }
+            int code = response.getCode();
+            if (code == 502 || code == 503 || code == 504) {
+                node.finished();
+                failed(node, "HTTP " + code);
+                if (repeatable && attempt < attempts) {
+                    response.close();
+                    continue;
+                }
+                return response;
+            }
+            if (timeout == null) {
+                node.finished();
+                answered(node, start, null, code);
+                return response;
+            }
+            ReleasingEntity.attach(response, timedOut -> {
+                node.finished();
+                if (timedOut) {
+                    timeout.record(timeoutMs);
+                    failed(node, "response body timed out");
+                } else {
+                    answered(node, start, timeout, code);
+                }
+            });
+            return response;
+        }
+        throw lastError != null ? lastError : new ConnectException("No backend available");
+    }
+
+    private static void answered(BackendNode node, long start, AdaptiveTimeout timeout, int code) {
+        long elapsed = System.nanoTime() - start;
+        if (timeout != null && code < 500) {
+            timeout.record(TimeUnit.NANOSECONDS.toMillis(elapsed));
+        }
+        if (node.succeeded(elapsed)) {
+            logger.info("Backend {} answers again", node.getBaseUrl());
+        }
+    }
+
+    /**
+     * Asks every backend for its health resource; any answer below 500 counts as up, so a
+     * backend without the resource is not ejected for it. The answer time also goes into the
+     * average, so a backend that got fast again gets its share back.
+     */
+    void probe() {
+        for (BackendNode node : nodes) {
+            HttpGet request = new HttpGet(node.getBaseUrl() + healthPath);
+            long start = System.nanoTime();
+            try (CloseableHttpResponse response = probeClient.execute(request)) {
+                if (response.getCode() < 500) {
+                    if (node.succeeded(System.nanoTime() - start)) {
+                        logger.info("Backend {} is healthy again, taking it back", node.getBaseUrl());
+                    }
+                    continue;
+                }
+                failed(node, "health HTTP " + response.getCode());
+            } catch (IOException e) {
+                failed(node, "health " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The better of two random available backends; null if all were tried
+     */
+    BackendNode choose(Set<BackendNode> tried) {
+        long now = System.nanoTime();
+        List<BackendNode> candidates = new ArrayList<>(nodes.size());
+        BackendNode soonestBack = null;
+        for (BackendNode node : nodes) {
+            if (tried.contains(node)) {
+                continue;
+            }
+            if (node.isAvailable(now)) {
+                candidates.add(node);
+            } else if (soonestBack == null || node.getEjectedUntil() - soonestBack.getEjectedUntil() < 0) {
+                soonestBack = node;
+            }
+        }
+        if (candidates.isEmpty()) {
+            // Alle gesperrt: lieber einen gesperrten versuchen als gar keinen
+            return soonestBack;
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        BackendNode a = candidates.get(first);
+        BackendNode b = candidates.get(second);
+        return a.score() <= b.score() ? a : b;
+    }
+
+    private void failed(BackendNode node, String reason) {
+        if (node.failed(System.nanoTime()) && nodes.size() > 1) {
+            logger.warn("Ejecting backend {} after repeated failures ({})", node.getBaseUrl(), reason);
+        }
+    }
+
+    private BackendNode nodeFor(String uri) {
+        for (BackendNode node : nodes) {
+            String baseUrl = node.getBaseUrl();
+            if (uri.startsWith(baseUrl) && (uri.length() == baseUrl.length()
+                    || "/?#".indexOf(uri.charAt(baseUrl.length())) >= 0)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private static String uriOf(HttpUriRequestBase request) {
+        try {
+            return request.getUri().toString();
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    private static boolean isStream(HttpUriRequestBase request) {
+        Header accept = request.getFirstHeader("Accept");
+        return accept != null && accept.getValue().contains("text/event-stream");
+    }
+
+    private static boolean isIdempotent(HttpUriRequestBase request) {
+        return switch (request.getMethod()) {
+            case "GET", "HEAD", "PUT", "DELETE", "OPTIONS" -> true;
+            default -> request.getFirstHeader("Idempotency-Key") != null;
+        };
+    }
+
+    private synchronized void startProbing(long intervalMs) {
+        probeTimer = new Timer("backend-health", true);
+        probeTimer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                try {
+                    probe();
+                } catch (RuntimeException e) {
+                    logger.error("Backend health check failed", e);
+                }
+            }
+        }, intervalMs, intervalMs);
+    }
+
+    private synchronized void stopProbing() {
+        if (probeTimer != null) {
+            probeTimer.cancel();
+            probeTimer = null;
+        }
+    }
+
+    private static long parseLong(String value, long defaultValue) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
@@ -6,25 +6,50 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.ParseException;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.config.ConfigurationManager;
+import org.example.tourplanner.config.HttpClientConfig;
 
-public class BackendRouteService {
+import java.io.IOException;
+import java.util.List;
+
+public class BackendRouteService implements RouteProvider {
     private static final Logger logger = LogManager.getLogger(BackendRouteService.class);
-    private static final String BASE_URL = "http://localhost:8080/api";
+    private static final String BASE_URL = HttpClientConfig.getBaseUrl();
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_BASE_DELAY_MS = 250;
+    private static final long RETRY_BUDGET_MS = 10_000;
+    private static final int BREAKER_FAILURES = 5;
+    private static final long BREAKER_OPEN_MS = 30_000;
 
     private final CloseableHttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final CircuitBreaker breaker;
+    private final ResilientCall<RouteCalculationResult> call;
     private static BackendRouteService instance;
 
     private BackendRouteService() {
-        this.httpClient = HttpClients.createDefault();
+        this(HttpClientConfig.createBackendClient(), BASE_URL,
+                new CircuitBreaker("Route service", BREAKER_FAILURES, BREAKER_OPEN_MS),
+                Boolean.parseBoolean(ConfigurationManager.getInstance()
+                        .getProperty("route.hedging.enabled", "false").trim()),
+                MAX_ATTEMPTS, RETRY_BASE_DELAY_MS);
+    }
+
+    BackendRouteService(CloseableHttpClient httpClient, String baseUrl, CircuitBreaker breaker, boolean hedging,
+                        int maxAttempts, long retryBaseDelayMs) {
+        this.httpClient = httpClient;
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
+        this.baseUrl = baseUrl;
+        this.breaker = breaker;
+        this.call = new ResilientCall<>("route-service", maxAttempts, retryBaseDelayMs, RETRY_BUDGET_MS, breaker, hedging);
     }
 
     public static synchronized BackendRouteService getInstance() {
@@ -35,50 +60,95 @@ public class BackendRouteService {
     }
 
     /**
-     * Calculate route using backend service
+     * Calculate route using backend service. Failed requests are retried with backoff; while the
+     * backend keeps failing, calls fail at once so a fallback provider can answer instead.
      */
+    @Override
     public RouteCalculationResult calculateRoute(String from, String to, String transportType) {
         try {
-            // Create request DTO
-            RouteCalculationRequest request = new RouteCalculationRequest();
-            request.setFromLocation(from);
-            request.setToLocation(to);
-            request.setTransportType(transportType);
-
-            String json = objectMapper.writeValueAsString(request);
-            String url = BASE_URL + "/routes/calculate";
-
-            HttpPost httpPost = new HttpPost(url);
-            httpPost.setHeader("Content-Type", "application/json");
-            httpPost.setEntity(new StringEntity(json, ContentType.APPLICATION_JSON));
-
-            try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
-                String responseBody = EntityUtils.toString(response.getEntity());
-
-                if (response.getCode() == 200) {
-                    RouteCalculationResponse responseDto = objectMapper.readValue(
-                            responseBody, RouteCalculationResponse.class);
-
-                    return new RouteCalculationResult(
-                            responseDto.isSuccess(),
-                            responseDto.getDistance(),
-                            responseDto.getEstimatedTime(),
-                            responseDto.getRouteImagePath(),
-                            responseDto.getMessage()
-                    );
-                } else {
-                    logger.error("Route calculation failed: HTTP {}", response.getCode());
-                    return new RouteCalculationResult(false, 0.0, 0, null,
-                            "Route calculation failed");
-                }
-            }
-        } catch (Exception e) {
-            logger.error("Error calculating route", e);
+            return call.execute(() -> requestRoute(from, to, transportType));
+        } catch (IOException e) {
+            logger.error("Error calculating route: {}", e.getMessage());
             return new RouteCalculationResult(false, 0.0, 0, null,
                     "Error: " + e.getMessage());
         }
     }
 
+    /**
+     * False while the circuit is open, so fallback chains skip the backend without waiting
+     */
+    @Override
+    public boolean isAvailable() {
+        return !breaker.isOpen();
+    }
+
+    public String getStatistics() {
+        return String.format("circuit %s, %d calls refused, %d hedged (%d answered first)",
+                breaker.getState().name().toLowerCase(), breaker.getRejected(), call.getHedges(), call.getHedgeWins());
+    }
+
+    /**
+     * One request to the backend
+     *
+     * @throws IOException for failures worth retrying (no answer, timeouts, overload, server errors)
+     */
+    private RouteCalculationResult requestRoute(String from, String to, String transportType) throws IOException {
+        // Create request DTO
+        RouteCalculationRequest request = new RouteCalculationRequest();
+        request.setFromLocation(from);
+        request.setToLocation(to);
+        request.setTransportType(transportType);
+
+        String json = objectMapper.writeValueAsString(request);
+        String url = baseUrl + "/routes/calculate";
+
+        HttpPost httpPost = new HttpPost(url);
+        httpPost.setHeader("Content-Type", "application/json");
+        httpPost.setEntity(new StringEntity(json, ContentType.APPLICATION_JSON));
+
+        try (CloseableHttpResponse response = BackendPool.getInstance().execute(httpClient, httpPost)) {
+            String responseBody = EntityUtils.toString(response.getEntity());
+            int code = response.getCode();
+
+            if (code == 200) {
+                RouteCalculationResponse responseDto = objectMapper.readValue(
+                        responseBody, RouteCalculationResponse.class);
+
+                return new RouteCalculationResult(
+                        responseDto.isSuccess(),
+                        responseDto.getDistance(),
+                        responseDto.getEstimatedTime(),
+                        responseDto.getRouteImagePath(),
+                        responseDto.getMessage(),
+                        toLatLon(responseDto.getCoordinates())
+                );
+            }
+            if (code == 408 || code == 429 || code >= 500) {
+                throw new IOException("Route calculation failed: HTTP " + code);
+            }
+            logger.error("Route calculation failed: HTTP {}", code);
+            return new RouteCalculationResult(false, 0.0, 0, null,
+                    "Route calculation failed");
+        } catch (ParseException e) {
+            throw new IOException("Invalid route response", e);
+        }
+    }
+
+    /**
+     * Converts [lng, lat] pairs (GeoJSON/OpenRouteService order) to {lat, lon}
+     */
+    private static double[][] toLatLon(List<List<Double>> coordinates) {
+        if (coordinates == null || coordinates.size() < 2) {
+            return null;
+        }
+        double[][] points = new double[coordinates.size()][];
+        for (int i = 0; i < points.length; i++) {
+            List<Double> pair = coordinates.get(i);
+            points[i] = new double[]{pair.get(1), pair.get(0)};
+        }
+        return points;
+    }
+
     // DTO Classes
     public static class RouteCalculationRequest {
         private String fromLocation;
@@ -104,6 +174,8 @@ public class BackendRouteService {
         private Integer estimatedTime;
         private String routeImagePath;
         private String message;
+        // Routengeometrie als [lng, lat], optional
+        private List<List<Double>> coordinates;
 
         // Getters and setters
         public String getFromLocation() { return fromLocation; }
@@ -129,6 +201,9 @@ public class BackendRouteService {
 
         public String getMessage() { return message; }
         public void setMessage(String message) { this.message = message; }
+
+        public List<List<Double>> getCoordinates() { return coordinates; }
+        public void setCoordinates(List<List<Double>> coordinates) { this.coordinates = coordinates; }
     }
 
     public static class RouteCalculationResult {
@@ -137,14 +212,21 @@ public class BackendRouteService {
         private final Integer estimatedTime;
         private final String routeImagePath;
         private final String message;
+        private final double[][] geometry;
 
         public RouteCalculationResult(boolean success, Double distance, Integer estimatedTime,
                                       String routeImagePath, String message) {
+            this(success, distance, estimatedTime, routeImagePath, message, null);
+        }
+
+        public RouteCalculationResult(boolean success, Double distance, Integer estimatedTime,
+                                      String routeImagePath, String message, double[][] geometry) {
             this.success = success;
             this.distance = distance;
             this.estimatedTime = estimatedTime;
             this.routeImagePath = routeImagePath;
             this.message = message;
+            this.geometry = geometry;
         }
 
         // Getters
@@ -153,5 +235,7 @@ public class BackendRouteService {
         public Integer getEstimatedTime() { return estimatedTime; }
         public String getRouteImagePath() { return routeImagePath; }
         public String getMessage() { return message; }
+        /** Route as {lat, lon} points, null if the provider has no geometry */
+        public double[][] getGeometry() { return geometry; }
     }
 }
\ No newline at end of file
@@ -0,0 +1,222 @@
+package org.example.tourplanner.business.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.ParseException;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs a batch operation as few requests to the backend's batch endpoint, {@link #CHUNK_SIZE}
+ * items each:
+ *
+ * <pre>
+ * POST .../batch  {"operation": "create" | "update" | "delete", "items": [...]}
+ *   →  {"results": [{"status": 201, "item": {...}, "error": null}, ...]}   one result per item, in order
+ * </pre>
+ *
+ * If the backend has no batch endpoint (404, 405, 501), the remaining items and later
+ * batches go out as single requests, {@link #PIPELINE_DEPTH} at a time. The endpoint is tried
+ * again after {@link #RECHECK_MS}, since another replica or an upgraded backend may have it.
+ */
+final class BatchExecutor {
+    private static final Logger logger = LogManager.getLogger(BatchExecutor.class);
+    static final int CHUNK_SIZE = 100;
+    // Höchstens so viele Einzelrequests gleichzeitig, damit ein Backend ohne Batch-Endpunkt nicht überrannt wird
+    static final int PIPELINE_DEPTH = 5;
+    static final long RECHECK_MS = 10 * 60_000;
+    private static final ExecutorService pipeline = Executors.newFixedThreadPool(PIPELINE_DEPTH, runnable -> {
+        Thread thread = new Thread(runnable, "batch-request");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Sends one chunk to the batch endpoint
+     */
+    interface ChunkCall<I, R> {
+        /**
+         * @return a result per item, or null if the backend has no batch endpoint
+         */
+        BatchResult<R> send(List<I> chunk) throws IOException;
+    }
+
+    /**
+     * Reads one item of a batch response
+     */
+    interface ItemReader<R> {
+        /**
+         * @return the value for a successful item, null if the item failed
+         */
+        R read(int status, JsonNode item) throws IOException;
+    }
+
+    private final String name;
+    private final long recheckNanos;
+    // System.nanoTime() der letzten Absage, 0 solange der Endpunkt als vorhanden gilt
+    private volatile long unsupportedSince;
+
+    BatchExecutor(String name) {
+        this(name, RECHECK_MS);
+    }
+
+    BatchExecutor(String name, long recheckMs) {
+        this.name = name;
+        this.recheckNanos = TimeUnit.MILLISECONDS.toNanos(recheckMs);
+    }
+
+    boolean isBatchSupported() {
+        long since = unsupportedSince;
+        return since == 0 || System.nanoTime() - since >= recheckNanos;
+    }
+
+    /**
+     * @param single the single-item call for the fallback; null or false means the item failed
+     */
+    <I, R> BatchResult<R> run(List<I> items, ChunkCall<I, R> batch, Function<I, R> single, BatchProgress progress) {
+        BatchResult<R> result = new BatchResult<>(items.size());
+        AtomicInteger done = new AtomicInteger();
+        int offset = 0;
+        while (offset < items.size() && isBatchSupported()) {
+            List<I> chunk = items.subList(offset, Math.min(items.size(), offset + CHUNK_SIZE));
+            BatchResult<R> chunkResult;
+            try {
+                chunkResult = batch.send(chunk);
+            } catch (IOException | RuntimeException e) {
+                logger.error("Batch of {} {} failed", chunk.size(), name, e);
+                chunkResult = new BatchResult<>(chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    chunkResult.failed(i, e.getMessage(), 0);
+                }
+            }
+            if (chunkResult == null) {
+                logger.info("Backend offers no batch endpoint for {}, sending single requests", name);
+                // 0 ist "vorhanden", daher nie genau 0 speichern
+                unsupportedSince = System.nanoTime() | 1;
+                break;
+            }
+            unsupportedSince = 0;
+            result.copyFrom(chunkResult, offset);
+            offset += chunk.size();
+            progress.update(done.addAndGet(chunk.size()), items.size());
+        }
+        if (offset < items.size()) {
+            pipelined(items, offset, single, result, done, progress);
+        }
+        logger.info("Batch of {} {}: {}", items.size(), name, result);
+        return result;
+    }
+
+    /**
+     * One call after the other; the default for services without a batch path, and the
+     * fallback of the JDBC services when a batch was rolled back
+     */
+    static <I, R> BatchResult<R> sequential(List<I> items, Function<I, R> single, BatchProgress progress) {
+        BatchResult<R> result = new BatchResult<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            R value = single.apply(items.get(i));
+            if (value == null || Boolean.FALSE.equals(value)) {
+                result.failed(i, "Failed", 0);
+            } else {
+                result.succeeded(i, value, 0);
+            }
+            progress.update(i + 1, items.size());
+        }
+        return result;
+    }
+
+    private static <I, R> void pipelined(List<I> items, int offset, Function<I, R> single, BatchResult<R> result,
+                                         AtomicInteger done, BatchProgress progress) {
+        List<Future<?>> futures = new ArrayList<>(items.size() - offset);
+        for (int i = offset; i < items.size(); i++) {
+            int index = i;
+            futures.add(pipeline.submit(() -> {
+                try {
+                    R value = single.apply(items.get(index));
+                    if (value == null || Boolean.FALSE.equals(value)) {
+                        result.failed(index, "Request failed", 0);
+                    } else {
+                        result.succeeded(index, value, 0);
+                    }
+                } catch (RuntimeException e) {
+                    result.failed(index, e.getMessage(), 0);
+                }
+                progress.update(done.incrementAndGet(), items.size());
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                logger.error("Single request of a batch failed", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Posts one chunk to a batch endpoint
+     * @return a result per item, or null if the endpoint does not exist
+     * @throws IOException if the request failed as a whole
+     */
+    static <R> BatchResult<R> post(CloseableHttpClient httpClient, ObjectMapper objectMapper, String url,
+                                   String operation, List<?> items, ItemReader<R> reader) throws IOException {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("operation", operation);
+        body.set("items", objectMapper.valueToTree(items));
+
+        HttpPost request = new HttpPost(url);
+        request.setHeader("Accept", "application/json");
+        request.setEntity(new StringEntity(objectMapper.writeValueAsString(body), ContentType.APPLICATION_JSON));
+
+        try (CloseableHttpResponse response = BackendPool.getInstance().execute(httpClient, request)) {
+            int code = response.getCode();
+            if (code == 404 || code == 405 || code == 501) {
+                return null;
+            }
+            if (code != 200 && code != 207) {
+                throw new IOException("HTTP " + code);
+            }
+            JsonNode results = objectMapper.readTree(EntityUtils.toString(response.getEntity())).get("results");
+            if (results == null || !results.isArray() || results.size() != items.size()) {
+                throw new IOException("Batch response does not match the " + items.size() + " items sent");
+            }
+            BatchResult<R> result = new BatchResult<>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                JsonNode itemResult = results.get(i);
+                int status = itemResult.path("status").asInt();
+                R value = status >= 200 && status < 300 || status == 404 ? reader.read(status, itemResult.get("item")) : null;
+                if (value != null) {
+                    result.succeeded(i, value, status);
+                } else {
+                    String error = itemResult.path("error").asText(null);
+                    result.failed(i, error != null ? error : "HTTP " + status, status);
+                }
+                result.markAnswered(i);
+            }
+            return result;
+        } catch (ParseException e) {
+            throw new IOException(e);
+        }
+    }
+}
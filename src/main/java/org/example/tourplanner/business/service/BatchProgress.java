@@ -0,0 +1,11 @@
+package org.example.tourplanner.business.service;
+
+/**
+ * Progress of a batch operation; called on the thread that finished the items
+ */
+@FunctionalInterface
+public interface BatchProgress {
+    BatchProgress NONE = (done, total) -> { };
+
+    void update(int done, int total);
+}
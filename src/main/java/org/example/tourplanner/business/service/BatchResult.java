@@ -0,0 +1,111 @@
+package org.example.tourplanner.business.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Per-item results of a batch operation, in the order of the items. A failed item has no
+ * value but an error, and the HTTP status if the backend answered for it (0 otherwise).
+ * Items the batch endpoint itself answered are marked, unlike items of a failed chunk or
+ * items that went out as single requests.
+ */
+public final class BatchResult<T> {
+    private final List<T> values;
+    private final String[] errors;
+    private final int[] statuses;
+    private final boolean[] answered;
+
+    public BatchResult(int size) {
+        this.values = new ArrayList<>(Collections.nCopies(size, null));
+        this.errors = new String[size];
+        this.statuses = new int[size];
+        this.answered = new boolean[size];
+    }
+
+    public synchronized void succeeded(int index, T value, int status) {
+        values.set(index, value);
+        errors[index] = null;
+        statuses[index] = status;
+    }
+
+    public synchronized void failed(int index, String error, int status) {
+        values.set(index, null);
+        errors[index] = error != null ? error : "Failed";
+        statuses[index] = status;
+    }
+
+    public int size() {
+        return statuses.length;
+    }
+
+    public synchronized T get(int index) {
+        return values.get(index);
+    }
+
+    public synchronized boolean isSucceeded(int index) {
+        return errors[index] == null && values.get(index) != null;
+    }
+
+    public synchronized String getError(int index) {
+        return errors[index];
+    }
+
+    public synchronized int getStatus(int index) {
+        return statuses[index];
+    }
+
+    /**
+     * True if the batch endpoint returned a result for the item, possibly without a status
+     */
+    public synchronized boolean isAnswered(int index) {
+        return answered[index];
+    }
+
+    synchronized void markAnswered(int index) {
+        answered[index] = true;
+    }
+
+    public synchronized int getSucceededCount() {
+        int count = 0;
+        for (int i = 0; i < statuses.length; i++) {
+            if (isSucceeded(i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getFailedCount() {
+        return size() - getSucceededCount();
+    }
+
+    /**
+     * Values of the items that succeeded, in order
+     */
+    public synchronized List<T> getSucceeded() {
+        List<T> succeeded = new ArrayList<>();
+        for (int i = 0; i < statuses.length; i++) {
+            if (isSucceeded(i)) {
+                succeeded.add(values.get(i));
+            }
+        }
+        return succeeded;
+    }
+
+    synchronized void copyFrom(BatchResult<T> chunk, int offset) {
+        for (int i = 0; i < chunk.size(); i++) {
+            values.set(offset + i, chunk.values.get(i));
+            errors[offset + i] = chunk.errors[i];
+            statuses[offset + i] = chunk.statuses[i];
+            answered[offset + i] = chunk.answered[i];
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return getSucceededCount() + "/" + size() + " succeeded"
+                + (getFailedCount() > 0 ? ", errors " + Arrays.stream(errors).filter(e -> e != null).distinct().toList() : "");
+    }
+}
@@ -0,0 +1,366 @@
+package org.example.tourplanner.business.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.config.ConfigurationManager;
+import org.example.tourplanner.config.HttpClientConfig;
+import org.example.tourplanner.models.Tour;
+import org.example.tourplanner.models.TourLog;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subscribes to the backend's change events (Server-Sent Events on GET /api/sync/events)
+ * and hands every tour or log change on as a small {@link TourChanges}. After a lost
+ * connection it reconnects with the Last-Event-ID header, so the backend can send what
+ * was missed in between.
+ *
+ * <pre>
+ * id: 42
+ * event: tour-updated | tour-created | tour-deleted | log-created | log-updated | log-deleted | resync
+ * data: {tour or log as returned by the REST API; for deletes {"id": .., "tourId": ..}}
+ * </pre>
+ */
+public class ChangeFeedClient {
+    private static final Logger logger = LogManager.getLogger(ChangeFeedClient.class);
+    private static final String BASE_URL = HttpClientConfig.getBaseUrl();
+    // Das Backend schickt regelmäßig Kommentare; bleiben sie aus, ist die Verbindung tot
+    private static final int HEARTBEAT_TIMEOUT_SECONDS = 90;
+    static final long DEFAULT_RETRY_MS = 3_000;
+    // Vom Backend angegebene Wartezeiten außerhalb dieser Grenzen werden begrenzt
+    static final long MIN_RETRY_MS = 500;
+    static final long MAX_RETRY_MS = 60_000;
+    private static ChangeFeedClient instance;
+
+    /**
+     * Notified on the feed thread
+     */
+    public interface Listener {
+        void changed(TourChanges changes);
+
+        /**
+         * Events may have been missed (first connect, or the backend could not resume);
+         * the caller should fetch the changes since its last sync
+         */
+        void resync();
+    }
+
+    private final String eventsUrl;
+    private final CloseableHttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private Listener listener;
+    private Thread feedThread;
+    private volatile boolean running;
+    private volatile HttpGet currentRequest;
+    private volatile CloseableHttpResponse currentResponse;
+    private volatile String lastEventId;
+    private volatile boolean connected;
+    private long retryMs;
+
+    ChangeFeedClient(String eventsUrl, long retryMs) {
+        this.eventsUrl = eventsUrl;
+        this.retryMs = retryMs;
+        this.httpClient = HttpClients.custom()
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setResponseTimeout(HEARTBEAT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                        .build())
+                .disableAutomaticRetries()
+                .build();
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+        this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    public static synchronized ChangeFeedClient getInstance() {
+        if (instance == null) {
+            instance = new ChangeFeedClient(BASE_URL + "/sync/events", DEFAULT_RETRY_MS);
+        }
+        return instance;
+    }
+
+    public static synchronized void shutdownIfStarted() {
+        if (instance != null) {
+            instance.stop();
+        }
+    }
+
+    /**
+     * True unless "sync.push.enabled" is false; only the HTTP data access mode has a feed
+     */
+    public static boolean isEnabled() {
+        return !DataServices.isEmbedded() && Boolean.parseBoolean(
+                ConfigurationManager.getInstance().getProperty("sync.push.enabled", "true").trim());
+    }
+
+    public synchronized void start(Listener feedListener) {
+        if (feedThread != null) {
+            return;
+        }
+        listener = feedListener;
+        running = true;
+        feedThread = new Thread(this::run, "change-feed");
+        feedThread.setDaemon(true);
+        feedThread.start();
+    }
+
+    public void stop() {
+        running = false;
+        closeCurrent();
+        Thread thread;
+        synchronized (this) {
+            thread = feedThread;
+            feedThread = null;
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    String getLastEventId() {
+        return lastEventId;
+    }
+
+    private void run() {
+        int failures = 0;
+        while (running) {
+            try {
+                if (connect()) {
+                    failures = 0;
+                }
+            } catch (IOException e) {
+                if (running) {
+                    logger.debug("Change feed connection lost: {}", e.getMessage());
+                }
+            } catch (RuntimeException e) {
+                logger.error("Change feed failed", e);
+            } finally {
+                connected = false;
+                closeCurrent();
+            }
+            if (!running) {
+                return;
+            }
+            failures++;
+            try {
+                Thread.sleep(reconnectDelay(failures));
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads events until the connection ends
+     * @return true if the connection was established
+     */
+    private boolean connect() throws IOException {
+        HttpGet request = new HttpGet(eventsUrl);
+        request.setHeader("Accept", "text/event-stream");
+        request.setHeader("Cache-Control", "no-cache");
+        String resumeFrom = lastEventId;
+        if (resumeFrom != null) {
+            request.setHeader("Last-Event-ID", resumeFrom);
+        }
+        currentRequest = request;
+        if (!running) {
+            return false;
+        }
+        CloseableHttpResponse response = BackendPool.getInstance().execute(httpClient, request);
+        currentResponse = response;
+        if (response.getCode() == 404 || response.getCode() == 501) {
+            // Älteres Backend ohne Ereignisse, Änderungen kommen dann nur beim Aktualisieren
+            logger.info("Backend offers no change feed (HTTP {})", response.getCode());
+            running = false;
+            return false;
+        }
+        if (response.getCode() != 200 || response.getEntity() == null) {
+            logger.warn("Change feed not available: HTTP {}", response.getCode());
+            return false;
+        }
+        connected = true;
+        logger.info("Change feed connected{}", resumeFrom != null ? ", resuming after event " + resumeFrom : "");
+        if (resumeFrom == null) {
+            listener.resync();
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(response.getEntity().getContent(), StandardCharsets.UTF_8))) {
+            readEvents(reader);
+        }
+        return true;
+    }
+
+    // Server-Sent Events: Felder bis zur Leerzeile sammeln, dann das Ereignis ausliefern
+    private void readEvents(BufferedReader reader) throws IOException {
+        String eventType = "message";
+        String eventId = null;
+        StringBuilder data = new StringBuilder();
+        String line;
+        while (running && (line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                if (eventId != null) {
+                    lastEventId = eventId;
+                }
+                if (!data.isEmpty()) {
+                    dispatch(eventType, data.toString());
+                }
+                eventType = "message";
+                eventId = null;
+                data.setLength(0);
+                continue;
+            }
+            if (line.startsWith(":")) {
+                continue; // Heartbeat
+            }
+            int colon = line.indexOf(':');
+            String field = colon < 0 ? line : line.substring(0, colon);
+            String value = colon < 0 ? "" : line.substring(colon + 1);
+            if (value.startsWith(" ")) {
+                value = value.substring(1);
+            }
+            switch (field) {
+                case "event" -> eventType = value;
+                case "data" -> {
+                    if (!data.isEmpty()) {
+                        data.append('\n');
+                    }
+                    data.append(value);
+                }
+                case "id" -> eventId = value;
+                case "retry" -> {
+                    long parsed = parseRetry(value);
+                    if (parsed > 0) {
+                        retryMs = parsed;
+                    }
+                }
+                default -> { }
+            }
+        }
+    }
+
+    private void dispatch(String eventType, String data) {
+        try {
+            TourChanges changes = toChanges(eventType, data);
+            if (changes != null) {
+                listener.changed(changes);
+            } else if ("resync".equals(eventType)) {
+                logger.info("Backend cannot resume the change feed, fetching changes");
+                listener.resync();
+            }
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable {} event: {}", eventType, e.getMessage());
+        }
+    }
+
+    /**
+     * One event as changes; null for events that carry no tour or log change
+     */
+    TourChanges toChanges(String eventType, String data) throws IOException {
+        // Jedes Ereignis ist eine Änderung "ab jetzt", nie ein vollständiger Stand
+        LocalDateTime now = LocalDateTime.now();
+        switch (eventType) {
+            case "tour-created", "tour-updated" -> {
+                Tour tour = HttpTourService.convertResponseToTour(
+                        objectMapper.readValue(data, HttpTourService.TourResponseDto.class));
+                return new TourChanges(now, tour.getUpdatedAt(), List.of(tour), Map.of(), Set.of(), Set.of());
+            }
+            case "log-created", "log-updated" -> {
+                HttpTourLogService.TourLogResponseDto dto =
+                        objectMapper.readValue(data, HttpTourLogService.TourLogResponseDto.class);
+                if (dto.getTourId() == null) {
+                    throw new IOException("Log event without tourId");
+                }
+                TourLog tourLog = HttpTourLogService.convertResponseToTourLog(dto);
+                return new TourChanges(now, tourLog.getUpdatedAt(), List.of(),
+                        Map.of(dto.getTourId(), List.of(tourLog)), Set.of(), Set.of());
+            }
+            case "tour-deleted" -> {
+                return new TourChanges(now, null, List.of(), Map.of(), Set.of(readId(data)), Set.of());
+            }
+            case "log-deleted" -> {
+                return new TourChanges(now, null, List.of(), Map.of(), Set.of(), Set.of(readId(data)));
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+
+    private long readId(String data) throws IOException {
+        JsonNode id = objectMapper.readTree(data).get("id");
+        if (id == null || !id.canConvertToLong()) {
+            throw new IOException("Event without id");
+        }
+        return id.asLong();
+    }
+
+    /**
+     * Parses the value of a retry field, clamped to [MIN_RETRY_MS, MAX_RETRY_MS]
+     * @return the retry time, or -1 if the value is not made of ASCII digits only
+     */
+    static long parseRetry(String value) {
+        if (value.isEmpty()) {
+            return -1;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            // Laut Spezifikation nur Ziffern, kein Vorzeichen und keine Leerzeichen
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+        }
+        if (value.length() > 9) {
+            return MAX_RETRY_MS;
+        }
+        return Math.max(MIN_RETRY_MS, Math.min(MAX_RETRY_MS, Long.parseLong(value)));
+    }
+
+    /**
+     * The retry time from the backend, doubled per failed attempt in a row, with jitter
+     */
+    long reconnectDelay(int failures) {
+        int shift = Math.min(Math.max(failures - 1, 0), 10);
+        // Vor dem Verschieben begrenzen, sonst läuft das Produkt über
+        long delay = retryMs > MAX_RETRY_MS >> shift ? MAX_RETRY_MS : Math.max(1, retryMs << shift);
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private void closeCurrent() {
+        HttpGet request = currentRequest;
+        currentRequest = null;
+        if (request != null) {
+            // Bricht auch ein blockierendes Lesen ab
+            request.cancel();
+        }
+        CloseableHttpResponse response = currentResponse;
+        currentResponse = null;
+        if (response != null) {
+            try {
+                response.close();
+            } catch (IOException e) {
+                logger.debug("Error closing change feed: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.tourplanner.business.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops calling an endpoint that keeps failing. After a number of failures in a row the breaker
+ * opens and calls fail at once; when the open time is over a single trial call is let through,
+ * which closes the breaker again or keeps it open for another round.
+ */
+public final class CircuitBreaker {
+    private static final Logger logger = LogManager.getLogger(CircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier clock;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialRunning;
+    private long rejected;
+
+    public CircuitBreaker(String name, int failureThreshold, long openMs) {
+        this(name, failureThreshold, openMs, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, int failureThreshold, long openMs, LongSupplier clock) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        this.clock = clock;
+    }
+
+    /**
+     * @return false if the call should fail fast
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            trialRunning = false;
+        }
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.HALF_OPEN && !trialRunning) {
+            trialRunning = true;
+            return true;
+        }
+        rejected++;
+        return false;
+    }
+
+    public synchronized void recordSuccess() {
+        if (state != State.CLOSED) {
+            logger.info("{} answers again, closing circuit", name);
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialRunning = false;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            logger.warn("{} failed {} times in a row, failing fast for {} ms", name, consecutiveFailures,
+                    TimeUnit.NANOSECONDS.toMillis(openNanos));
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+            trialRunning = false;
+        }
+    }
+
+    /**
+     * @return true while calls are refused, without using up the trial call
+     */
+    public synchronized boolean isOpen() {
+        return state == State.OPEN && clock.getAsLong() - openedAt < openNanos;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Calls refused while the circuit was open
+     */
+    public synchronized long getRejected() {
+        return rejected;
+    }
+}
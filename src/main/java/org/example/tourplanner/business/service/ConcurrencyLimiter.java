@@ -0,0 +1,127 @@
+package org.example.tourplanner.business.service;
+
+/**
+ * Limits how many backend requests are open at once (AIMD). Every answer in time raises the
+ * limit by 1/limit while it is being used, a timeout or an overload answer (429, 503) cuts it
+ * by a tenth. Requests over the limit wait in a short queue; when the queue is full or the wait
+ * is too long they are refused instead of piling up more hung threads.
+ */
+public final class ConcurrencyLimiter {
+    static final int INITIAL_LIMIT = 20;
+    static final int MIN_LIMIT = 2;
+    static final int MAX_LIMIT = 200;
+    private static final double BACKOFF = 0.9;
+    static final int MAX_QUEUED = 64;
+    static final long MAX_WAIT_MS = 5_000;
+
+    private final int maxQueued;
+    private final long maxWaitMs;
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private long rejected;
+    private long dropped;
+
+    ConcurrencyLimiter() {
+        this(INITIAL_LIMIT, MAX_QUEUED, MAX_WAIT_MS);
+    }
+
+    ConcurrencyLimiter(int initialLimit, int maxQueued, long maxWaitMs) {
+        this.limit = initialLimit;
+        this.maxQueued = maxQueued;
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    /**
+     * Waits for a free slot
+     * @return false if the request is refused (queue full, waited too long or interrupted)
+     */
+    synchronized boolean acquire() {
+        if (inFlight < getLimit()) {
+            inFlight++;
+            return true;
+        }
+        if (queued >= maxQueued) {
+            rejected++;
+            return false;
+        }
+        queued++;
+        try {
+            long deadline = System.nanoTime() + maxWaitMs * 1_000_000;
+            while (inFlight >= getLimit()) {
+                long remainingMs = (deadline - System.nanoTime()) / 1_000_000;
+                if (remainingMs <= 0) {
+                    rejected++;
+                    return false;
+                }
+                wait(remainingMs);
+            }
+            inFlight++;
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected++;
+            return false;
+        } finally {
+            queued--;
+        }
+    }
+
+    /**
+     * The request was answered in time
+     */
+    synchronized void succeeded() {
+        // Nur erhöhen, wenn die Grenze auch ausgeschöpft wird
+        if (inFlight * 2 >= getLimit()) {
+            limit = Math.min(MAX_LIMIT, limit + 1 / limit);
+        }
+        release();
+    }
+
+    /**
+     * The request timed out or the backend reported overload
+     */
+    synchronized void dropped() {
+        dropped++;
+        limit = Math.max(MIN_LIMIT, limit * BACKOFF);
+        release();
+    }
+
+    /**
+     * The request ended without telling anything about the load (cancelled, no connection)
+     */
+    synchronized void ignored() {
+        release();
+    }
+
+    private void release() {
+        inFlight--;
+        notifyAll();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return queued;
+    }
+
+    /**
+     * Requests refused because the queue was full or the wait too long
+     */
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Timeouts and overload answers that lowered the limit
+     */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.tourplanner.business.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.config.ConfigurationManager;
+
+/**
+ * Selects the tour and log services configured by "data.access":
+ * http (backend REST API) or embedded (direct JDBC to the database from db.url)
+ */
+public final class DataServices {
+    private static final Logger logger = LogManager.getLogger(DataServices.class);
+
+    private DataServices() {}
+
+    public static boolean isEmbedded() {
+        return "embedded".equals(ConfigurationManager.getInstance().getProperty("data.access", "http").trim());
+    }
+
+    public static TourService tourService() {
+        if (isEmbedded()) {
+            logger.info("Using embedded database access");
+            return JdbcTourService.getInstance();
+        }
+        return HttpTourService.getInstance();
+    }
+
+    public static TourLogService tourLogService() {
+        return isEmbedded() ? JdbcTourLogService.getInstance() : HttpTourLogService.getInstance();
+    }
+
+    public static TourChangeService tourChangeService() {
+        return isEmbedded() ? JdbcTourChangeService.getInstance() : HttpTourChangeService.getInstance();
+    }
+}
@@ -0,0 +1,134 @@
+package org.example.tourplanner.business.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.config.ConfigurationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+
+/**
+ * Direct JDBC access to the backend database (db.url, db.username, db.password) for the
+ * embedded data access mode. One connection with cached prepared statements is enough for
+ * a single desktop client; calls are serialized and the connection is reopened after it broke.
+ */
+public class EmbeddedDatabase {
+    private static final Logger logger = LogManager.getLogger(EmbeddedDatabase.class);
+    private static final int STATEMENT_CACHE_SIZE = 32;
+    private static EmbeddedDatabase instance;
+
+    private final String url;
+    private final Properties connectionProperties = new Properties();
+    private Connection connection;
+    private StatementCache statements;
+
+    /**
+     * Work done with the cached statements of the connection
+     */
+    @FunctionalInterface
+    interface SqlWork<T> {
+        T execute(StatementCache statements) throws SQLException;
+    }
+
+    EmbeddedDatabase(String url, String username, String password) {
+        this.url = url;
+        connectionProperties.setProperty("user", username);
+        connectionProperties.setProperty("password", password);
+        // Die Batch-INSERTs von createTours/createTourLogs als ein mehrzeiliges INSERT senden
+        connectionProperties.setProperty("reWriteBatchedInserts", "true");
+    }
+
+    public static synchronized EmbeddedDatabase getInstance() {
+        if (instance == null) {
+            ConfigurationManager config = ConfigurationManager.getInstance();
+            String driver = config.getProperty("db.driver", "");
+            if (!driver.isBlank()) {
+                try {
+                    Class.forName(driver);
+                } catch (ClassNotFoundException e) {
+                    logger.error("JDBC driver {} not found", driver);
+                }
+            }
+            instance = new EmbeddedDatabase(config.getProperty("db.url", ""),
+                    config.getProperty("db.username", ""), config.getProperty("db.password", ""));
+        }
+        return instance;
+    }
+
+    /**
+     * Runs the work on the shared connection in auto-commit mode
+     */
+    synchronized <T> T execute(SqlWork<T> work) throws SQLException {
+        try {
+            return work.execute(open());
+        } catch (SQLException e) {
+            closeIfBroken(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the work in one transaction; rolls back if it throws
+     */
+    synchronized <T> T inTransaction(SqlWork<T> work) throws SQLException {
+        StatementCache cache = open();
+        Connection current = connection;
+        try {
+            current.setAutoCommit(false);
+            T result = work.execute(cache);
+            current.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            try {
+                current.rollback();
+            } catch (SQLException rollbackError) {
+                e.addSuppressed(rollbackError);
+            }
+            if (e instanceof SQLException sqlException) {
+                closeIfBroken(sqlException);
+            }
+            throw e;
+        } finally {
+            if (!current.isClosed()) {
+                current.setAutoCommit(true);
+            }
+        }
+    }
+
+    public synchronized void close() {
+        if (connection == null) {
+            return;
+        }
+        statements.clear();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.warn("Error closing database connection: {}", e.getMessage());
+        }
+        connection = null;
+        statements = null;
+    }
+
+    // Kein isValid() pro Aufruf (wäre ein zusätzlicher Roundtrip), stattdessen nach Verbindungsfehlern neu öffnen
+    private void closeIfBroken(SQLException e) throws SQLException {
+        String state = e.getSQLState();
+        if (connection != null && (connection.isClosed() || (state != null && state.startsWith("08")))) {
+            logger.warn("Database connection lost ({}), reconnecting on next call", e.getMessage());
+            close();
+        }
+    }
+
+    private StatementCache open() throws SQLException {
+        if (connection != null && connection.isClosed()) {
+            close();
+        }
+        if (connection == null) {
+            connection = DriverManager.getConnection(url, connectionProperties);
+            statements = new StatementCache(connection, STATEMENT_CACHE_SIZE);
+            logger.info("Connected to {}", url);
+        }
+        return statements;
+    }
+}
@@ -0,0 +1,30 @@
+package org.example.tourplanner.business.service;
+
+/**
+ * Groups of backend endpoints with similar response times; each group learns its own timeout
+ */
+public enum EndpointClass {
+    TOURS, LOGS, ROUTES, REPORTS, SYNC, OTHER;
+
+    /**
+     * @param path the request path below the API base URL, e.g. "/tours/5/logs"
+     */
+    public static EndpointClass of(String path) {
+        if (path.startsWith("/logs") || (path.startsWith("/tours/") && path.contains("/logs"))) {
+            return LOGS;
+        }
+        if (path.startsWith("/tours")) {
+            return TOURS;
+        }
+        if (path.startsWith("/routes")) {
+            return ROUTES;
+        }
+        if (path.startsWith("/reports")) {
+            return REPORTS;
+        }
+        if (path.startsWith("/sync")) {
+            return SYNC;
+        }
+        return OTHER;
+    }
+}
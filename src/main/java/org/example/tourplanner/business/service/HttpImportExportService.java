@@ -47,7 +47,7 @@ public class HttpImportExportService {
 
             logger.info("Exporting tours to: {}", outputPath);
 
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
+            try (CloseableHttpResponse response = BackendPool.getInstance().execute(httpClient, request)) {
                 if (response.getCode() == 200) {
                     // Get the JSON content as bytes
                     byte[] jsonBytes = EntityUtils.toByteArray(response.getEntity());
@@ -90,7 +90,7 @@ public class HttpImportExportService {
 
             logger.info("Exporting tour {} to: {}", tourId, outputPath);
 
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
+            try (CloseableHttpResponse response = BackendPool.getInstance().execute(httpClient, request)) {
                 if (response.getCode() == 200) {
                     // Get the JSON content as bytes
                     byte[] jsonBytes = EntityUtils.toByteArray(response.getEntity());
@@ -136,7 +136,7 @@ public class HttpImportExportService {
 
             logger.info("Exporting tours to CSV: {}", outputPath);
 
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
+            try (CloseableHttpResponse response = BackendPool.getInstance().execute(httpClient, request)) {
                 if (response.getCode() == 200) {
                     // Get the CSV content as bytes
                     byte[] csvBytes = EntityUtils.toByteArray(response.getEntity());
@@ -191,7 +191,7 @@ public class HttpImportExportService {
 
             logger.info("Importing tours from: {}", filePath);
 
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
+            try (CloseableHttpResponse response = BackendPool.getInstance().execute(httpClient, request)) {
                 String responseBody = EntityUtils.toString(response.getEntity());
 
                 if (response.getCode() == 200) {
@@ -3,7 +3,6 @@ package org.example.tourplanner.business.service;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -33,14 +32,14 @@ public class HttpReportService {
      */
     public boolean generateTourReport(Long tourId, String outputPath) {
         // Erstelle einen neuen HttpClient für diesen Request
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try (CloseableHttpClient httpClient = HttpClientConfig.createBackendClient()) {
             String url = HttpClientConfig.getBaseUrl() + "/reports/tour/" + tourId;
             HttpGet request = new HttpGet(url);
             request.setHeader("Accept", "application/pdf");
 
             logger.info("Requesting tour report from: {}", url);
 
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
+            try (CloseableHttpResponse response = BackendPool.getInstance().execute(httpClient, request)) {
                 logger.info("Response status: {}", response.getCode());
 
                 if (response.getCode() == 200) {
@@ -82,14 +81,14 @@ public class HttpReportService {
      */
     public boolean generateSummaryReport(String outputPath) {
         // Erstelle einen neuen HttpClient für diesen Request
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        try (CloseableHttpClient httpClient = HttpClientConfig.createBackendClient()) {
             String url = HttpClientConfig.getBaseUrl() + "/reports/summary";
             HttpGet request = new HttpGet(url);
             request.setHeader("Accept", "application/pdf");
 
             logger.info("Requesting summary report from: {}", url);
 
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
+            try (CloseableHttpResponse response = BackendPool.getInstance().execute(httpClient, request)) {
                 logger.info("Response status: {}", response.getCode());
 
                 if (response.getCode() == 200) {
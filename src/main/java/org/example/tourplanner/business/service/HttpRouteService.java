@@ -49,7 +49,7 @@ public class HttpRouteService {
                 httpPost.setHeader("Content-Type", "application/json");
                 httpPost.setEntity(new StringEntity(json, ContentType.APPLICATION_JSON));
 
-                try (CloseableHttpResponse response = httpClient.execute(httpPost)) {
+                try (CloseableHttpResponse response = BackendPool.getInstance().execute(httpClient, httpPost)) {
                     String responseBody = EntityUtils.toString(response.getEntity());
 
                     if (response.getCode() == 200) {
@@ -0,0 +1,140 @@
+package org.example.tourplanner.business.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.config.HttpClientConfig;
+import org.example.tourplanner.models.Tour;
+import org.example.tourplanner.models.TourLog;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads changes from GET /api/sync/changes?since=..., which returns the changed tours and
+ * logs together with tombstones of deleted ones. Without "since" everything is returned in
+ * one response. If the backend does not offer the endpoint, null is returned from then on.
+ */
+public class HttpTourChangeService implements TourChangeService {
+    private static final Logger logger = LogManager.getLogger(HttpTourChangeService.class);
+    private static final String BASE_URL = HttpClientConfig.getBaseUrl();
+    private static HttpTourChangeService instance;
+
+    private final String baseUrl;
+    private final CloseableHttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private volatile boolean unsupported;
+
+    HttpTourChangeService(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.httpClient = HttpClientConfig.createBackendClient();
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.registerModule(new JavaTimeModule());
+        this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    public static synchronized HttpTourChangeService getInstance() {
+        if (instance == null) {
+            instance = new HttpTourChangeService(BASE_URL);
+        }
+        return instance;
+    }
+
+    @Override
+    public TourChanges getChangesSince(LocalDateTime since) {
+        if (unsupported) {
+            return null;
+        }
+        String url = baseUrl + "/sync/changes";
+        if (since != null) {
+            url += "?since=" + URLEncoder.encode(since.toString(), StandardCharsets.UTF_8);
+        }
+        try {
+            HttpGet request = new HttpGet(url);
+            request.setHeader("Accept", "application/json");
+
+            try (CloseableHttpResponse response = BackendPool.getInstance().execute(httpClient, request)) {
+                int code = response.getCode();
+                if (code == 200) {
+                    String responseBody = EntityUtils.toString(response.getEntity());
+                    return convert(since, objectMapper.readValue(responseBody, ChangesResponseDto.class));
+                }
+                if (code == 404 || code == 405 || code == 501) {
+                    // Älteres Backend, dann wird immer alles geladen
+                    logger.info("Backend offers no change feed (HTTP {}), using full reloads", code);
+                    unsupported = true;
+                } else {
+                    logger.error("Failed to get changes since {}: HTTP {}", since, code);
+                }
+                return null;
+            }
+        } catch (Exception e) {
+            logger.error("Error fetching changes since {}", since, e);
+            return null;
+        }
+    }
+
+    private static TourChanges convert(LocalDateTime since, ChangesResponseDto dto) {
+        LocalDateTime newest = dto.getServerTime();
+        List<Tour> tours = new ArrayList<>();
+        if (dto.getTours() != null) {
+            for (HttpTourService.TourResponseDto tourDto : dto.getTours()) {
+                Tour tour = HttpTourService.convertResponseToTour(tourDto);
+                tours.add(tour);
+                newest = later(newest, tour.getUpdatedAt());
+            }
+        }
+        Map<Long, List<TourLog>> logsByTour = new LinkedHashMap<>();
+        if (dto.getLogs() != null) {
+            for (HttpTourLogService.TourLogResponseDto logDto : dto.getLogs()) {
+                TourLog tourLog = HttpTourLogService.convertResponseToTourLog(logDto);
+                logsByTour.computeIfAbsent(logDto.getTourId(), id -> new ArrayList<>()).add(tourLog);
+                newest = later(newest, tourLog.getUpdatedAt());
+            }
+        }
+        Set<Long> deletedTours = dto.getDeletedTourIds() != null ? new HashSet<>(dto.getDeletedTourIds()) : Set.of();
+        Set<Long> deletedLogs = dto.getDeletedLogIds() != null ? new HashSet<>(dto.getDeletedLogIds()) : Set.of();
+        return new TourChanges(since, newest != null ? newest : since, tours, logsByTour, deletedTours, deletedLogs);
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b != null && b.isAfter(a) ? b : a;
+    }
+
+    // DTO class for the change feed
+    public static class ChangesResponseDto {
+        private LocalDateTime serverTime;
+        private List<HttpTourService.TourResponseDto> tours;
+        private List<HttpTourLogService.TourLogResponseDto> logs;
+        private List<Long> deletedTourIds;
+        private List<Long> deletedLogIds;
+
+        // Getters and setters
+        public LocalDateTime getServerTime() { return serverTime; }
+        public void setServerTime(LocalDateTime serverTime) { this.serverTime = serverTime; }
+        public List<HttpTourService.TourResponseDto> getTours() { return tours; }
+        public void setTours(List<HttpTourService.TourResponseDto> tours) { this.tours = tours; }
+        public List<HttpTourLogService.TourLogResponseDto> getLogs() { return logs; }
+        public void setLogs(List<HttpTourLogService.TourLogResponseDto> logs) { this.logs = logs; }
+        public List<Long> getDeletedTourIds() { return deletedTourIds; }
+        public void setDeletedTourIds(List<Long> deletedTourIds) { this.deletedTourIds = deletedTourIds; }
+        public List<Long> getDeletedLogIds() { return deletedLogIds; }
+        public void setDeletedLogIds(List<Long> deletedLogIds) { this.deletedLogIds = deletedLogIds; }
+    }
+}
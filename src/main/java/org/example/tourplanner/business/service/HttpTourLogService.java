@@ -1,19 +1,21 @@
 package org.example.tourplanner.business.service;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.apache.hc.client5.http.classic.methods.*;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.config.HttpClientConfig;
 import org.example.tourplanner.models.TourLog;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
@@ -21,14 +23,18 @@ import java.util.List;
 
 public class HttpTourLogService implements TourLogService {
     private static final Logger logger = LogManager.getLogger(HttpTourLogService.class);
-    private static final String BASE_URL = "http://localhost:8080/api";
+    private static final String BASE_URL = HttpClientConfig.getBaseUrl();
 
     private final CloseableHttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final BatchExecutor batchExecutor = new BatchExecutor("tour logs");
+    // Gleichzeitige gleiche Lesezugriffe teilen sich einen Request
+    private final SingleFlight<Long, TourLogResponseDto[]> tourLogReads = new SingleFlight<>();
+    private final SingleFlight<Long, TourLogResponseDto> logReads = new SingleFlight<>();
     private static HttpTourLogService instance;
 
     private HttpTourLogService() {
-        this.httpClient = HttpClients.createDefault();
+        this.httpClient = HttpClientConfig.createBackendClient();
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
         this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
@@ -43,39 +49,50 @@ public class HttpTourLogService implements TourLogService {
 
     @Override
     public List<TourLog> getTourLogs(Long tourId) {
+        TourLogResponseDto[] dtos = tourLogReads.execute(tourId, () -> fetchTourLogs(tourId));
+        if (dtos == null) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(dtos)
+                .map(HttpTourLogService::convertResponseToTourLog)
+                .toList();
+    }
+
+    private TourLogResponseDto[] fetchTourLogs(Long tourId) {
         try {
             HttpGet request = new HttpGet(BASE_URL + "/tours/" + tourId + "/logs");
             request.setHeader("Accept", "application/json");
 
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
+            try (CloseableHttpResponse response = BackendPool.getInstance().execute(httpClient, request)) {
                 if (response.getCode() == 200) {
                     String responseBody = EntityUtils.toString(response.getEntity());
-                    TourLogResponseDto[] dtos = objectMapper.readValue(responseBody, TourLogResponseDto[].class);
-                    return Arrays.stream(dtos)
-                            .map(this::convertResponseToTourLog)
-                            .toList();
+                    return objectMapper.readValue(responseBody, TourLogResponseDto[].class);
                 } else {
                     logger.error("Failed to get tour logs: HTTP {}", response.getCode());
-                    return Collections.emptyList();
+                    return null;
                 }
             }
         } catch (Exception e) {
             logger.error("Error fetching tour logs for tour {}", tourId, e);
-            return Collections.emptyList();
+            return null;
         }
     }
 
     @Override
     public TourLog getTourLogById(Long id) {
+        TourLogResponseDto dto = logReads.execute(id, () -> fetchTourLog(id));
+        return dto != null ? convertResponseToTourLog(dto) : null;
+    }
+
+    private TourLogResponseDto fetchTourLog(Long id) {
         try {
             HttpGet request = new HttpGet(BASE_URL + "/logs/" + id);
             request.setHeader("Accept", "application/json");
 
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
+            try (CloseableHttpResponse response = BackendPool.getInstance().execute(httpClient, request)) {
                 if (response.getCode() == 200) {
                     String responseBody = EntityUtils.toString(response.getEntity());
-                    TourLogResponseDto dto = objectMapper.readValue(responseBody, TourLogResponseDto.class);
-                    return convertResponseToTourLog(dto);
+                    return objectMapper.readValue(responseBody, TourLogResponseDto.class);
                 } else {
                     logger.error("Failed to get tour log {}: HTTP {}", id, response.getCode());
                     return null;
@@ -87,6 +104,23 @@ public class HttpTourLogService implements TourLogService {
         }
     }
 
+    /**
+     * How many reads were answered by a request another caller had already started
+     */
+    public String getReadStatistics() {
+        long shared = tourLogReads.getShared() + logReads.getShared();
+        long loads = tourLogReads.getLoads() + logReads.getLoads();
+        return String.format("%d of %d log reads shared a running request", shared, shared + loads);
+    }
+
+    /**
+     * Reads running during a write may miss it, so later reads must not join them
+     */
+    private void forgetRunningReads() {
+        tourLogReads.forgetAll();
+        logReads.forgetAll();
+    }
+
     @Override
     public TourLog createTourLog(Long tourId, TourLog tourLog) {
         try {
@@ -97,7 +131,7 @@ public class HttpTourLogService implements TourLogService {
             request.setHeader("Content-Type", "application/json");
             request.setEntity(new StringEntity(json, ContentType.APPLICATION_JSON));
 
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
+            try (CloseableHttpResponse response = BackendPool.getInstance().execute(httpClient, request)) {
                 if (response.getCode() == 201) {
                     String responseBody = EntityUtils.toString(response.getEntity());
                     TourLogResponseDto dto = objectMapper.readValue(responseBody, TourLogResponseDto.class);
@@ -110,6 +144,8 @@ public class HttpTourLogService implements TourLogService {
         } catch (Exception e) {
             logger.error("Error creating tour log", e);
             return null;
+        } finally {
+            forgetRunningReads();
         }
     }
 
@@ -123,7 +159,7 @@ public class HttpTourLogService implements TourLogService {
             request.setHeader("Content-Type", "application/json");
             request.setEntity(new StringEntity(json, ContentType.APPLICATION_JSON));
 
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
+            try (CloseableHttpResponse response = BackendPool.getInstance().execute(httpClient, request)) {
                 if (response.getCode() == 200) {
                     String responseBody = EntityUtils.toString(response.getEntity());
                     TourLogResponseDto dto = objectMapper.readValue(responseBody, TourLogResponseDto.class);
@@ -136,26 +172,76 @@ public class HttpTourLogService implements TourLogService {
         } catch (Exception e) {
             logger.error("Error updating tour log", e);
             return null;
+        } finally {
+            forgetRunningReads();
         }
     }
 
     @Override
-    public void deleteTourLog(Long id) {
+    public boolean deleteTourLog(Long id) {
         try {
             HttpDelete request = new HttpDelete(BASE_URL + "/logs/" + id);
 
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
-                if (response.getCode() != 204) {
+            try (CloseableHttpResponse response = BackendPool.getInstance().execute(httpClient, request)) {
+                if (response.getCode() == 404) {
+                    logger.info("Tour log {} was already deleted", id);
+                } else if (response.getCode() != 204) {
                     logger.error("Failed to delete tour log: HTTP {}", response.getCode());
+                    return false;
                 }
+                return true;
             }
         } catch (Exception e) {
             logger.error("Error deleting tour log with id {}", id, e);
+            return false;
+        } finally {
+            forgetRunningReads();
+        }
+    }
+
+    /**
+     * False once the backend turned out to have no batch endpoint for tour logs
+     */
+    public boolean isBatchSupported() {
+        return batchExecutor.isBatchSupported();
+    }
+
+    // Sammelaufrufe: ein Request je 100 Logs, ohne Batch-Endpunkt parallele Einzelrequests
+    @Override
+    public BatchResult<TourLog> updateTourLogs(List<TourLog> tourLogs, BatchProgress progress) {
+        try {
+            return batchExecutor.run(tourLogs,
+                    chunk -> BatchExecutor.post(httpClient, objectMapper, BASE_URL + "/logs/batch", "update",
+                            chunk.stream().map(tourLog -> convertTourLogToBatchItem(tourLog)).toList(),
+                            this::readBatchItem),
+                    this::updateTourLog, progress);
+        } finally {
+            forgetRunningReads();
+        }
+    }
+
+    @Override
+    public BatchResult<Boolean> deleteTourLogs(List<Long> ids, BatchProgress progress) {
+        // Schon gelöscht zählt wie bei deleteTourLog als Erfolg
+        try {
+            return batchExecutor.run(ids,
+                    chunk -> BatchExecutor.post(httpClient, objectMapper, BASE_URL + "/logs/batch", "delete", chunk,
+                            (status, item) -> Boolean.TRUE),
+                    this::deleteTourLog, progress);
+        } finally {
+            forgetRunningReads();
+        }
+    }
+
+    private TourLog readBatchItem(int status, JsonNode item) throws IOException {
+        if (status == 404 || item == null) {
+            return null;
         }
+        return convertResponseToTourLog(objectMapper.treeToValue(item, TourLogResponseDto.class));
     }
 
     // Helper methods
-    private TourLog convertResponseToTourLog(TourLogResponseDto dto) {
+    static TourLog convertResponseToTourLog(TourLogResponseDto dto) {
         TourLog tourLog = new TourLog();
         tourLog.setId(dto.getId());
         tourLog.setDate(dto.getDate());
@@ -164,9 +250,22 @@ public class HttpTourLogService implements TourLogService {
         tourLog.setTotalDistance(dto.getTotalDistance());
         tourLog.setTotalTime(dto.getTotalTime());
         tourLog.setRating(dto.getRating());
+        tourLog.setUpdatedAt(dto.getUpdatedAt());
         return tourLog;
     }
 
+    private TourLogBatchItemDto convertTourLogToBatchItem(TourLog tourLog) {
+        TourLogBatchItemDto dto = new TourLogBatchItemDto();
+        dto.setId(tourLog.getId());
+        dto.setDate(tourLog.getDate());
+        dto.setComment(tourLog.getComment());
+        dto.setDifficulty(tourLog.getDifficulty());
+        dto.setTotalDistance(tourLog.getTotalDistance());
+        dto.setTotalTime(tourLog.getTotalTime());
+        dto.setRating(tourLog.getRating());
+        return dto;
+    }
+
     private TourLogRequestDto convertTourLogToRequest(TourLog tourLog) {
         TourLogRequestDto dto = new TourLogRequestDto();
         dto.setDate(tourLog.getDate());
@@ -217,6 +316,14 @@ public class HttpTourLogService implements TourLogService {
         public void setTourName(String tourName) { this.tourName = tourName; }
     }
 
+    // Update in a batch request, with the id the single request has in the URL
+    public static class TourLogBatchItemDto extends TourLogRequestDto {
+        private Long id;
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+    }
+
     public static class TourLogRequestDto {
         private LocalDateTime date;
         private String comment;
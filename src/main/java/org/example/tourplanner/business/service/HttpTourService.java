@@ -6,13 +6,13 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.apache.hc.client5.http.classic.methods.*;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.HttpEntity;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.config.HttpClientConfig;
 import org.example.tourplanner.models.Tour;
 
 import java.io.IOException;
@@ -23,14 +23,18 @@ import java.util.List;
 
 public class HttpTourService implements TourService {
     private static final Logger logger = LogManager.getLogger(HttpTourService.class);
-    private static final String BASE_URL = "http://localhost:8080/api/tours";
+    private static final String BASE_URL = HttpClientConfig.getBaseUrl() + "/tours";
 
     private final CloseableHttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final BatchExecutor batchExecutor = new BatchExecutor("tours");
+    // Gleichzeitige gleiche Lesezugriffe teilen sich einen Request
+    private final SingleFlight<String, TourSummaryDto[]> allTourReads = new SingleFlight<>();
+    private final SingleFlight<Long, TourResponseDto> tourReads = new SingleFlight<>();
     private static HttpTourService instance;
 
     private HttpTourService() {
-        this.httpClient = HttpClients.createDefault();
+        this.httpClient = HttpClientConfig.createBackendClient();
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
         this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
@@ -45,41 +49,52 @@ public class HttpTourService implements TourService {
 
     @Override
     public List<Tour> getAllTours() {
+        TourSummaryDto[] summaryDtos = allTourReads.execute(BASE_URL, this::fetchAllTours);
+        if (summaryDtos == null) {
+            return Collections.emptyList();
+        }
+        // The backend returns TourSummaryDto[], we need to convert to Tour[]
+        return Arrays.stream(summaryDtos)
+                .map(this::convertSummaryToTour)
+                .toList();
+    }
+
+    private TourSummaryDto[] fetchAllTours() {
         try {
             HttpGet request = new HttpGet(BASE_URL);
             request.setHeader("Accept", "application/json");
 
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
+            try (CloseableHttpResponse response = BackendPool.getInstance().execute(httpClient, request)) {
                 String responseBody = EntityUtils.toString(response.getEntity());
 
                 if (response.getCode() == 200) {
-                    // The backend returns TourSummaryDto[], we need to convert to Tour[]
-                    TourSummaryDto[] summaryDtos = objectMapper.readValue(responseBody, TourSummaryDto[].class);
-                    return Arrays.stream(summaryDtos)
-                            .map(this::convertSummaryToTour)
-                            .toList();
+                    return objectMapper.readValue(responseBody, TourSummaryDto[].class);
                 } else {
                     logger.error("Failed to get tours: HTTP {}", response.getCode());
-                    return Collections.emptyList();
+                    return null;
                 }
             }
         } catch (Exception e) {
             logger.error("Error fetching tours", e);
-            return Collections.emptyList();
+            return null;
         }
     }
 
     @Override
     public Tour getTourById(Long id) {
+        TourResponseDto dto = tourReads.execute(id, () -> fetchTour(id));
+        return dto != null ? convertResponseToTour(dto) : null;
+    }
+
+    private TourResponseDto fetchTour(Long id) {
         try {
             HttpGet request = new HttpGet(BASE_URL + "/" + id);
             request.setHeader("Accept", "application/json");
 
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
+            try (CloseableHttpResponse response = BackendPool.getInstance().execute(httpClient, request)) {
                 if (response.getCode() == 200) {
                     String responseBody = EntityUtils.toString(response.getEntity());
-                    TourResponseDto dto = objectMapper.readValue(responseBody, TourResponseDto.class);
-                    return convertResponseToTour(dto);
+                    return objectMapper.readValue(responseBody, TourResponseDto.class);
                 } else {
                     logger.error("Failed to get tour {}: HTTP {}", id, response.getCode());
                     return null;
@@ -91,6 +106,23 @@ public class HttpTourService implements TourService {
         }
     }
 
+    /**
+     * How many reads were answered by a request another caller had already started
+     */
+    public String getReadStatistics() {
+        long shared = allTourReads.getShared() + tourReads.getShared();
+        long loads = allTourReads.getLoads() + tourReads.getLoads();
+        return String.format("%d of %d tour reads shared a running request", shared, shared + loads);
+    }
+
+    /**
+     * Reads running during a write may miss it, so later reads must not join them
+     */
+    private void forgetRunningReads() {
+        allTourReads.forgetAll();
+        tourReads.forgetAll();
+    }
+
     @Override
     public Tour createTour(Tour tour) {
         try {
@@ -101,7 +133,7 @@ public class HttpTourService implements TourService {
             request.setHeader("Content-Type", "application/json");
             request.setEntity(new StringEntity(json, ContentType.APPLICATION_JSON));
 
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
+            try (CloseableHttpResponse response = BackendPool.getInstance().execute(httpClient, request)) {
                 if (response.getCode() == 201) {
                     String responseBody = EntityUtils.toString(response.getEntity());
                     TourResponseDto dto = objectMapper.readValue(responseBody, TourResponseDto.class);
@@ -114,47 +146,89 @@ public class HttpTourService implements TourService {
         } catch (Exception e) {
             logger.error("Error creating tour", e);
             return null;
+        } finally {
+            forgetRunningReads();
         }
     }
 
     @Override
     public Tour updateTour(Tour tour) {
+        UpdateResult<Tour> result = updateTourIfUnchanged(tour);
+        return result.isUpdated() ? result.getValue() : null;
+    }
+
+    /**
+     * PUT with "If-Match" on the version the tour was loaded with; the backend answers
+     * 412 (or 409) with the current tour if someone else saved in between
+     */
+    @Override
+    public UpdateResult<Tour> updateTourIfUnchanged(Tour tour) {
         try {
             TourRequestDto requestDto = convertTourToRequest(tour);
             String json = objectMapper.writeValueAsString(requestDto);
 
             HttpPut request = new HttpPut(BASE_URL + "/" + tour.getId());
             request.setHeader("Content-Type", "application/json");
+            if (tour.getUpdatedAt() != null) {
+                request.setHeader("If-Match", versionTag(tour.getUpdatedAt()));
+            }
             request.setEntity(new StringEntity(json, ContentType.APPLICATION_JSON));
 
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
-                if (response.getCode() == 200) {
-                    String responseBody = EntityUtils.toString(response.getEntity());
+            try (CloseableHttpResponse response = BackendPool.getInstance().execute(httpClient, request)) {
+                int code = response.getCode();
+                String responseBody = response.getEntity() != null ? EntityUtils.toString(response.getEntity()) : "";
+                if (code == 200) {
                     TourResponseDto dto = objectMapper.readValue(responseBody, TourResponseDto.class);
-                    return convertResponseToTour(dto);
-                } else {
-                    logger.error("Failed to update tour: HTTP {}", response.getCode());
-                    return null;
+                    return UpdateResult.updated(convertResponseToTour(dto));
                 }
+                if (code == 409 || code == 412) {
+                    logger.info("Tour {} was changed by someone else since {}", tour.getId(), tour.getUpdatedAt());
+                    // Ältere Backends schicken den aktuellen Stand nicht mit
+                    Tour current = responseBody.isBlank()
+                            ? getTourById(tour.getId())
+                            : convertResponseToTour(objectMapper.readValue(responseBody, TourResponseDto.class));
+                    return UpdateResult.conflict(current);
+                }
+                if (code == 404) {
+                    return UpdateResult.notFound();
+                }
+                logger.error("Failed to update tour: HTTP {}", code);
+                return UpdateResult.failed();
             }
         } catch (Exception e) {
             logger.error("Error updating tour", e);
-            return null;
+            return UpdateResult.failed();
+        } finally {
+            forgetRunningReads();
         }
     }
 
+    /**
+     * Entity tag for a version: the updatedAt timestamp in quotes
+     */
+    public static String versionTag(LocalDateTime updatedAt) {
+        return "\"" + updatedAt + "\"";
+    }
+
     @Override
-    public void deleteTour(Long id) {
+    public boolean deleteTour(Long id) {
         try {
             HttpDelete request = new HttpDelete(BASE_URL + "/" + id);
 
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
-                if (response.getCode() != 204) {
+            try (CloseableHttpResponse response = BackendPool.getInstance().execute(httpClient, request)) {
+                if (response.getCode() == 404) {
+                    logger.info("Tour {} was already deleted", id);
+                } else if (response.getCode() != 204) {
                     logger.error("Failed to delete tour: HTTP {}", response.getCode());
+                    return false;
                 }
+                return true;
             }
         } catch (Exception e) {
             logger.error("Error deleting tour with id {}", id, e);
+            return false;
+        } finally {
+            forgetRunningReads();
         }
     }
 
@@ -164,7 +238,7 @@ public class HttpTourService implements TourService {
             HttpGet request = new HttpGet(BASE_URL + "/search?q=" + searchTerm);
             request.setHeader("Accept", "application/json");
 
-            try (CloseableHttpResponse response = httpClient.execute(request)) {
+            try (CloseableHttpResponse response = BackendPool.getInstance().execute(httpClient, request)) {
                 if (response.getCode() == 200) {
                     String responseBody = EntityUtils.toString(response.getEntity());
                     TourSummaryDto[] summaryDtos = objectMapper.readValue(responseBody, TourSummaryDto[].class);
@@ -182,6 +256,27 @@ public class HttpTourService implements TourService {
         }
     }
 
+    /**
+     * False once the backend turned out to have no batch endpoint for tours
+     */
+    public boolean isBatchSupported() {
+        return batchExecutor.isBatchSupported();
+    }
+
+    // Sammelaufruf: ein Request je 100 Touren, ohne Batch-Endpunkt parallele Einzelrequests
+    @Override
+    public BatchResult<Boolean> deleteTours(List<Long> ids, BatchProgress progress) {
+        // Schon gelöscht zählt wie bei deleteTour als Erfolg
+        try {
+            return batchExecutor.run(ids,
+                    chunk -> BatchExecutor.post(httpClient, objectMapper, BASE_URL + "/batch", "delete", chunk,
+                            (status, item) -> Boolean.TRUE),
+                    this::deleteTour, progress);
+        } finally {
+            forgetRunningReads();
+        }
+    }
+
     // Helper methods to convert between DTOs and Models
     private Tour convertSummaryToTour(TourSummaryDto dto) {
         Tour tour = new Tour();
@@ -192,10 +287,11 @@ public class HttpTourService implements TourService {
         tour.setTransportType(dto.getTransportType());
         tour.setDistance(dto.getDistance() != null ? dto.getDistance() : 0.0);
         tour.setEstimatedTime(dto.getEstimatedTime() != null ? dto.getEstimatedTime() : 0);
+        tour.setUpdatedAt(dto.getUpdatedAt());
         return tour;
     }
 
-    private Tour convertResponseToTour(TourResponseDto dto) {
+    static Tour convertResponseToTour(TourResponseDto dto) {
         Tour tour = new Tour();
         tour.setId(dto.getId());
         tour.setName(dto.getName());
@@ -206,6 +302,7 @@ public class HttpTourService implements TourService {
         tour.setDistance(dto.getDistance() != null ? dto.getDistance() : 0.0);
         tour.setEstimatedTime(dto.getEstimatedTime() != null ? dto.getEstimatedTime() : 0);
         tour.setRouteImagePath(dto.getRouteImagePath());
+        tour.setUpdatedAt(dto.getUpdatedAt());
         return tour;
     }
 
@@ -234,6 +331,7 @@ public class HttpTourService implements TourService {
         private Integer popularity;
         private Double childFriendliness;
         private LocalDateTime createdAt; // HINZUGEFÜGT
+        private LocalDateTime updatedAt; // Version für bedingte Updates
 
         // Getters and setters
         public Long getId() { return id; }
@@ -256,6 +354,8 @@ public class HttpTourService implements TourService {
         public void setChildFriendliness(Double childFriendliness) { this.childFriendliness = childFriendliness; }
         public LocalDateTime getCreatedAt() { return createdAt; }
         public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+        public LocalDateTime getUpdatedAt() { return updatedAt; }
+        public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
     }
 
     // 2. TourResponseDto - erweitert um fehlende Felder
@@ -263,7 +363,6 @@ public class HttpTourService implements TourService {
         private String description;
         private String routeImagePath;
         private Integer tourLogsCount;
-        private LocalDateTime updatedAt; // HINZUGEFÜGT
 
         public String getDescription() { return description; }
         public void setDescription(String description) { this.description = description; }
@@ -271,8 +370,6 @@ public class HttpTourService implements TourService {
         public void setRouteImagePath(String routeImagePath) { this.routeImagePath = routeImagePath; }
         public Integer getTourLogsCount() { return tourLogsCount; }
         public void setTourLogsCount(Integer tourLogsCount) { this.tourLogsCount = tourLogsCount; }
-        public LocalDateTime getUpdatedAt() { return updatedAt; }
-        public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
     }
 
     public static class TourRequestDto {
@@ -303,4 +400,4 @@ public class HttpTourService implements TourService {
         public String getRouteImagePath() { return routeImagePath; }
         public void setRouteImagePath(String routeImagePath) { this.routeImagePath = routeImagePath; }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,126 @@
+package org.example.tourplanner.business.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.business.geo.LocationResolver;
+import org.example.tourplanner.business.routing.Isochrone;
+import org.example.tourplanner.business.routing.IsochroneCalculator;
+import org.example.tourplanner.business.routing.RoadGraph;
+import org.example.tourplanner.business.routing.TransportProfile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reachable areas around a start location on the offline road graph.
+ * One bounded search per transport profile covers all time budgets; profiles and
+ * budget outlines are computed in parallel.
+ */
+public class IsochroneService {
+    private static final Logger logger = LogManager.getLogger(IsochroneService.class);
+    private static IsochroneService instance;
+
+    private final OfflineRouteService offlineRouteService;
+    private final ExecutorService executor;
+
+    private IsochroneService() {
+        this(OfflineRouteService.getInstance());
+    }
+
+    IsochroneService(OfflineRouteService offlineRouteService) {
+        this.offlineRouteService = offlineRouteService;
+        this.executor = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), task -> {
+            Thread thread = new Thread(task, "isochrone-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static synchronized IsochroneService getInstance() {
+        if (instance == null) {
+            instance = new IsochroneService();
+        }
+        return instance;
+    }
+
+    public boolean isAvailable() {
+        return offlineRouteService.isAvailable();
+    }
+
+    /**
+     * Isochrones around a tour location (city name or "lat,lon")
+     * @return isochrones or an empty list if the location or the graph is unknown
+     */
+    public List<Isochrone> computeIsochrones(String location, List<TransportProfile> profiles, List<Integer> minutes) {
+        double[] coords = LocationResolver.resolve(location);
+        if (coords == null) {
+            logger.warn("Cannot compute isochrones for unknown location {}", location);
+            return Collections.emptyList();
+        }
+        return computeIsochrones(coords[0], coords[1], profiles, minutes);
+    }
+
+    /**
+     * Isochrones for every combination of profile and time budget
+     * @return isochrones sorted by profile and descending budget (largest first, for drawing)
+     */
+    public List<Isochrone> computeIsochrones(double lat, double lon, List<TransportProfile> profiles, List<Integer> minutes) {
+        RoadGraph graph = offlineRouteService.loadGraph();
+        if (graph == null || profiles.isEmpty() || minutes.isEmpty()) {
+            return Collections.emptyList();
+        }
+        long start = System.nanoTime();
+        IsochroneCalculator calculator = new IsochroneCalculator(graph);
+        int maxMinutes = Collections.max(minutes);
+
+        List<CompletableFuture<List<Isochrone>>> perProfile = new ArrayList<>();
+        for (TransportProfile profile : profiles) {
+            perProfile.add(CompletableFuture
+                    .supplyAsync(() -> reachable(calculator, lat, lon, profile, maxMinutes), executor)
+                    .thenCompose(set -> set == null
+                            ? CompletableFuture.completedFuture(Collections.<Isochrone>emptyList())
+                            : outlines(calculator, set, profile, minutes)));
+        }
+
+        List<Isochrone> result = new ArrayList<>();
+        for (CompletableFuture<List<Isochrone>> future : perProfile) {
+            try {
+                result.addAll(future.join());
+            } catch (Exception e) {
+                logger.error("Isochrone computation failed", e);
+            }
+        }
+        result.sort(Comparator.comparing(Isochrone::getProfile)
+                .thenComparing(Comparator.comparingInt(Isochrone::getMinutes).reversed()));
+        logger.info("Computed {} isochrones around {},{} in {} ms",
+                result.size(), lat, lon, (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    private IsochroneCalculator.ReachableSet reachable(IsochroneCalculator calculator, double lat, double lon,
+                                                       TransportProfile profile, int maxMinutes) {
+        int source = offlineRouteService.nearestNode(lat, lon, profile);
+        if (source < 0) {
+            logger.warn("No {} road node near {},{}", profile, lat, lon);
+            return null;
+        }
+        return calculator.reachable(source, profile, maxMinutes * 600);
+    }
+
+    private CompletableFuture<List<Isochrone>> outlines(IsochroneCalculator calculator,
+                                                        IsochroneCalculator.ReachableSet set,
+                                                        TransportProfile profile, List<Integer> minutes) {
+        List<CompletableFuture<Isochrone>> futures = new ArrayList<>();
+        for (int budget : minutes) {
+            futures.add(CompletableFuture.supplyAsync(() -> new Isochrone(profile, budget,
+                    calculator.outline(set, budget * 600), set.countWithin(budget * 600)), executor));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> futures.stream().map(CompletableFuture::join).toList());
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.tourplanner.business.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.models.Tour;
+import org.example.tourplanner.models.TourLog;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Changes read from the updated_at columns (embedded data access mode). The backend schema
+ * keeps no tombstones, so the ids of all existing tours and logs are returned instead;
+ * reading only the ids is still much less than reading all rows.
+ */
+public class JdbcTourChangeService implements TourChangeService {
+    private static final Logger logger = LogManager.getLogger(JdbcTourChangeService.class);
+    private static JdbcTourChangeService instance;
+
+    private static final String TOUR_COLUMNS = "id, name, description, from_location, to_location, transport_type, "
+            + "distance, estimated_time, route_image_path, updated_at";
+    private static final String LOG_COLUMNS = "id, tour_id, date, comment, difficulty, total_distance, total_time, "
+            + "rating, updated_at";
+    private static final String ALL_TOURS = "SELECT " + TOUR_COLUMNS + " FROM tours ORDER BY id";
+    private static final String CHANGED_TOURS = "SELECT " + TOUR_COLUMNS + " FROM tours WHERE updated_at > ? ORDER BY id";
+    private static final String ALL_LOGS = "SELECT " + LOG_COLUMNS + " FROM tour_logs ORDER BY tour_id, date, id";
+    private static final String CHANGED_LOGS = "SELECT " + LOG_COLUMNS + " FROM tour_logs WHERE updated_at > ? "
+            + "ORDER BY tour_id, date, id";
+    private static final String TOUR_IDS = "SELECT id FROM tours";
+    private static final String LOG_IDS = "SELECT id FROM tour_logs";
+
+    private final EmbeddedDatabase database;
+
+    JdbcTourChangeService(EmbeddedDatabase database) {
+        this.database = database;
+    }
+
+    public static synchronized JdbcTourChangeService getInstance() {
+        if (instance == null) {
+            instance = new JdbcTourChangeService(EmbeddedDatabase.getInstance());
+        }
+        return instance;
+    }
+
+    @Override
+    public TourChanges getChangesSince(LocalDateTime since) {
+        try {
+            return database.inTransaction(statements -> {
+                PreparedStatement tourStatement = statements.prepare(since == null ? ALL_TOURS : CHANGED_TOURS);
+                PreparedStatement logStatement = statements.prepare(since == null ? ALL_LOGS : CHANGED_LOGS);
+                if (since != null) {
+                    tourStatement.setObject(1, since);
+                    logStatement.setObject(1, since);
+                }
+                List<Tour> tours = JdbcTourService.readTours(tourStatement);
+                Map<Long, List<TourLog>> logsByTour = new LinkedHashMap<>();
+                List<TourLog> logs = JdbcTourLogService.readTourLogs(logStatement, logsByTour);
+
+                // Zeitstempel der Datenbank als Marke, nicht die lokale Uhr
+                LocalDateTime newest = since;
+                for (Tour tour : tours) {
+                    newest = later(newest, tour.getUpdatedAt());
+                }
+                for (TourLog tourLog : logs) {
+                    newest = later(newest, tourLog.getUpdatedAt());
+                }
+                if (since == null) {
+                    return new TourChanges(null, newest, tours, logsByTour, Set.of(), Set.of());
+                }
+                return new TourChanges(since, newest, tours, logsByTour, Set.of(), Set.of(),
+                        readIds(statements.prepare(TOUR_IDS)), readIds(statements.prepare(LOG_IDS)));
+            });
+        } catch (SQLException e) {
+            logger.error("Error fetching changes since {}", since, e);
+            return null;
+        }
+    }
+
+    private static Set<Long> readIds(PreparedStatement statement) throws SQLException {
+        Set<Long> ids = new HashSet<>();
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                ids.add(resultSet.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b != null && b.isAfter(a) ? b : a;
+    }
+}
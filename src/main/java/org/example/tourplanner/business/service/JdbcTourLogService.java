@@ -0,0 +1,320 @@
+package org.example.tourplanner.business.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.models.TourLog;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TourLogService working directly on the backend tables (embedded data access mode).
+ * Expects tour_logs(id, tour_id, date, comment, difficulty, total_distance, total_time, rating,
+ * created_at, updated_at). The logs of many tours are read with a single query.
+ */
+public class JdbcTourLogService implements TourLogService {
+    private static final Logger logger = LogManager.getLogger(JdbcTourLogService.class);
+    private static JdbcTourLogService instance;
+
+    private static final String COLUMNS = "id, tour_id, date, comment, difficulty, total_distance, total_time, "
+            + "rating, updated_at";
+    private static final String SELECT_BY_TOUR = "SELECT " + COLUMNS + " FROM tour_logs WHERE tour_id = ? ORDER BY date, id";
+    // Ein Parameter für beliebig viele Touren, damit das Statement im Cache bleibt
+    private static final String SELECT_BY_TOURS = "SELECT " + COLUMNS + " FROM tour_logs WHERE tour_id = ANY (?) "
+            + "ORDER BY tour_id, date, id";
+    private static final String SELECT_BY_ID = "SELECT " + COLUMNS + " FROM tour_logs WHERE id = ?";
+    private static final String INSERT_VALUES = "INSERT INTO tour_logs (date, comment, difficulty, total_distance, "
+            + "total_time, rating, tour_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT = INSERT_VALUES + " RETURNING id";
+    private static final String UPDATE = "UPDATE tour_logs SET date = ?, comment = ?, difficulty = ?, "
+            + "total_distance = ?, total_time = ?, rating = ?, updated_at = ? WHERE id = ?";
+    private static final String DELETE = "DELETE FROM tour_logs WHERE id = ?";
+
+    private final EmbeddedDatabase database;
+
+    JdbcTourLogService(EmbeddedDatabase database) {
+        this.database = database;
+    }
+
+    public static synchronized JdbcTourLogService getInstance() {
+        if (instance == null) {
+            instance = new JdbcTourLogService(EmbeddedDatabase.getInstance());
+        }
+        return instance;
+    }
+
+    @Override
+    public List<TourLog> getTourLogs(Long tourId) {
+        try {
+            return database.execute(statements -> {
+                PreparedStatement statement = statements.prepare(SELECT_BY_TOUR);
+                statement.setLong(1, tourId);
+                return readTourLogs(statement, null);
+            });
+        } catch (SQLException e) {
+            logger.error("Error fetching tour logs for tour {}", tourId, e);
+            return Collections.emptyList();
+        }
+    }
+
+    @Override
+    public Map<Long, List<TourLog>> getTourLogsForTours(Collection<Long> tourIds) {
+        Map<Long, List<TourLog>> logs = new LinkedHashMap<>();
+        for (Long tourId : tourIds) {
+            logs.put(tourId, new ArrayList<>());
+        }
+        if (tourIds.isEmpty()) {
+            return logs;
+        }
+        try {
+            database.execute(statements -> {
+                PreparedStatement statement = statements.prepare(SELECT_BY_TOURS);
+                Array ids = statement.getConnection().createArrayOf("bigint", tourIds.toArray());
+                try {
+                    statement.setArray(1, ids);
+                    return readTourLogs(statement, logs);
+                } finally {
+                    ids.free();
+                }
+            });
+        } catch (SQLException e) {
+            logger.error("Error fetching tour logs for {} tours", tourIds.size(), e);
+        }
+        return logs;
+    }
+
+    @Override
+    public TourLog getTourLogById(Long id) {
+        try {
+            List<TourLog> logs = database.execute(statements -> {
+                PreparedStatement statement = statements.prepare(SELECT_BY_ID);
+                statement.setLong(1, id);
+                return readTourLogs(statement, null);
+            });
+            return logs.isEmpty() ? null : logs.get(0);
+        } catch (SQLException e) {
+            logger.error("Error fetching tour log with id {}", id, e);
+            return null;
+        }
+    }
+
+    @Override
+    public TourLog createTourLog(Long tourId, TourLog tourLog) {
+        try {
+            Long id = database.execute(statements -> {
+                PreparedStatement statement = statements.prepare(INSERT);
+                LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+                int index = bindTourLog(statement, tourLog);
+                statement.setLong(index++, tourId);
+                statement.setObject(index++, now);
+                statement.setObject(index, now);
+                tourLog.setUpdatedAt(now);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next() ? resultSet.getLong(1) : null;
+                }
+            });
+            if (id == null) {
+                logger.error("Failed to create tour log: no id returned");
+                return null;
+            }
+            tourLog.setId(id);
+            return tourLog;
+        } catch (SQLException e) {
+            logger.error("Error creating tour log", e);
+            return null;
+        }
+    }
+
+    @Override
+    public TourLog updateTourLog(TourLog tourLog) {
+        try {
+            int updated = database.execute(statements -> {
+                PreparedStatement statement = statements.prepare(UPDATE);
+                LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+                int index = bindTourLog(statement, tourLog);
+                statement.setObject(index++, now);
+                statement.setLong(index, tourLog.getId());
+                int rows = statement.executeUpdate();
+                tourLog.setUpdatedAt(now);
+                return rows;
+            });
+            if (updated == 0) {
+                logger.error("Failed to update tour log {}: not found", tourLog.getId());
+                return null;
+            }
+            return tourLog;
+        } catch (SQLException e) {
+            logger.error("Error updating tour log", e);
+            return null;
+        }
+    }
+
+    @Override
+    public boolean deleteTourLog(Long id) {
+        try {
+            int deleted = database.execute(statements -> {
+                PreparedStatement statement = statements.prepare(DELETE);
+                statement.setLong(1, id);
+                return statement.executeUpdate();
+            });
+            if (deleted == 0) {
+                logger.info("Tour log {} was already deleted", id);
+            }
+            return true;
+        } catch (SQLException e) {
+            logger.error("Error deleting tour log with id {}", id, e);
+            return false;
+        }
+    }
+
+    // Sammelaufrufe: eine Transaktion, ein executeBatch; schlägt er fehl, einzeln
+    @Override
+    public BatchResult<TourLog> createTourLogs(Long tourId, List<TourLog> tourLogs, BatchProgress progress) {
+        if (tourLogs.isEmpty()) {
+            return new BatchResult<>(0);
+        }
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        try {
+            List<Long> ids = database.inTransaction(statements -> {
+                PreparedStatement statement = statements.prepareReturningIds(INSERT_VALUES);
+                for (TourLog tourLog : tourLogs) {
+                    int index = bindTourLog(statement, tourLog);
+                    statement.setLong(index++, tourId);
+                    statement.setObject(index++, now);
+                    statement.setObject(index, now);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                return StatementCache.readGeneratedIds(statement, tourLogs.size());
+            });
+            BatchResult<TourLog> result = new BatchResult<>(tourLogs.size());
+            for (int i = 0; i < tourLogs.size(); i++) {
+                TourLog tourLog = tourLogs.get(i);
+                tourLog.setId(ids.get(i));
+                tourLog.setUpdatedAt(now);
+                result.succeeded(i, tourLog, 0);
+            }
+            progress.update(tourLogs.size(), tourLogs.size());
+            return result;
+        } catch (SQLException e) {
+            logger.warn("Batch insert of {} tour logs failed ({}), creating them one by one",
+                    tourLogs.size(), e.getMessage());
+            return BatchExecutor.sequential(tourLogs, tourLog -> createTourLog(tourId, tourLog), progress);
+        }
+    }
+
+    @Override
+    public BatchResult<TourLog> updateTourLogs(List<TourLog> tourLogs, BatchProgress progress) {
+        if (tourLogs.isEmpty()) {
+            return new BatchResult<>(0);
+        }
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        try {
+            int[] counts = database.inTransaction(statements -> {
+                PreparedStatement statement = statements.prepare(UPDATE);
+                for (TourLog tourLog : tourLogs) {
+                    int index = bindTourLog(statement, tourLog);
+                    statement.setObject(index++, now);
+                    statement.setLong(index, tourLog.getId());
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            });
+            BatchResult<TourLog> result = new BatchResult<>(tourLogs.size());
+            for (int i = 0; i < tourLogs.size(); i++) {
+                TourLog tourLog = tourLogs.get(i);
+                if (counts[i] == 0) {
+                    logger.error("Failed to update tour log {}: not found", tourLog.getId());
+                    result.failed(i, "Not found", 0);
+                } else {
+                    tourLog.setUpdatedAt(now);
+                    result.succeeded(i, tourLog, 0);
+                }
+            }
+            progress.update(tourLogs.size(), tourLogs.size());
+            return result;
+        } catch (SQLException e) {
+            logger.warn("Batch update of {} tour logs failed ({}), updating them one by one",
+                    tourLogs.size(), e.getMessage());
+            return BatchExecutor.sequential(tourLogs, this::updateTourLog, progress);
+        }
+    }
+
+    @Override
+    public BatchResult<Boolean> deleteTourLogs(List<Long> ids, BatchProgress progress) {
+        if (ids.isEmpty()) {
+            return new BatchResult<>(0);
+        }
+        try {
+            database.inTransaction(statements -> {
+                PreparedStatement statement = statements.prepare(DELETE);
+                for (Long id : ids) {
+                    statement.setLong(1, id);
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            });
+            // Schon gelöscht zählt wie bei deleteTourLog als Erfolg
+            BatchResult<Boolean> result = new BatchResult<>(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                result.succeeded(i, Boolean.TRUE, 0);
+            }
+            progress.update(ids.size(), ids.size());
+            return result;
+        } catch (SQLException e) {
+            logger.warn("Batch delete of {} tour logs failed ({}), deleting them one by one", ids.size(), e.getMessage());
+            return BatchExecutor.sequential(ids, this::deleteTourLog, progress);
+        }
+    }
+
+    /**
+     * Reads all rows; with a map the logs are also sorted into the lists of their tours
+     */
+    static List<TourLog> readTourLogs(PreparedStatement statement, Map<Long, List<TourLog>> byTour)
+            throws SQLException {
+        List<TourLog> logs = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                TourLog tourLog = new TourLog();
+                tourLog.setId(resultSet.getLong("id"));
+                tourLog.setDate(resultSet.getObject("date", LocalDateTime.class));
+                String comment = resultSet.getString("comment");
+                tourLog.setComment(comment != null ? comment : "");
+                tourLog.setDifficulty(resultSet.getInt("difficulty"));
+                tourLog.setTotalDistance(resultSet.getDouble("total_distance"));
+                tourLog.setTotalTime(resultSet.getInt("total_time"));
+                tourLog.setRating(resultSet.getInt("rating"));
+                tourLog.setUpdatedAt(resultSet.getObject("updated_at", LocalDateTime.class));
+                logs.add(tourLog);
+                if (byTour != null) {
+                    byTour.computeIfAbsent(resultSet.getLong("tour_id"), id -> new ArrayList<>()).add(tourLog);
+                }
+            }
+        }
+        return logs;
+    }
+
+    /**
+     * Binds the editable columns in INSERT/UPDATE order
+     * @return the next parameter index
+     */
+    private static int bindTourLog(PreparedStatement statement, TourLog tourLog) throws SQLException {
+        statement.setObject(1, tourLog.getDate());
+        statement.setString(2, tourLog.getComment());
+        statement.setInt(3, tourLog.getDifficulty());
+        statement.setDouble(4, tourLog.getTotalDistance());
+        statement.setInt(5, tourLog.getTotalTime());
+        statement.setInt(6, tourLog.getRating());
+        return 7;
+    }
+}
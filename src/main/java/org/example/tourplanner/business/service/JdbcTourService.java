@@ -0,0 +1,311 @@
+package org.example.tourplanner.business.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.models.Tour;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * TourService working directly on the backend tables (embedded data access mode), without
+ * the HTTP hop and JSON on both sides. Expects the schema the backend creates:
+ * tours(id, name, description, from_location, to_location, transport_type, distance,
+ * estimated_time, route_image_path, created_at, updated_at).
+ */
+public class JdbcTourService implements TourService {
+    private static final Logger logger = LogManager.getLogger(JdbcTourService.class);
+    private static JdbcTourService instance;
+
+    private static final String COLUMNS = "id, name, description, from_location, to_location, transport_type, "
+            + "distance, estimated_time, route_image_path, updated_at";
+    private static final String SELECT_ALL = "SELECT " + COLUMNS + " FROM tours ORDER BY id";
+    private static final String SELECT_BY_ID = "SELECT " + COLUMNS + " FROM tours WHERE id = ?";
+    private static final String INSERT_VALUES = "INSERT INTO tours (name, description, from_location, to_location, "
+            + "transport_type, distance, estimated_time, route_image_path, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT = INSERT_VALUES + " RETURNING id";
+    private static final String UPDATE = "UPDATE tours SET name = ?, description = ?, from_location = ?, "
+            + "to_location = ?, transport_type = ?, distance = ?, estimated_time = ?, route_image_path = ?, "
+            + "updated_at = ? WHERE id = ?";
+    private static final String UPDATE_IF_UNCHANGED = UPDATE + " AND updated_at = ?";
+    private static final String DELETE_LOGS = "DELETE FROM tour_logs WHERE tour_id = ?";
+    private static final String DELETE = "DELETE FROM tours WHERE id = ?";
+    private static final String SEARCH = "SELECT " + COLUMNS + " FROM tours WHERE name ILIKE ? "
+            + "OR description ILIKE ? OR from_location ILIKE ? OR to_location ILIKE ? OR transport_type ILIKE ? "
+            + "ORDER BY id";
+
+    private final EmbeddedDatabase database;
+
+    JdbcTourService(EmbeddedDatabase database) {
+        this.database = database;
+    }
+
+    public static synchronized JdbcTourService getInstance() {
+        if (instance == null) {
+            instance = new JdbcTourService(EmbeddedDatabase.getInstance());
+        }
+        return instance;
+    }
+
+    @Override
+    public List<Tour> getAllTours() {
+        try {
+            return database.execute(statements -> readTours(statements.prepare(SELECT_ALL)));
+        } catch (SQLException e) {
+            logger.error("Error fetching tours", e);
+            return Collections.emptyList();
+        }
+    }
+
+    @Override
+    public Tour getTourById(Long id) {
+        try {
+            List<Tour> tours = database.execute(statements -> {
+                PreparedStatement statement = statements.prepare(SELECT_BY_ID);
+                statement.setLong(1, id);
+                return readTours(statement);
+            });
+            return tours.isEmpty() ? null : tours.get(0);
+        } catch (SQLException e) {
+            logger.error("Error fetching tour with id {}", id, e);
+            return null;
+        }
+    }
+
+    @Override
+    public Tour createTour(Tour tour) {
+        try {
+            Long id = database.execute(statements -> {
+                PreparedStatement statement = statements.prepare(INSERT);
+                LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+                int index = bindTour(statement, tour);
+                statement.setObject(index++, now);
+                statement.setObject(index, now);
+                tour.setUpdatedAt(now);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next() ? resultSet.getLong(1) : null;
+                }
+            });
+            if (id == null) {
+                logger.error("Failed to create tour: no id returned");
+                return null;
+            }
+            tour.setId(id);
+            return tour;
+        } catch (SQLException e) {
+            logger.error("Error creating tour", e);
+            return null;
+        }
+    }
+
+    @Override
+    public Tour updateTour(Tour tour) {
+        try {
+            int updated = database.execute(statements -> {
+                PreparedStatement statement = statements.prepare(UPDATE);
+                LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+                int index = bindTour(statement, tour);
+                statement.setObject(index++, now);
+                statement.setLong(index, tour.getId());
+                int rows = statement.executeUpdate();
+                tour.setUpdatedAt(now);
+                return rows;
+            });
+            if (updated == 0) {
+                logger.error("Failed to update tour {}: not found", tour.getId());
+                return null;
+            }
+            return tour;
+        } catch (SQLException e) {
+            logger.error("Error updating tour", e);
+            return null;
+        }
+    }
+
+    @Override
+    public UpdateResult<Tour> updateTourIfUnchanged(Tour tour) {
+        if (tour.getUpdatedAt() == null) {
+            Tour updated = updateTour(tour);
+            return updated != null ? UpdateResult.updated(updated) : UpdateResult.notFound();
+        }
+        try {
+            return database.inTransaction(statements -> {
+                PreparedStatement statement = statements.prepare(UPDATE_IF_UNCHANGED);
+                // Auf die Genauigkeit der Spalte kürzen, sonst passt der nächste Vergleich nicht
+                LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+                int index = bindTour(statement, tour);
+                statement.setObject(index++, now);
+                statement.setLong(index++, tour.getId());
+                statement.setObject(index, tour.getUpdatedAt());
+                if (statement.executeUpdate() > 0) {
+                    tour.setUpdatedAt(now);
+                    return UpdateResult.updated(tour);
+                }
+                PreparedStatement select = statements.prepare(SELECT_BY_ID);
+                select.setLong(1, tour.getId());
+                List<Tour> current = readTours(select);
+                return current.isEmpty() ? UpdateResult.<Tour>notFound() : UpdateResult.conflict(current.get(0));
+            });
+        } catch (SQLException e) {
+            logger.error("Error updating tour", e);
+            return UpdateResult.failed();
+        }
+    }
+
+    @Override
+    public boolean deleteTour(Long id) {
+        try {
+            // Logs und Tour gemeinsam löschen, auch ohne ON DELETE CASCADE im Schema
+            database.inTransaction(statements -> {
+                PreparedStatement deleteLogs = statements.prepare(DELETE_LOGS);
+                deleteLogs.setLong(1, id);
+                deleteLogs.executeUpdate();
+                PreparedStatement deleteTour = statements.prepare(DELETE);
+                deleteTour.setLong(1, id);
+                if (deleteTour.executeUpdate() == 0) {
+                    logger.info("Tour {} was already deleted", id);
+                }
+                return null;
+            });
+            return true;
+        } catch (SQLException e) {
+            logger.error("Error deleting tour with id {}", id, e);
+            return false;
+        }
+    }
+
+    @Override
+    public List<Tour> searchTours(String searchTerm) {
+        String pattern = "%" + escapeLike(searchTerm != null ? searchTerm.trim() : "") + "%";
+        try {
+            return database.execute(statements -> {
+                PreparedStatement statement = statements.prepare(SEARCH);
+                for (int i = 1; i <= 5; i++) {
+                    statement.setString(i, pattern);
+                }
+                return readTours(statement);
+            });
+        } catch (SQLException e) {
+            logger.error("Error searching tours", e);
+            return Collections.emptyList();
+        }
+    }
+
+    // Sammelaufrufe: eine Transaktion, ein executeBatch je Statement; schlägt er fehl, einzeln
+    @Override
+    public BatchResult<Tour> createTours(List<Tour> tours, BatchProgress progress) {
+        if (tours.isEmpty()) {
+            return new BatchResult<>(0);
+        }
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        try {
+            List<Long> ids = database.inTransaction(statements -> {
+                PreparedStatement statement = statements.prepareReturningIds(INSERT_VALUES);
+                for (Tour tour : tours) {
+                    int index = bindTour(statement, tour);
+                    statement.setObject(index++, now);
+                    statement.setObject(index, now);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                return StatementCache.readGeneratedIds(statement, tours.size());
+            });
+            BatchResult<Tour> result = new BatchResult<>(tours.size());
+            for (int i = 0; i < tours.size(); i++) {
+                Tour tour = tours.get(i);
+                tour.setId(ids.get(i));
+                tour.setUpdatedAt(now);
+                result.succeeded(i, tour, 0);
+            }
+            progress.update(tours.size(), tours.size());
+            return result;
+        } catch (SQLException e) {
+            logger.warn("Batch insert of {} tours failed ({}), creating them one by one", tours.size(), e.getMessage());
+            return BatchExecutor.sequential(tours, this::createTour, progress);
+        }
+    }
+
+    @Override
+    public BatchResult<Boolean> deleteTours(List<Long> ids, BatchProgress progress) {
+        if (ids.isEmpty()) {
+            return new BatchResult<>(0);
+        }
+        try {
+            database.inTransaction(statements -> {
+                PreparedStatement deleteLogs = statements.prepare(DELETE_LOGS);
+                PreparedStatement deleteTour = statements.prepare(DELETE);
+                for (Long id : ids) {
+                    deleteLogs.setLong(1, id);
+                    deleteLogs.addBatch();
+                    deleteTour.setLong(1, id);
+                    deleteTour.addBatch();
+                }
+                deleteLogs.executeBatch();
+                return deleteTour.executeBatch();
+            });
+            // Schon gelöscht zählt wie bei deleteTour als Erfolg
+            BatchResult<Boolean> result = new BatchResult<>(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                result.succeeded(i, Boolean.TRUE, 0);
+            }
+            progress.update(ids.size(), ids.size());
+            return result;
+        } catch (SQLException e) {
+            logger.warn("Batch delete of {} tours failed ({}), deleting them one by one", ids.size(), e.getMessage());
+            return BatchExecutor.sequential(ids, this::deleteTour, progress);
+        }
+    }
+
+    static List<Tour> readTours(PreparedStatement statement) throws SQLException {
+        List<Tour> tours = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                Tour tour = new Tour();
+                tour.setId(resultSet.getLong("id"));
+                tour.setName(resultSet.getString("name"));
+                tour.setDescription(resultSet.getString("description"));
+                tour.setFrom(resultSet.getString("from_location"));
+                tour.setTo(resultSet.getString("to_location"));
+                tour.setTransportType(resultSet.getString("transport_type"));
+                tour.setDistance(resultSet.getDouble("distance"));
+                tour.setEstimatedTime(resultSet.getInt("estimated_time"));
+                tour.setRouteImagePath(resultSet.getString("route_image_path"));
+                tour.setUpdatedAt(resultSet.getObject("updated_at", LocalDateTime.class));
+                tours.add(tour);
+            }
+        }
+        return tours;
+    }
+
+    /**
+     * Binds the editable columns in INSERT/UPDATE order
+     * @return the next parameter index
+     */
+    private static int bindTour(PreparedStatement statement, Tour tour) throws SQLException {
+        statement.setString(1, tour.getName());
+        statement.setString(2, tour.getDescription());
+        statement.setString(3, tour.getFrom());
+        statement.setString(4, tour.getTo());
+        statement.setString(5, tour.getTransportType());
+        statement.setDouble(6, tour.getDistance());
+        statement.setInt(7, tour.getEstimatedTime());
+        if (tour.getRouteImagePath() != null) {
+            statement.setString(8, tour.getRouteImagePath());
+        } else {
+            statement.setNull(8, Types.VARCHAR);
+        }
+        return 9;
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
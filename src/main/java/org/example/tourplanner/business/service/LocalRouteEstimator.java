@@ -0,0 +1,184 @@
+package org.example.tourplanner.business.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.business.geo.GeoMath;
+import org.example.tourplanner.business.geo.LocationResolver;
+import org.example.tourplanner.business.geo.RouteGeometryStore;
+import org.example.tourplanner.models.Tour;
+import org.example.tourplanner.models.TourLog;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongFunction;
+
+/**
+ * Instant distance/time estimate without any network call:
+ * great-circle distance times a detour factor, divided by a typical speed per transport type.
+ * Speeds are calibrated from the tour logs, detour factors from the routes a routing provider
+ * calculated for the tours (kept in the {@link RouteGeometryStore}). The tour distance itself
+ * is not used for that, it may be an estimate of this class saved with the tour.
+ */
+public class LocalRouteEstimator implements RouteProvider {
+    private static final Logger logger = LogManager.getLogger(LocalRouteEstimator.class);
+    private static LocalRouteEstimator instance;
+
+    // Startwerte, bis genug eigene Logs vorhanden sind
+    private static final Map<String, Profile> DEFAULT_PROFILES = Map.of(
+            "Car", new Profile(55.0, 1.30),
+            "Bicycle", new Profile(16.0, 1.25),
+            "Walking", new Profile(4.5, 1.20),
+            "Public Transport", new Profile(35.0, 1.35),
+            "Other", new Profile(30.0, 1.30)
+    );
+    private static final Profile FALLBACK_PROFILE = DEFAULT_PROFILES.get("Other");
+
+    // Gewicht der Startwerte als "so viele Stunden" bzw. "so viele Touren" an Beobachtungen
+    private static final double PRIOR_HOURS = 2.0;
+    private static final double PRIOR_TOURS = 3.0;
+    private static final double MIN_PLAUSIBLE_SPEED = 1.0;
+    private static final double MAX_PLAUSIBLE_SPEED = 200.0;
+    private static final double MAX_DETOUR_FACTOR = 3.0;
+
+    private volatile Map<String, Profile> profiles = DEFAULT_PROFILES;
+    // Routen-Schlüssel -> berechnete Geometrie; Schätzungen landen dort nie, sie haben keine
+    private final LongFunction<double[][]> calculatedRoutes;
+
+    LocalRouteEstimator() {
+        this(key -> {
+            RouteGeometryStore store = RouteGeometryStore.getInstance();
+            return store != null ? store.get(key) : null;
+        });
+    }
+
+    LocalRouteEstimator(LongFunction<double[][]> calculatedRoutes) {
+        this.calculatedRoutes = calculatedRoutes;
+    }
+
+    public static synchronized LocalRouteEstimator getInstance() {
+        if (instance == null) {
+            instance = new LocalRouteEstimator();
+        }
+        return instance;
+    }
+
+    /**
+     * Estimate distance and time between two locations (city name or "lat,lon")
+     */
+    @Override
+    public BackendRouteService.RouteCalculationResult calculateRoute(String from, String to, String transportType) {
+        double[] fromCoords = LocationResolver.resolve(from);
+        double[] toCoords = LocationResolver.resolve(to);
+        if (fromCoords == null || toCoords == null) {
+            return new BackendRouteService.RouteCalculationResult(false, 0.0, 0, null,
+                    "Unknown location: " + (fromCoords == null ? from : to));
+        }
+
+        Profile profile = profileFor(transportType);
+        double km = GeoMath.haversineMeters(fromCoords[0], fromCoords[1], toCoords[0], toCoords[1]) / 1000.0
+                * profile.detourFactor;
+        double distance = Math.round(km * 100) / 100.0;
+        int minutes = (int) Math.ceil(km / profile.speedKmh * 60);
+        return new BackendRouteService.RouteCalculationResult(true, distance, minutes, null,
+                "Estimated from straight-line distance");
+    }
+
+    /**
+     * Re-fits speed and detour factor per transport type from the given tours and their logs.
+     * Defaults act as prior so a single odd log cannot skew the estimate.
+     */
+    public void calibrate(Collection<Tour> tours) {
+        Map<String, double[]> speedSums = new HashMap<>();   // {km, hours}
+        Map<String, double[]> detourSums = new HashMap<>();  // {sum of factors, count}
+
+        for (Tour tour : tours) {
+            String type = tour.getTransportType();
+            if (type == null) {
+                continue;
+            }
+            for (TourLog log : tour.getTourLogs()) {
+                if (log.getTotalDistance() <= 0 || log.getTotalTime() <= 0) {
+                    continue;
+                }
+                double hours = log.getTotalTime() / 60.0;
+                double speed = log.getTotalDistance() / hours;
+                if (speed >= MIN_PLAUSIBLE_SPEED && speed <= MAX_PLAUSIBLE_SPEED) {
+                    double[] sums = speedSums.computeIfAbsent(type, t -> new double[2]);
+                    sums[0] += log.getTotalDistance();
+                    sums[1] += hours;
+                }
+            }
+
+            double factor = detourFactorOf(tour);
+            if (factor > 0) {
+                double[] sums = detourSums.computeIfAbsent(type, t -> new double[2]);
+                sums[0] += factor;
+                sums[1]++;
+            }
+        }
+
+        Map<String, Profile> calibrated = new HashMap<>(DEFAULT_PROFILES);
+        Set<String> types = new HashSet<>(speedSums.keySet());
+        types.addAll(detourSums.keySet());
+        for (String type : types) {
+            Profile prior = DEFAULT_PROFILES.getOrDefault(type, FALLBACK_PROFILE);
+            double[] speed = speedSums.getOrDefault(type, new double[2]);
+            double[] detour = detourSums.getOrDefault(type, new double[2]);
+            Profile profile = new Profile(
+                    (prior.speedKmh * PRIOR_HOURS + speed[0]) / (PRIOR_HOURS + speed[1]),
+                    (prior.detourFactor * PRIOR_TOURS + detour[0]) / (PRIOR_TOURS + detour[1]));
+            calibrated.put(type, profile);
+            logger.debug("Calibrated {}: {} km/h, detour factor {}", type, profile.speedKmh, profile.detourFactor);
+        }
+        profiles = calibrated;
+        logger.info("Route estimator calibrated from {} tours", tours.size());
+    }
+
+    public double getSpeedKmh(String transportType) {
+        return profileFor(transportType).speedKmh;
+    }
+
+    public double getDetourFactor(String transportType) {
+        return profileFor(transportType).detourFactor;
+    }
+
+    private Profile profileFor(String transportType) {
+        Profile profile = transportType != null ? profiles.get(transportType) : null;
+        return profile != null ? profile : FALLBACK_PROFILE;
+    }
+
+    /**
+     * Ratio of the calculated route length to the straight-line distance, 0 if no route was calculated
+     */
+    private double detourFactorOf(Tour tour) {
+        double[][] route = calculatedRoutes.apply(
+                RouteGeometryStore.keyFor(tour.getFrom(), tour.getTo(), tour.getTransportType()));
+        if (route == null || route.length < 2) {
+            return 0;
+        }
+        double[] from = LocationResolver.resolve(tour.getFrom());
+        double[] to = LocationResolver.resolve(tour.getTo());
+        if (from == null || to == null) {
+            return 0;
+        }
+        double straightKm = GeoMath.haversineMeters(from[0], from[1], to[0], to[1]) / 1000.0;
+        if (straightKm < 1.0) {
+            return 0;
+        }
+        double factor = GeoMath.pathMeters(route) / 1000.0 / straightKm;
+        return factor >= 1.0 && factor <= MAX_DETOUR_FACTOR ? factor : 0;
+    }
+
+    private static final class Profile {
+        final double speedKmh;
+        final double detourFactor;
+
+        Profile(double speedKmh, double detourFactor) {
+            this.speedKmh = speedKmh;
+            this.detourFactor = detourFactor;
+        }
+    }
+}
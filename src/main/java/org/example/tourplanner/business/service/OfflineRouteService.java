@@ -0,0 +1,204 @@
+package org.example.tourplanner.business.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.business.geo.GeoMath;
+import org.example.tourplanner.business.geo.LocationResolver;
+import org.example.tourplanner.business.routing.ContractionHierarchy;
+import org.example.tourplanner.business.routing.NodeLocator;
+import org.example.tourplanner.business.routing.OfflinePath;
+import org.example.tourplanner.business.routing.OsmGraphImporter;
+import org.example.tourplanner.business.routing.RoadGraph;
+import org.example.tourplanner.business.routing.RoadGraphFile;
+import org.example.tourplanner.business.routing.TransportProfile;
+import org.example.tourplanner.config.ConfigurationManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * In-process route calculation on a local road graph.
+ * Returns the same RouteCalculationResult as BackendRouteService so callers can use it
+ * when the backend or OpenRouteService is not reachable.
+ */
+public class OfflineRouteService implements RouteProvider {
+    private static final Logger logger = LogManager.getLogger(OfflineRouteService.class);
+    private static OfflineRouteService instance;
+
+    private final Path graphPath;
+    private RoadGraph graph;
+    private NodeLocator locator;
+    private boolean loadFailed;
+    private final Map<TransportProfile, ContractionHierarchy> hierarchies = new EnumMap<>(TransportProfile.class);
+
+    private OfflineRouteService() {
+        this(resolveGraphPath());
+    }
+
+    OfflineRouteService(Path graphPath) {
+        this.graphPath = graphPath;
+    }
+
+    public static synchronized OfflineRouteService getInstance() {
+        if (instance == null) {
+            instance = new OfflineRouteService();
+        }
+        return instance;
+    }
+
+    private static Path resolveGraphPath() {
+        String configured = ConfigurationManager.getInstance().getProperty("offline.graph.path", "");
+        if (!configured.isBlank()) {
+            return Paths.get(configured);
+        }
+        return Paths.get(System.getProperty("user.home"), "TourPlanner", "Offline", "road-graph.graph");
+    }
+
+    /**
+     * True if a local road graph is installed
+     */
+    @Override
+    public boolean isAvailable() {
+        return Files.isRegularFile(graphPath);
+    }
+
+    /**
+     * Calculate route on the local road graph
+     */
+    @Override
+    public BackendRouteService.RouteCalculationResult calculateRoute(String from, String to, String transportType) {
+        TransportProfile profile = TransportProfile.fromTransportType(transportType);
+        if (profile == null) {
+            return failure("Transport type '" + transportType + "' is not supported offline");
+        }
+
+        double[] fromCoords = LocationResolver.resolve(from);
+        double[] toCoords = LocationResolver.resolve(to);
+        if (fromCoords == null || toCoords == null) {
+            return failure("Unknown location: " + (fromCoords == null ? from : to));
+        }
+
+        try {
+            long start = System.nanoTime();
+            if (loadGraph() == null) {
+                return failure("No offline road graph available at " + graphPath);
+            }
+            OfflinePath path = findPath(fromCoords[0], fromCoords[1], toCoords[0], toCoords[1], profile);
+            if (path == null) {
+                return failure("No offline route found from " + from + " to " + to);
+            }
+
+            // Luftlinien-Zubringer zum nächsten Straßenknoten mit einrechnen
+            RoadGraph roadGraph = loadGraph();
+            int[] nodes = path.getNodes();
+            double approachMeters = GeoMath.haversineMeters(fromCoords[0], fromCoords[1],
+                    roadGraph.latitude(nodes[0]), roadGraph.longitude(nodes[0]))
+                    + GeoMath.haversineMeters(toCoords[0], toCoords[1],
+                    roadGraph.latitude(nodes[nodes.length - 1]), roadGraph.longitude(nodes[nodes.length - 1]));
+            double approachMinutes = approachMeters / 1000.0 / profile.getDefaultSpeedKmh() * 60;
+
+            double distanceKm = Math.round((path.getDistanceKm() + approachMeters / 1000.0) * 100) / 100.0;
+            int minutes = (int) Math.ceil(path.getTravelTimeMinutes() + approachMinutes);
+
+            logger.info("Offline route {} -> {} ({}): {} km, {} min in {} ms",
+                    from, to, profile, distanceKm, minutes, (System.nanoTime() - start) / 1_000_000);
+            return new BackendRouteService.RouteCalculationResult(true, distanceKm, minutes, null,
+                    "Route calculated offline", toGeometry(fromCoords, path, toCoords));
+        } catch (Exception e) {
+            logger.error("Error calculating offline route", e);
+            return failure("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Geometry of the offline route as {lat, lon} points, starting and ending at the given locations
+     * @return points or null if no route can be found
+     */
+    public double[][] routeGeometry(String from, String to, String transportType) {
+        TransportProfile profile = TransportProfile.fromTransportType(transportType);
+        double[] fromCoords = LocationResolver.resolve(from);
+        double[] toCoords = LocationResolver.resolve(to);
+        if (profile == null || fromCoords == null || toCoords == null || !isAvailable()) {
+            return null;
+        }
+        OfflinePath path = findPath(fromCoords[0], fromCoords[1], toCoords[0], toCoords[1], profile);
+        return path != null ? toGeometry(fromCoords, path, toCoords) : null;
+    }
+
+    private double[][] toGeometry(double[] fromCoords, OfflinePath path, double[] toCoords) {
+        RoadGraph roadGraph = loadGraph();
+        int[] nodes = path.getNodes();
+        double[][] points = new double[nodes.length + 2][];
+        points[0] = fromCoords;
+        for (int i = 0; i < nodes.length; i++) {
+            points[i + 1] = new double[]{roadGraph.latitude(nodes[i]), roadGraph.longitude(nodes[i])};
+        }
+        points[nodes.length + 1] = toCoords;
+        return points;
+    }
+
+    /**
+     * Fastest path between the road nodes closest to the given coordinates
+     * @return path or null if there is no graph or no connection
+     */
+    public OfflinePath findPath(double fromLat, double fromLon, double toLat, double toLon, TransportProfile profile) {
+        RoadGraph roadGraph = loadGraph();
+        if (roadGraph == null) {
+            return null;
+        }
+        int source = nearestNode(fromLat, fromLon, profile);
+        int target = nearestNode(toLat, toLon, profile);
+        if (source < 0 || target < 0) {
+            logger.warn("No road node near {},{} or {},{}", fromLat, fromLon, toLat, toLon);
+            return null;
+        }
+        return hierarchyFor(profile).route(source, target);
+    }
+
+    /**
+     * Road node closest to the coordinates that the profile can use
+     * @return node index or -1 if there is no graph or no node nearby
+     */
+    public int nearestNode(double lat, double lon, TransportProfile profile) {
+        RoadGraph roadGraph = loadGraph();
+        if (roadGraph == null) {
+            return -1;
+        }
+        return locator.nearest(lat, lon, node -> roadGraph.isAccessible(node, profile));
+    }
+
+    /**
+     * Loads the road graph on first use. Binary graph files are memory-mapped,
+     * raw .osm extracts are imported (slow, use GraphBuilderTool to convert them once).
+     */
+    public synchronized RoadGraph loadGraph() {
+        if (graph == null && !loadFailed) {
+            try {
+                long start = System.currentTimeMillis();
+                graph = RoadGraphFile.isGraphFile(graphPath)
+                        ? RoadGraphFile.open(graphPath)
+                        : OsmGraphImporter.importFile(graphPath);
+                logger.info("Offline road graph {} ready in {} ms", graphPath, System.currentTimeMillis() - start);
+                locator = new NodeLocator(graph);
+            } catch (Exception e) {
+                loadFailed = true;
+                logger.error("Could not load offline road graph from {}", graphPath, e);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Builds the contraction hierarchy of a profile on first use
+     */
+    private synchronized ContractionHierarchy hierarchyFor(TransportProfile profile) {
+        return hierarchies.computeIfAbsent(profile, p -> ContractionHierarchy.build(graph, p));
+    }
+
+    private static BackendRouteService.RouteCalculationResult failure(String message) {
+        return new BackendRouteService.RouteCalculationResult(false, 0.0, 0, null, message);
+    }
+}
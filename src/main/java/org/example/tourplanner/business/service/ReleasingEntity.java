@@ -0,0 +1,107 @@
+package org.example.tourplanner.business.service;
+
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.io.entity.HttpEntityWrapper;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Response body that reports once when it has been read to the end or closed, so a request
+ * counts as open until the caller is done with the body and not only until the headers arrived
+ */
+final class ReleasingEntity extends HttpEntityWrapper {
+
+    interface Listener {
+        /**
+         * @param timedOut true if reading the body ran into the response timeout
+         */
+        void released(boolean timedOut);
+    }
+
+    private final Listener listener;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private ReleasingEntity(HttpEntity entity, Listener listener) {
+        super(entity);
+        this.listener = listener;
+    }
+
+    /**
+     * Wraps the body of the response; without a body the listener is called right away
+     */
+    static void attach(ClassicHttpResponse response, Listener listener) {
+        HttpEntity entity = response.getEntity();
+        if (entity == null) {
+            listener.released(false);
+            return;
+        }
+        response.setEntity(new ReleasingEntity(entity, listener));
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        InputStream content = super.getContent();
+        if (content == null) {
+            release(false);
+            return null;
+        }
+        return new FilterInputStream(content) {
+            @Override
+            public int read() throws IOException {
+                try {
+                    int b = super.read();
+                    if (b < 0) {
+                        release(false);
+                    }
+                    return b;
+                } catch (SocketTimeoutException e) {
+                    release(true);
+                    throw e;
+                }
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                try {
+                    int n = super.read(buffer, offset, length);
+                    if (n < 0) {
+                        release(false);
+                    }
+                    return n;
+                } catch (SocketTimeoutException e) {
+                    release(true);
+                    throw e;
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    release(false);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            release(false);
+        }
+    }
+
+    private void release(boolean timedOut) {
+        if (released.compareAndSet(false, true)) {
+            listener.released(timedOut);
+        }
+    }
+}
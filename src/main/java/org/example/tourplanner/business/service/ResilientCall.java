@@ -0,0 +1,174 @@
+package org.example.tourplanner.business.service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a backend call with retries (exponential backoff with jitter) behind a
+ * {@link CircuitBreaker}. With hedging, a second identical call is started when the first has
+ * not answered within the 95th percentile of earlier answer times, and the first answer wins.
+ * <p>
+ * A call signals a failure worth retrying by throwing an IOException; a returned value (also
+ * a negative result such as "unknown location") counts as an answer.
+ */
+final class ResilientCall<T> {
+    static final int HEDGE_MIN_SAMPLES = 5;
+    private static final double HEDGE_PERCENTILE = 0.95;
+
+    interface Attempt<T> {
+        T call() throws IOException;
+    }
+
+    private final String name;
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long budgetMs;
+    private final CircuitBreaker breaker;
+    private final AdaptiveTimeout answerTimes = new AdaptiveTimeout();
+    private final ExecutorService executor;
+    private final AtomicInteger hedges = new AtomicInteger();
+    private final AtomicInteger hedgeWins = new AtomicInteger();
+
+    /**
+     * @param budgetMs no retry is started if it could not begin within this time after the first call
+     * @param hedging whether to start a second call for slow answers
+     */
+    ResilientCall(String name, int maxAttempts, long baseDelayMs, long budgetMs, CircuitBreaker breaker, boolean hedging) {
+        this.name = name;
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+        this.budgetMs = budgetMs;
+        this.breaker = breaker;
+        this.executor = hedging ? Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, name + "-call");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    /**
+     * @throws IOException the last failure, or a refusal while the circuit is open
+     */
+    T execute(Attempt<T> attempt) throws IOException {
+        long start = System.nanoTime();
+        IOException lastError = null;
+        for (int attemptNumber = 1; attemptNumber <= maxAttempts; attemptNumber++) {
+            if (!breaker.allowRequest()) {
+                throw lastError != null ? lastError : new IOException(name + " is unavailable, not calling it for now");
+            }
+            try {
+                T result = hedged(attempt);
+                breaker.recordSuccess();
+                return result;
+            } catch (InterruptedIOException e) {
+                breaker.recordSuccess();
+                throw e;
+            } catch (IOException e) {
+                breaker.recordFailure();
+                lastError = e;
+            }
+            if (attemptNumber == maxAttempts) {
+                break;
+            }
+            long delay = backoff(attemptNumber);
+            if (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + delay > budgetMs) {
+                break;
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(name + " interrupted");
+            }
+        }
+        throw lastError;
+    }
+
+    /**
+     * Base delay doubled per failed attempt, half of it random so clients do not retry in step
+     */
+    long backoff(int failedAttempts) {
+        long delay = baseDelayMs << Math.min(failedAttempts - 1, 10);
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    /**
+     * Delay after which a second call is started, -1 without hedging or enough answers yet
+     */
+    long hedgeDelayMs() {
+        if (executor == null || answerTimes.getSampleCount() < HEDGE_MIN_SAMPLES) {
+            return -1;
+        }
+        return answerTimes.percentile(HEDGE_PERCENTILE);
+    }
+
+    int getHedges() {
+        return hedges.get();
+    }
+
+    /**
+     * Hedged calls that answered before the first one
+     */
+    int getHedgeWins() {
+        return hedgeWins.get();
+    }
+
+    private T hedged(Attempt<T> attempt) throws IOException {
+        long delayMs = hedgeDelayMs();
+        if (delayMs < 0) {
+            return timed(attempt);
+        }
+        ExecutorCompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        List<Future<T>> calls = new ArrayList<>(2);
+        calls.add(completion.submit(() -> timed(attempt)));
+        try {
+            Future<T> done = completion.poll(delayMs, TimeUnit.MILLISECONDS);
+            if (done == null) {
+                hedges.incrementAndGet();
+                calls.add(completion.submit(() -> timed(attempt)));
+            }
+            IOException failure = null;
+            for (int open = calls.size(); open > 0; open--) {
+                if (done == null) {
+                    done = completion.take();
+                }
+                try {
+                    T result = done.get();
+                    if (calls.size() > 1 && done == calls.get(1)) {
+                        hedgeWins.incrementAndGet();
+                    }
+                    return result;
+                } catch (ExecutionException e) {
+                    // Der andere Aufruf kann noch antworten
+                    failure = e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+                }
+                done = null;
+            }
+            throw failure;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(name + " interrupted");
+        } finally {
+            for (Future<T> call : calls) {
+                call.cancel(true);
+            }
+        }
+    }
+
+    private T timed(Attempt<T> attempt) throws IOException {
+        long start = System.nanoTime();
+        T result = attempt.call();
+        answerTimes.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return result;
+    }
+}
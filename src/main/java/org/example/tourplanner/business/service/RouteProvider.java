@@ -0,0 +1,22 @@
+package org.example.tourplanner.business.service;
+
+/**
+ * Source of route calculations (backend, local graph, ...)
+ */
+public interface RouteProvider {
+    /**
+     * Calculates distance and time of a route
+     * @param from Start location
+     * @param to Destination
+     * @param transportType Transport type as shown in the UI ("Car", "Bicycle", ...)
+     * @return Result, never null; isSuccess() is false if the route could not be calculated
+     */
+    BackendRouteService.RouteCalculationResult calculateRoute(String from, String to, String transportType);
+
+    /**
+     * Whether the provider can be used at all (e.g. a local graph is installed)
+     */
+    default boolean isAvailable() {
+        return true;
+    }
+}
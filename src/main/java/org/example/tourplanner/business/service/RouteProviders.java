@@ -0,0 +1,112 @@
+package org.example.tourplanner.business.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.business.geo.GeoMath;
+import org.example.tourplanner.business.geo.RouteGeometryStore;
+import org.example.tourplanner.config.ConfigurationManager;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Selects the route provider configured by "route.provider":
+ * backend, local (offline graph only) or auto (backend with local fallback).
+ * When the backend cannot answer, stored routes and the straight-line estimate stand in.
+ */
+public final class RouteProviders {
+    private static final Logger logger = LogManager.getLogger(RouteProviders.class);
+
+    private RouteProviders() {}
+
+    public static RouteProvider fromConfiguration() {
+        String mode = ConfigurationManager.getInstance().getProperty("route.provider", "auto").trim();
+        RouteProvider provider = switch (mode) {
+            case "backend" -> fallback(BackendRouteService.getInstance(), storedRoutes(), LocalRouteEstimator.getInstance());
+            case "local" -> OfflineRouteService.getInstance();
+            default -> fallback(BackendRouteService.getInstance(), OfflineRouteService.getInstance(),
+                    storedRoutes(), LocalRouteEstimator.getInstance());
+        };
+        return storingGeometry(provider);
+    }
+
+    /**
+     * Keeps the geometry of every successful result in the {@link RouteGeometryStore},
+     * so the map can draw the route later without asking the provider again
+     */
+    public static RouteProvider storingGeometry(RouteProvider provider) {
+        return new RouteProvider() {
+            @Override
+            public BackendRouteService.RouteCalculationResult calculateRoute(String from, String to, String transportType) {
+                BackendRouteService.RouteCalculationResult result = provider.calculateRoute(from, to, transportType);
+                RouteGeometryStore store = RouteGeometryStore.getInstance();
+                if (result.isSuccess() && result.getGeometry() != null && store != null) {
+                    try {
+                        store.put(RouteGeometryStore.keyFor(from, to, transportType), result.getGeometry());
+                    } catch (IOException e) {
+                        logger.warn("Could not store route geometry {} -> {}: {}", from, to, e.getMessage());
+                    }
+                }
+                return result;
+            }
+
+            @Override
+            public boolean isAvailable() {
+                return provider.isAvailable();
+            }
+        };
+    }
+
+    /**
+     * Answers from the geometry kept in the {@link RouteGeometryStore} by an earlier calculation:
+     * the length of the stored route and the estimator's speed for the transport type
+     */
+    public static RouteProvider storedRoutes() {
+        return new RouteProvider() {
+            @Override
+            public BackendRouteService.RouteCalculationResult calculateRoute(String from, String to, String transportType) {
+                RouteGeometryStore store = RouteGeometryStore.getInstance();
+                double[][] points = store != null ? store.get(RouteGeometryStore.keyFor(from, to, transportType)) : null;
+                if (points == null || points.length < 2) {
+                    return new BackendRouteService.RouteCalculationResult(false, 0.0, 0, null, "No stored route");
+                }
+                double km = GeoMath.pathMeters(points) / 1000.0;
+                int minutes = (int) Math.ceil(km / LocalRouteEstimator.getInstance().getSpeedKmh(transportType) * 60);
+                // Ohne Geometrie, die liegt ja schon im Store
+                return new BackendRouteService.RouteCalculationResult(true, Math.round(km * 100) / 100.0, minutes, null,
+                        "From a previously calculated route");
+            }
+
+            @Override
+            public boolean isAvailable() {
+                return RouteGeometryStore.getInstance() != null;
+            }
+        };
+    }
+
+    /**
+     * Tries the providers in order and returns the first successful result
+     * (or the first failure if none succeeds)
+     */
+    public static RouteProvider fallback(RouteProvider... providers) {
+        List<RouteProvider> chain = List.of(providers);
+        return (from, to, transportType) -> {
+            BackendRouteService.RouteCalculationResult firstFailure = null;
+            for (RouteProvider provider : chain) {
+                if (!provider.isAvailable()) {
+                    continue;
+                }
+                BackendRouteService.RouteCalculationResult result = provider.calculateRoute(from, to, transportType);
+                if (result.isSuccess()) {
+                    return result;
+                }
+                logger.info("{} could not calculate route: {}", provider.getClass().getSimpleName(), result.getMessage());
+                if (firstFailure == null) {
+                    firstFailure = result;
+                }
+            }
+            return firstFailure != null ? firstFailure
+                    : new BackendRouteService.RouteCalculationResult(false, 0.0, 0, null, "No route provider available");
+        };
+    }
+}
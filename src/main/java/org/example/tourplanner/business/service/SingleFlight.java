@@ -0,0 +1,72 @@
+package org.example.tourplanner.business.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent identical reads share one request: while a load for a key is running, further
+ * callers for the same key wait for its result instead of starting their own. Nothing is kept
+ * after the load finished, so this is no cache.
+ * <p>
+ * Results are handed to every waiting caller, so loaders should return values that are not
+ * changed afterwards (e.g. response DTOs rather than model objects).
+ */
+public final class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong shared = new AtomicLong();
+
+    /**
+     * @return the result of the running load for this key, or of a new one
+     */
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            shared.incrementAndGet();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+            }
+        }
+
+        loads.incrementAndGet();
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Lets later callers start a new load instead of joining the running ones,
+     * e.g. after a write that the running loads may not see yet
+     */
+    public void forgetAll() {
+        inFlight.clear();
+    }
+
+    /**
+     * Loads actually started
+     */
+    public long getLoads() {
+        return loads.get();
+    }
+
+    /**
+     * Calls answered by a load another caller had started
+     */
+    public long getShared() {
+        return shared.get();
+    }
+}
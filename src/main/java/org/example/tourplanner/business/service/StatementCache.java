@@ -0,0 +1,117 @@
+package org.example.tourplanner.business.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prepared statements of one connection, keyed by SQL text. The least recently used
+ * statement is closed when the cache is full. Not thread-safe; EmbeddedDatabase
+ * serializes access to the connection.
+ */
+class StatementCache {
+    private static final Logger logger = LogManager.getLogger(StatementCache.class);
+
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements;
+    private int hits;
+    private int misses;
+
+    StatementCache(Connection connection, int capacity) {
+        this.connection = connection;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= capacity) {
+                    return false;
+                }
+                close(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * The cached statement for the SQL, prepared on first use; parameters and batch entries
+     * left over from a failed batch are cleared
+     */
+    PreparedStatement prepare(String sql) throws SQLException {
+        return prepare(sql, false);
+    }
+
+    /**
+     * Like {@link #prepare(String)} for an INSERT whose new ids are read with
+     * {@link #readGeneratedIds} after executeBatch()
+     */
+    PreparedStatement prepareReturningIds(String sql) throws SQLException {
+        return prepare(sql, true);
+    }
+
+    /**
+     * The ids of the rows inserted by the last executeBatch(), in order
+     * @throws SQLException if the driver returned fewer or more ids than rows
+     */
+    static List<Long> readGeneratedIds(PreparedStatement statement, int expected) throws SQLException {
+        List<Long> ids = new ArrayList<>(expected);
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            while (keys.next()) {
+                ids.add(keys.getLong(1));
+            }
+        }
+        if (ids.size() != expected) {
+            throw new SQLException("Expected " + expected + " generated ids, got " + ids.size());
+        }
+        return ids;
+    }
+
+    private PreparedStatement prepare(String sql, boolean returningIds) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement != null && !statement.isClosed()) {
+            hits++;
+            statement.clearParameters();
+            statement.clearBatch();
+            return statement;
+        }
+        misses++;
+        statement = returningIds ? connection.prepareStatement(sql, new String[]{"id"}) : connection.prepareStatement(sql);
+        statements.put(sql, statement);
+        return statement;
+    }
+
+    int size() {
+        return statements.size();
+    }
+
+    int getHits() {
+        return hits;
+    }
+
+    int getMisses() {
+        return misses;
+    }
+
+    /**
+     * Closes all statements (not the connection)
+     */
+    void clear() {
+        List<PreparedStatement> open = new ArrayList<>(statements.values());
+        statements.clear();
+        open.forEach(StatementCache::close);
+    }
+
+    private static void close(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            logger.debug("Could not close statement: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.tourplanner.business.service;
+
+import java.time.LocalDateTime;
+
+public interface TourChangeService {
+    /**
+     * Retrieves the tours and logs changed after the given time
+     * @param since high-water mark of an earlier call, null for all tours and logs
+     * @return The changes, or null if they cannot be fetched (the caller then loads everything)
+     */
+    TourChanges getChangesSince(LocalDateTime since);
+}
@@ -0,0 +1,108 @@
+package org.example.tourplanner.business.service;
+
+import org.example.tourplanner.models.Tour;
+import org.example.tourplanner.models.TourLog;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tours and logs changed after a point in time. Deletions come either as tombstones (ids
+ * deleted since then) or, if the source keeps no tombstones, as the ids that still exist.
+ */
+public final class TourChanges {
+    private final LocalDateTime since;
+    private final LocalDateTime until;
+    private final List<Tour> tours;
+    private final Map<Long, List<TourLog>> logsByTour;
+    private final Set<Long> deletedTourIds;
+    private final Set<Long> deletedLogIds;
+    private final Set<Long> liveTourIds;
+    private final Set<Long> liveLogIds;
+
+    /**
+     * @param since the requested point in time, null if these are all tours and logs
+     * @param until newest change contained (next high-water mark), null if unknown
+     */
+    public TourChanges(LocalDateTime since, LocalDateTime until, List<Tour> tours,
+                       Map<Long, List<TourLog>> logsByTour, Set<Long> deletedTourIds, Set<Long> deletedLogIds) {
+        this(since, until, tours, logsByTour, deletedTourIds, deletedLogIds, null, null);
+    }
+
+    public TourChanges(LocalDateTime since, LocalDateTime until, List<Tour> tours,
+                       Map<Long, List<TourLog>> logsByTour, Set<Long> deletedTourIds, Set<Long> deletedLogIds,
+                       Set<Long> liveTourIds, Set<Long> liveLogIds) {
+        this.since = since;
+        this.until = until;
+        this.tours = tours;
+        this.logsByTour = logsByTour;
+        this.deletedTourIds = deletedTourIds;
+        this.deletedLogIds = deletedLogIds;
+        this.liveTourIds = liveTourIds;
+        this.liveLogIds = liveLogIds;
+    }
+
+    public LocalDateTime getSince() {
+        return since;
+    }
+
+    public LocalDateTime getUntil() {
+        return until;
+    }
+
+    /**
+     * True if these are all tours and logs, so anything not contained has been deleted
+     */
+    public boolean isComplete() {
+        return since == null;
+    }
+
+    /**
+     * New and changed tours, without logs
+     */
+    public List<Tour> getTours() {
+        return tours;
+    }
+
+    /**
+     * New and changed logs by tour id
+     */
+    public Map<Long, List<TourLog>> getLogsByTour() {
+        return logsByTour;
+    }
+
+    public Set<Long> getDeletedTourIds() {
+        return deletedTourIds;
+    }
+
+    public Set<Long> getDeletedLogIds() {
+        return deletedLogIds;
+    }
+
+    /**
+     * Ids of all existing tours if the source has no tombstones, otherwise null
+     */
+    public Set<Long> getLiveTourIds() {
+        return liveTourIds;
+    }
+
+    /**
+     * Ids of all existing logs if the source has no tombstones, otherwise null
+     */
+    public Set<Long> getLiveLogIds() {
+        return liveLogIds;
+    }
+
+    /**
+     * Number of changed tours and logs plus tombstones
+     */
+    public int size() {
+        int logs = 0;
+        for (List<TourLog> tourLogs : logsByTour.values()) {
+            logs += tourLogs.size();
+        }
+        return tours.size() + logs + deletedTourIds.size() + deletedLogIds.size();
+    }
+}
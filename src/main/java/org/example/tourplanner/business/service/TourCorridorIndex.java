@@ -0,0 +1,115 @@
+package org.example.tourplanner.business.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.business.geo.CorridorIndex;
+import org.example.tourplanner.business.geo.RouteGeometryStore;
+import org.example.tourplanner.business.geo.SpatialIndex;
+import org.example.tourplanner.models.Tour;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Corridor search over the stored route geometries of all tours
+ * ("tours passing within 2 km of Hallstatt"). Tours without a stored geometry are not
+ * indexed until their route has been calculated or shown on the map once.
+ */
+public class TourCorridorIndex {
+    private static final Logger logger = LogManager.getLogger(TourCorridorIndex.class);
+    private static TourCorridorIndex instance;
+
+    public static final double DEFAULT_CORRIDOR_KM = 2.0;
+
+    private final RouteGeometryStore geometryStore;
+    private final CorridorIndex<Long> index = new CorridorIndex<>();
+
+    TourCorridorIndex(RouteGeometryStore geometryStore) {
+        this.geometryStore = geometryStore;
+    }
+
+    public static synchronized TourCorridorIndex getInstance() {
+        if (instance == null) {
+            instance = new TourCorridorIndex(RouteGeometryStore.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Replaces the index content; reads every geometry from disk, so call it off the UI thread
+     */
+    public void rebuild(Collection<Tour> tours) {
+        long start = System.currentTimeMillis();
+        index.clear();
+        int indexed = 0;
+        for (Tour tour : tours) {
+            if (addOrUpdate(tour)) {
+                indexed++;
+            }
+        }
+        logger.info("Corridor index: {} of {} tours with route geometry in {} ms",
+                indexed, tours.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Rebuilds the index in a background thread
+     */
+    public void rebuildAsync(Collection<Tour> tours) {
+        List<Tour> snapshot = List.copyOf(tours);
+        Thread rebuildThread = new Thread(() -> rebuild(snapshot));
+        rebuildThread.setDaemon(true);
+        rebuildThread.start();
+    }
+
+    /**
+     * Indexes the stored geometry of a tour; removes the tour if it has none
+     * @return true if the tour is indexed
+     */
+    public boolean addOrUpdate(Tour tour) {
+        if (tour == null || tour.getId() == null) {
+            return false;
+        }
+        double[][] geometry = geometryStore != null
+                ? geometryStore.get(RouteGeometryStore.keyFor(tour.getFrom(), tour.getTo(), tour.getTransportType()))
+                : null;
+        if (geometry == null || geometry.length < 2) {
+            index.remove(tour.getId());
+            return false;
+        }
+        index.put(tour.getId(), geometry);
+        return true;
+    }
+
+    public void remove(Long tourId) {
+        index.remove(tourId);
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Tours whose route passes within the distance, closest approach first
+     */
+    public List<SpatialIndex.Hit<Long>> passingNear(double lat, double lon, double distanceKm) {
+        return index.near(lat, lon, distanceKm);
+    }
+
+    /**
+     * Ids of tours matching a "via:" query; none if the location is unknown
+     */
+    public Set<Long> matching(TourLocationIndex.Query query) {
+        if (query.getCoordinates() == null) {
+            logger.warn("Unknown location in search: {}", query.getLocation());
+            return Set.of();
+        }
+        Set<Long> result = new LinkedHashSet<>();
+        double[] coords = query.getCoordinates();
+        for (SpatialIndex.Hit<Long> hit : passingNear(coords[0], coords[1], query.getRadiusKm())) {
+            result.add(hit.getKey());
+        }
+        return result;
+    }
+}
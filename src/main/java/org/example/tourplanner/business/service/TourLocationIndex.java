@@ -0,0 +1,205 @@
+package org.example.tourplanner.business.service;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.business.geo.LocationResolver;
+import org.example.tourplanner.business.geo.SpatialIndex;
+import org.example.tourplanner.models.Tour;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Spatial index over the start and end coordinates of all tours, so location questions
+ * ("tours starting within 20 km of Linz", "tours in the map area") need no scan or geocoding.
+ * Kept up to date by MainViewModel on load, create, update and delete.
+ */
+public class TourLocationIndex {
+    private static final Logger logger = LogManager.getLogger(TourLocationIndex.class);
+    private static TourLocationIndex instance;
+
+    public static final double DEFAULT_RADIUS_KM = 20.0;
+
+    // "near:Linz", "from:Graz 10km", "wanderung to:48.2,16.37 5 km", "via:47.56,13.65 2km"
+    private static final Pattern QUERY_PATTERN = Pattern.compile(
+            "(?i)(?:^|\\s)(near|from|to|via):\\s*(.+?)(?:\\s+(\\d+(?:[.,]\\d+)?)\\s*km)?\\s*$");
+
+    private final SpatialIndex<Long> starts = new SpatialIndex<>();
+    private final SpatialIndex<Long> ends = new SpatialIndex<>();
+
+    /**
+     * Which part of a tour a location query refers to; VIA (anywhere along the route)
+     * is answered by TourCorridorIndex
+     */
+    public enum Anchor {
+        NEAR, FROM, TO, VIA
+    }
+
+    /**
+     * Location part of a search term plus the remaining free text
+     */
+    public static final class Query {
+        private final Anchor anchor;
+        private final String location;
+        private final double[] coordinates;
+        private final double radiusKm;
+        private final String text;
+
+        Query(Anchor anchor, String location, double[] coordinates, double radiusKm, String text) {
+            this.anchor = anchor;
+            this.location = location;
+            this.coordinates = coordinates;
+            this.radiusKm = radiusKm;
+            this.text = text;
+        }
+
+        public Anchor getAnchor() {
+            return anchor;
+        }
+
+        public String getLocation() {
+            return location;
+        }
+
+        /**
+         * @return {lat, lon} or null if the location is unknown
+         */
+        public double[] getCoordinates() {
+            return coordinates;
+        }
+
+        public double getRadiusKm() {
+            return radiusKm;
+        }
+
+        /**
+         * Search text before the location part, empty if there is none
+         */
+        public String getText() {
+            return text;
+        }
+    }
+
+    TourLocationIndex() {}
+
+    public static synchronized TourLocationIndex getInstance() {
+        if (instance == null) {
+            instance = new TourLocationIndex();
+        }
+        return instance;
+    }
+
+    /**
+     * Parses "near:", "from:", "to:" or "via:" at the end of a search term
+     * @return the query or null if the term has no location part
+     */
+    public static Query parse(String searchTerm) {
+        if (searchTerm == null) {
+            return null;
+        }
+        Matcher matcher = QUERY_PATTERN.matcher(searchTerm);
+        if (!matcher.find()) {
+            return null;
+        }
+        Anchor anchor = Anchor.valueOf(matcher.group(1).toUpperCase(Locale.ROOT));
+        String location = matcher.group(2).trim();
+        double radius = matcher.group(3) != null
+                ? Double.parseDouble(matcher.group(3).replace(',', '.'))
+                : anchor == Anchor.VIA ? TourCorridorIndex.DEFAULT_CORRIDOR_KM : DEFAULT_RADIUS_KM;
+        String text = searchTerm.substring(0, matcher.start()).trim();
+        return new Query(anchor, location, LocationResolver.resolve(location), radius, text);
+    }
+
+    /**
+     * Replaces the index content with the given tours
+     */
+    public void rebuild(Collection<Tour> tours) {
+        starts.clear();
+        ends.clear();
+        for (Tour tour : tours) {
+            addOrUpdate(tour);
+        }
+        logger.info("Location index: {} tour starts, {} tour ends", starts.size(), ends.size());
+    }
+
+    /**
+     * Indexes a new or changed tour; tours without id or with unknown locations are skipped
+     */
+    public void addOrUpdate(Tour tour) {
+        if (tour == null || tour.getId() == null) {
+            return;
+        }
+        update(starts, tour.getId(), LocationResolver.resolve(tour.getFrom()));
+        update(ends, tour.getId(), LocationResolver.resolve(tour.getTo()));
+    }
+
+    public void remove(Long tourId) {
+        starts.remove(tourId);
+        ends.remove(tourId);
+    }
+
+    /**
+     * Ids of tours whose start (FROM), end (TO) or either (NEAR) is within the radius, nearest first
+     */
+    public List<Long> within(Anchor anchor, double lat, double lon, double radiusKm) {
+        Set<Long> result = new LinkedHashSet<>();
+        List<SpatialIndex.Hit<Long>> hits = new ArrayList<>();
+        if (anchor != Anchor.TO) {
+            hits.addAll(starts.withinRadius(lat, lon, radiusKm));
+        }
+        if (anchor != Anchor.FROM) {
+            hits.addAll(ends.withinRadius(lat, lon, radiusKm));
+        }
+        hits.sort((a, b) -> Double.compare(a.getDistanceKm(), b.getDistanceKm()));
+        for (SpatialIndex.Hit<Long> hit : hits) {
+            result.add(hit.getKey());
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Ids of tours that start or end inside the box
+     */
+    public Set<Long> withinBox(double south, double west, double north, double east) {
+        Set<Long> result = new LinkedHashSet<>(starts.withinBox(south, west, north, east));
+        result.addAll(ends.withinBox(south, west, north, east));
+        return result;
+    }
+
+    /**
+     * Ids of the k tours starting closest to the point, nearest first
+     */
+    public List<Long> nearestStarts(double lat, double lon, int k) {
+        List<Long> result = new ArrayList<>();
+        for (SpatialIndex.Hit<Long> hit : starts.nearest(lat, lon, k)) {
+            result.add(hit.getKey());
+        }
+        return result;
+    }
+
+    /**
+     * Ids of tours matching the location part of a query; none if the location is unknown
+     */
+    public Set<Long> matching(Query query) {
+        if (query.getCoordinates() == null) {
+            logger.warn("Unknown location in search: {}", query.getLocation());
+            return Set.of();
+        }
+        double[] coords = query.getCoordinates();
+        return new LinkedHashSet<>(within(query.getAnchor(), coords[0], coords[1], query.getRadiusKm()));
+    }
+
+    private static void update(SpatialIndex<Long> index, Long tourId, double[] coords) {
+        if (coords != null) {
+            index.put(tourId, coords[0], coords[1]);
+        } else {
+            index.remove(tourId);
+        }
+    }
+}
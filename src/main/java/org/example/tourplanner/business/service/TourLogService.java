@@ -3,7 +3,10 @@ package org.example.tourplanner.business.service;
 import org.example.tourplanner.models.Tour;
 import org.example.tourplanner.models.TourLog;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public interface TourLogService {
     /**
@@ -13,6 +16,19 @@ public interface TourLogService {
      */
     List<TourLog> getTourLogs(Long tourId);
 
+    /**
+     * Retrieves the logs of several tours; one call per tour unless the implementation can do better
+     * @param tourIds IDs of the tours
+     * @return Logs by tour ID, with an entry for every requested tour
+     */
+    default Map<Long, List<TourLog>> getTourLogsForTours(Collection<Long> tourIds) {
+        Map<Long, List<TourLog>> logs = new LinkedHashMap<>();
+        for (Long tourId : tourIds) {
+            logs.put(tourId, getTourLogs(tourId));
+        }
+        return logs;
+    }
+
     /**
      * Retrieves a specific tour log by ID
      * @param id Tour log ID
@@ -38,6 +54,38 @@ public interface TourLogService {
     /**
      * Deletes a tour log by ID
      * @param id ID of the tour log to delete
+     * @return true if the log is gone (also if it did not exist), false if the delete failed
+     */
+    boolean deleteTourLog(Long id);
+
+    /**
+     * Creates several logs for a tour; one call per log unless the implementation can do better
+     * @param tourId ID of the tour
+     * @param tourLogs Tour logs to create
+     * @param progress Notified as logs are done
+     * @return Created tour logs with ID, in the order given
+     */
+    default BatchResult<TourLog> createTourLogs(Long tourId, List<TourLog> tourLogs, BatchProgress progress) {
+        return BatchExecutor.sequential(tourLogs, tourLog -> createTourLog(tourId, tourLog), progress);
+    }
+
+    /**
+     * Updates several tour logs; one call per log unless the implementation can do better
+     * @param tourLogs Tour logs to update
+     * @param progress Notified as logs are done
+     * @return Updated tour logs, in the order given
+     */
+    default BatchResult<TourLog> updateTourLogs(List<TourLog> tourLogs, BatchProgress progress) {
+        return BatchExecutor.sequential(tourLogs, this::updateTourLog, progress);
+    }
+
+    /**
+     * Deletes several tour logs; one call per log unless the implementation can do better
+     * @param ids IDs of the tour logs to delete
+     * @param progress Notified as logs are done
+     * @return TRUE per log that is gone, in the order given
      */
-    void deleteTourLog(Long id);
-}
\ No newline at end of file
+    default BatchResult<Boolean> deleteTourLogs(List<Long> ids, BatchProgress progress) {
+        return BatchExecutor.sequential(ids, this::deleteTourLog, progress);
+    }
+}
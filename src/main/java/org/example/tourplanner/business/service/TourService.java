@@ -31,11 +31,23 @@ public interface TourService {
      */
     Tour updateTour(Tour tour);
 
+    /**
+     * Updates a tour only if nobody changed it since the version the caller has seen (its
+     * updatedAt); a tour without updatedAt is updated unconditionally
+     * @param tour Tour to update
+     * @return Updated tour, or the current tour if it was changed in the meantime
+     */
+    default UpdateResult<Tour> updateTourIfUnchanged(Tour tour) {
+        Tour updated = updateTour(tour);
+        return updated != null ? UpdateResult.updated(updated) : UpdateResult.failed();
+    }
+
     /**
      * Deletes a tour by its ID
      * @param id ID of the tour to delete
+     * @return true if the tour is gone (also if it did not exist), false if the delete failed
      */
-    void deleteTour(Long id);
+    boolean deleteTour(Long id);
 
     /**
      * Searches for tours based on search criteria
@@ -43,4 +55,24 @@ public interface TourService {
      * @return List of matching tours
      */
     List<Tour> searchTours(String searchTerm);
-}
\ No newline at end of file
+
+    /**
+     * Creates several tours; one call per tour unless the implementation can do better
+     * @param tours Tours to create
+     * @param progress Notified as tours are done
+     * @return Created tours with ID, in the order given
+     */
+    default BatchResult<Tour> createTours(List<Tour> tours, BatchProgress progress) {
+        return BatchExecutor.sequential(tours, this::createTour, progress);
+    }
+
+    /**
+     * Deletes several tours; one call per tour unless the implementation can do better
+     * @param ids IDs of the tours to delete
+     * @param progress Notified as tours are done
+     * @return TRUE per tour that is gone, in the order given
+     */
+    default BatchResult<Boolean> deleteTours(List<Long> ids, BatchProgress progress) {
+        return BatchExecutor.sequential(ids, this::deleteTour, progress);
+    }
+}
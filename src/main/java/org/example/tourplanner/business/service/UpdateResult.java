@@ -0,0 +1,62 @@
+package org.example.tourplanner.business.service;
+
+/**
+ * Outcome of an update that only applies if the entity is still at the version the caller
+ * has seen. On a conflict the current entity is included, so the caller does not need to
+ * fetch it separately.
+ */
+public final class UpdateResult<T> {
+
+    public enum Status {
+        UPDATED,
+        /** Someone else changed the entity in the meantime; nothing was written */
+        CONFLICT,
+        NOT_FOUND,
+        /** Backend not reachable or other error; nothing is known about the entity */
+        FAILED
+    }
+
+    private final Status status;
+    private final T value;
+
+    private UpdateResult(Status status, T value) {
+        this.status = status;
+        this.value = value;
+    }
+
+    public static <T> UpdateResult<T> updated(T updated) {
+        return new UpdateResult<>(Status.UPDATED, updated);
+    }
+
+    public static <T> UpdateResult<T> conflict(T current) {
+        return new UpdateResult<>(Status.CONFLICT, current);
+    }
+
+    public static <T> UpdateResult<T> notFound() {
+        return new UpdateResult<>(Status.NOT_FOUND, null);
+    }
+
+    public static <T> UpdateResult<T> failed() {
+        return new UpdateResult<>(Status.FAILED, null);
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isUpdated() {
+        return status == Status.UPDATED;
+    }
+
+    /**
+     * The updated entity, or for CONFLICT the current one (null if it could not be read)
+     */
+    public T getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return status.toString();
+    }
+}
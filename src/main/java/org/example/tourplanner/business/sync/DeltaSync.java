@@ -0,0 +1,66 @@
+package org.example.tourplanner.business.sync;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.business.service.DataServices;
+import org.example.tourplanner.business.service.TourChangeService;
+import org.example.tourplanner.business.service.TourChanges;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Remembers up to which change the shown tours are current (high-water mark) and asks only
+ * for what changed after it. The first call, and the first after {@link #reset()}, gets everything.
+ */
+public class DeltaSync {
+    private static final Logger logger = LogManager.getLogger(DeltaSync.class);
+    // Änderungen, die kurz vor der Marke gespeichert, aber erst danach sichtbar wurden, nicht verpassen
+    static final Duration OVERLAP = Duration.ofSeconds(5);
+    private static DeltaSync instance;
+
+    private final TourChangeService changeService;
+    private LocalDateTime highWaterMark;
+
+    DeltaSync(TourChangeService changeService) {
+        this.changeService = changeService;
+    }
+
+    public static synchronized DeltaSync getInstance() {
+        if (instance == null) {
+            instance = new DeltaSync(DataServices.tourChangeService());
+        }
+        return instance;
+    }
+
+    /**
+     * Changes since the last successful call (everything the first time); null if the backend
+     * cannot deliver changes, then the mark stays where it is
+     */
+    public synchronized TourChanges poll() {
+        long start = System.nanoTime();
+        LocalDateTime since = highWaterMark != null ? highWaterMark.minus(OVERLAP) : null;
+        TourChanges changes = changeService.getChangesSince(since);
+        if (changes == null) {
+            return null;
+        }
+        LocalDateTime until = changes.getUntil();
+        if (until != null && (highWaterMark == null || until.isAfter(highWaterMark))) {
+            highWaterMark = until;
+        }
+        logger.info("Fetched {} changes since {} in {} ms", changes.size(), since == null ? "start" : since,
+                (System.nanoTime() - start) / 1_000_000);
+        return changes;
+    }
+
+    /**
+     * Forgets the mark, so the next poll gets everything again
+     */
+    public synchronized void reset() {
+        highWaterMark = null;
+    }
+
+    public synchronized LocalDateTime getHighWaterMark() {
+        return highWaterMark;
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.tourplanner.business.sync;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.business.service.BackendPool;
+import org.example.tourplanner.config.HttpClientConfig;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The backend's side of a Merkle comparison. Ranges and digests are sent as plain number
+ * arrays to keep a comparison within a few kilobytes:
+ *
+ * <pre>
+ * POST /api/sync/merkle/ranges  {"ranges": [[from, to], ...]}  →  {"ranges": [[count, hash, minId, maxId], ...]}
+ * POST /api/sync/merkle/tours   {"ranges": [[from, to], ...]}  →  {"tours": [[id, digest], ...]}
+ * </pre>
+ *
+ * Hashes are computed as described in {@link MerkleTree}. If the backend does not offer
+ * the endpoints, null is returned from then on.
+ */
+public class HttpMerkleSource implements MerkleSource {
+    private static final Logger logger = LogManager.getLogger(HttpMerkleSource.class);
+
+    private final String baseUrl;
+    private final CloseableHttpClient httpClient = HttpClientConfig.createHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private volatile boolean unsupported;
+
+    public HttpMerkleSource(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public boolean isSupported() {
+        return !unsupported;
+    }
+
+    /**
+     * Size of all response bodies so far
+     */
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    @Override
+    public List<RangeDigest> rangeDigests(List<IdRange> ranges) {
+        JsonNode response = post("/sync/merkle/ranges", ranges);
+        JsonNode digests = response != null ? response.get("ranges") : null;
+        if (digests == null || !digests.isArray() || digests.size() != ranges.size()) {
+            return null;
+        }
+        List<RangeDigest> result = new ArrayList<>(ranges.size());
+        for (int i = 0; i < ranges.size(); i++) {
+            JsonNode digest = digests.get(i);
+            result.add(new RangeDigest(ranges.get(i), digest.get(0).asInt(), digest.get(1).asLong(),
+                    digest.get(2).asLong(), digest.get(3).asLong()));
+        }
+        return result;
+    }
+
+    @Override
+    public Map<Long, Long> tourDigests(List<IdRange> ranges) {
+        JsonNode response = post("/sync/merkle/tours", ranges);
+        JsonNode tours = response != null ? response.get("tours") : null;
+        if (tours == null || !tours.isArray()) {
+            return null;
+        }
+        Map<Long, Long> result = new HashMap<>();
+        for (JsonNode tour : tours) {
+            result.put(tour.get(0).asLong(), tour.get(1).asLong());
+        }
+        return result;
+    }
+
+    private JsonNode post(String path, List<IdRange> ranges) {
+        if (unsupported) {
+            return null;
+        }
+        ObjectNode body = objectMapper.createObjectNode();
+        ArrayNode rangeArray = body.putArray("ranges");
+        for (IdRange range : ranges) {
+            rangeArray.addArray().add(range.getFrom()).add(range.getTo());
+        }
+        try {
+            HttpPost request = new HttpPost(baseUrl + path);
+            request.setHeader("Accept", "application/json");
+            request.setEntity(new StringEntity(objectMapper.writeValueAsString(body), ContentType.APPLICATION_JSON));
+
+            try (CloseableHttpResponse response = BackendPool.getInstance().execute(httpClient, request)) {
+                int code = response.getCode();
+                if (code == 200) {
+                    String responseBody = EntityUtils.toString(response.getEntity());
+                    bytesReceived.addAndGet(responseBody.length());
+                    return objectMapper.readTree(responseBody);
+                }
+                if (code == 404 || code == 405 || code == 501) {
+                    logger.info("Backend offers no Merkle comparison (HTTP {})", code);
+                    unsupported = true;
+                } else {
+                    logger.error("Merkle request {} failed: HTTP {}", path, code);
+                }
+                return null;
+            }
+        } catch (Exception e) {
+            logger.error("Error during Merkle request {}", path, e);
+            return null;
+        }
+    }
+}
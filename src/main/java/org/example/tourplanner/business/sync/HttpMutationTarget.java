@@ -0,0 +1,209 @@
+package org.example.tourplanner.business.sync;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.hc.client5.http.classic.methods.HttpDelete;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.classic.methods.HttpPut;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.business.service.BackendPool;
+import org.example.tourplanner.business.service.BatchProgress;
+import org.example.tourplanner.business.service.BatchResult;
+import org.example.tourplanner.business.service.HttpTourLogService;
+import org.example.tourplanner.business.service.HttpTourService;
+import org.example.tourplanner.config.HttpClientConfig;
+import org.example.tourplanner.models.Tour;
+import org.example.tourplanner.models.TourLog;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends mutations to the backend REST API with an Idempotency-Key header and tells
+ * temporary failures (no connection, 408, 429, 5xx) from refusals (other 4xx)
+ */
+public class HttpMutationTarget implements MutationTarget {
+    private static final Logger logger = LogManager.getLogger(HttpMutationTarget.class);
+
+    private final String baseUrl;
+    private final CloseableHttpClient httpClient = HttpClientConfig.createHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public HttpMutationTarget(String baseUrl) {
+        this.baseUrl = baseUrl;
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    @Override
+    public Outcome send(Mutation mutation) {
+        try {
+            return switch (mutation.getType()) {
+                case CREATE_TOUR -> execute(new HttpPost(baseUrl + "/tours"), mutation, tourRequest(mutation.getTour()));
+                case UPDATE_TOUR -> execute(new HttpPut(baseUrl + "/tours/" + mutation.getTourId()), mutation,
+                        tourRequest(mutation.getTour()));
+                case DELETE_TOUR -> execute(new HttpDelete(baseUrl + "/tours/" + mutation.getTourId()), mutation, null);
+                case CREATE_LOG -> execute(new HttpPost(baseUrl + "/tours/" + mutation.getTourId() + "/logs"), mutation,
+                        logRequest(mutation.getLog()));
+                case UPDATE_LOG -> execute(new HttpPut(baseUrl + "/logs/" + mutation.getLogId()), mutation,
+                        logRequest(mutation.getLog()));
+                case DELETE_LOG -> execute(new HttpDelete(baseUrl + "/logs/" + mutation.getLogId()), mutation, null);
+            };
+        } catch (IOException e) {
+            return Outcome.retry(e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes and log updates in one batch request. Items the batch answered without a status
+     * are sent on their own; a failed batch ends the run, the rest stays queued. Creates go out
+     * one by one, only the single request carries the Idempotency-Key that keeps a repeated
+     * create from adding the tour or log twice. Without a batch endpoint everything goes out
+     * one by one as well, instead of through the services' parallel fallback.
+     */
+    @Override
+    public List<Outcome> sendRun(List<Mutation> run, BatchProgress progress) {
+        HttpTourService tourService = HttpTourService.getInstance();
+        HttpTourLogService tourLogService = HttpTourLogService.getInstance();
+        BatchResult<?> result = switch (run.get(0).getType()) {
+            case DELETE_TOUR -> tourService.isBatchSupported()
+                    ? tourService.deleteTours(run.stream().map(Mutation::getTourId).toList(), progress)
+                    : null;
+            case DELETE_LOG -> tourLogService.isBatchSupported()
+                    ? tourLogService.deleteTourLogs(run.stream().map(Mutation::getLogId).toList(), progress)
+                    : null;
+            case UPDATE_LOG -> tourLogService.isBatchSupported()
+                    ? tourLogService.updateTourLogs(run.stream().map(Mutation::getLog).toList(), progress)
+                    : null;
+            default -> null;
+        };
+        if (result == null) {
+            return MutationTarget.super.sendRun(run, progress);
+        }
+        List<Outcome> outcomes = new ArrayList<>(run.size());
+        for (int i = 0; i < run.size(); i++) {
+            int status = result.getStatus(i);
+            Outcome outcome;
+            if (result.isSucceeded(i)) {
+                outcome = Outcome.done(null);
+            } else if (status > 0) {
+                outcome = failure(status);
+            } else if (result.isAnswered(i)) {
+                // Ohne Status ist unklar, ob es am Backend oder an der Verbindung lag
+                outcome = send(run.get(i));
+            } else {
+                // Der Batch ist als Ganzes gescheitert oder das Element wurde schon einzeln gesendet
+                outcome = Outcome.retry(result.getError(i));
+            }
+            outcomes.add(outcome);
+            if (outcome.getKind() == Outcome.Kind.RETRY) {
+                break;
+            }
+        }
+        return outcomes;
+    }
+
+    private Outcome execute(HttpUriRequestBase request, Mutation mutation, Object body) throws IOException {
+        request.setHeader("Idempotency-Key", mutation.getIdempotencyKey());
+        if (mutation.getType() == Mutation.Type.UPDATE_TOUR) {
+            LocalDateTime expected = mutation.getTour().getUpdatedAt();
+            if (expected != null) {
+                request.setHeader("If-Match", HttpTourService.versionTag(expected));
+            }
+        }
+        if (body != null) {
+            request.setHeader("Content-Type", "application/json");
+            request.setEntity(new StringEntity(objectMapper.writeValueAsString(body), ContentType.APPLICATION_JSON));
+        }
+        try (CloseableHttpResponse response = BackendPool.getInstance().execute(httpClient, request)) {
+            int code = response.getCode();
+            String responseBody = response.getEntity() != null ? EntityUtils.toString(response.getEntity()) : "";
+            if (code >= 200 && code < 300) {
+                JsonNode json = responseBody.isBlank() ? null : objectMapper.readTree(responseBody);
+                return Outcome.done(mutation.isCreate() ? readId(json) : null, readVersion(mutation, json));
+            }
+            if (code == 409 || code == 412) {
+                return Outcome.conflict("HTTP " + code);
+            }
+            // Schon gelöscht ist für ein Löschen auch ein Erfolg
+            if (code == 404 && (mutation.getType() == Mutation.Type.DELETE_TOUR
+                    || mutation.getType() == Mutation.Type.DELETE_LOG)) {
+                return Outcome.done(null);
+            }
+            if (!isTemporary(code)) {
+                logger.warn("Backend refused {}: HTTP {} {}", mutation, code, responseBody);
+            }
+            return failure(code);
+        } catch (org.apache.hc.core5.http.ParseException e) {
+            return Outcome.retry(e.getMessage());
+        }
+    }
+
+    private static boolean isTemporary(int code) {
+        return code == 408 || code == 429 || code >= 500;
+    }
+
+    private static Outcome failure(int code) {
+        return isTemporary(code) ? Outcome.retry("HTTP " + code) : Outcome.rejected("HTTP " + code);
+    }
+
+    private static Long readId(JsonNode json) {
+        JsonNode id = json != null ? json.get("id") : null;
+        return id != null && id.canConvertToLong() ? id.asLong() : null;
+    }
+
+    /**
+     * updatedAt of a created or updated tour; the next update of the tour expects it
+     */
+    private LocalDateTime readVersion(Mutation mutation, JsonNode json) {
+        if (json == null || (mutation.getType() != Mutation.Type.CREATE_TOUR
+                && mutation.getType() != Mutation.Type.UPDATE_TOUR)) {
+            return null;
+        }
+        JsonNode updatedAt = json.get("updatedAt");
+        if (updatedAt == null || updatedAt.isNull()) {
+            return null;
+        }
+        try {
+            return objectMapper.treeToValue(updatedAt, LocalDateTime.class);
+        } catch (IOException e) {
+            logger.debug("Unreadable updatedAt {}: {}", updatedAt, e.getMessage());
+            return null;
+        }
+    }
+
+    private static HttpTourService.TourRequestDto tourRequest(Tour tour) {
+        HttpTourService.TourRequestDto dto = new HttpTourService.TourRequestDto();
+        dto.setName(tour.getName());
+        dto.setDescription(tour.getDescription());
+        dto.setFromLocation(tour.getFrom());
+        dto.setToLocation(tour.getTo());
+        dto.setTransportType(tour.getTransportType());
+        dto.setDistance(tour.getDistance());
+        dto.setEstimatedTime(tour.getEstimatedTime());
+        dto.setRouteImagePath(tour.getRouteImagePath());
+        return dto;
+    }
+
+    private static HttpTourLogService.TourLogRequestDto logRequest(TourLog log) {
+        HttpTourLogService.TourLogRequestDto dto = new HttpTourLogService.TourLogRequestDto();
+        dto.setDate(log.getDate());
+        dto.setComment(log.getComment());
+        dto.setDifficulty(log.getDifficulty());
+        dto.setTotalDistance(log.getTotalDistance());
+        dto.setTotalTime(log.getTotalTime());
+        dto.setRating(log.getRating());
+        return dto;
+    }
+}
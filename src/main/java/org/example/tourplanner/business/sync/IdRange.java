@@ -0,0 +1,74 @@
+package org.example.tourplanner.business.sync;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tour ids from (inclusive) to (exclusive); a node of the Merkle tree
+ */
+public final class IdRange {
+    /**
+     * Children per node; both sides of a comparison must split the same way
+     */
+    public static final int FANOUT = 16;
+    public static final IdRange ALL = new IdRange(0, Long.MAX_VALUE);
+
+    private final long from;
+    private final long to;
+
+    public IdRange(long from, long to) {
+        if (from < 0 || to < from) {
+            throw new IllegalArgumentException("Invalid id range [" + from + ", " + to + ")");
+        }
+        this.from = from;
+        this.to = to;
+    }
+
+    public long getFrom() {
+        return from;
+    }
+
+    public long getTo() {
+        return to;
+    }
+
+    public long width() {
+        return to - from;
+    }
+
+    public boolean contains(long id) {
+        return id >= from && id < to;
+    }
+
+    /**
+     * Up to {@link #FANOUT} equally wide, non-empty parts
+     */
+    public List<IdRange> split() {
+        // Aufrunden ohne Überlauf, ALL reicht bis Long.MAX_VALUE
+        long step = Math.max(1, width() / FANOUT + (width() % FANOUT == 0 ? 0 : 1));
+        List<IdRange> parts = new ArrayList<>(FANOUT);
+        for (long start = from; start < to; start += step) {
+            if (to - start <= step) {
+                parts.add(new IdRange(start, to));
+                break;
+            }
+            parts.add(new IdRange(start, start + step));
+        }
+        return parts;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof IdRange range && range.from == from && range.to == to;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(from) * 31 + Long.hashCode(to);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + from + ", " + to + ")";
+    }
+}
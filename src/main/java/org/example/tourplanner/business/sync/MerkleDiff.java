@@ -0,0 +1,55 @@
+package org.example.tourplanner.business.sync;
+
+import java.util.Set;
+
+/**
+ * Result of comparing two {@link MerkleSource}s
+ */
+public final class MerkleDiff {
+    private final Set<Long> changedIds;
+    private final Set<Long> deletedIds;
+    private final int requests;
+    private final int rangesCompared;
+
+    MerkleDiff(Set<Long> changedIds, Set<Long> deletedIds, int requests, int rangesCompared) {
+        this.changedIds = changedIds;
+        this.deletedIds = deletedIds;
+        this.requests = requests;
+        this.rangesCompared = rangesCompared;
+    }
+
+    /**
+     * Tours that are new or different on the remote side
+     */
+    public Set<Long> getChangedIds() {
+        return changedIds;
+    }
+
+    /**
+     * Tours that only exist locally
+     */
+    public Set<Long> getDeletedIds() {
+        return deletedIds;
+    }
+
+    /**
+     * Number of calls made to the remote side
+     */
+    public int getRequests() {
+        return requests;
+    }
+
+    public int getRangesCompared() {
+        return rangesCompared;
+    }
+
+    public boolean isEmpty() {
+        return changedIds.isEmpty() && deletedIds.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return changedIds.size() + " changed, " + deletedIds.size() + " deleted after "
+                + requests + " requests (" + rangesCompared + " ranges)";
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.tourplanner.business.sync;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the tours that differ between two {@link MerkleSource}s. The tree is walked
+ * breadth first with one request per level, and only ranges whose hashes differ are
+ * split further, so equal data costs a single request and a few changes among many
+ * thousand tours only a handful.
+ */
+public final class MerkleReconciler {
+    private static final Logger logger = LogManager.getLogger(MerkleReconciler.class);
+    // Sicherheitsgrenze, bei korrekten Quellen endet die Suche nach wenigen Ebenen
+    private static final int MAX_LEVELS = 20;
+
+    private MerkleReconciler() {
+    }
+
+    /**
+     * @return the differences, or null if one side could not answer
+     */
+    public static MerkleDiff diff(MerkleSource local, MerkleSource remote) {
+        int requests = 0;
+        int rangesCompared = 0;
+        List<IdRange> level = List.of(IdRange.ALL);
+        List<IdRange> leaves = new ArrayList<>();
+        for (int depth = 0; !level.isEmpty(); depth++) {
+            if (depth == MAX_LEVELS) {
+                logger.warn("Merkle comparison did not converge, comparing {} ranges tour by tour", level.size());
+                leaves.addAll(level);
+                break;
+            }
+            List<RangeDigest> localDigests = local.rangeDigests(level);
+            List<RangeDigest> remoteDigests = remote.rangeDigests(level);
+            requests++;
+            if (localDigests == null || remoteDigests == null || remoteDigests.size() != level.size()) {
+                return null;
+            }
+            rangesCompared += level.size();
+            List<IdRange> next = new ArrayList<>();
+            for (int i = 0; i < level.size(); i++) {
+                RangeDigest mine = localDigests.get(i);
+                RangeDigest theirs = remoteDigests.get(i);
+                if (mine.sameContent(theirs)) {
+                    continue;
+                }
+                IdRange differing = tighten(level.get(i), mine, theirs);
+                // Ist eine Seite leer, unterscheiden sich ohnehin alle Touren der anderen
+                if (Math.max(mine.getCount(), theirs.getCount()) <= MerkleTree.LEAF_SIZE
+                        || mine.getCount() == 0 || theirs.getCount() == 0) {
+                    leaves.add(differing);
+                } else {
+                    next.addAll(differing.split());
+                }
+            }
+            level = next;
+        }
+        Set<Long> changed = new HashSet<>();
+        Set<Long> deleted = new HashSet<>();
+        if (!leaves.isEmpty()) {
+            Map<Long, Long> localTours = local.tourDigests(leaves);
+            Map<Long, Long> remoteTours = remote.tourDigests(leaves);
+            requests++;
+            if (localTours == null || remoteTours == null) {
+                return null;
+            }
+            remoteTours.forEach((id, digest) -> {
+                if (!digest.equals(localTours.get(id))) {
+                    changed.add(id);
+                }
+            });
+            for (Long id : localTours.keySet()) {
+                if (!remoteTours.containsKey(id)) {
+                    deleted.add(id);
+                }
+            }
+        }
+        MerkleDiff diff = new MerkleDiff(changed, deleted, requests, rangesCompared);
+        logger.debug("Merkle comparison: {}", diff);
+        return diff;
+    }
+
+    // Auf die tatsächlich belegten Ids beider Seiten verkleinern, damit die Teilung nicht ins Leere geht
+    private static IdRange tighten(IdRange range, RangeDigest mine, RangeDigest theirs) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (RangeDigest digest : List.of(mine, theirs)) {
+            if (digest.getCount() > 0) {
+                min = Math.min(min, digest.getMinId());
+                max = Math.max(max, digest.getMaxId());
+            }
+        }
+        if (min == Long.MAX_VALUE || min < range.getFrom() || max >= range.getTo()) {
+            return range;
+        }
+        return new IdRange(min, max + 1);
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.tourplanner.business.sync;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One side of a Merkle comparison: the local tours or the backend's
+ */
+public interface MerkleSource {
+    /**
+     * Digests of the given ranges, in the same order; null if not available
+     */
+    List<RangeDigest> rangeDigests(List<IdRange> ranges);
+
+    /**
+     * Content hash of every tour in the given ranges by id; null if not available
+     */
+    Map<Long, Long> tourDigests(List<IdRange> ranges);
+}
@@ -0,0 +1,185 @@
+package org.example.tourplanner.business.sync;
+
+import org.example.tourplanner.models.Tour;
+import org.example.tourplanner.models.TourLog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Merkle tree over tour ids. Every tour has a content hash (data and logs, not the
+ * timestamps, so clock skew does not matter). The hash of an id range is:
+ *
+ * <pre>
+ * empty                        0
+ * up to LEAF_SIZE tours        sha256(id digest ...)        ids ascending
+ * more                         sha256(count hash ...)       of the FANOUT parts, see IdRange.split
+ * </pre>
+ *
+ * All hashes are the first 8 bytes of SHA-256, big endian. The backend computes the same,
+ * so equal ranges can be skipped without transferring their tours.
+ */
+public class MerkleTree implements MerkleSource {
+    static final int LEAF_SIZE = 32;
+    // Darüber werden die Teilbereiche auf mehreren Kernen berechnet
+    private static final int PARALLEL_THRESHOLD = 4096;
+
+    private final long[] ids;
+    private final long[] digests;
+    private final Map<IdRange, RangeDigest> cache = new ConcurrentHashMap<>();
+
+    MerkleTree(long[] sortedIds, long[] digests) {
+        this.ids = sortedIds;
+        this.digests = digests;
+    }
+
+    /**
+     * Hashes the tours in parallel; tours without id or with a temporary (negative) id are left out
+     */
+    public static MerkleTree build(Collection<Tour> tours) {
+        Tour[] sorted = tours.stream()
+                .filter(tour -> tour.getId() != null && tour.getId() >= 0)
+                .sorted(Comparator.comparing(Tour::getId))
+                .toArray(Tour[]::new);
+        long[] ids = new long[sorted.length];
+        long[] digests = new long[sorted.length];
+        IntStream.range(0, sorted.length).parallel().forEach(i -> {
+            ids[i] = sorted[i].getId();
+            digests[i] = tourDigest(sorted[i]);
+        });
+        return new MerkleTree(ids, digests);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public RangeDigest digest(IdRange range) {
+        RangeDigest cached = cache.get(range);
+        if (cached != null) {
+            return cached;
+        }
+        int start = lowerBound(range.getFrom());
+        int end = lowerBound(range.getTo());
+        int count = end - start;
+        RangeDigest digest;
+        if (count == 0) {
+            digest = new RangeDigest(range, 0, 0, -1, -1);
+        } else {
+            long hash;
+            if (count <= LEAF_SIZE) {
+                hash = leafHash(start, end);
+            } else {
+                List<IdRange> parts = range.split();
+                List<RangeDigest> children = count > PARALLEL_THRESHOLD
+                        ? parts.parallelStream().map(this::digest).toList()
+                        : parts.stream().map(this::digest).toList();
+                hash = nodeHash(children);
+            }
+            digest = new RangeDigest(range, count, hash, ids[start], ids[end - 1]);
+        }
+        cache.put(range, digest);
+        return digest;
+    }
+
+    @Override
+    public List<RangeDigest> rangeDigests(List<IdRange> ranges) {
+        List<RangeDigest> result = new ArrayList<>(ranges.size());
+        for (IdRange range : ranges) {
+            result.add(digest(range));
+        }
+        return result;
+    }
+
+    @Override
+    public Map<Long, Long> tourDigests(List<IdRange> ranges) {
+        Map<Long, Long> result = new HashMap<>();
+        for (IdRange range : ranges) {
+            for (int i = lowerBound(range.getFrom()), end = lowerBound(range.getTo()); i < end; i++) {
+                result.put(ids[i], digests[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Content hash of one tour: all shown data and its logs ordered by id, without timestamps
+     */
+    public static long tourDigest(Tour tour) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try {
+            DataOutputStream out = new DataOutputStream(bytes);
+            TourCodec.writeString(out, tour.getName());
+            TourCodec.writeString(out, tour.getDescription());
+            TourCodec.writeString(out, tour.getFrom());
+            TourCodec.writeString(out, tour.getTo());
+            TourCodec.writeString(out, tour.getTransportType());
+            out.writeDouble(tour.getDistance());
+            out.writeInt(tour.getEstimatedTime());
+            TourCodec.writeString(out, tour.getRouteImagePath());
+            List<TourLog> logs = new ArrayList<>(tour.getTourLogs() != null ? tour.getTourLogs() : List.of());
+            logs.sort(Comparator.comparing(TourLog::getId, Comparator.nullsFirst(Comparator.naturalOrder())));
+            out.writeInt(logs.size());
+            for (TourLog log : logs) {
+                TourCodec.writeId(out, log.getId());
+                TourCodec.writeString(out, log.getDate() != null ? log.getDate().toString() : null);
+                TourCodec.writeString(out, log.getComment());
+                out.writeInt(log.getDifficulty());
+                out.writeDouble(log.getTotalDistance());
+                out.writeInt(log.getTotalTime());
+                out.writeInt(log.getRating());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return first8Bytes(sha256().digest(bytes.toByteArray()));
+    }
+
+    private long leafHash(int start, int end) {
+        ByteBuffer buffer = ByteBuffer.allocate((end - start) * 16);
+        for (int i = start; i < end; i++) {
+            buffer.putLong(ids[i]).putLong(digests[i]);
+        }
+        return first8Bytes(sha256().digest(buffer.array()));
+    }
+
+    private static long nodeHash(List<RangeDigest> children) {
+        ByteBuffer buffer = ByteBuffer.allocate(children.size() * 16);
+        for (RangeDigest child : children) {
+            buffer.putLong(child.getCount()).putLong(child.getHash());
+        }
+        return first8Bytes(sha256().digest(buffer.array()));
+    }
+
+    private int lowerBound(long id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static long first8Bytes(byte[] hash) {
+        return ByteBuffer.wrap(hash, 0, 8).getLong();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Jede Java-Laufzeit muss SHA-256 anbieten
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package org.example.tourplanner.business.sync;
+
+import org.example.tourplanner.models.Tour;
+import org.example.tourplanner.models.TourLog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * One queued change of a tour or tour log. The data is copied when the mutation is created,
+ * so later edits in the UI do not change what is sent. Tours and logs created offline have
+ * negative temporary ids until the backend has assigned the real ones.
+ */
+public final class Mutation {
+
+    public enum Type {
+        CREATE_TOUR, UPDATE_TOUR, DELETE_TOUR, CREATE_LOG, UPDATE_LOG, DELETE_LOG
+    }
+
+    private final long sequence;
+    private final Type type;
+    private final String idempotencyKey;
+    private final Long tourId;
+    private final Long logId;
+    private final byte[] payload;
+
+    Mutation(long sequence, Type type, String idempotencyKey, Long tourId, Long logId, byte[] payload) {
+        this.sequence = sequence;
+        this.type = type;
+        this.idempotencyKey = idempotencyKey;
+        this.tourId = tourId;
+        this.logId = logId;
+        this.payload = payload;
+    }
+
+    public static Mutation createTour(Tour tour) {
+        return new Mutation(0, Type.CREATE_TOUR, newKey(), tour.getId(), null, TourCodec.encode(withoutLogs(tour)));
+    }
+
+    public static Mutation updateTour(Tour tour) {
+        return new Mutation(0, Type.UPDATE_TOUR, newKey(), tour.getId(), null, TourCodec.encode(withoutLogs(tour)));
+    }
+
+    public static Mutation deleteTour(Long tourId) {
+        return new Mutation(0, Type.DELETE_TOUR, newKey(), tourId, null, null);
+    }
+
+    public static Mutation createLog(Long tourId, TourLog log) {
+        return new Mutation(0, Type.CREATE_LOG, newKey(), tourId, log.getId(), TourCodec.encode(log));
+    }
+
+    public static Mutation updateLog(Long tourId, TourLog log) {
+        return new Mutation(0, Type.UPDATE_LOG, newKey(), tourId, log.getId(), TourCodec.encode(log));
+    }
+
+    public static Mutation deleteLog(Long tourId, Long logId) {
+        return new Mutation(0, Type.DELETE_LOG, newKey(), tourId, logId, null);
+    }
+
+    /**
+     * Position in the journal; 0 until the mutation has been appended
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Sent with the request, so a replayed create the backend already executed is not done twice
+     */
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public Long getTourId() {
+        return tourId;
+    }
+
+    public Long getLogId() {
+        return logId;
+    }
+
+    public boolean isCreate() {
+        return type == Type.CREATE_TOUR || type == Type.CREATE_LOG;
+    }
+
+    /**
+     * The temporary id a create replaces, null for other types
+     */
+    public Long getCreatedId() {
+        return type == Type.CREATE_TOUR ? tourId : type == Type.CREATE_LOG ? logId : null;
+    }
+
+    /**
+     * A copy of the tour data for CREATE_TOUR and UPDATE_TOUR, with the ids of this mutation
+     */
+    public Tour getTour() {
+        try {
+            Tour tour = TourCodec.decodeTour(payload);
+            tour.setId(tourId);
+            return tour;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A copy of the log data for CREATE_LOG and UPDATE_LOG, with the ids of this mutation
+     */
+    public TourLog getLog() {
+        try {
+            TourLog log = TourCodec.decodeLog(payload);
+            log.setId(logId);
+            return log;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    byte[] getPayload() {
+        return payload;
+    }
+
+    Mutation withSequence(long newSequence) {
+        return new Mutation(newSequence, type, idempotencyKey, tourId, logId, payload);
+    }
+
+    /**
+     * The same mutation with the data of a later update of the same tour or log
+     */
+    Mutation withPayload(byte[] newPayload) {
+        return new Mutation(sequence, type, idempotencyKey, tourId, logId, newPayload);
+    }
+
+    /**
+     * An UPDATE_TOUR based on a newer version of the tour (its expected updatedAt)
+     */
+    Mutation withVersion(LocalDateTime version) {
+        Tour tour = getTour();
+        tour.setUpdatedAt(version);
+        return new Mutation(sequence, type, idempotencyKey, tourId, logId, TourCodec.encode(tour));
+    }
+
+    /**
+     * Replaces temporary ids by the ids the backend assigned in the meantime
+     */
+    Mutation resolve(Map<Long, Long> assignedIds) {
+        Long resolvedTour = tourId != null ? assignedIds.getOrDefault(tourId, tourId) : null;
+        Long resolvedLog = logId != null ? assignedIds.getOrDefault(logId, logId) : null;
+        if (Objects.equals(resolvedTour, tourId) && Objects.equals(resolvedLog, logId)) {
+            return this;
+        }
+        return new Mutation(sequence, type, idempotencyKey, resolvedTour, resolvedLog, payload);
+    }
+
+    @Override
+    public String toString() {
+        return type + "#" + sequence + " tour=" + tourId + (logId != null ? " log=" + logId : "");
+    }
+
+    private static String newKey() {
+        return UUID.randomUUID().toString();
+    }
+
+    // Logs werden als eigene Mutationen übertragen
+    private static Tour withoutLogs(Tour tour) {
+        Tour copy = new Tour(tour.getName(), tour.getDescription(), tour.getFrom(), tour.getTo(), tour.getTransportType());
+        copy.setId(tour.getId());
+        copy.setDistance(tour.getDistance());
+        copy.setEstimatedTime(tour.getEstimatedTime());
+        copy.setRouteImagePath(tour.getRouteImagePath());
+        copy.setUpdatedAt(tour.getUpdatedAt());
+        return copy;
+    }
+}
@@ -0,0 +1,587 @@
+package org.example.tourplanner.business.sync;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of queued mutations and their acknowledgements.
+ *
+ * <pre>
+ * "TPMJ" version:int record*
+ * record: length:int crc32:int kind:byte body
+ *   MUTATION sequence type key tourId logId payload
+ *   ACK      sequence assignedId
+ *   ID_MAP   temporaryId assignedId
+ * </pre>
+ *
+ * Appends go to the OS right away; fsync runs on a background thread at most every
+ * {@link #SYNC_INTERVAL_MS} ms for all appends since the last one, so the UI thread never
+ * waits for the disk. A torn record at the end (crash while writing) is cut off when opening.
+ * Once enough mutations are acknowledged the same thread rewrites the file with only the
+ * pending ones and the id mappings of this session; neither fsync holds the journal's lock.
+ * A MUTATION record with the sequence of a pending one replaces it in place (merged update).
+ */
+public class MutationJournal {
+    private static final Logger logger = LogManager.getLogger(MutationJournal.class);
+    private static final int MAGIC = 0x54504D4A; // "TPMJ"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final byte KIND_MUTATION = 1;
+    private static final byte KIND_ACK = 2;
+    private static final byte KIND_ID_MAP = 3;
+    static final long SYNC_INTERVAL_MS = 25;
+    private static final int COMPACT_AFTER_ACKS = 64;
+
+    private final Path file;
+    private FileChannel channel;
+    private final Map<Long, Mutation> pending = new LinkedHashMap<>();
+    private final Map<Long, Long> assignedIds = new HashMap<>();
+    // Frühere Sitzungen haben ihre vorläufigen Ids beim Start aufgelöst, nur diese bleiben beim Verdichten
+    private final Set<Long> mappedThisSession = new HashSet<>();
+    // Schon einmal gesendet (oder aus einer früheren Sitzung), darf nicht mehr verändert werden
+    private final Set<Long> attempted = new HashSet<>();
+    // Zuletzt vom Backend bestätigte Version je Tour, spätere Änderungen bauen darauf auf
+    private final Map<Long, LocalDateTime> versions = new HashMap<>();
+    private long nextSequence = 1;
+    private int acknowledgedSinceCompaction;
+    private boolean compactionDue;
+    // Zählt geschriebene Records, damit das Verdichten merkt, ob inzwischen etwas dazukam
+    private long writes;
+    private boolean dirty;
+    private boolean closed;
+
+    /**
+     * Opens or creates the journal file, reads the pending mutations and starts syncing
+     */
+    public static MutationJournal open(Path file) throws IOException {
+        MutationJournal journal = new MutationJournal(file);
+        Thread syncThread = new Thread(journal::syncLoop, "journal-sync");
+        syncThread.setDaemon(true);
+        syncThread.start();
+        return journal;
+    }
+
+    private MutationJournal(Path file) throws IOException {
+        this.file = file;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() < HEADER_SIZE) {
+            writeHeader(channel);
+        } else {
+            load();
+            attempted.addAll(pending.keySet());
+        }
+    }
+
+    private MutationJournal() {
+        this.file = null;
+    }
+
+    /**
+     * Journal that only lives in memory, used when the file cannot be opened
+     */
+    public static MutationJournal inMemory() {
+        return new MutationJournal();
+    }
+
+    /**
+     * Appends the mutation and assigns its sequence number
+     */
+    public synchronized Mutation append(Mutation mutation) {
+        Mutation appended = mutation.withSequence(nextSequence++);
+        pending.put(appended.getSequence(), appended);
+        write(encodeMutation(appended));
+        return appended;
+    }
+
+    /**
+     * Appends the mutation, or for an update of a tour or log whose last pending change is an
+     * update that has not been sent yet, replaces that update's data. Creates and deletes are
+     * never merged, so the order towards them stays as submitted.
+     * @return the appended or the merged mutation
+     */
+    public synchronized Mutation appendOrMerge(Mutation mutation) {
+        mutation = onLatestVersion(mutation);
+        Mutation.Type type = mutation.getType();
+        if (type != Mutation.Type.UPDATE_TOUR && type != Mutation.Type.UPDATE_LOG) {
+            return append(mutation);
+        }
+        Mutation incoming = mutation.resolve(assignedIds);
+        Mutation latest = null;
+        List<Mutation> all = new ArrayList<>(pending.values());
+        for (int i = all.size() - 1; i >= 0; i--) {
+            Mutation resolved = all.get(i).resolve(assignedIds);
+            if (sameEntity(resolved, incoming)) {
+                latest = resolved;
+                break;
+            }
+        }
+        if (latest == null || latest.getType() != type || attempted.contains(latest.getSequence())) {
+            return append(mutation);
+        }
+        Mutation merged = latest.withPayload(incoming.getPayload());
+        pending.put(merged.getSequence(), merged);
+        write(encodeMutation(merged));
+        return merged;
+    }
+
+    /**
+     * Records the version (updatedAt) the backend gave a tour for one of our changes. Pending
+     * updates of the tour, and updates appended later on an older version, are based on it,
+     * so our own changes do not conflict with each other.
+     */
+    public synchronized void recordVersion(Long tourId, LocalDateTime version) {
+        if (tourId == null || version == null) {
+            return;
+        }
+        versions.merge(tourId, version, (known, added) -> added.isAfter(known) ? added : known);
+        for (Mutation mutation : new ArrayList<>(pending.values())) {
+            Mutation resolved = mutation.resolve(assignedIds);
+            if (resolved.getType() == Mutation.Type.UPDATE_TOUR && tourId.equals(resolved.getTourId())) {
+                Mutation rebased = onLatestVersion(resolved);
+                if (rebased != resolved) {
+                    pending.put(rebased.getSequence(), rebased);
+                    write(encodeMutation(rebased));
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the pending updates of a tour, e.g. after a conflict was resolved with the current state
+     * @return the dropped updates
+     */
+    public synchronized List<Mutation> discardUpdates(Long tourId) {
+        List<Mutation> discarded = new ArrayList<>();
+        for (Mutation mutation : new ArrayList<>(pending.values())) {
+            Mutation resolved = mutation.resolve(assignedIds);
+            if (resolved.getType() == Mutation.Type.UPDATE_TOUR && tourId.equals(resolved.getTourId())) {
+                acknowledge(resolved.getSequence(), null);
+                discarded.add(resolved);
+            }
+        }
+        return discarded;
+    }
+
+    private Mutation onLatestVersion(Mutation mutation) {
+        if (mutation.getType() != Mutation.Type.UPDATE_TOUR) {
+            return mutation;
+        }
+        LocalDateTime known = versions.get(resolve(mutation.getTourId()));
+        if (known == null) {
+            return mutation;
+        }
+        LocalDateTime version = mutation.getTour().getUpdatedAt();
+        return version == null || version.isBefore(known) ? mutation.withVersion(known) : mutation;
+    }
+
+    /**
+     * Oldest pending mutation for sending; from now on it is no longer merged with later updates
+     */
+    public synchronized Mutation take() {
+        Mutation next = first();
+        if (next != null) {
+            attempted.add(next.getSequence());
+        }
+        return next;
+    }
+
+    /**
+     * Like {@link #take()}, but with the mutations of the same type right after the oldest one, up to max,
+     * as long as none of them depends on another: deletes, tour creates, log creates for one tour and
+     * updates of different logs. Tour updates are always sent alone, they carry the version they expect.
+     */
+    public synchronized List<Mutation> takeRun(int max) {
+        List<Mutation> run = new ArrayList<>();
+        for (Mutation mutation : pending.values()) {
+            Mutation resolved = mutation.resolve(assignedIds);
+            if (!run.isEmpty() && (run.size() == max || !fitsRun(run, resolved))) {
+                break;
+            }
+            run.add(resolved);
+            attempted.add(mutation.getSequence());
+        }
+        return run;
+    }
+
+    private static boolean fitsRun(List<Mutation> run, Mutation next) {
+        Mutation first = run.get(0);
+        if (next.getType() != first.getType()) {
+            return false;
+        }
+        return switch (next.getType()) {
+            case UPDATE_TOUR -> false;
+            case CREATE_LOG -> Objects.equals(next.getTourId(), first.getTourId());
+            // Zwei Änderungen desselben Logs müssen nacheinander ankommen
+            case UPDATE_LOG -> run.stream().noneMatch(sent -> sent.getLogId().equals(next.getLogId()));
+            default -> true;
+        };
+    }
+
+    /**
+     * Marks a mutation as done; for creates the id assigned by the backend replaces the temporary one
+     */
+    public synchronized void acknowledge(long sequence, Long assignedId) {
+        Mutation mutation = pending.remove(sequence);
+        attempted.remove(sequence);
+        if (mutation == null) {
+            return;
+        }
+        if (assignedId != null && mutation.getCreatedId() != null && mutation.getCreatedId() < 0) {
+            assignedIds.put(mutation.getCreatedId(), assignedId);
+            mappedThisSession.add(mutation.getCreatedId());
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(24);
+        try {
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(KIND_ACK);
+            out.writeLong(sequence);
+            TourCodec.writeId(out, assignedId);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        write(bytes.toByteArray());
+        if (++acknowledgedSinceCompaction >= COMPACT_AFTER_ACKS && acknowledgedSinceCompaction >= pending.size()) {
+            // Übernimmt der Sync-Thread, das Umschreiben soll niemanden blockieren
+            compactionDue = true;
+        }
+    }
+
+    /**
+     * Oldest pending mutation with all known ids resolved, or null
+     */
+    public synchronized Mutation first() {
+        return pending.isEmpty() ? null : pending.values().iterator().next().resolve(assignedIds);
+    }
+
+    /**
+     * All pending mutations in order, ids resolved
+     */
+    public synchronized List<Mutation> pending() {
+        List<Mutation> result = new ArrayList<>(pending.size());
+        for (Mutation mutation : pending.values()) {
+            result.add(mutation.resolve(assignedIds));
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    /**
+     * The id the backend assigned for a temporary id, or the id itself
+     */
+    public synchronized Long resolve(Long id) {
+        return id != null ? assignedIds.getOrDefault(id, id) : null;
+    }
+
+    /**
+     * Writes the journal to disk now (used on shutdown)
+     */
+    public void flush() {
+        FileChannel target;
+        synchronized (this) {
+            if (channel == null || !dirty) {
+                return;
+            }
+            target = channel;
+            dirty = false;
+        }
+        try {
+            target.force(false);
+        } catch (IOException e) {
+            synchronized (this) {
+                // Ein beim Verdichten ersetzter Kanal ist schon mit der neuen Datei gesichert
+                if (target == channel) {
+                    dirty = true;
+                    logger.error("Could not sync mutation journal {}", file, e);
+                }
+            }
+        }
+    }
+
+    public void close() {
+        flush();
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+            if (channel != null) {
+                try {
+                    if (dirty) {
+                        channel.force(false);
+                    }
+                    channel.close();
+                } catch (IOException e) {
+                    logger.warn("Error closing mutation journal: {}", e.getMessage());
+                }
+                channel = null;
+            }
+        }
+    }
+
+    /**
+     * Rewrites the file with only the pending mutations (ids resolved) and the id mappings of
+     * this session. The new file is written and synced without holding the lock; if records
+     * were appended meanwhile, it is thrown away and the next acknowledgement tries again.
+     */
+    void compact() {
+        Map<Long, Mutation> resolved = new LinkedHashMap<>();
+        List<byte[]> records = new ArrayList<>();
+        long writesBefore;
+        synchronized (this) {
+            compactionDue = false;
+            if (channel == null) {
+                acknowledgedSinceCompaction = 0;
+                return;
+            }
+            for (Long temporaryId : mappedThisSession) {
+                records.add(encodeIdMapping(temporaryId, assignedIds.get(temporaryId)));
+            }
+            for (Mutation mutation : pending.values()) {
+                Mutation current = mutation.resolve(assignedIds);
+                resolved.put(current.getSequence(), current);
+                records.add(encodeMutation(current));
+            }
+            writesBefore = writes;
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".compact");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeHeader(out);
+            for (byte[] record : records) {
+                writeRecord(out, record);
+            }
+            out.force(true);
+        } catch (IOException e) {
+            logger.error("Could not compact mutation journal {}", file, e);
+            return;
+        }
+
+        synchronized (this) {
+            if (writes != writesBefore || channel == null) {
+                logger.debug("Mutation journal changed while compacting, trying again later");
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    logger.debug("Could not delete {}: {}", temp, e.getMessage());
+                }
+                return;
+            }
+            acknowledgedSinceCompaction = 0;
+            try {
+                channel.close();
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                pending.clear();
+                pending.putAll(resolved);
+                // Die ausstehenden Mutationen stehen jetzt aufgelöst in der Datei
+                assignedIds.keySet().retainAll(mappedThisSession);
+                dirty = false;
+                logger.debug("Compacted mutation journal to {} pending mutations", pending.size());
+            } catch (IOException e) {
+                logger.error("Could not compact mutation journal {}", file, e);
+                try {
+                    if (!channel.isOpen()) {
+                        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                    }
+                } catch (IOException reopenError) {
+                    logger.error("Mutation journal {} is no longer written", file, reopenError);
+                    channel = null;
+                }
+            }
+        }
+    }
+
+    // Tour-Änderungen gehören zur Tour, Log-Änderungen nur zum Log
+    private static boolean sameEntity(Mutation a, Mutation b) {
+        boolean aIsTour = a.getType() == Mutation.Type.CREATE_TOUR || a.getType() == Mutation.Type.UPDATE_TOUR
+                || a.getType() == Mutation.Type.DELETE_TOUR;
+        boolean bIsTour = b.getType() == Mutation.Type.CREATE_TOUR || b.getType() == Mutation.Type.UPDATE_TOUR
+                || b.getType() == Mutation.Type.DELETE_TOUR;
+        if (aIsTour != bIsTour) {
+            return false;
+        }
+        return aIsTour ? Objects.equals(a.getTourId(), b.getTourId()) : Objects.equals(a.getLogId(), b.getLogId());
+    }
+
+    private void write(byte[] body) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            writeRecord(channel, body);
+            writes++;
+            dirty = true;
+            notifyAll();
+        } catch (IOException e) {
+            logger.error("Could not write mutation journal {}", file, e);
+        }
+    }
+
+    // Sammelt alle Anhänge eines Intervalls in einem fsync; gewartet wird unter der Sperre, gesichert ohne
+    private void syncLoop() {
+        while (true) {
+            boolean compactNow;
+            synchronized (this) {
+                try {
+                    while (!dirty && !compactionDue && !closed) {
+                        wait();
+                    }
+                    long deadline = System.currentTimeMillis() + SYNC_INTERVAL_MS;
+                    for (long left = SYNC_INTERVAL_MS; left > 0 && !closed; left = deadline - System.currentTimeMillis()) {
+                        wait(left);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (closed) {
+                    return;
+                }
+                compactNow = compactionDue;
+            }
+            flush();
+            if (compactNow) {
+                compact();
+            }
+        }
+    }
+
+    private static void writeHeader(FileChannel target) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).flip();
+        target.truncate(0);
+        target.write(header, 0);
+    }
+
+    private static void writeRecord(FileChannel target, byte[] body) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        ByteBuffer record = ByteBuffer.allocate(8 + body.length);
+        record.putInt(body.length).putInt((int) crc.getValue()).put(body).flip();
+        long position = target.size();
+        while (record.hasRemaining()) {
+            position += target.write(record, position);
+        }
+    }
+
+    private void load() throws IOException {
+        ByteBuffer data = ByteBuffer.allocate((int) channel.size());
+        channel.read(data, 0);
+        data.flip();
+        if (data.getInt() != MAGIC || data.getInt() != VERSION) {
+            throw new IOException("Not a mutation journal: " + file);
+        }
+        int records = 0;
+        while (data.remaining() >= 8) {
+            int start = data.position();
+            int length = data.getInt();
+            int expectedCrc = data.getInt();
+            if (length <= 0 || length > data.remaining()) {
+                data.position(start);
+                break;
+            }
+            byte[] body = new byte[length];
+            data.get(body);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if ((int) crc.getValue() != expectedCrc) {
+                data.position(start);
+                break;
+            }
+            apply(body);
+            records++;
+        }
+        if (data.position() < data.limit()) {
+            logger.warn("Cutting off {} damaged bytes at the end of mutation journal {}",
+                    data.limit() - data.position(), file);
+            channel.truncate(data.position());
+        }
+        logger.info("Mutation journal: {} records, {} pending", records, pending.size());
+    }
+
+    private void apply(byte[] body) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        byte kind = in.readByte();
+        if (kind == KIND_MUTATION) {
+            long sequence = in.readLong();
+            Mutation.Type type = Mutation.Type.values()[in.readByte()];
+            String key = TourCodec.readString(in);
+            Long tourId = TourCodec.readId(in);
+            Long logId = TourCodec.readId(in);
+            int payloadLength = in.readInt();
+            byte[] payload = null;
+            if (payloadLength >= 0) {
+                payload = new byte[payloadLength];
+                in.readFully(payload);
+            }
+            pending.put(sequence, new Mutation(sequence, type, key, tourId, logId, payload));
+            nextSequence = Math.max(nextSequence, sequence + 1);
+        } else if (kind == KIND_ACK) {
+            long sequence = in.readLong();
+            Long assignedId = TourCodec.readId(in);
+            Mutation mutation = pending.remove(sequence);
+            if (mutation != null && assignedId != null && mutation.getCreatedId() != null
+                    && mutation.getCreatedId() < 0) {
+                assignedIds.put(mutation.getCreatedId(), assignedId);
+            }
+            nextSequence = Math.max(nextSequence, sequence + 1);
+        } else if (kind == KIND_ID_MAP) {
+            // Aus früheren Sitzungen: zum Auflösen beim Start, beim nächsten Verdichten fallen sie weg
+            assignedIds.put(in.readLong(), in.readLong());
+        }
+    }
+
+    private static byte[] encodeMutation(Mutation mutation) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + (mutation.getPayload() != null
+                ? mutation.getPayload().length : 0));
+        try {
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(KIND_MUTATION);
+            out.writeLong(mutation.getSequence());
+            out.writeByte(mutation.getType().ordinal());
+            TourCodec.writeString(out, mutation.getIdempotencyKey());
+            TourCodec.writeId(out, mutation.getTourId());
+            TourCodec.writeId(out, mutation.getLogId());
+            byte[] payload = mutation.getPayload();
+            out.writeInt(payload != null ? payload.length : -1);
+            if (payload != null) {
+                out.write(payload);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeIdMapping(long temporaryId, long assignedId) {
+        ByteBuffer body = ByteBuffer.allocate(17);
+        body.put(KIND_ID_MAP).putLong(temporaryId).putLong(assignedId);
+        return body.array();
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.tourplanner.business.sync;
+
+import org.example.tourplanner.business.service.BatchProgress;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Where queued mutations are sent when they are replayed
+ */
+public interface MutationTarget {
+
+    /**
+     * Result of sending one mutation
+     */
+    final class Outcome {
+        public enum Kind {
+            /** Executed (or already executed before); remove it from the queue */
+            DONE,
+            /** Backend unreachable or overloaded; send again later */
+            RETRY,
+            /** Refused by the backend (e.g. validation); sending it again will not help */
+            REJECTED,
+            /** The tour was changed by someone else since the version the update is based on */
+            CONFLICT
+        }
+
+        private final Kind kind;
+        private final Long assignedId;
+        private final LocalDateTime version;
+        private final String message;
+
+        private Outcome(Kind kind, Long assignedId, LocalDateTime version, String message) {
+            this.kind = kind;
+            this.assignedId = assignedId;
+            this.version = version;
+            this.message = message;
+        }
+
+        public static Outcome done(Long assignedId) {
+            return new Outcome(Kind.DONE, assignedId, null, null);
+        }
+
+        /**
+         * @param version updatedAt of the tour after the change, if the backend returned it
+         */
+        public static Outcome done(Long assignedId, LocalDateTime version) {
+            return new Outcome(Kind.DONE, assignedId, version, null);
+        }
+
+        public static Outcome retry(String message) {
+            return new Outcome(Kind.RETRY, null, null, message);
+        }
+
+        public static Outcome rejected(String message) {
+            return new Outcome(Kind.REJECTED, null, null, message);
+        }
+
+        public static Outcome conflict(String message) {
+            return new Outcome(Kind.CONFLICT, null, null, message);
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Id of the created tour or log, null for other mutations
+         */
+        public Long getAssignedId() {
+            return assignedId;
+        }
+
+        /**
+         * updatedAt of the created or updated tour, null if unknown
+         */
+        public LocalDateTime getVersion() {
+            return version;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    Outcome send(Mutation mutation);
+
+    /**
+     * Sends a run of mutations of the same type that do not depend on each other
+     * (see {@link MutationJournal#takeRun}); one call per mutation unless the target can do better
+     * @param progress notified as mutations of the run are done, for the pending count in the UI
+     * @return an outcome per mutation in order; may end early, the rest stays queued
+     */
+    default List<Outcome> sendRun(List<Mutation> run, BatchProgress progress) {
+        List<Outcome> outcomes = new ArrayList<>(run.size());
+        for (Mutation mutation : run) {
+            Outcome outcome = send(mutation);
+            outcomes.add(outcome);
+            if (outcome.getKind() == Outcome.Kind.RETRY) {
+                break;
+            }
+            progress.update(outcomes.size(), run.size());
+        }
+        return outcomes;
+    }
+}
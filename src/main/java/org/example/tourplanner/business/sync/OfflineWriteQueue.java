@@ -0,0 +1,431 @@
+package org.example.tourplanner.business.sync;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.business.service.DataServices;
+import org.example.tourplanner.config.ConfigurationManager;
+import org.example.tourplanner.config.HttpClientConfig;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Changes made in the UI are applied locally at once and queued here. A background thread
+ * sends them in order; while the backend cannot be reached it retries with exponential
+ * backoff. The queue is kept in a {@link MutationJournal}, so nothing is lost on a crash
+ * or when the application is closed offline.
+ *
+ * Sending is write-behind: after the first change the queue waits {@link #WRITE_BEHIND_MS} ms,
+ * and further updates of the same tour or log that have not been sent yet are merged into
+ * one request (see {@link MutationJournal#appendOrMerge}).
+ */
+public class OfflineWriteQueue {
+    private static final Logger logger = LogManager.getLogger(OfflineWriteQueue.class);
+    static final long MIN_BACKOFF_MS = 1_000;
+    static final long MAX_BACKOFF_MS = 60_000;
+    static final long WRITE_BEHIND_MS = 750;
+    // So lange wartet das Beenden höchstens auf das Senden
+    static final long DRAIN_TIMEOUT_MS = 3_000;
+    // Aufeinanderfolgende gleichartige Änderungen gehen gemeinsam hinaus (Mehrfachauswahl, Log-Erfassung)
+    static final int RUN_SIZE = 100;
+    private static OfflineWriteQueue instance;
+    // Unter allen bisherigen vorläufigen Ids, auch denen aus früheren Starts
+    private static final AtomicLong temporaryIds = new AtomicLong(-System.currentTimeMillis() * 1000);
+
+    /**
+     * Notified on the replay thread
+     */
+    public interface Listener {
+        void acknowledged(Mutation mutation, Long assignedId);
+
+        void rejected(Mutation mutation, String reason);
+
+        void pendingChanged(int pendingCount);
+
+        /**
+         * The backend gave the tour a new version (updatedAt) for one of our changes
+         */
+        default void versionChanged(Long tourId, LocalDateTime version) {
+        }
+
+        /**
+         * The tour was changed by someone else; the update and later pending updates of the
+         * tour were dropped, the caller decides what to save instead
+         */
+        default void conflicted(Mutation mutation, String reason) {
+        }
+    }
+
+    private final MutationJournal journal;
+    private final MutationTarget target;
+    private final long minBackoffMs;
+    private final long maxBackoffMs;
+    private final long writeBehindMs;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final Object signal = new Object();
+    private Thread replayThread;
+    private volatile boolean running;
+    private volatile boolean draining;
+    private volatile boolean backingOff;
+    private final AtomicLong merged = new AtomicLong();
+
+    OfflineWriteQueue(MutationJournal journal, MutationTarget target, long minBackoffMs, long maxBackoffMs) {
+        this(journal, target, minBackoffMs, maxBackoffMs, 0);
+    }
+
+    OfflineWriteQueue(MutationJournal journal, MutationTarget target, long minBackoffMs, long maxBackoffMs,
+                      long writeBehindMs) {
+        this.journal = journal;
+        this.target = target;
+        this.minBackoffMs = minBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.writeBehindMs = writeBehindMs;
+    }
+
+    /**
+     * Queue with the journal at "journal.path" (default ~/TourPlanner/Sync/mutations.journal),
+     * sending to the backend or, in embedded mode, to the database
+     */
+    public static synchronized OfflineWriteQueue getInstance() {
+        if (instance == null) {
+            String configured = ConfigurationManager.getInstance().getProperty("journal.path", "");
+            Path path = configured.isBlank()
+                    ? Paths.get(System.getProperty("user.home"), "TourPlanner", "Sync", "mutations.journal")
+                    : Paths.get(configured);
+            MutationJournal journal;
+            try {
+                journal = MutationJournal.open(path);
+            } catch (IOException e) {
+                logger.error("Could not open mutation journal {}, changes are only kept in memory", path, e);
+                journal = MutationJournal.inMemory();
+            }
+            MutationTarget target = DataServices.isEmbedded()
+                    ? new ServiceMutationTarget(DataServices.tourService(), DataServices.tourLogService())
+                    : new HttpMutationTarget(HttpClientConfig.getBaseUrl());
+            instance = new OfflineWriteQueue(journal, target, MIN_BACKOFF_MS, MAX_BACKOFF_MS, WRITE_BEHIND_MS);
+        }
+        return instance;
+    }
+
+    public static synchronized void shutdownIfStarted() {
+        if (instance != null) {
+            instance.shutdown();
+        }
+    }
+
+    /**
+     * A new negative id for a tour or log that does not exist on the backend yet
+     */
+    public static long newTemporaryId() {
+        return temporaryIds.decrementAndGet();
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Starts sending; pending mutations from the last session are sent first
+     */
+    public synchronized void start() {
+        if (replayThread != null) {
+            return;
+        }
+        running = true;
+        int pendingCount = journal.size();
+        // Nur Übriggebliebenes der letzten Sitzung geht ohne Wartezeit raus, neue Änderungen warten das Fenster ab
+        boolean leftOver = pendingCount > 0;
+        replayThread = new Thread(() -> replayLoop(!leftOver), "write-replay");
+        replayThread.setDaemon(true);
+        replayThread.start();
+        if (pendingCount > 0) {
+            logger.info("Replaying {} changes from the last session", pendingCount);
+        }
+    }
+
+    /**
+     * Queues the mutation, or merges an update into a pending one; it is on disk within
+     * {@link MutationJournal#SYNC_INTERVAL_MS} ms
+     */
+    public Mutation submit(Mutation mutation) {
+        Mutation appended = journal.appendOrMerge(mutation);
+        // Zusammengeführt wird unter dem Schlüssel der älteren Änderung
+        if (!appended.getIdempotencyKey().equals(mutation.getIdempotencyKey())) {
+            merged.incrementAndGet();
+            logger.debug("Merged into {}", appended);
+        } else {
+            logger.debug("Queued {}", appended);
+            firePendingChanged();
+        }
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+        return appended;
+    }
+
+    /**
+     * Updates that were merged into a pending one instead of being sent on their own
+     */
+    public long getMergedCount() {
+        return merged.get();
+    }
+
+    public int getPendingCount() {
+        return journal.size();
+    }
+
+    /**
+     * Pending mutations in order, with all ids the backend has assigned so far
+     */
+    public List<Mutation> getPending() {
+        return journal.pending();
+    }
+
+    /**
+     * True if a change of this tour or one of its logs has not been sent yet
+     */
+    public boolean hasPendingFor(Long tourId) {
+        Long resolved = journal.resolve(tourId);
+        for (Mutation mutation : journal.pending()) {
+            if (resolved != null && resolved.equals(mutation.getTourId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The id the backend assigned for a temporary id, or the id itself
+     */
+    public Long resolveId(Long id) {
+        return journal.resolve(id);
+    }
+
+    public void flush() {
+        journal.flush();
+    }
+
+    /**
+     * Sends what is pending without the write-behind delay and waits up to {@link #DRAIN_TIMEOUT_MS};
+     * does not wait while the backend cannot be reached
+     * @return true if nothing is pending any more
+     */
+    public boolean drain(long timeoutMs) {
+        synchronized (signal) {
+            draining = true;
+            signal.notifyAll();
+            long deadline = System.currentTimeMillis() + timeoutMs;
+            try {
+                for (long left = timeoutMs; left > 0 && running && !backingOff && journal.size() > 0;
+                     left = deadline - System.currentTimeMillis()) {
+                    signal.wait(left);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return journal.size() == 0;
+    }
+
+    /**
+     * Sends pending mutations if the backend is reachable, then stops sending and writes the
+     * journal to disk; what is still unsent is replayed at the next start
+     */
+    public void shutdown() {
+        if (running) {
+            drain(DRAIN_TIMEOUT_MS);
+        }
+        running = false;
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+        journal.close();
+        logger.info("Write queue stopped with {} pending changes, {} updates merged", journal.size(), merged.get());
+    }
+
+    /**
+     * @param idle whether the journal was empty at start, so the first change waits for the write-behind window
+     */
+    private void replayLoop(boolean idle) {
+        int failures = 0;
+        while (running) {
+            if (journal.size() == 0) {
+                waitForSignal(0);
+                idle = true;
+                continue;
+            }
+            if (idle && writeBehindMs > 0 && !draining) {
+                // Weitere Änderungen derselben Tour sammeln, bevor gesendet wird
+                idle = false;
+                waitForSignal(writeBehindMs);
+                continue;
+            }
+            idle = false;
+            List<Mutation> run = journal.takeRun(RUN_SIZE);
+            if (run.isEmpty()) {
+                continue;
+            }
+            List<MutationTarget.Outcome> outcomes = send(run);
+            // Die Mutationen eines Laufs sind unabhängig: alle Ergebnisse übernehmen, was fehlt, kommt wieder
+            Mutation retried = null;
+            String retryMessage = null;
+            for (int i = 0; i < outcomes.size(); i++) {
+                Mutation sent = run.get(i);
+                MutationTarget.Outcome outcome = outcomes.get(i);
+                switch (outcome.getKind()) {
+                    case DONE -> {
+                        failures = 0;
+                        backingOff = false;
+                        journal.acknowledge(sent.getSequence(), outcome.getAssignedId());
+                        logger.debug("Sent {}", sent);
+                        for (Listener listener : listeners) {
+                            listener.acknowledged(sent, outcome.getAssignedId());
+                        }
+                        recordVersion(sent, outcome);
+                        firePendingChanged();
+                    }
+                    case REJECTED -> {
+                        failures = 0;
+                        backingOff = false;
+                        journal.acknowledge(sent.getSequence(), null);
+                        logger.warn("Dropped {}: {}", sent, outcome.getMessage());
+                        for (Listener listener : listeners) {
+                            listener.rejected(sent, outcome.getMessage());
+                        }
+                        firePendingChanged();
+                    }
+                    case CONFLICT -> {
+                        failures = 0;
+                        backingOff = false;
+                        journal.acknowledge(sent.getSequence(), null);
+                        // Spätere Änderungen derselben Tour bauen auf dem überholten Stand auf
+                        int discarded = journal.discardUpdates(sent.getTourId()).size();
+                        logger.info("Conflict on {} ({}), {} later updates dropped", sent, outcome.getMessage(), discarded);
+                        for (Listener listener : listeners) {
+                            listener.conflicted(sent, outcome.getMessage());
+                        }
+                        firePendingChanged();
+                    }
+                    case RETRY -> {
+                        if (retried == null) {
+                            retried = sent;
+                            retryMessage = outcome.getMessage();
+                        }
+                    }
+                }
+            }
+            if (retried != null) {
+                failures++;
+                backingOff = true;
+                synchronized (signal) {
+                    // Ein wartendes drain() muss nicht auf das Backoff warten
+                    signal.notifyAll();
+                }
+                long delay = backoff(failures);
+                logger.info("Could not send {} ({}), retrying in {} ms", retried, retryMessage, delay);
+                waitForSignal(delay);
+            }
+        }
+    }
+
+    private void recordVersion(Mutation sent, MutationTarget.Outcome outcome) {
+        if (outcome.getVersion() == null) {
+            return;
+        }
+        Long tourId = sent.getType() == Mutation.Type.CREATE_TOUR ? outcome.getAssignedId() : sent.getTourId();
+        if (tourId == null || (sent.getType() != Mutation.Type.CREATE_TOUR && sent.getType() != Mutation.Type.UPDATE_TOUR)) {
+            return;
+        }
+        journal.recordVersion(tourId, outcome.getVersion());
+        for (Listener listener : listeners) {
+            listener.versionChanged(tourId, outcome.getVersion());
+        }
+    }
+
+    /**
+     * One mutation, or a run in one call; the outcomes may end early
+     */
+    private List<MutationTarget.Outcome> send(List<Mutation> run) {
+        Mutation first = run.get(0);
+        if (dependsOnUnknownId(first)) {
+            // Das Anlegen der Tour wurde abgelehnt, Folgeänderungen können nicht mehr gelingen
+            return List.of(MutationTarget.Outcome.rejected("Depends on a tour or log that was never created"));
+        }
+        List<Mutation> ready = run.stream().takeWhile(mutation -> !dependsOnUnknownId(mutation)).toList();
+        try {
+            if (ready.size() > 1) {
+                // Die Anzeige der offenen Änderungen zählt schon während des Laufs herunter
+                int pendingBefore = journal.size();
+                List<MutationTarget.Outcome> outcomes = target.sendRun(ready,
+                        (done, total) -> firePendingChanged(pendingBefore - done));
+                if (!outcomes.isEmpty()) {
+                    return outcomes;
+                }
+                return List.of(MutationTarget.Outcome.retry("No result for the batch"));
+            }
+            return List.of(target.send(first));
+        } catch (RuntimeException e) {
+            return List.of(MutationTarget.Outcome.retry(e.getMessage()));
+        }
+    }
+
+    /**
+     * Exponential backoff with jitter, so many clients do not all come back at the same moment
+     */
+    long backoff(int failures) {
+        long base = minBackoffMs << Math.min(failures - 1, 20);
+        long capped = Math.min(maxBackoffMs, base);
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+
+    // Vorangehende Anlagen sind schon aufgelöst; eine negative Id heißt, dass sie abgelehnt wurde
+    private static boolean dependsOnUnknownId(Mutation mutation) {
+        Mutation.Type type = mutation.getType();
+        if (type != Mutation.Type.CREATE_TOUR && mutation.getTourId() != null && mutation.getTourId() < 0) {
+            return true;
+        }
+        return type != Mutation.Type.CREATE_LOG && mutation.getLogId() != null && mutation.getLogId() < 0;
+    }
+
+    // Bei timeout 0 bis zum nächsten submit, sonst die volle Wartezeit (neue Änderungen verkürzen kein Backoff)
+    private void waitForSignal(long timeoutMs) {
+        synchronized (signal) {
+            try {
+                if (timeoutMs == 0) {
+                    if (running && journal.size() == 0) {
+                        signal.wait();
+                    }
+                    return;
+                }
+                long deadline = System.currentTimeMillis() + timeoutMs;
+                for (long left = timeoutMs; left > 0 && running && !(draining && !backingOff);
+                     left = deadline - System.currentTimeMillis()) {
+                    signal.wait(left);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+    }
+
+    private void firePendingChanged() {
+        synchronized (signal) {
+            // Weckt auch ein wartendes drain()
+            signal.notifyAll();
+        }
+        firePendingChanged(journal.size());
+    }
+
+    private void firePendingChanged(int pendingCount) {
+        for (Listener listener : listeners) {
+            listener.pendingChanged(pendingCount);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.tourplanner.business.sync;
+
+/**
+ * Hash and size of the tours in an id range. Empty ranges have hash 0 and no min/max id.
+ */
+public final class RangeDigest {
+    private final IdRange range;
+    private final int count;
+    private final long hash;
+    private final long minId;
+    private final long maxId;
+
+    public RangeDigest(IdRange range, int count, long hash, long minId, long maxId) {
+        this.range = range;
+        this.count = count;
+        this.hash = hash;
+        this.minId = minId;
+        this.maxId = maxId;
+    }
+
+    public IdRange getRange() {
+        return range;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    public long getMinId() {
+        return minId;
+    }
+
+    public long getMaxId() {
+        return maxId;
+    }
+
+    public boolean sameContent(RangeDigest other) {
+        return other != null && count == other.count && hash == other.hash;
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.tourplanner.business.sync;
+
+import org.example.tourplanner.business.service.BatchProgress;
+import org.example.tourplanner.business.service.BatchResult;
+import org.example.tourplanner.business.service.TourLogService;
+import org.example.tourplanner.business.service.TourService;
+import org.example.tourplanner.business.service.UpdateResult;
+import org.example.tourplanner.models.Tour;
+import org.example.tourplanner.models.TourLog;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends mutations through the normal tour and log services (used for the embedded database
+ * mode). The services only report failure, not its cause, so every failure is retried.
+ */
+public class ServiceMutationTarget implements MutationTarget {
+    private final TourService tourService;
+    private final TourLogService tourLogService;
+
+    public ServiceMutationTarget(TourService tourService, TourLogService tourLogService) {
+        this.tourService = tourService;
+        this.tourLogService = tourLogService;
+    }
+
+    @Override
+    public Outcome send(Mutation mutation) {
+        switch (mutation.getType()) {
+            case CREATE_TOUR -> {
+                Tour tour = mutation.getTour();
+                tour.setId(null);
+                Tour created = tourService.createTour(tour);
+                return created != null ? Outcome.done(created.getId(), created.getUpdatedAt())
+                        : Outcome.retry("Tour not created");
+            }
+            case UPDATE_TOUR -> {
+                UpdateResult<Tour> result = tourService.updateTourIfUnchanged(mutation.getTour());
+                return switch (result.getStatus()) {
+                    case UPDATED -> Outcome.done(null, result.getValue().getUpdatedAt());
+                    case CONFLICT -> Outcome.conflict("Tour changed in the meantime");
+                    case NOT_FOUND -> Outcome.rejected("Tour not found");
+                    case FAILED -> Outcome.retry("Tour not updated");
+                };
+            }
+            case DELETE_TOUR -> {
+                return tourService.deleteTour(mutation.getTourId())
+                        ? Outcome.done(null) : Outcome.retry("Tour not deleted");
+            }
+            case CREATE_LOG -> {
+                TourLog log = mutation.getLog();
+                log.setId(null);
+                TourLog created = tourLogService.createTourLog(mutation.getTourId(), log);
+                return created != null ? Outcome.done(created.getId()) : Outcome.retry("Tour log not created");
+            }
+            case UPDATE_LOG -> {
+                return tourLogService.updateTourLog(mutation.getLog()) != null
+                        ? Outcome.done(null) : Outcome.retry("Tour log not updated");
+            }
+            case DELETE_LOG -> {
+                return tourLogService.deleteTourLog(mutation.getLogId())
+                        ? Outcome.done(null) : Outcome.retry("Tour log not deleted");
+            }
+            default -> throw new IllegalArgumentException("Unknown mutation " + mutation.getType());
+        }
+    }
+
+    /**
+     * A run through the services' batch calls, so the JDBC services write it in one transaction
+     */
+    @Override
+    public List<Outcome> sendRun(List<Mutation> run, BatchProgress progress) {
+        List<Outcome> outcomes = new ArrayList<>(run.size());
+        switch (run.get(0).getType()) {
+            case CREATE_TOUR -> {
+                List<Tour> tours = run.stream().map(Mutation::getTour).toList();
+                tours.forEach(tour -> tour.setId(null));
+                BatchResult<Tour> result = tourService.createTours(tours, progress);
+                for (int i = 0; i < run.size(); i++) {
+                    Tour created = result.get(i);
+                    outcomes.add(result.isSucceeded(i) ? Outcome.done(created.getId(), created.getUpdatedAt())
+                            : Outcome.retry("Tour not created"));
+                }
+            }
+            case CREATE_LOG -> {
+                List<TourLog> logs = run.stream().map(Mutation::getLog).toList();
+                logs.forEach(log -> log.setId(null));
+                BatchResult<TourLog> result = tourLogService.createTourLogs(run.get(0).getTourId(), logs, progress);
+                for (int i = 0; i < run.size(); i++) {
+                    outcomes.add(result.isSucceeded(i) ? Outcome.done(result.get(i).getId())
+                            : Outcome.retry("Tour log not created"));
+                }
+            }
+            case UPDATE_LOG -> {
+                BatchResult<TourLog> result = tourLogService.updateTourLogs(
+                        run.stream().map(Mutation::getLog).toList(), progress);
+                for (int i = 0; i < run.size(); i++) {
+                    outcomes.add(result.isSucceeded(i) ? Outcome.done(null) : Outcome.retry("Tour log not updated"));
+                }
+            }
+            case DELETE_TOUR -> {
+                BatchResult<Boolean> result = tourService.deleteTours(
+                        run.stream().map(Mutation::getTourId).toList(), progress);
+                for (int i = 0; i < run.size(); i++) {
+                    outcomes.add(result.isSucceeded(i) ? Outcome.done(null) : Outcome.retry("Tour not deleted"));
+                }
+            }
+            case DELETE_LOG -> {
+                BatchResult<Boolean> result = tourLogService.deleteTourLogs(
+                        run.stream().map(Mutation::getLogId).toList(), progress);
+                for (int i = 0; i < run.size(); i++) {
+                    outcomes.add(result.isSucceeded(i) ? Outcome.done(null) : Outcome.retry("Tour log not deleted"));
+                }
+            }
+            default -> {
+                return MutationTarget.super.sendRun(run, progress);
+            }
+        }
+        return outcomes;
+    }
+}
@@ -0,0 +1,163 @@
+package org.example.tourplanner.business.sync;
+
+import org.example.tourplanner.models.Tour;
+import org.example.tourplanner.models.TourLog;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Binary form of tours and logs shared by the snapshot file and the mutation journal
+ */
+final class TourCodec {
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private TourCodec() {}
+
+    static byte[] encode(Tour tour) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try {
+            writeTour(new DataOutputStream(bytes), tour);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static byte[] encode(TourLog log) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try {
+            writeLog(new DataOutputStream(bytes), log);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Tour decodeTour(byte[] data) throws IOException {
+        return readTour(new DataInputStream(new ByteArrayInputStream(data)));
+    }
+
+    static TourLog decodeLog(byte[] data) throws IOException {
+        return readLog(new DataInputStream(new ByteArrayInputStream(data)));
+    }
+
+    static void writeTour(DataOutputStream out, Tour tour) throws IOException {
+        writeId(out, tour.getId());
+        writeString(out, tour.getName());
+        writeString(out, tour.getDescription());
+        writeString(out, tour.getFrom());
+        writeString(out, tour.getTo());
+        writeString(out, tour.getTransportType());
+        out.writeDouble(tour.getDistance());
+        out.writeInt(tour.getEstimatedTime());
+        writeString(out, tour.getRouteImagePath());
+        writeTime(out, tour.getUpdatedAt());
+        List<TourLog> logs = tour.getTourLogs() != null ? tour.getTourLogs() : List.of();
+        out.writeInt(logs.size());
+        for (TourLog log : logs) {
+            writeLog(out, log);
+        }
+    }
+
+    static Tour readTour(DataInputStream in) throws IOException {
+        Tour tour = new Tour();
+        tour.setId(readId(in));
+        tour.setName(readString(in));
+        tour.setDescription(readString(in));
+        tour.setFrom(readString(in));
+        tour.setTo(readString(in));
+        tour.setTransportType(readString(in));
+        tour.setDistance(in.readDouble());
+        tour.setEstimatedTime(in.readInt());
+        tour.setRouteImagePath(readString(in));
+        tour.setUpdatedAt(readTime(in));
+        int logCount = in.readInt();
+        for (int i = 0; i < logCount; i++) {
+            tour.addTourLog(readLog(in));
+        }
+        return tour;
+    }
+
+    static void writeLog(DataOutputStream out, TourLog log) throws IOException {
+        writeId(out, log.getId());
+        writeTime(out, log.getDate());
+        writeString(out, log.getComment());
+        out.writeInt(log.getDifficulty());
+        out.writeDouble(log.getTotalDistance());
+        out.writeInt(log.getTotalTime());
+        out.writeInt(log.getRating());
+        writeTime(out, log.getUpdatedAt());
+    }
+
+    static TourLog readLog(DataInputStream in) throws IOException {
+        TourLog log = new TourLog();
+        log.setId(readId(in));
+        log.setDate(readTime(in));
+        log.setComment(readString(in));
+        log.setDifficulty(in.readInt());
+        log.setTotalDistance(in.readDouble());
+        log.setTotalTime(in.readInt());
+        log.setRating(in.readInt());
+        log.setUpdatedAt(readTime(in));
+        return log;
+    }
+
+    // Long.MIN_VALUE steht für null; negative Ids sind lokal vergebene, vorläufige Ids
+    static void writeId(DataOutputStream out, Long id) throws IOException {
+        out.writeLong(id != null ? id : Long.MIN_VALUE);
+    }
+
+    static Long readId(DataInputStream in) throws IOException {
+        long id = in.readLong();
+        return id != Long.MIN_VALUE ? id : null;
+    }
+
+    // Länge -1 steht für null; writeUTF wäre auf 64 KB begrenzt
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > in.available()) {
+            throw new IOException("Truncated data");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeTime(DataOutputStream out, LocalDateTime time) throws IOException {
+        if (time == null) {
+            out.writeLong(NO_TIME);
+            out.writeInt(0);
+        } else {
+            out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(time.getNano());
+        }
+    }
+
+    static LocalDateTime readTime(DataInputStream in) throws IOException {
+        long seconds = in.readLong();
+        int nanos = in.readInt();
+        return seconds == NO_TIME ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+}
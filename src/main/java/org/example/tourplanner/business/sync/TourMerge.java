@@ -0,0 +1,107 @@
+package org.example.tourplanner.business.sync;
+
+import org.example.tourplanner.models.Tour;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Three-way merge of a local tour edit with the version someone else saved in the meantime.
+ * Fields are compared in groups (the route data only changes together), a group changed on
+ * one side only is taken from that side, a group changed differently on both sides is a conflict.
+ */
+public final class TourMerge {
+
+    public enum Group {
+        NAME, DESCRIPTION, ROUTE
+    }
+
+    private final Tour merged;
+    private final List<Group> conflicts;
+
+    private TourMerge(Tour merged, List<Group> conflicts) {
+        this.merged = merged;
+        this.conflicts = conflicts;
+    }
+
+    /**
+     * @param base the tour before the local edit, null if unknown (then every difference is a conflict)
+     * @param mine the locally edited tour
+     * @param theirs the current tour on the backend
+     */
+    public static TourMerge merge(Tour base, Tour mine, Tour theirs) {
+        Tour merged = copy(theirs);
+        List<Group> conflicts = new ArrayList<>();
+        for (Group group : Group.values()) {
+            if (same(group, mine, theirs)) {
+                continue;
+            }
+            boolean mineChanged = base == null || !same(group, base, mine);
+            boolean theirsChanged = base == null || !same(group, base, theirs);
+            if (mineChanged) {
+                // Bei Konflikten zunächst die eigene Änderung übernehmen
+                take(group, mine, merged);
+                if (theirsChanged) {
+                    conflicts.add(group);
+                }
+            }
+        }
+        return new TourMerge(merged, Collections.unmodifiableList(conflicts));
+    }
+
+    /**
+     * Their tour with all local changes applied; conflicting groups hold the local values.
+     * updatedAt is theirs, so saving it expects the current version.
+     */
+    public Tour getMerged() {
+        return merged;
+    }
+
+    public List<Group> getConflicts() {
+        return conflicts;
+    }
+
+    public boolean hasConflicts() {
+        return !conflicts.isEmpty();
+    }
+
+    private static boolean same(Group group, Tour a, Tour b) {
+        return switch (group) {
+            case NAME -> Objects.equals(a.getName(), b.getName());
+            case DESCRIPTION -> Objects.equals(a.getDescription(), b.getDescription());
+            case ROUTE -> Objects.equals(a.getFrom(), b.getFrom())
+                    && Objects.equals(a.getTo(), b.getTo())
+                    && Objects.equals(a.getTransportType(), b.getTransportType())
+                    && Double.compare(a.getDistance(), b.getDistance()) == 0
+                    && a.getEstimatedTime() == b.getEstimatedTime()
+                    && Objects.equals(a.getRouteImagePath(), b.getRouteImagePath());
+        };
+    }
+
+    private static void take(Group group, Tour source, Tour target) {
+        switch (group) {
+            case NAME -> target.setName(source.getName());
+            case DESCRIPTION -> target.setDescription(source.getDescription());
+            case ROUTE -> {
+                target.setFrom(source.getFrom());
+                target.setTo(source.getTo());
+                target.setTransportType(source.getTransportType());
+                target.setDistance(source.getDistance());
+                target.setEstimatedTime(source.getEstimatedTime());
+                target.setRouteImagePath(source.getRouteImagePath());
+            }
+        }
+    }
+
+    private static Tour copy(Tour tour) {
+        Tour copy = new Tour(tour.getName(), tour.getDescription(), tour.getFrom(), tour.getTo(), tour.getTransportType());
+        copy.setId(tour.getId());
+        copy.setDistance(tour.getDistance());
+        copy.setEstimatedTime(tour.getEstimatedTime());
+        copy.setRouteImagePath(tour.getRouteImagePath());
+        copy.setUpdatedAt(tour.getUpdatedAt());
+        return copy;
+    }
+}
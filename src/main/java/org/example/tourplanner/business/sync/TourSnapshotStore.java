@@ -0,0 +1,171 @@
+package org.example.tourplanner.business.sync;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.config.ConfigurationManager;
+import org.example.tourplanner.models.Tour;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+/**
+ * Local copy of all tours and their logs, so the tour list can be shown at startup before
+ * the backend has answered. One compact binary file, replaced atomically on every save:
+ *
+ * <pre>
+ * "TPSN" version:int savedAt:long count:int tour* crc32:long
+ * </pre>
+ *
+ * A missing, truncated or damaged file simply gives an empty snapshot.
+ */
+public class TourSnapshotStore {
+    private static final Logger logger = LogManager.getLogger(TourSnapshotStore.class);
+    private static final int MAGIC = 0x5450534E; // "TPSN"
+    // 2: Ids als Long.MIN_VALUE für null, damit vorläufige negative Ids gespeichert werden können
+    private static final int VERSION = 2;
+    private static TourSnapshotStore instance;
+
+    private final Path file;
+    // Ein Schreiber, damit Speichervorgänge nicht überholt werden
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "snapshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    TourSnapshotStore(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Store at "snapshot.path" (default ~/TourPlanner/Snapshot/tours.snapshot)
+     */
+    public static synchronized TourSnapshotStore getInstance() {
+        if (instance == null) {
+            String configured = ConfigurationManager.getInstance().getProperty("snapshot.path", "");
+            Path path = configured.isBlank()
+                    ? Paths.get(System.getProperty("user.home"), "TourPlanner", "Snapshot", "tours.snapshot")
+                    : Paths.get(configured);
+            instance = new TourSnapshotStore(path);
+        }
+        return instance;
+    }
+
+    /**
+     * Tours of the last save, with their logs; empty if there is no usable snapshot
+     */
+    public List<Tour> load() {
+        long start = System.nanoTime();
+        try {
+            List<Tour> tours = decode(Files.readAllBytes(file));
+            logger.info("Loaded {} tours from snapshot in {} ms", tours.size(), (System.nanoTime() - start) / 1_000_000);
+            return tours;
+        } catch (NoSuchFileException e) {
+            return new ArrayList<>();
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable tour snapshot {}: {}", file, e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Writes the snapshot now
+     */
+    public void save(Collection<Tour> tours) throws IOException {
+        write(encode(tours));
+    }
+
+    /**
+     * Encodes the tours in the calling thread (they may change afterwards) and writes in the background
+     */
+    public void saveAsync(Collection<Tour> tours) {
+        byte[] data = encode(tours);
+        writer.submit(() -> {
+            try {
+                write(data);
+            } catch (IOException e) {
+                logger.warn("Could not save tour snapshot {}: {}", file, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * True if both tours have the same data and logs (id included)
+     */
+    public static boolean sameContent(Tour a, Tour b) {
+        return Arrays.equals(TourCodec.encode(a), TourCodec.encode(b));
+    }
+
+    private void write(byte[] data) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "tours", ".tmp");
+        try {
+            Files.write(temp, data);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    static byte[] encode(Collection<Tour> tours) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 + tours.size() * 256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(tours.size());
+            for (Tour tour : tours) {
+                TourCodec.writeTour(out, tour);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeLong(crc.getValue());
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // ByteArrayOutputStream wirft nicht
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static List<Tour> decode(byte[] data) throws IOException {
+        if (data.length < 28) {
+            throw new IOException("Snapshot too short");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length - 8);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a tour snapshot");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        in.readLong(); // savedAt
+        int count = in.readInt();
+        List<Tour> tours = new ArrayList<>(Math.max(0, Math.min(count, 100_000)));
+        for (int i = 0; i < count; i++) {
+            tours.add(TourCodec.readTour(in));
+        }
+        if (in.readLong() != crc.getValue()) {
+            throw new IOException("Snapshot checksum mismatch");
+        }
+        return tours;
+    }
+}
@@ -0,0 +1,132 @@
+package org.example.tourplanner.business.thumbnails;
+
+import org.example.tourplanner.business.geo.GeoMath;
+import org.example.tourplanner.business.geo.PolylineSimplifier;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Draws a small route preview into an offscreen image (AWT, so it runs on any thread).
+ * Only the line and its end points are drawn; there are no map tiles behind it.
+ */
+public final class RouteThumbnailRenderer {
+    /** Changes whenever the look changes, so cached thumbnails are rendered again */
+    public static final int VERSION = 1;
+
+    private static final Color BACKGROUND = new Color(0xF4, 0xF6, 0xF8);
+    private static final Color BORDER = new Color(0xD0, 0xD5, 0xDA);
+    private static final Color ROUTE = new Color(0x00, 0x7B, 0xFF);
+    private static final Color START = new Color(0x28, 0xA7, 0x45);
+    private static final Color END = new Color(0xDC, 0x35, 0x45);
+
+    private RouteThumbnailRenderer() {}
+
+    /**
+     * @param points {lat, lon} pairs of the route, at least two
+     * @return the preview as PNG
+     */
+    public static byte[] renderPng(double[][] points, int width, int height) throws IOException {
+        BufferedImage image = render(points, width, height);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    static BufferedImage render(double[][] points, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+            g.setColor(BACKGROUND);
+            g.fillRoundRect(0, 0, width - 1, height - 1, 6, 6);
+            g.setColor(BORDER);
+            g.drawRoundRect(0, 0, width - 1, height - 1, 6, 6);
+
+            double[][] projected = project(simplify(points, width, height));
+            double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+            double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+            for (double[] p : projected) {
+                minX = Math.min(minX, p[0]);
+                maxX = Math.max(maxX, p[0]);
+                minY = Math.min(minY, p[1]);
+                maxY = Math.max(maxY, p[1]);
+            }
+
+            // Seitenverhältnis beibehalten und mittig platzieren
+            double padding = Math.max(4, Math.min(width, height) * 0.12);
+            double spanX = Math.max(maxX - minX, 1e-9);
+            double spanY = Math.max(maxY - minY, 1e-9);
+            double scale = Math.min((width - 2 * padding) / spanX, (height - 2 * padding) / spanY);
+            double offsetX = (width - spanX * scale) / 2;
+            double offsetY = (height - spanY * scale) / 2;
+
+            Path2D.Double line = new Path2D.Double();
+            double[] first = null;
+            double[] last = null;
+            for (double[] p : projected) {
+                double x = offsetX + (p[0] - minX) * scale;
+                double y = offsetY + (p[1] - minY) * scale;
+                if (first == null) {
+                    line.moveTo(x, y);
+                    first = new double[]{x, y};
+                } else {
+                    line.lineTo(x, y);
+                }
+                last = new double[]{x, y};
+            }
+
+            float stroke = Math.max(1.5f, Math.min(width, height) / 24f);
+            g.setColor(ROUTE);
+            g.setStroke(new BasicStroke(stroke, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+            g.draw(line);
+
+            double radius = stroke * 1.6;
+            drawDot(g, first, radius, START);
+            drawDot(g, last, radius, END);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private static void drawDot(Graphics2D g, double[] center, double radius, Color color) {
+        Ellipse2D.Double dot = new Ellipse2D.Double(center[0] - radius, center[1] - radius, 2 * radius, 2 * radius);
+        g.setColor(color);
+        g.fill(dot);
+        g.setColor(Color.WHITE);
+        g.setStroke(new BasicStroke(1f));
+        g.draw(dot);
+    }
+
+    // Punkte unter einem Pixel Abweichung weglassen
+    private static double[][] simplify(double[][] points, int width, int height) {
+        double lengthMeters = 0;
+        for (int i = 1; i < points.length; i++) {
+            lengthMeters += GeoMath.haversineMeters(points[i - 1][0], points[i - 1][1], points[i][0], points[i][1]);
+        }
+        double metersPerPixel = lengthMeters / Math.max(width, height);
+        return metersPerPixel > 0 ? PolylineSimplifier.simplify(points, metersPerPixel / 2) : points;
+    }
+
+    // Web-Mercator, y nach unten wie im Bild
+    private static double[][] project(double[][] points) {
+        double[][] projected = new double[points.length][];
+        for (int i = 0; i < points.length; i++) {
+            double sin = Math.sin(Math.toRadians(points[i][0]));
+            projected[i] = new double[]{
+                    points[i][1] / 360.0,
+                    -Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI)};
+        }
+        return projected;
+    }
+}
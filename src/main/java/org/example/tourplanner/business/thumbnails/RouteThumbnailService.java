@@ -0,0 +1,121 @@
+package org.example.tourplanner.business.thumbnails;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.business.geo.LocationResolver;
+import org.example.tourplanner.business.geo.RouteGeometryStore;
+import org.example.tourplanner.config.ConfigurationManager;
+import org.example.tourplanner.models.Tour;
+
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Route previews for the tour list. Rendering, disk access and decoding all run on a
+ * small worker pool; callers only get the finished result.
+ */
+public class RouteThumbnailService {
+    private static final Logger logger = LogManager.getLogger(RouteThumbnailService.class);
+    private static RouteThumbnailService instance;
+
+    // Doppelte Zellengröße, damit die Vorschau auch auf HiDPI-Bildschirmen scharf bleibt
+    public static final int RENDER_WIDTH = 96;
+    public static final int RENDER_HEIGHT = 64;
+
+    private final ThumbnailCache cache;
+    private final RouteGeometryStore geometryStore;
+    private final ExecutorService executor = Executors.newFixedThreadPool(2, task -> {
+        Thread thread = new Thread(task, "thumbnail-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    RouteThumbnailService(ThumbnailCache cache, RouteGeometryStore geometryStore) {
+        this.cache = cache;
+        this.geometryStore = geometryStore;
+    }
+
+    public static synchronized RouteThumbnailService getInstance() {
+        if (instance == null) {
+            String configured = ConfigurationManager.getInstance().getProperty("thumbnail.cache.path", "");
+            Path directory = configured.isBlank()
+                    ? Paths.get(System.getProperty("user.home"), "TourPlanner", "Thumbnails")
+                    : Paths.get(configured);
+            instance = new RouteThumbnailService(new ThumbnailCache(directory), RouteGeometryStore.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Thumbnail file of a tour, rendered if it is not cached yet
+     * @return future of the file, completing with null if the tour has no known route
+     */
+    public CompletableFuture<Path> thumbnailFor(Tour tour) {
+        return thumbnailFor(tour, Function.identity());
+    }
+
+    /**
+     * Thumbnail of a tour, decoded by the given function on the worker thread
+     */
+    public <T> CompletableFuture<T> thumbnailFor(Tour tour, Function<Path, T> decoder) {
+        String from = tour.getFrom();
+        String to = tour.getTo();
+        String transportType = tour.getTransportType();
+        String routeImagePath = tour.getRouteImagePath();
+        return CompletableFuture.supplyAsync(() -> {
+            Path file = renderOrLoad(from, to, transportType, routeImagePath);
+            return file != null ? decoder.apply(file) : null;
+        }, executor);
+    }
+
+    Path renderOrLoad(String from, String to, String transportType, String routeImagePath) {
+        double[][] geometry = geometryFor(from, to, transportType);
+        if (geometry == null) {
+            // Ohne bekannte Strecke das Routenbild der Tour verwenden, falls lokal vorhanden
+            return localImage(routeImagePath);
+        }
+
+        String key = ThumbnailCache.contentKey(geometry, RENDER_WIDTH, RENDER_HEIGHT);
+        Path cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            return cache.put(key, RouteThumbnailRenderer.renderPng(geometry, RENDER_WIDTH, RENDER_HEIGHT));
+        } catch (Exception e) {
+            logger.warn("Could not render thumbnail for {} -> {}: {}", from, to, e.getMessage());
+            return null;
+        }
+    }
+
+    private static Path localImage(String routeImagePath) {
+        if (routeImagePath == null || routeImagePath.isBlank()) {
+            return null;
+        }
+        try {
+            Path image = Paths.get(routeImagePath);
+            return Files.isRegularFile(image) ? image : null;
+        } catch (InvalidPathException e) {
+            return null;
+        }
+    }
+
+    // Gespeicherte Geometrie, sonst Luftlinie zwischen den Orten
+    private double[][] geometryFor(String from, String to, String transportType) {
+        if (geometryStore != null) {
+            double[][] geometry = geometryStore.get(RouteGeometryStore.keyFor(from, to, transportType));
+            if (geometry != null && geometry.length >= 2) {
+                return geometry;
+            }
+        }
+        double[] fromCoords = LocationResolver.resolve(from);
+        double[] toCoords = LocationResolver.resolve(to);
+        return fromCoords != null && toCoords != null ? new double[][]{fromCoords, toCoords} : null;
+    }
+}
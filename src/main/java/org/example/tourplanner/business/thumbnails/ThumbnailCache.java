@@ -0,0 +1,75 @@
+package org.example.tourplanner.business.thumbnails;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.business.geo.PolylineEncoder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Content-addressed disk cache of rendered thumbnails: the file name is the hash of
+ * everything that goes into the picture, so entries never go stale and tours with the
+ * same route share one file.
+ */
+public class ThumbnailCache {
+    private static final Logger logger = LogManager.getLogger(ThumbnailCache.class);
+
+    private final Path directory;
+
+    public ThumbnailCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Key of a route preview: SHA-256 of renderer version, size and route
+     */
+    public static String contentKey(double[][] points, int width, int height) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((RouteThumbnailRenderer.VERSION + "|" + width + "x" + height + "|")
+                    .getBytes(StandardCharsets.UTF_8));
+            digest.update(PolylineEncoder.encode(points).getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * @return the cached file or null if there is none
+     */
+    public Path get(String key) {
+        Path file = pathFor(key);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    /**
+     * Stores a thumbnail; concurrent writers of the same key write the same bytes
+     * @return the cached file or null if it could not be written
+     */
+    public Path put(String key, byte[] png) {
+        Path file = pathFor(key);
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), key, ".tmp");
+            Files.write(temp, png);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return file;
+        } catch (IOException e) {
+            logger.warn("Could not cache thumbnail {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    // Unterverzeichnis nach den ersten zwei Zeichen, damit kein Ordner zu groß wird
+    Path pathFor(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + ".png");
+    }
+}
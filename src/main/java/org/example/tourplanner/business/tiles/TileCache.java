@@ -0,0 +1,340 @@
+package org.example.tourplanner.business.tiles;
+
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Disk cache for map tiles, stored as {dir}/{z}/{x}/{y}.png.
+ * The total size is bounded; least recently used tiles are evicted first. The last access
+ * is kept in the file modification time, so the LRU order survives restarts.
+ * Downloads share one pooled HTTP client, so neighbouring tiles reuse the upstream connections.
+ */
+public class TileCache implements Closeable {
+    private static final Logger logger = LogManager.getLogger(TileCache.class);
+    private static final String USER_AGENT = "TourPlanner/1.0 (JavaFX desktop client)";
+    private static final int TIMEOUT_SECONDS = 30;
+    // Die sechs Threads des Kachelservers und das Vorladen
+    private static final int MAX_CONNECTIONS = 8;
+
+    private final Path directory;
+    private final String upstreamTemplate;
+    private final long maxBytes;
+    private final CloseableHttpClient httpClient;
+
+    // Zugriffsreihenfolge: ältester Eintrag zuerst
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(1024, 0.75f, true);
+    private long totalBytes;
+
+    // Gleichzeitige Anfragen auf dieselbe Kachel nur einmal laden
+    private final Map<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong upstreamErrors = new AtomicLong();
+
+    /**
+     * @param upstreamTemplate tile URL with {z}, {x} and {y} placeholders
+     */
+    public TileCache(Path directory, String upstreamTemplate, long maxBytes) {
+        this.directory = directory;
+        this.upstreamTemplate = upstreamTemplate;
+        this.maxBytes = maxBytes;
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(MAX_CONNECTIONS)
+                        .setMaxConnPerRoute(MAX_CONNECTIONS)
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                        .setResponseTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                        .build())
+                .disableAutomaticRetries()
+                .build();
+        loadIndex();
+    }
+
+    /**
+     * Tile from the cache or, on a miss, from the upstream server
+     * @return PNG bytes or null if the tile is not available
+     */
+    public byte[] getTile(int z, int x, int y) {
+        if (!isValid(z, x, y)) {
+            return null;
+        }
+        String key = key(z, x, y);
+        byte[] cached = readCached(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+        return fetch(key, z, x, y);
+    }
+
+    /**
+     * Downloads the tile if it is not cached yet. Not counted in the hit ratio,
+     * which should only reflect what the map itself requested.
+     * @return true if the tile is in the cache afterwards
+     */
+    public boolean prefetch(int z, int x, int y) {
+        if (!isValid(z, x, y)) {
+            return false;
+        }
+        String key = key(z, x, y);
+        synchronized (index) {
+            if (index.containsKey(key)) {
+                return true;
+            }
+        }
+        return fetch(key, z, x, y) != null;
+    }
+
+    private byte[] fetch(String key, int z, int x, int y) {
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+        CompletableFuture<byte[]> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            return running.join();
+        }
+        try {
+            byte[] tile = download(z, x, y);
+            if (tile != null) {
+                store(key, tile);
+            }
+            future.complete(tile);
+            return tile;
+        } catch (RuntimeException e) {
+            future.complete(null);
+            throw e;
+        } finally {
+            inFlight.remove(key);
+        }
+    }
+
+    /**
+     * True if the tile is on disk (does not count as hit or miss)
+     */
+    public boolean contains(int z, int x, int y) {
+        synchronized (index) {
+            return index.containsKey(key(z, x, y));
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getUpstreamErrors() {
+        return upstreamErrors.get();
+    }
+
+    /**
+     * Share of tile requests answered from disk, 0 if there were none
+     */
+    public double getHitRatio() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    public int getTileCount() {
+        synchronized (index) {
+            return index.size();
+        }
+    }
+
+    public long getSizeBytes() {
+        synchronized (index) {
+            return totalBytes;
+        }
+    }
+
+    public String getStatistics() {
+        return String.format("%d tiles, %.1f MB, hit ratio %.0f%% (%d hits, %d misses)",
+                getTileCount(), getSizeBytes() / (1024.0 * 1024.0), getHitRatio() * 100, getHits(), getMisses());
+    }
+
+    /**
+     * Closes the upstream connections; later downloads fail
+     */
+    @Override
+    public void close() {
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            logger.debug("Could not close tile client: {}", e.getMessage());
+        }
+    }
+
+    private byte[] readCached(String key) {
+        synchronized (index) {
+            if (index.get(key) == null) {
+                return null;
+            }
+        }
+        Path file = directory.resolve(key);
+        try {
+            byte[] data = Files.readAllBytes(file);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return data;
+        } catch (IOException e) {
+            // Datei extern gelöscht: Index bereinigen und neu laden
+            logger.debug("Cached tile {} vanished: {}", key, e.getMessage());
+            synchronized (index) {
+                Long size = index.remove(key);
+                if (size != null) {
+                    totalBytes -= size;
+                }
+            }
+            return null;
+        }
+    }
+
+    private byte[] download(int z, int x, int y) {
+        String url = upstreamTemplate
+                .replace("{z}", Integer.toString(z))
+                .replace("{x}", Integer.toString(x))
+                .replace("{y}", Integer.toString(y));
+        HttpGet request = new HttpGet(url);
+        // OSM-Nutzungsrichtlinie verlangt einen eindeutigen User-Agent
+        request.setHeader("User-Agent", USER_AGENT);
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            if (response.getCode() == 200) {
+                return EntityUtils.toByteArray(response.getEntity());
+            }
+            // Body lesen, damit die Verbindung in den Pool zurückgeht
+            EntityUtils.consume(response.getEntity());
+            upstreamErrors.incrementAndGet();
+            logger.warn("Tile {} returned HTTP {}", url, response.getCode());
+            return null;
+        } catch (Exception e) {
+            upstreamErrors.incrementAndGet();
+            logger.warn("Could not download tile {}: {}", url, e.getMessage());
+            return null;
+        }
+    }
+
+    private void store(String key, byte[] tile) {
+        Path file = directory.resolve(key);
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            Files.write(temp, tile);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Could not cache tile {}: {}", key, e.getMessage());
+            return;
+        }
+
+        List<String> evicted = new ArrayList<>();
+        synchronized (index) {
+            Long previous = index.put(key, (long) tile.length);
+            totalBytes += tile.length - (previous != null ? previous : 0);
+            Iterator<Map.Entry<String, Long>> eldest = index.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                if (entry.getKey().equals(key)) {
+                    continue;
+                }
+                totalBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+                eldest.remove();
+            }
+        }
+        for (String evictedKey : evicted) {
+            try {
+                Files.deleteIfExists(directory.resolve(evictedKey));
+            } catch (IOException e) {
+                logger.debug("Could not delete evicted tile {}", evictedKey);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the LRU index from the cache directory, oldest access first
+     */
+    private void loadIndex() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory, 3)) {
+            files = walk.filter(Files::isRegularFile)
+                    .filter(path -> path.getFileName().toString().endsWith(".png"))
+                    .toList();
+        } catch (IOException e) {
+            logger.warn("Could not read tile cache {}: {}", directory, e.getMessage());
+            return;
+        }
+
+        List<CachedFile> entries = new ArrayList<>(files.size());
+        for (Path file : files) {
+            try {
+                entries.add(new CachedFile(directory.relativize(file).toString().replace('\\', '/'),
+                        Files.size(file), Files.getLastModifiedTime(file).toMillis()));
+            } catch (IOException e) {
+                logger.debug("Skipping unreadable tile {}", file);
+            }
+        }
+        entries.sort(Comparator.comparingLong(entry -> entry.lastAccess));
+        synchronized (index) {
+            for (CachedFile entry : entries) {
+                index.put(entry.key, entry.size);
+                totalBytes += entry.size;
+            }
+        }
+        logger.info("Tile cache {} contains {} tiles ({} KB)", directory, entries.size(), totalBytes / 1024);
+    }
+
+    private static boolean isValid(int z, int x, int y) {
+        if (z < 0 || z > 22) {
+            return false;
+        }
+        int size = 1 << z;
+        return x >= 0 && x < size && y >= 0 && y < size;
+    }
+
+    private static String key(int z, int x, int y) {
+        return z + "/" + x + "/" + y + ".png";
+    }
+
+    private static final class CachedFile {
+        final String key;
+        final long size;
+        final long lastAccess;
+
+        CachedFile(String key, long size, long lastAccess) {
+            this.key = key;
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
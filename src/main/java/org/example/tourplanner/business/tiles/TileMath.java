@@ -0,0 +1,83 @@
+package org.example.tourplanner.business.tiles;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Slippy-map tile numbering (Web Mercator, as used by OSM and Leaflet)
+ */
+public final class TileMath {
+    private TileMath() {}
+
+    public static int tileX(double lon, int zoom) {
+        return (int) Math.floor(tileXFraction(lon, zoom));
+    }
+
+    public static int tileY(double lat, int zoom) {
+        return (int) Math.floor(tileYFraction(lat, zoom));
+    }
+
+    /**
+     * Tiles touched by a {lat, lon} polyline at one zoom level, in route order.
+     * Segments are sampled at quarter-tile steps so no tile along the line is skipped.
+     */
+    public static Set<Tile> tilesAlong(double[][] points, int zoom) {
+        Set<Tile> tiles = new LinkedHashSet<>();
+        for (int i = 0; i < points.length; i++) {
+            double[] a = points[i];
+            double[] b = i + 1 < points.length ? points[i + 1] : a;
+            double ax = tileXFraction(a[1], zoom), ay = tileYFraction(a[0], zoom);
+            double bx = tileXFraction(b[1], zoom), by = tileYFraction(b[0], zoom);
+            int steps = Math.max(1, (int) Math.ceil(Math.max(Math.abs(bx - ax), Math.abs(by - ay)) * 4));
+            for (int s = 0; s <= steps; s++) {
+                double t = s / (double) steps;
+                tiles.add(new Tile(zoom, (int) Math.floor(ax + (bx - ax) * t), (int) Math.floor(ay + (by - ay) * t)));
+            }
+        }
+        return tiles;
+    }
+
+    private static double tileXFraction(double lon, int zoom) {
+        double x = (lon + 180.0) / 360.0 * (1 << zoom);
+        return Math.max(0, Math.min((1 << zoom) - 1e-9, x));
+    }
+
+    private static double tileYFraction(double lat, int zoom) {
+        double latRad = Math.toRadians(Math.max(-85.0511, Math.min(85.0511, lat)));
+        double y = (1.0 - Math.log(Math.tan(latRad) + 1.0 / Math.cos(latRad)) / Math.PI) / 2.0 * (1 << zoom);
+        return Math.max(0, Math.min((1 << zoom) - 1e-9, y));
+    }
+
+    /**
+     * Tile coordinate
+     */
+    public static final class Tile {
+        public final int z;
+        public final int x;
+        public final int y;
+
+        public Tile(int z, int x, int y) {
+            this.z = z;
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Tile)) return false;
+            Tile tile = (Tile) o;
+            return z == tile.z && x == tile.x && y == tile.y;
+        }
+
+        @Override
+        public int hashCode() {
+            return (z * 31 + x) * 31 + y;
+        }
+
+        @Override
+        public String toString() {
+            return z + "/" + x + "/" + y;
+        }
+    }
+}
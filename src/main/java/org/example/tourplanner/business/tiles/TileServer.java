@@ -0,0 +1,101 @@
+package org.example.tourplanner.business.tiles;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Loopback HTTP server that answers /tiles/{z}/{x}/{y}.png from a {@link TileCache}.
+ * Leaflet in the WebView loads its tiles from here instead of the OSM servers.
+ */
+public class TileServer {
+    private static final Logger logger = LogManager.getLogger(TileServer.class);
+    private static final Pattern TILE_PATH = Pattern.compile("^/tiles/(\\d+)/(\\d+)/(\\d+)\\.png$");
+
+    private final TileCache cache;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public TileServer(TileCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Starts the server on a free port of 127.0.0.1
+     */
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/tiles/", this::handle);
+        // Leaflet lädt bis zu 6 Kacheln parallel
+        executor = Executors.newFixedThreadPool(6, task -> {
+            Thread thread = new Thread(task, "tile-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.start();
+        logger.info("Tile server listening on {}", getUrlTemplate());
+    }
+
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+            logger.info("Tile server stopped, cache: {}", cache.getStatistics());
+        }
+    }
+
+    public synchronized int getPort() {
+        return server != null ? server.getAddress().getPort() : -1;
+    }
+
+    /**
+     * Tile URL template for Leaflet
+     */
+    public String getUrlTemplate() {
+        return "http://127.0.0.1:" + getPort() + "/tiles/{z}/{x}/{y}.png";
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            Matcher matcher = TILE_PATH.matcher(exchange.getRequestURI().getPath());
+            if (!"GET".equals(exchange.getRequestMethod()) || !matcher.matches()) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] tile = cache.getTile(Integer.parseInt(matcher.group(1)),
+                    Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(3)));
+            if (tile == null) {
+                exchange.sendResponseHeaders(502, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "image/png");
+            exchange.getResponseHeaders().set("Cache-Control", "max-age=86400");
+            exchange.sendResponseHeaders(200, tile.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(tile);
+            }
+        } catch (NumberFormatException e) {
+            exchange.sendResponseHeaders(400, -1);
+        } catch (RuntimeException e) {
+            logger.error("Error serving tile {}", exchange.getRequestURI(), e);
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.example.tourplanner.business.tiles;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.config.ConfigurationManager;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Entry point of the map tile cache: owns the disk cache and the loopback tile server,
+ * and prefetches tiles along routes in the background.
+ */
+public class TileService {
+    private static final Logger logger = LogManager.getLogger(TileService.class);
+    private static TileService instance;
+
+    private static final String DEFAULT_TILE_URL = "https://tile.openstreetmap.org/{z}/{x}/{y}.png";
+
+    private final String upstreamTemplate;
+    private final boolean enabled;
+    private final int prefetchMinZoom;
+    private final int prefetchMaxZoom;
+    private final int prefetchMaxTiles;
+    private final TileCache cache;
+    private final TileServer server;
+    // Ein Thread: Vorladen soll den Kachelserver nicht mit parallelen Anfragen belasten
+    private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "tile-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Future<?> currentPrefetch;
+    private boolean serverFailed;
+
+    private TileService() {
+        ConfigurationManager config = ConfigurationManager.getInstance();
+        upstreamTemplate = config.getProperty("osm.tile.url", DEFAULT_TILE_URL);
+        enabled = Boolean.parseBoolean(config.getProperty("tile.cache.enabled", "true"));
+        prefetchMinZoom = Integer.parseInt(config.getProperty("tile.prefetch.min.zoom", "8"));
+        prefetchMaxZoom = Integer.parseInt(config.getProperty("tile.prefetch.max.zoom", "13"));
+        prefetchMaxTiles = Integer.parseInt(config.getProperty("tile.prefetch.max.tiles", "300"));
+        long maxBytes = Long.parseLong(config.getProperty("tile.cache.max.mb", "256")) * 1024 * 1024;
+
+        String configuredDir = config.getProperty("tile.cache.path", "");
+        Path directory = configuredDir.isBlank()
+                ? Paths.get(System.getProperty("user.home"), "TourPlanner", "TileCache")
+                : Paths.get(configuredDir);
+        cache = new TileCache(directory, upstreamTemplate, maxBytes);
+        server = new TileServer(cache);
+    }
+
+    public static synchronized TileService getInstance() {
+        if (instance == null) {
+            instance = new TileService();
+        }
+        return instance;
+    }
+
+    /**
+     * Tile URL template for the map. Points to the local tile server, or directly to
+     * the upstream server if the cache is disabled or the server cannot be started.
+     */
+    public synchronized String getTileUrlTemplate() {
+        if (!enabled || serverFailed) {
+            return upstreamTemplate;
+        }
+        try {
+            server.start();
+            return server.getUrlTemplate();
+        } catch (Exception e) {
+            serverFailed = true;
+            logger.error("Could not start local tile server, using {} directly", upstreamTemplate, e);
+            return upstreamTemplate;
+        }
+    }
+
+    /**
+     * Loads the tiles along a {lat, lon} route into the cache. A new route cancels
+     * the prefetch of the previous one.
+     */
+    public synchronized void prefetchRoute(double[][] points) {
+        if (!enabled || points == null || points.length == 0) {
+            return;
+        }
+        List<TileMath.Tile> tiles = new ArrayList<>();
+        for (int zoom = prefetchMinZoom; zoom <= prefetchMaxZoom && tiles.size() < prefetchMaxTiles; zoom++) {
+            for (TileMath.Tile tile : TileMath.tilesAlong(points, zoom)) {
+                if (tiles.size() == prefetchMaxTiles) {
+                    break;
+                }
+                if (!cache.contains(tile.z, tile.x, tile.y)) {
+                    tiles.add(tile);
+                }
+            }
+        }
+        if (currentPrefetch != null) {
+            currentPrefetch.cancel(true);
+        }
+        if (tiles.isEmpty()) {
+            return;
+        }
+        currentPrefetch = prefetchExecutor.submit(() -> {
+            int loaded = 0;
+            for (TileMath.Tile tile : tiles) {
+                if (Thread.currentThread().isInterrupted()) {
+                    logger.debug("Tile prefetch cancelled after {} tiles", loaded);
+                    return;
+                }
+                if (cache.prefetch(tile.z, tile.x, tile.y)) {
+                    loaded++;
+                }
+            }
+            logger.info("Prefetched {} of {} route tiles, cache: {}", loaded, tiles.size(), cache.getStatistics());
+        });
+    }
+
+    public TileCache getCache() {
+        return cache;
+    }
+
+    public String getStatistics() {
+        return cache.getStatistics();
+    }
+
+    public void shutdown() {
+        prefetchExecutor.shutdownNow();
+        server.stop();
+        cache.close();
+    }
+
+    /**
+     * Stops the tile server if the service was ever used
+     */
+    public static synchronized void shutdownIfStarted() {
+        if (instance != null) {
+            instance.shutdown();
+        }
+    }
+}
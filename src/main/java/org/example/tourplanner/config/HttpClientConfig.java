@@ -3,6 +3,9 @@ package org.example.tourplanner.config;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.client5.http.config.RequestConfig;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 public class HttpClientConfig {
@@ -22,6 +25,17 @@ public class HttpClientConfig {
 
         return HttpClients.custom()
                 .setDefaultRequestConfig(config)
+                .disableAutomaticRetries()
+                .build();
+    }
+
+    /**
+     * Client for requests sent through the BackendPool. The client's own retries are off:
+     * they would send a POST again after a 503, the pool decides what may be repeated.
+     */
+    public static CloseableHttpClient createBackendClient() {
+        return HttpClients.custom()
+                .disableAutomaticRetries()
                 .build();
     }
 
@@ -31,8 +45,33 @@ public class HttpClientConfig {
         return createHttpClient();
     }
 
+    /**
+     * Base URL requests are built with; the backend pool sends them to any of the configured backends
+     */
     public static String getBaseUrl() {
-        return BASE_URL;
+        return getBackendUrls().get(0);
+    }
+
+    /**
+     * The backend replicas from "backend.urls" (comma-separated), at least one
+     */
+    public static List<String> getBackendUrls() {
+        String configured = ConfigurationManager.getInstance().getProperty("backend.urls", BASE_URL);
+        List<String> urls = new ArrayList<>();
+        for (String url : configured.split(",")) {
+            String trimmed = url.trim();
+            // Ohne abschließenden Schrägstrich, Pfade werden angehängt
+            while (trimmed.endsWith("/")) {
+                trimmed = trimmed.substring(0, trimmed.length() - 1);
+            }
+            if (!trimmed.isEmpty() && !urls.contains(trimmed)) {
+                urls.add(trimmed);
+            }
+        }
+        if (urls.isEmpty()) {
+            urls.add(BASE_URL);
+        }
+        return urls;
     }
 
     // Diese Methode ist nicht mehr notwendig
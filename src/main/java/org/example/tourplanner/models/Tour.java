@@ -1,5 +1,6 @@
 package org.example.tourplanner.models;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -13,6 +14,7 @@ public class Tour {
     private double distance; // in kilometers
     private int estimatedTime; // in minutes
     private String routeImagePath;
+    private LocalDateTime updatedAt; // last change on the backend, null if unknown
     private List<TourLog> tourLogs;
 
     public Tour() {
@@ -129,6 +131,14 @@ public class Tour {
         this.routeImagePath = routeImagePath;
     }
 
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
     public List<TourLog> getTourLogs() {
         return tourLogs;
     }
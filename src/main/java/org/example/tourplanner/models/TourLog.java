@@ -10,6 +10,7 @@ public class TourLog {
     private double totalDistance; // in kilometers
     private int totalTime; // in minutes
     private int rating; // 1-5 scale
+    private LocalDateTime updatedAt; // last change on the backend, null if unknown
     private Tour tour;
 
     public TourLog() {
@@ -81,6 +82,14 @@ public class TourLog {
         this.rating = rating;
     }
 
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
     public Tour getTour() {
         return tour;
     }
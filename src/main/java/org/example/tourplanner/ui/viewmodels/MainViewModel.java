@@ -1,6 +1,9 @@
 package org.example.tourplanner.ui.viewmodels;
 
+import javafx.application.Platform;
+import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
@@ -10,39 +13,79 @@ import javafx.collections.transformation.FilteredList;
 import javafx.concurrent.Task;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.example.tourplanner.business.service.HttpTourLogService;
-import org.example.tourplanner.business.service.HttpTourService;
+import org.example.tourplanner.business.service.ChangeFeedClient;
+import org.example.tourplanner.business.service.DataServices;
+import org.example.tourplanner.business.service.LocalRouteEstimator;
+import org.example.tourplanner.business.service.TourChanges;
+import org.example.tourplanner.business.service.TourCorridorIndex;
+import org.example.tourplanner.business.service.TourLocationIndex;
 import org.example.tourplanner.business.service.TourLogService;
 import org.example.tourplanner.business.service.TourService;
+import org.example.tourplanner.business.sync.DeltaSync;
+import org.example.tourplanner.business.sync.HttpMerkleSource;
+import org.example.tourplanner.business.sync.MerkleDiff;
+import org.example.tourplanner.business.sync.MerkleReconciler;
+import org.example.tourplanner.business.sync.MerkleTree;
+import org.example.tourplanner.business.sync.Mutation;
+import org.example.tourplanner.business.sync.OfflineWriteQueue;
+import org.example.tourplanner.business.sync.TourMerge;
+import org.example.tourplanner.business.sync.TourSnapshotStore;
+import org.example.tourplanner.config.ConfigurationManager;
+import org.example.tourplanner.config.HttpClientConfig;
 import org.example.tourplanner.models.Tour;
 import org.example.tourplanner.models.TourLog;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 
 public class MainViewModel extends BaseViewModel {
     private static final Logger logger = LogManager.getLogger(MainViewModel.class);
 
-    // Services - now using HTTP services
+    // Services - HTTP oder Datenbank, siehe DataServices
     private final TourService tourService;
     private final TourLogService tourLogService;
+    private final TourLocationIndex locationIndex = TourLocationIndex.getInstance();
+    private final TourCorridorIndex corridorIndex = TourCorridorIndex.getInstance();
+    private final TourSnapshotStore snapshotStore = TourSnapshotStore.getInstance();
+    private final OfflineWriteQueue writeQueue = OfflineWriteQueue.getInstance();
+    private final DeltaSync deltaSync = DeltaSync.getInstance();
 
     // Properties for binding
     private final ObservableList<TourViewModel> tours = FXCollections.observableArrayList();
     private final ObjectProperty<TourViewModel> selectedTour = new SimpleObjectProperty<>();
     private final ObjectProperty<TourLogViewModel> selectedTourLog = new SimpleObjectProperty<>();
     private final StringProperty searchTerm = new SimpleStringProperty("");
+    private final IntegerProperty pendingChanges = new SimpleIntegerProperty();
+    private final ObjectProperty<TourConflict> tourConflict = new SimpleObjectProperty<>();
+    // Stand vor der ersten noch nicht bestätigten Bearbeitung, Basis für das Zusammenführen
+    private final Map<Long, Tour> editBases = new HashMap<>();
     private final FilteredList<TourViewModel> filteredTours;
+    // Suchbegriff und Kartenausschnitt filtern unabhängig voneinander
+    private Predicate<TourViewModel> searchPredicate = p -> true;
+    private Set<Long> mapAreaTourIds;
 
     // Timeout für verzögerte Suche (in Millisekunden)
     private static final int SEARCH_DELAY = 300;
     private java.util.Timer searchTimer;
+    private java.util.Timer verifyTimer;
+    private HttpMerkleSource merkleSource;
 
     public MainViewModel() {
-        // Services initialisieren - now using HTTP services
-        tourService = HttpTourService.getInstance();
-        tourLogService = HttpTourLogService.getInstance();
-
-        // Load data from backend
+        // Services initialisieren - HTTP oder direkt auf die Datenbank (data.access)
+        tourService = DataServices.tourService();
+        tourLogService = DataServices.tourLogService();
+
+        // Letzten Stand sofort anzeigen, das Backend wird im Hintergrund abgeglichen
+        showSnapshot();
+        pendingChanges.set(writeQueue.getPendingCount());
+        listenToWriteQueue();
+        writeQueue.start();
         loadToursFromService();
 
         // Setup filtered list
@@ -69,31 +112,62 @@ public class MainViewModel extends BaseViewModel {
         logger.info("MainViewModel initialized with {} tours", tours.size());
     }
 
-    // Methode zum Laden der Touren vom Service
+    private void showSnapshot() {
+        List<Tour> cached = snapshotStore.load();
+        if (cached.isEmpty()) {
+            return;
+        }
+        // Vorläufige Ids, die inzwischen vergeben wurden, ersetzen
+        for (Tour tour : cached) {
+            tour.setId(writeQueue.resolveId(tour.getId()));
+            for (TourLog tourLog : tour.getTourLogs()) {
+                tourLog.setId(writeQueue.resolveId(tourLog.getId()));
+            }
+        }
+        tours.setAll(cached.stream().map(TourViewModel::new).toList());
+        locationIndex.rebuild(cached);
+    }
+
+    // Methode zum Laden der Touren vom Service - nur Änderungen seit dem letzten Abgleich
     private void loadToursFromService() {
-        tours.clear();
 
         // Load tours in background thread to avoid blocking UI
-        Task<List<Tour>> loadTask = new Task<>() {
+        Task<TourChanges> loadTask = new Task<>() {
             @Override
-            protected List<Tour> call() {
-                return tourService.getAllTours();
+            protected TourChanges call() {
+                TourChanges changes = deltaSync.poll();
+                if (changes != null) {
+                    return changes;
+                }
+                // Keine Änderungsabfrage möglich, alles laden
+                List<Tour> allTours = tourService.getAllTours();
+                // Logs aller Touren auf einmal laden, nicht im UI-Thread
+                Map<Long, List<TourLog>> logsByTour = tourLogService.getTourLogsForTours(
+                        allTours.stream().map(Tour::getId).toList());
+                return new TourChanges(null, null, allTours, logsByTour, Set.of(), Set.of());
             }
         };
 
         loadTask.setOnSucceeded(event -> {
-            List<Tour> allTours = loadTask.getValue();
-
-            // Load tour logs for each tour
-            for (Tour tour : allTours) {
-                // Load tour logs from backend
-                List<TourLog> tourLogs = tourLogService.getTourLogs(tour.getId());
-                tour.getTourLogs().clear();
-                tour.getTourLogs().addAll(tourLogs);
-
-                tours.add(new TourViewModel(tour));
+            TourChanges changes = loadTask.getValue();
+            if (changes.isComplete()) {
+                for (Tour tour : changes.getTours()) {
+                    tour.getTourLogs().clear();
+                    tour.getTourLogs().addAll(changes.getLogsByTour().getOrDefault(tour.getId(), List.of()));
+                }
+                reconcile(changes.getTours());
+
+                // Geschwindigkeiten für die Sofort-Schätzung aus den Logs ableiten
+                List<Tour> allTours = currentTours();
+                LocalRouteEstimator.getInstance().calibrate(allTours);
+                locationIndex.rebuild(allTours);
+                corridorIndex.rebuildAsync(allTours);
+                saveSnapshot();
+            } else if (applyChanges(changes)) {
+                saveSnapshot();
             }
-            logger.info("Loaded {} tours from backend", tours.size());
+            startChangeFeed();
+            startVerification();
         });
 
         loadTask.setOnFailed(event -> {
@@ -105,26 +179,336 @@ public class MainViewModel extends BaseViewModel {
         loadThread.start();
     }
 
+    /**
+     * Patches the shown tours with the changes since the last sync; view models stay in place,
+     * so selection and scroll position are kept
+     * @return true if anything shown was changed
+     */
+    private boolean applyChanges(TourChanges changes) {
+        Set<Long> pendingTourIds = pendingTourIds();
+        Map<Long, TourViewModel> shown = new HashMap<>();
+        for (TourViewModel tourViewModel : tours) {
+            shown.put(writeQueue.resolveId(tourViewModel.getTour().getId()), tourViewModel);
+        }
+
+        // Gelöschte Touren: Tombstones, oder was nicht mehr unter den vorhandenen Ids ist
+        Set<Long> deletedTourIds = new HashSet<>(changes.getDeletedTourIds());
+        if (changes.getLiveTourIds() != null) {
+            for (Long id : shown.keySet()) {
+                if (id != null && id >= 0 && !changes.getLiveTourIds().contains(id)) {
+                    deletedTourIds.add(id);
+                }
+            }
+        }
+        int removed = 0;
+        for (Long id : deletedTourIds) {
+            TourViewModel viewModel = pendingTourIds.contains(id) ? null : shown.remove(id);
+            if (viewModel != null) {
+                if (selectedTour.get() == viewModel) {
+                    selectedTour.set(null);
+                }
+                tours.remove(viewModel);
+                locationIndex.remove(id);
+                corridorIndex.remove(id);
+                removed++;
+            }
+        }
+
+        List<TourViewModel> added = new ArrayList<>();
+        int changed = 0;
+        for (Tour tour : changes.getTours()) {
+            if (pendingTourIds.contains(tour.getId())) {
+                continue;
+            }
+            TourViewModel existing = shown.get(tour.getId());
+            if (existing == null) {
+                tour.getTourLogs().addAll(changes.getLogsByTour().getOrDefault(tour.getId(), List.of()));
+                TourViewModel viewModel = new TourViewModel(tour);
+                added.add(viewModel);
+                shown.put(tour.getId(), viewModel);
+            } else {
+                existing.applyDetails(tour);
+                changed++;
+            }
+            locationIndex.addOrUpdate(tour);
+            corridorIndex.addOrUpdate(tour);
+        }
+
+        int logChanges = 0;
+        for (Map.Entry<Long, List<TourLog>> entry : changes.getLogsByTour().entrySet()) {
+            TourViewModel viewModel = shown.get(entry.getKey());
+            if (viewModel == null || added.contains(viewModel) || pendingTourIds.contains(entry.getKey())) {
+                continue;
+            }
+            for (TourLog tourLog : entry.getValue()) {
+                viewModel.putTourLog(tourLog);
+                logChanges++;
+            }
+        }
+        logChanges += removeDeletedLogs(changes, shown, pendingTourIds);
+
+        tours.addAll(added);
+        if (logChanges > 0) {
+            LocalRouteEstimator.getInstance().calibrate(currentTours());
+        }
+        logger.info("Applied changes: {} new, {} changed, {} removed tours, {} log changes",
+                added.size(), changed, removed, logChanges);
+        return !added.isEmpty() || changed > 0 || removed > 0 || logChanges > 0;
+    }
+
+    private int removeDeletedLogs(TourChanges changes, Map<Long, TourViewModel> shown, Set<Long> pendingTourIds) {
+        Set<Long> liveLogIds = changes.getLiveLogIds();
+        if (changes.getDeletedLogIds().isEmpty() && liveLogIds == null) {
+            return 0;
+        }
+        int removed = 0;
+        for (Map.Entry<Long, TourViewModel> entry : shown.entrySet()) {
+            if (pendingTourIds.contains(entry.getKey())) {
+                continue;
+            }
+            TourViewModel viewModel = entry.getValue();
+            List<Long> deletedLogIds = new ArrayList<>();
+            for (TourLogViewModel logViewModel : viewModel.getTourLogs()) {
+                Long logId = logViewModel.getTourLog().getId();
+                if (logId != null && (changes.getDeletedLogIds().contains(logId)
+                        || (liveLogIds != null && logId >= 0 && !liveLogIds.contains(logId)))) {
+                    deletedLogIds.add(logId);
+                }
+            }
+            for (Long logId : deletedLogIds) {
+                TourLogViewModel removedLog = viewModel.removeTourLogById(logId);
+                if (removedLog != null && selectedTourLog.get() == removedLog) {
+                    selectedTourLog.set(null);
+                }
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    // Änderungen anderer Benutzer direkt übernehmen, statt auf ein Aktualisieren zu warten
+    private void startChangeFeed() {
+        if (!ChangeFeedClient.isEnabled()) {
+            return;
+        }
+        ChangeFeedClient.getInstance().start(new ChangeFeedClient.Listener() {
+            @Override
+            public void changed(TourChanges changes) {
+                Platform.runLater(() -> {
+                    if (applyChanges(changes)) {
+                        saveSnapshot();
+                    }
+                });
+            }
+
+            @Override
+            public void resync() {
+                Platform.runLater(MainViewModel.this::refreshTours);
+            }
+        });
+    }
+
+    // Verpasste Änderungen (z.B. direkt in der Datenbank) regelmäßig über Hashes finden
+    private void startVerification() {
+        if (verifyTimer != null || DataServices.isEmbedded()) {
+            return;
+        }
+        long minutes;
+        try {
+            minutes = Long.parseLong(ConfigurationManager.getInstance()
+                    .getProperty("sync.verify.interval.minutes", "30").trim());
+        } catch (NumberFormatException e) {
+            minutes = 30;
+        }
+        if (minutes <= 0) {
+            return;
+        }
+        merkleSource = new HttpMerkleSource(HttpClientConfig.getBaseUrl());
+        verifyTimer = new java.util.Timer("tour-verify", true);
+        long period = minutes * 60_000;
+        verifyTimer.schedule(new java.util.TimerTask() {
+            @Override
+            public void run() {
+                if (merkleSource.isSupported()) {
+                    Platform.runLater(MainViewModel.this::verifyTours);
+                } else {
+                    cancel();
+                }
+            }
+        }, period, period);
+    }
+
+    /**
+     * Compares the shown tours with the backend via a Merkle tree of content hashes and loads
+     * only the tours that differ
+     */
+    public void verifyTours() {
+        if (merkleSource == null) {
+            return;
+        }
+        // Touren im UI-Thread einsammeln; gehasht wird im Hintergrund
+        List<Tour> localTours = currentTours();
+        Task<TourChanges> verifyTask = new Task<>() {
+            @Override
+            protected TourChanges call() {
+                long bytesBefore = merkleSource.getBytesReceived();
+                MerkleDiff diff = MerkleReconciler.diff(MerkleTree.build(localTours), merkleSource);
+                if (diff == null) {
+                    return null;
+                }
+                logger.info("Verified {} tours with the backend: {}, {} bytes received",
+                        localTours.size(), diff, merkleSource.getBytesReceived() - bytesBefore);
+                if (diff.isEmpty()) {
+                    return null;
+                }
+                List<Tour> changedTours = new ArrayList<>();
+                Set<Long> deletedTourIds = new HashSet<>(diff.getDeletedIds());
+                for (Long id : diff.getChangedIds()) {
+                    Tour tour = tourService.getTourById(id);
+                    if (tour != null) {
+                        changedTours.add(tour);
+                    }
+                }
+                Map<Long, List<TourLog>> logsByTour = tourLogService.getTourLogsForTours(diff.getChangedIds());
+                return new TourChanges(LocalDateTime.now(), null, changedTours, logsByTour, deletedTourIds, Set.of());
+            }
+        };
+
+        verifyTask.setOnSucceeded(event -> {
+            TourChanges changes = verifyTask.getValue();
+            if (changes == null) {
+                return;
+            }
+            // Logs der abweichenden Touren, die das Backend nicht mehr hat, sind gelöscht
+            Set<Long> changedTourIds = new HashSet<>();
+            for (Tour tour : changes.getTours()) {
+                changedTourIds.add(tour.getId());
+            }
+            Set<Long> deletedLogIds = new HashSet<>();
+            for (TourViewModel tourViewModel : tours) {
+                Long tourId = tourViewModel.getTour().getId();
+                if (!changedTourIds.contains(tourId)) {
+                    continue;
+                }
+                Set<Long> loadedLogIds = new HashSet<>();
+                for (TourLog tourLog : changes.getLogsByTour().getOrDefault(tourId, List.of())) {
+                    loadedLogIds.add(tourLog.getId());
+                }
+                for (TourLog tourLog : tourViewModel.getTour().getTourLogs()) {
+                    if (tourLog.getId() != null && tourLog.getId() >= 0 && !loadedLogIds.contains(tourLog.getId())) {
+                        deletedLogIds.add(tourLog.getId());
+                    }
+                }
+            }
+            TourChanges withDeletedLogs = new TourChanges(changes.getSince(), null, changes.getTours(),
+                    changes.getLogsByTour(), changes.getDeletedTourIds(), deletedLogIds);
+            if (applyChanges(withDeletedLogs)) {
+                saveSnapshot();
+            }
+        });
+
+        verifyTask.setOnFailed(event -> {
+            logger.error("Failed to verify tours with backend", verifyTask.getException());
+        });
+
+        Thread verifyThread = new Thread(verifyTask, "tour-verify-task");
+        verifyThread.setDaemon(true);
+        verifyThread.start();
+    }
+
+    private Set<Long> pendingTourIds() {
+        Set<Long> pendingTourIds = new HashSet<>();
+        for (Mutation mutation : writeQueue.getPending()) {
+            pendingTourIds.add(mutation.getTourId());
+        }
+        return pendingTourIds;
+    }
+
+    /**
+     * Brings the shown tours to the loaded state: changed tours are updated in place, so the
+     * selection stays; only new and deleted tours change the list
+     */
+    private void reconcile(List<Tour> loaded) {
+        // Bei Backend-Fehlern kommt eine leere Liste, dann den gespeicherten Stand behalten
+        if (loaded.isEmpty() && !tours.isEmpty()) {
+            logger.warn("Backend returned no tours, keeping the {} tours shown", tours.size());
+            return;
+        }
+        // Touren mit noch nicht gesendeten Änderungen behalten den lokalen Stand
+        Set<Long> pendingTourIds = pendingTourIds();
+        Map<Long, TourViewModel> shown = new HashMap<>();
+        for (TourViewModel tourViewModel : tours) {
+            Long id = writeQueue.resolveId(tourViewModel.getTour().getId());
+            if (id != null && id >= 0 && !pendingTourIds.contains(id)) {
+                shown.put(id, tourViewModel);
+            }
+        }
+        List<TourViewModel> added = new ArrayList<>();
+        int changed = 0;
+        for (Tour tour : loaded) {
+            if (pendingTourIds.contains(tour.getId())) {
+                continue;
+            }
+            TourViewModel existing = shown.remove(tour.getId());
+            if (existing == null) {
+                added.add(new TourViewModel(tour));
+            } else if (!TourSnapshotStore.sameContent(existing.getTour(), tour)) {
+                existing.applyUpdate(tour);
+                changed++;
+            }
+        }
+        if (shown.containsValue(selectedTour.get())) {
+            selectedTour.set(null);
+        }
+        tours.removeAll(shown.values());
+        tours.addAll(added);
+        logger.info("Loaded {} tours from backend: {} new, {} changed, {} removed",
+                loaded.size(), added.size(), changed, shown.size());
+    }
+
+    private List<Tour> currentTours() {
+        return tours.stream().map(TourViewModel::getTour).toList();
+    }
+
+    private void saveSnapshot() {
+        snapshotStore.saveAsync(currentTours());
+    }
+
     private void updateFilter(String searchText) {
         if (searchText == null || searchText.isEmpty()) {
-            filteredTours.setPredicate(p -> true);
+            setSearchPredicate(p -> true);
             logger.info("Empty search term, showing all {} tours", tours.size());
             return;
         }
 
+        // "near:", "from:", "to:" und "via:" werden lokal über die Ortsindizes beantwortet
+        TourLocationIndex.Query locationQuery = TourLocationIndex.parse(searchText);
+        Set<Long> nearbyIds = locationQuery == null ? null
+                : locationQuery.getAnchor() == TourLocationIndex.Anchor.VIA
+                ? corridorIndex.matching(locationQuery)
+                : locationIndex.matching(locationQuery);
+        if (locationQuery != null && locationQuery.getText().isEmpty()) {
+            setSearchPredicate(tourViewModel -> nearbyIds.contains(tourViewModel.getTour().getId()));
+            logger.info("Location filter {} {} ({} km): {} tours", locationQuery.getAnchor(),
+                    locationQuery.getLocation(), locationQuery.getRadiusKm(), nearbyIds.size());
+            return;
+        }
+        String text = locationQuery != null ? locationQuery.getText() : searchText;
+
         // Search via backend service
         Task<List<Tour>> searchTask = new Task<>() {
             @Override
             protected List<Tour> call() {
-                return tourService.searchTours(searchText);
+                return tourService.searchTours(text);
             }
         };
 
         searchTask.setOnSucceeded(event -> {
             List<Tour> searchResults = searchTask.getValue();
             // Filter aktualisieren, um nur übereinstimmende Touren anzuzeigen
-            filteredTours.setPredicate(tourViewModel ->
-                    searchResults.stream().anyMatch(tour ->
+            setSearchPredicate(tourViewModel ->
+                    (nearbyIds == null || nearbyIds.contains(tourViewModel.getTour().getId()))
+                            && searchResults.stream().anyMatch(tour ->
                             tour.getId().equals(tourViewModel.getTour().getId())
                     )
             );
@@ -134,7 +518,7 @@ public class MainViewModel extends BaseViewModel {
         // Bei Fehlern alle anzeigen
         searchTask.setOnFailed(event -> {
             logger.error("Search failed", searchTask.getException());
-            filteredTours.setPredicate(p -> true);
+            setSearchPredicate(p -> true);
         });
 
         // Suche im Hintergrund ausführen
@@ -143,88 +527,94 @@ public class MainViewModel extends BaseViewModel {
         searchThread.start();
     }
 
-    // Tour Management
-    public void addTour(Tour tour) {
-        Task<Tour> createTask = new Task<>() {
-            @Override
-            protected Tour call() {
-                return tourService.createTour(tour);
-            }
-        };
+    private void setSearchPredicate(Predicate<TourViewModel> predicate) {
+        searchPredicate = predicate;
+        applyFilter();
+    }
 
-        createTask.setOnSucceeded(event -> {
-            Tour createdTour = createTask.getValue();
-            if (createdTour != null) {
-                TourViewModel viewModel = new TourViewModel(createdTour);
-                tours.add(viewModel);
-                logger.info("Added new tour: {}", createdTour.getName());
-            }
-        });
+    private void applyFilter() {
+        Predicate<TourViewModel> search = searchPredicate;
+        Set<Long> area = mapAreaTourIds;
+        filteredTours.setPredicate(tourViewModel -> search.test(tourViewModel)
+                && (area == null || area.contains(tourViewModel.getTour().getId())));
+    }
 
-        createTask.setOnFailed(event -> {
-            logger.error("Failed to create tour", createTask.getException());
-        });
+    /**
+     * Shows only tours that start or end inside the box; null shows tours everywhere
+     * @param bounds {south, west, north, east}
+     */
+    public void setMapAreaFilter(double[] bounds) {
+        mapAreaTourIds = bounds != null
+                ? locationIndex.withinBox(bounds[0], bounds[1], bounds[2], bounds[3])
+                : null;
+        applyFilter();
+    }
 
-        Thread createThread = new Thread(createTask);
-        createThread.setDaemon(true);
-        createThread.start();
+    // Tour Management - Änderungen sofort lokal anzeigen, gesendet wird über die Warteschlange
+    public void addTour(Tour tour) {
+        tour.setId(OfflineWriteQueue.newTemporaryId());
+        TourViewModel viewModel = new TourViewModel(tour);
+        tours.add(viewModel);
+        locationIndex.addOrUpdate(tour);
+        corridorIndex.addOrUpdate(tour);
+        writeQueue.submit(Mutation.createTour(tour));
+        saveSnapshot();
+        logger.info("Added new tour: {}", tour.getName());
+    }
+
+    /**
+     * Like {@link #updateTour(TourViewModel)}, remembering the tour before the edit so a
+     * conflicting change by someone else can be merged field by field
+     */
+    public void updateTour(TourViewModel viewModel, Tour before) {
+        if (before != null && before.getId() != null) {
+            editBases.putIfAbsent(before.getId(), before);
+        }
+        updateTour(viewModel);
     }
 
     public void updateTour(TourViewModel viewModel) {
         viewModel.updateModel();
-
-        Task<Tour> updateTask = new Task<>() {
-            @Override
-            protected Tour call() {
-                return tourService.updateTour(viewModel.getTour());
-            }
-        };
-
-        updateTask.setOnSucceeded(event -> {
-            Tour updatedTour = updateTask.getValue();
-            if (updatedTour != null) {
-                viewModel.updateFromModel();
-                logger.info("Updated tour: {}", updatedTour.getName());
-            } else {
-                logger.warn("Failed to update tour: {}", viewModel.nameProperty().get());
-            }
-        });
-
-        updateTask.setOnFailed(event -> {
-            logger.error("Failed to update tour", updateTask.getException());
-        });
-
-        Thread updateThread = new Thread(updateTask);
-        updateThread.setDaemon(true);
-        updateThread.start();
+        Tour tour = viewModel.getTour();
+        writeQueue.submit(Mutation.updateTour(tour));
+        viewModel.updateFromModel();
+        locationIndex.addOrUpdate(tour);
+        corridorIndex.addOrUpdate(tour);
+        saveSnapshot();
+        logger.info("Updated tour: {}", tour.getName());
     }
 
     public void deleteTour(TourViewModel viewModel) {
         Long tourId = viewModel.getTour().getId();
+        writeQueue.submit(Mutation.deleteTour(tourId));
+        tours.remove(viewModel);
+        locationIndex.remove(tourId);
+        corridorIndex.remove(tourId);
+        if (selectedTour.get() == viewModel) {
+            selectedTour.set(null);
+        }
+        saveSnapshot();
+        logger.info("Deleted tour: {}", viewModel.nameProperty().get());
+    }
 
-        Task<Void> deleteTask = new Task<>() {
-            @Override
-            protected Void call() {
-                tourService.deleteTour(tourId);
-                return null;
-            }
-        };
-
-        deleteTask.setOnSucceeded(event -> {
-            tours.remove(viewModel);
-            if (selectedTour.get() == viewModel) {
-                selectedTour.set(null);
-            }
-            logger.info("Deleted tour: {}", viewModel.nameProperty().get());
-        });
-
-        deleteTask.setOnFailed(event -> {
-            logger.error("Failed to delete tour", deleteTask.getException());
-        });
-
-        Thread deleteThread = new Thread(deleteTask);
-        deleteThread.setDaemon(true);
-        deleteThread.start();
+    /**
+     * Deletes several tours at once (multi-select); the queue sends them as one batch request
+     */
+    public void deleteTours(List<TourViewModel> viewModels) {
+        List<TourViewModel> deleted = new ArrayList<>(viewModels);
+        for (TourViewModel viewModel : deleted) {
+            Long tourId = viewModel.getTour().getId();
+            writeQueue.submit(Mutation.deleteTour(tourId));
+            locationIndex.remove(tourId);
+            corridorIndex.remove(tourId);
+        }
+        // Ein einziges Entfernen, damit Liste und Filter nur einmal neu aufgebaut werden
+        tours.removeAll(deleted);
+        if (deleted.contains(selectedTour.get())) {
+            selectedTour.set(null);
+        }
+        saveSnapshot();
+        logger.info("Deleted {} tours", deleted.size());
     }
 
     // TourLog Management
@@ -233,96 +623,218 @@ public class MainViewModel extends BaseViewModel {
 
         if (selectedTourViewModel != null) {
             Long tourId = selectedTourViewModel.getTour().getId();
+            tourLog.setId(OfflineWriteQueue.newTemporaryId());
+            writeQueue.submit(Mutation.createLog(tourId, tourLog));
+            selectedTourViewModel.addTourLog(tourLog);
+            saveSnapshot();
+            logger.info("Added new tour log to tour: {}", selectedTourViewModel.nameProperty().get());
+
+            // Refresh tour logs table view
+            selectedTourLogProperty().set(null);
+        }
+    }
 
-            Task<TourLog> createLogTask = new Task<>() {
-                @Override
-                protected TourLog call() {
-                    return tourLogService.createTourLog(tourId, tourLog);
-                }
-            };
+    public void updateTourLog(TourLogViewModel viewModel) {
+        viewModel.updateModel();  // updates model from view model
+        TourViewModel owner = findOwner(viewModel.getTourLog());
+        if (owner == null) {
+            logger.warn("Failed to update tour log: tour not found");
+            return;
+        }
+        writeQueue.submit(Mutation.updateLog(owner.getTour().getId(), viewModel.getTourLog()));
+        viewModel.refreshFromModel();
+        saveSnapshot();
+        logger.info("Tour log updated successfully");
+    }
 
-            createLogTask.setOnSucceeded(event -> {
-                TourLog createdLog = createLogTask.getValue();
-                if (createdLog != null) {
-                    // Update view model
-                    selectedTourViewModel.addTourLog(createdLog);
-                    logger.info("Added new tour log to tour: {}", selectedTourViewModel.nameProperty().get());
+    public void deleteTourLog(TourLogViewModel viewModel) {
+        if (selectedTour.get() != null) {
+            Long logId = viewModel.getTourLog().getId();
+            writeQueue.submit(Mutation.deleteLog(selectedTour.get().getTour().getId(), logId));
+            selectedTour.get().removeTourLog(viewModel);
+            if (selectedTourLog.get() == viewModel) {
+                selectedTourLog.set(null);
+            }
+            saveSnapshot();
+            logger.info("Tour log deleted");
+        }
+    }
 
-                    // Refresh tour logs table view
-                    selectedTourLogProperty().set(null);
-                } else {
-                    logger.warn("Failed to create tour log");
-                }
-            });
+    private TourViewModel findOwner(TourLog tourLog) {
+        for (TourViewModel tourViewModel : tours) {
+            if (tourViewModel.getTour().getTourLogs().contains(tourLog)) {
+                return tourViewModel;
+            }
+        }
+        return null;
+    }
 
-            createLogTask.setOnFailed(event -> {
-                logger.error("Failed to create tour log", createLogTask.getException());
-            });
+    /**
+     * Replaces the temporary id of a tour or log created offline by the id the backend assigned
+     */
+    private void applyAssignedId(Mutation mutation, Long assignedId) {
+        Long temporaryId = mutation.getCreatedId();
+        if (assignedId == null || temporaryId == null || temporaryId >= 0) {
+            return;
+        }
+        for (TourViewModel tourViewModel : tours) {
+            Tour tour = tourViewModel.getTour();
+            if (mutation.getType() == Mutation.Type.CREATE_TOUR && temporaryId.equals(tour.getId())) {
+                removeEchoedTour(assignedId);
+                tour.setId(assignedId);
+                tourViewModel.idProperty().set(assignedId);
+                locationIndex.remove(temporaryId);
+                locationIndex.addOrUpdate(tour);
+                corridorIndex.remove(temporaryId);
+                corridorIndex.addOrUpdate(tour);
+                saveSnapshot();
+                return;
+            }
+            if (mutation.getType() == Mutation.Type.CREATE_LOG) {
+                for (TourLogViewModel logViewModel : tourViewModel.getTourLogs()) {
+                    if (temporaryId.equals(logViewModel.getTourLog().getId())) {
+                        // Kam das neue Log schon über den Änderungs-Feed, diese Kopie entfernen
+                        TourLogViewModel echoed = tourViewModel.removeTourLogById(assignedId);
+                        if (echoed != null && selectedTourLog.get() == echoed) {
+                            selectedTourLog.set(null);
+                        }
+                        logViewModel.getTourLog().setId(assignedId);
+                        logViewModel.idProperty().set(assignedId);
+                        saveSnapshot();
+                        return;
+                    }
+                }
+            }
+        }
+    }
 
-            Thread createLogThread = new Thread(createLogTask);
-            createLogThread.setDaemon(true);
-            createLogThread.start();
+    // Das Ereignis zur eigenen neuen Tour kann vor der Bestätigung ankommen und eine Kopie anlegen
+    private void removeEchoedTour(Long assignedId) {
+        for (TourViewModel tourViewModel : tours) {
+            if (assignedId.equals(tourViewModel.getTour().getId())) {
+                if (selectedTour.get() == tourViewModel) {
+                    selectedTour.set(null);
+                }
+                tours.remove(tourViewModel);
+                return;
+            }
         }
     }
 
-    public void updateTourLog(TourLogViewModel viewModel) {
-        viewModel.updateModel();  // updates model from view model
+    private void listenToWriteQueue() {
+        writeQueue.addListener(new OfflineWriteQueue.Listener() {
+            @Override
+            public void acknowledged(Mutation mutation, Long assignedId) {
+                if (mutation.isCreate()) {
+                    Platform.runLater(() -> applyAssignedId(mutation, assignedId));
+                }
+            }
 
-        Task<TourLog> updateLogTask = new Task<>() {
             @Override
-            protected TourLog call() {
-                return tourLogService.updateTourLog(viewModel.getTourLog());
+            public void rejected(Mutation mutation, String reason) {
+                // Lokale Änderung ist nicht mehr gültig, Stand vom Backend holen
+                logger.warn("Backend refused {} ({}), reloading tours", mutation, reason);
+                Platform.runLater(MainViewModel.this::reloadAllTours);
             }
-        };
 
-        updateLogTask.setOnSucceeded(event -> {
-            TourLog updatedLog = updateLogTask.getValue();
-            if (updatedLog != null) {
-                // refresh view model properties from updated model
-                viewModel.refreshFromModel();
-                logger.info("Tour log updated successfully");
-            } else {
-                logger.warn("Failed to update tour log");
+            @Override
+            public void pendingChanged(int pendingCount) {
+                Platform.runLater(() -> pendingChanges.set(pendingCount));
             }
-        });
 
-        updateLogTask.setOnFailed(event -> {
-            logger.error("Failed to update tour log", updateLogTask.getException());
-        });
+            @Override
+            public void versionChanged(Long tourId, LocalDateTime version) {
+                Platform.runLater(() -> applyVersion(tourId, version));
+            }
 
-        Thread updateLogThread = new Thread(updateLogTask);
-        updateLogThread.setDaemon(true);
-        updateLogThread.start();
+            @Override
+            public void conflicted(Mutation mutation, String reason) {
+                logger.info("Tour {} was changed by someone else ({})", mutation.getTourId(), reason);
+                Platform.runLater(() -> mergeConflict(writeQueue.resolveId(mutation.getTourId())));
+            }
+        });
     }
 
-    public void deleteTourLog(TourLogViewModel viewModel) {
-        if (selectedTour.get() != null) {
-            Long logId = viewModel.getTourLog().getId();
+    private void applyVersion(Long tourId, LocalDateTime version) {
+        editBases.remove(tourId);
+        TourViewModel tourViewModel = findTour(tourId);
+        if (tourViewModel != null) {
+            LocalDateTime known = tourViewModel.getTour().getUpdatedAt();
+            if (known == null || version.isAfter(known)) {
+                tourViewModel.getTour().setUpdatedAt(version);
+            }
+        }
+    }
 
-            Task<Void> deleteLogTask = new Task<>() {
-                @Override
-                protected Void call() {
-                    tourLogService.deleteTourLog(logId);
-                    return null;
-                }
-            };
+    /**
+     * Fetches only the conflicting tour and merges the local edit into it; changes to different
+     * fields are saved right away, otherwise the user decides
+     */
+    private void mergeConflict(Long tourId) {
+        TourViewModel tourViewModel = findTour(tourId);
+        if (tourViewModel == null) {
+            return;
+        }
+        Tour base = editBases.remove(tourId);
+        Tour mine = tourViewModel.copyTour();
+        Task<Tour> fetchTask = new Task<>() {
+            @Override
+            protected Tour call() {
+                return tourService.getTourById(tourId);
+            }
+        };
+        fetchTask.setOnSucceeded(event -> {
+            Tour theirs = fetchTask.getValue();
+            if (theirs == null) {
+                // Tour gelöscht oder Backend nicht erreichbar
+                reloadAllTours();
+                return;
+            }
+            TourMerge merge = TourMerge.merge(base, mine, theirs);
+            if (merge.hasConflicts()) {
+                tourConflict.set(new TourConflict(tourViewModel, mine, theirs, merge));
+            } else {
+                logger.info("Merged concurrent changes of tour {}", tourId);
+                saveMerged(tourViewModel, merge.getMerged());
+            }
+        });
+        fetchTask.setOnFailed(event -> logger.error("Error fetching conflicting tour {}", tourId, fetchTask.getException()));
+        Thread fetchThread = new Thread(fetchTask, "tour-conflict-fetch");
+        fetchThread.setDaemon(true);
+        fetchThread.start();
+    }
 
-            deleteLogTask.setOnSucceeded(event -> {
-                selectedTour.get().removeTourLog(viewModel);
-                if (selectedTourLog.get() == viewModel) {
-                    selectedTourLog.set(null);
-                }
-                logger.info("Tour log deleted");
-            });
+    /**
+     * Settles a conflict reported through {@link #tourConflictProperty()}
+     * @param keepMine true to save the merged tour with the local values, false to take the backend's tour
+     */
+    public void resolveConflict(TourConflict conflict, boolean keepMine) {
+        if (tourConflict.get() == conflict) {
+            tourConflict.set(null);
+        }
+        if (keepMine) {
+            saveMerged(conflict.getTourViewModel(), conflict.getMerge().getMerged());
+        } else {
+            conflict.getTourViewModel().applyDetails(conflict.getTheirs());
+            locationIndex.addOrUpdate(conflict.getTourViewModel().getTour());
+            corridorIndex.addOrUpdate(conflict.getTourViewModel().getTour());
+            saveSnapshot();
+        }
+    }
 
-            deleteLogTask.setOnFailed(event -> {
-                logger.error("Failed to delete tour log", deleteLogTask.getException());
-            });
+    // Zusammengeführter Stand trägt die Version vom Backend, das Speichern ist wieder bedingt
+    private void saveMerged(TourViewModel tourViewModel, Tour merged) {
+        tourViewModel.applyDetails(merged);
+        updateTour(tourViewModel);
+    }
 
-            Thread deleteLogThread = new Thread(deleteLogTask);
-            deleteLogThread.setDaemon(true);
-            deleteLogThread.start();
+    private TourViewModel findTour(Long tourId) {
+        for (TourViewModel tourViewModel : tours) {
+            if (tourId != null && tourId.equals(tourViewModel.getTour().getId())) {
+                return tourViewModel;
+            }
         }
+        return null;
     }
 
     // Methode zum Aktualisieren der Touren (kann bei einer Aktualisierung aus externen Quellen verwendet werden)
@@ -330,6 +842,14 @@ public class MainViewModel extends BaseViewModel {
         loadToursFromService();
     }
 
+    /**
+     * Loads all tours again instead of only the changes, e.g. after a local change was refused
+     */
+    public void reloadAllTours() {
+        deltaSync.reset();
+        loadToursFromService();
+    }
+
     // Properties
     public ObservableList<TourViewModel> getTours() {
         return tours;
@@ -350,4 +870,37 @@ public class MainViewModel extends BaseViewModel {
     public StringProperty searchTermProperty() {
         return searchTerm;
     }
+
+    /**
+     * Number of local changes not yet sent to the backend
+     */
+    public IntegerProperty pendingChangesProperty() {
+        return pendingChanges;
+    }
+
+    /**
+     * A tour edit that collided with someone else's change to the same fields; null if none is open
+     */
+    public ObjectProperty<TourConflict> tourConflictProperty() {
+        return tourConflict;
+    }
+
+    public static class TourConflict {
+        private final TourViewModel tourViewModel;
+        private final Tour mine;
+        private final Tour theirs;
+        private final TourMerge merge;
+
+        TourConflict(TourViewModel tourViewModel, Tour mine, Tour theirs, TourMerge merge) {
+            this.tourViewModel = tourViewModel;
+            this.mine = mine;
+            this.theirs = theirs;
+            this.merge = merge;
+        }
+
+        public TourViewModel getTourViewModel() { return tourViewModel; }
+        public Tour getMine() { return mine; }
+        public Tour getTheirs() { return theirs; }
+        public TourMerge getMerge() { return merge; }
+    }
 }
\ No newline at end of file
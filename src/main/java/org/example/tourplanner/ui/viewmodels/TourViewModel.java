@@ -96,6 +96,46 @@ public class TourViewModel extends BaseViewModel {
         childFriendliness.set(tour.getChildFriendliness());
     }
 
+    /**
+     * Takes over the data and logs of a newer copy of the same tour, keeping this view model
+     * (and with it selection and bindings) in place
+     */
+    public void applyUpdate(Tour source) {
+        tour.getTourLogs().clear();
+        tour.getTourLogs().addAll(source.getTourLogs());
+        applyDetails(source);
+        updateTourLogs();
+    }
+
+    /**
+     * Takes over the tour data of a newer copy, but not its logs
+     */
+    public void applyDetails(Tour source) {
+        tour.setName(source.getName());
+        tour.setDescription(source.getDescription());
+        tour.setFrom(source.getFrom());
+        tour.setTo(source.getTo());
+        tour.setTransportType(source.getTransportType());
+        tour.setDistance(source.getDistance());
+        tour.setEstimatedTime(source.getEstimatedTime());
+        tour.setRouteImagePath(source.getRouteImagePath());
+        tour.setUpdatedAt(source.getUpdatedAt());
+        updateFromModel();
+    }
+
+    /**
+     * A copy of the tour data without logs, e.g. the state before an edit
+     */
+    public Tour copyTour() {
+        Tour copy = new Tour(tour.getName(), tour.getDescription(), tour.getFrom(), tour.getTo(), tour.getTransportType());
+        copy.setId(tour.getId());
+        copy.setDistance(tour.getDistance());
+        copy.setEstimatedTime(tour.getEstimatedTime());
+        copy.setRouteImagePath(tour.getRouteImagePath());
+        copy.setUpdatedAt(tour.getUpdatedAt());
+        return copy;
+    }
+
     // Getters for properties to bind to UI
     public LongProperty idProperty() {
         return id;
@@ -159,6 +199,43 @@ public class TourViewModel extends BaseViewModel {
         childFriendliness.set(tour.getChildFriendliness());
     }
 
+    /**
+     * Updates the log with the same id in place (keeping its row selected), or adds it
+     */
+    public void putTourLog(TourLog tourLog) {
+        for (TourLogViewModel tourLogViewModel : tourLogs) {
+            TourLog existing = tourLogViewModel.getTourLog();
+            if (existing.getId() != null && existing.getId().equals(tourLog.getId())) {
+                existing.setDate(tourLog.getDate());
+                existing.setComment(tourLog.getComment());
+                existing.setDifficulty(tourLog.getDifficulty());
+                existing.setTotalDistance(tourLog.getTotalDistance());
+                existing.setTotalTime(tourLog.getTotalTime());
+                existing.setRating(tourLog.getRating());
+                existing.setUpdatedAt(tourLog.getUpdatedAt());
+                tourLogViewModel.refreshFromModel();
+                popularity.set(tour.getPopularity());
+                childFriendliness.set(tour.getChildFriendliness());
+                return;
+            }
+        }
+        addTourLog(tourLog);
+    }
+
+    /**
+     * Removes the log with this id
+     * @return the removed log view model, or null if the tour has no such log
+     */
+    public TourLogViewModel removeTourLogById(Long logId) {
+        for (TourLogViewModel tourLogViewModel : tourLogs) {
+            if (logId.equals(tourLogViewModel.getTourLog().getId())) {
+                removeTourLog(tourLogViewModel);
+                return tourLogViewModel;
+            }
+        }
+        return null;
+    }
+
     public void removeTourLog(TourLogViewModel tourLogViewModel) {
         tour.removeTourLog(tourLogViewModel.getTourLog());
         tourLogs.remove(tourLogViewModel);
@@ -8,6 +8,9 @@ import javafx.stage.Stage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.example.tourplanner.business.service.BackendRouteService;
+import org.example.tourplanner.business.service.LocalRouteEstimator;
+import org.example.tourplanner.business.service.RouteProvider;
+import org.example.tourplanner.business.service.RouteProviders;
 import org.example.tourplanner.models.Tour;
 import javafx.concurrent.Task;
 import javafx.scene.Cursor;
@@ -46,6 +49,9 @@ public class AddTourDialogController {
     @FXML
     private ProgressBar progressBar;
 
+    @FXML
+    private Label routeStatusLabel;
+
     private Tour tour;
     private boolean saveClicked = false;
     private Stage dialogStage;
@@ -188,6 +194,15 @@ public class AddTourDialogController {
             return;
         }
 
+        // Sofort-Schätzung anzeigen, das genaue Ergebnis ersetzt sie später
+        BackendRouteService.RouteCalculationResult estimate = LocalRouteEstimator.getInstance().calculateRoute(
+                fromField.getText(), toField.getText(), transportTypeComboBox.getValue());
+        boolean estimated = estimate.isSuccess();
+        if (estimated) {
+            applyRouteResult(estimate);
+            setRouteStatus("Estimated - calculating exact route...");
+        }
+
         // Zeige Wartecursor an
         dialogStage.getScene().setCursor(Cursor.WAIT);
 
@@ -201,8 +216,9 @@ public class AddTourDialogController {
             @Override
             protected BackendRouteService.RouteCalculationResult call() {
                 try {
-                    BackendRouteService routeService = BackendRouteService.getInstance();
-                    return routeService.calculateRoute(
+                    // backend, local oder auto (Backend mit lokalem Fallback) laut application.properties
+                    RouteProvider routeProvider = RouteProviders.fromConfiguration();
+                    return routeProvider.calculateRoute(
                             fromField.getText(),
                             toField.getText(),
                             transportTypeComboBox.getValue()
@@ -224,37 +240,17 @@ public class AddTourDialogController {
                 progressBar.setVisible(false);
             }
 
+            // Dialog wurde inzwischen mit der Schätzung gespeichert oder abgebrochen
+            if (!dialogStage.isShowing()) {
+                logger.info("Route result arrived after the dialog was closed, ignoring it");
+                return;
+            }
+
             BackendRouteService.RouteCalculationResult result = calculateRouteTask.getValue();
             if (result != null && result.isSuccess()) {
                 Platform.runLater(() -> {
-                    try {
-                        // Debug: Aktuelle Feldwerte vor Update
-                        logger.info("Before update - Distance field: '{}', Time field: '{}'",
-                                distanceField.getText(), timeField.getText());
-                        logger.info("Result values - Distance: {}, Time: {}",
-                                result.getDistance(), result.getEstimatedTime());
-
-                        // 1. Tour-Objekt aktualisieren
-                        tour.setDistance(result.getDistance());
-                        tour.setEstimatedTime(result.getEstimatedTime());
-                        if (result.getRouteImagePath() != null && !result.getRouteImagePath().isEmpty()) {
-                            tour.setRouteImagePath(result.getRouteImagePath());
-                        }
-
-                        // 2. UI-Felder mit der neuen Methode ohne Validation setzen
-                        String formattedDistance = String.format(Locale.US, "%.2f", result.getDistance());
-                        setFieldWithoutValidation(distanceField, formattedDistance);
-                        setFieldWithoutValidation(timeField, String.valueOf(result.getEstimatedTime()));
-
-                        // Debug: Werte nach Update
-                        logger.info("After update - Distance field: '{}', Time field: '{}'",
-                                distanceField.getText(), timeField.getText());
-                        logger.info("Tour object - Distance: {}, Time: {}",
-                                tour.getDistance(), tour.getEstimatedTime());
-
-                    } catch (Exception e) {
-                        logger.error("Error updating UI fields", e);
-                    }
+                    applyRouteResult(result);
+                    setRouteStatus(result.getMessage());
                 });
 
                 // Erfolgsmeldung anzeigen
@@ -275,8 +271,10 @@ public class AddTourDialogController {
                     Alert alert = new Alert(Alert.AlertType.ERROR);
                     alert.setTitle("Route Calculation Failed");
                     alert.setHeaderText("Could not calculate route");
-                    alert.setContentText(result != null ? result.getMessage() :
-                            "Please check your internet connection and the validity of the locations.");
+                    alert.setContentText((result != null ? result.getMessage() :
+                            "Please check your internet connection and the validity of the locations.")
+                            + (estimated ? "\n\nThe estimated values were kept." : ""));
+                    setRouteStatus(estimated ? "Estimate only - route calculation failed" : "");
                     alert.showAndWait();
                 });
             }
@@ -293,6 +291,7 @@ public class AddTourDialogController {
 
             // Fehlermeldung anzeigen
             Platform.runLater(() -> {
+                setRouteStatus(estimated ? "Estimate only - route calculation failed" : "");
                 Alert alert = new Alert(Alert.AlertType.ERROR);
                 alert.setTitle("Route Calculation Failed");
                 alert.setHeaderText("Error During Route Calculation");
@@ -309,6 +308,33 @@ public class AddTourDialogController {
         logger.info("Route calculation requested for {} to {}", fromField.getText(), toField.getText());
     }
 
+    // Tour und Felder mit einem Ergebnis (Schätzung oder Route) befüllen
+    private void applyRouteResult(BackendRouteService.RouteCalculationResult result) {
+        try {
+            logger.info("Result values - Distance: {}, Time: {}", result.getDistance(), result.getEstimatedTime());
+
+            // 1. Tour-Objekt aktualisieren
+            tour.setDistance(result.getDistance());
+            tour.setEstimatedTime(result.getEstimatedTime());
+            if (result.getRouteImagePath() != null && !result.getRouteImagePath().isEmpty()) {
+                tour.setRouteImagePath(result.getRouteImagePath());
+            }
+
+            // 2. UI-Felder ohne Validation setzen
+            String formattedDistance = String.format(Locale.US, "%.2f", result.getDistance());
+            setFieldWithoutValidation(distanceField, formattedDistance);
+            setFieldWithoutValidation(timeField, String.valueOf(result.getEstimatedTime()));
+        } catch (Exception e) {
+            logger.error("Error updating UI fields", e);
+        }
+    }
+
+    private void setRouteStatus(String text) {
+        if (routeStatusLabel != null) {
+            routeStatusLabel.setText(text != null ? text : "");
+        }
+    }
+
     // Input-Validation
     private boolean isInputValid() {
         String errorMessage = "";
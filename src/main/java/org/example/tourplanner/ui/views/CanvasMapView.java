@@ -0,0 +1,445 @@
+package org.example.tourplanner.ui.views;
+
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.input.MouseButton;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.StrokeLineCap;
+import javafx.scene.shape.StrokeLineJoin;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.business.tiles.TileCache;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Map without WebView: OSM raster tiles and the route drawn on a Canvas.
+ * Tiles are read from the tile cache and decoded on a small thread pool; the FX thread only
+ * draws, and only the part of the canvas that changed (a newly arrived tile) is repainted.
+ * Pan with the mouse, zoom with the wheel or a double click.
+ */
+public class CanvasMapView extends Pane {
+    private static final Logger logger = LogManager.getLogger(CanvasMapView.class);
+
+    private static final int TILE_SIZE = 256;
+    private static final int MIN_ZOOM = 2;
+    private static final int MAX_ZOOM = 19;
+    private static final int MAX_CACHED_IMAGES = 384;
+    // Solange eine Kachel lädt, wird die passende Kachel bis zu 4 Stufen darüber vergrößert gezeigt
+    private static final int MAX_PARENT_LEVELS = 4;
+    private static final double FIT_PADDING = 30;
+
+    private static final Color BACKGROUND = Color.web("#e8e4dc");
+    private static final Color ROUTE = Color.web("#007bff", 0.8);
+    private static final Color START = Color.web("#28a745");
+    private static final Color END = Color.web("#dc3545");
+
+    private final Canvas canvas = new Canvas();
+    private final TileCache tileCache;
+    private final ExecutorService tileLoader = Executors.newFixedThreadPool(4, task -> {
+        Thread thread = new Thread(task, "map-tile-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Nur im FX-Thread verwendet
+    private final Map<Long, Image> images = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Image> eldest) {
+            return size() > MAX_CACHED_IMAGES;
+        }
+    };
+    private final Set<Long> loading = new HashSet<>();
+    private final Set<Long> failed = new HashSet<>();
+    private volatile int zoom = 7;
+    private double centerX;
+    private double centerY;
+    // Route in Mercator-Koordinaten 0..1, unabhängig vom Zoom
+    private double[][] route;
+    private boolean routeDashed;
+
+    private double dirtyMinX = Double.MAX_VALUE;
+    private double dirtyMinY = Double.MAX_VALUE;
+    private double dirtyMaxX = -Double.MAX_VALUE;
+    private double dirtyMaxY = -Double.MAX_VALUE;
+    private boolean repaintScheduled;
+    private double dragX;
+    private double dragY;
+    private Runnable onFirstPaint;
+    private Consumer<double[]> onViewChanged;
+
+    /**
+     * Creates the map view with its listeners and mouse handlers installed
+     */
+    public static CanvasMapView create(TileCache tileCache) {
+        CanvasMapView view = new CanvasMapView(tileCache);
+        view.init();
+        return view;
+    }
+
+    private CanvasMapView(TileCache tileCache) {
+        this.tileCache = tileCache;
+    }
+
+    // Listener erst nach dem Konstruktor anmelden, vorher ist das Objekt nicht fertig
+    private void init() {
+        canvas.setManaged(false);
+        canvas.widthProperty().bind(widthProperty());
+        canvas.heightProperty().bind(heightProperty());
+        canvas.widthProperty().addListener((obs, oldValue, newValue) -> repaintAll());
+        canvas.heightProperty().addListener((obs, oldValue, newValue) -> repaintAll());
+        getChildren().add(canvas);
+
+        // Österreich als Standard-Zentrum
+        setCenter(47.6965, 13.3457, 7);
+        installMouseHandlers();
+    }
+
+    /**
+     * Called once after the first paint with a real size (startup measurement)
+     */
+    public void setOnFirstPaint(Runnable onFirstPaint) {
+        this.onFirstPaint = onFirstPaint;
+    }
+
+    /**
+     * Called with {south, west, north, east} after the user moved or zoomed the map
+     */
+    public void setOnViewChanged(Consumer<double[]> onViewChanged) {
+        this.onViewChanged = onViewChanged;
+    }
+
+    public void setCenter(double lat, double lon, int zoomLevel) {
+        zoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoomLevel));
+        centerX = mercatorX(lon) * worldSize();
+        centerY = mercatorY(lat) * worldSize();
+        repaintAll();
+    }
+
+    /**
+     * Route line through {lat, lon} points, zoomed to fit
+     */
+    public void showRoute(double[][] points) {
+        setRoute(points, false);
+    }
+
+    /**
+     * Dashed straight line between two {lat, lon} points, zoomed to fit
+     */
+    public void showSimpleRoute(double[] from, double[] to) {
+        setRoute(new double[][]{from, to}, true);
+    }
+
+    public void clearRoute() {
+        route = null;
+        repaintAll();
+    }
+
+    /**
+     * Stops the tile loader threads
+     */
+    public void dispose() {
+        tileLoader.shutdownNow();
+    }
+
+    private void setRoute(double[][] points, boolean dashed) {
+        route = new double[points.length][];
+        for (int i = 0; i < points.length; i++) {
+            route[i] = new double[]{mercatorX(points[i][1]), mercatorY(points[i][0])};
+        }
+        routeDashed = dashed;
+        failed.clear();
+        fitRoute();
+        repaintAll();
+        fireViewChanged();
+    }
+
+    private void fitRoute() {
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (double[] p : route) {
+            minX = Math.min(minX, p[0]);
+            maxX = Math.max(maxX, p[0]);
+            minY = Math.min(minY, p[1]);
+            maxY = Math.max(maxY, p[1]);
+        }
+        double width = Math.max(canvas.getWidth(), 2 * FIT_PADDING + 1) - 2 * FIT_PADDING;
+        double height = Math.max(canvas.getHeight(), 2 * FIT_PADDING + 1) - 2 * FIT_PADDING;
+        int fitZoom = MAX_ZOOM;
+        while (fitZoom > MIN_ZOOM && ((maxX - minX) * TILE_SIZE * (1L << fitZoom) > width
+                || (maxY - minY) * TILE_SIZE * (1L << fitZoom) > height)) {
+            fitZoom--;
+        }
+        zoom = Math.min(fitZoom, 16);
+        centerX = (minX + maxX) / 2 * worldSize();
+        centerY = (minY + maxY) / 2 * worldSize();
+    }
+
+    private void installMouseHandlers() {
+        setOnMousePressed(event -> {
+            dragX = event.getX();
+            dragY = event.getY();
+        });
+        setOnMouseDragged(event -> {
+            centerX -= event.getX() - dragX;
+            centerY = Math.max(0, Math.min(worldSize(), centerY - (event.getY() - dragY)));
+            dragX = event.getX();
+            dragY = event.getY();
+            repaintAll();
+        });
+        setOnMouseReleased(event -> fireViewChanged());
+        setOnScroll(event -> {
+            if (event.getDeltaY() != 0) {
+                zoomAt(zoom + (event.getDeltaY() > 0 ? 1 : -1), event.getX(), event.getY());
+            }
+        });
+        setOnMouseClicked(event -> {
+            if (event.getButton() == MouseButton.PRIMARY && event.getClickCount() == 2) {
+                zoomAt(zoom + 1, event.getX(), event.getY());
+            }
+        });
+    }
+
+    // Der Punkt unter dem Mauszeiger bleibt beim Zoomen stehen
+    private void zoomAt(int newZoom, double anchorX, double anchorY) {
+        newZoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, newZoom));
+        if (newZoom == zoom) {
+            return;
+        }
+        double scale = Math.pow(2, newZoom - zoom);
+        double offsetX = anchorX - canvas.getWidth() / 2;
+        double offsetY = anchorY - canvas.getHeight() / 2;
+        centerX = (centerX + offsetX) * scale - offsetX;
+        centerY = (centerY + offsetY) * scale - offsetY;
+        zoom = newZoom;
+        repaintAll();
+        fireViewChanged();
+    }
+
+    private void fireViewChanged() {
+        if (onViewChanged == null || canvas.getWidth() <= 0) {
+            return;
+        }
+        double world = worldSize();
+        double west = (centerX - canvas.getWidth() / 2) / world * 360 - 180;
+        double east = (centerX + canvas.getWidth() / 2) / world * 360 - 180;
+        double north = latitude((centerY - canvas.getHeight() / 2) / world);
+        double south = latitude((centerY + canvas.getHeight() / 2) / world);
+        onViewChanged.accept(new double[]{south, west, north, east});
+    }
+
+    // ==================== PAINTING ====================
+
+    private void repaintAll() {
+        markDirty(0, 0, canvas.getWidth(), canvas.getHeight());
+    }
+
+    private void markDirty(double x, double y, double width, double height) {
+        dirtyMinX = Math.min(dirtyMinX, x);
+        dirtyMinY = Math.min(dirtyMinY, y);
+        dirtyMaxX = Math.max(dirtyMaxX, x + width);
+        dirtyMaxY = Math.max(dirtyMaxY, y + height);
+        // Mehrere Änderungen (z.B. viele ankommende Kacheln) in einem Durchgang zeichnen
+        if (!repaintScheduled) {
+            repaintScheduled = true;
+            Platform.runLater(this::paint);
+        }
+    }
+
+    private void paint() {
+        repaintScheduled = false;
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        double minX = Math.max(0, Math.floor(dirtyMinX));
+        double minY = Math.max(0, Math.floor(dirtyMinY));
+        double maxX = Math.min(width, Math.ceil(dirtyMaxX));
+        double maxY = Math.min(height, Math.ceil(dirtyMaxY));
+        dirtyMinX = dirtyMinY = Double.MAX_VALUE;
+        dirtyMaxX = dirtyMaxY = -Double.MAX_VALUE;
+        if (maxX <= minX || maxY <= minY) {
+            return;
+        }
+
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        g.save();
+        g.beginPath();
+        g.rect(minX, minY, maxX - minX, maxY - minY);
+        g.clip();
+        g.setFill(BACKGROUND);
+        g.fillRect(minX, minY, maxX - minX, maxY - minY);
+
+        double originX = centerX - width / 2;
+        double originY = centerY - height / 2;
+        int tilesPerSide = 1 << zoom;
+        int firstColumn = (int) Math.floor((originX + minX) / TILE_SIZE);
+        int lastColumn = (int) Math.floor((originX + maxX - 1) / TILE_SIZE);
+        int firstRow = Math.max(0, (int) Math.floor((originY + minY) / TILE_SIZE));
+        int lastRow = Math.min(tilesPerSide - 1, (int) Math.floor((originY + maxY - 1) / TILE_SIZE));
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                drawTile(g, Math.floorMod(column, tilesPerSide), row,
+                        column * TILE_SIZE - originX, row * TILE_SIZE - originY);
+            }
+        }
+
+        drawRoute(g, originX, originY);
+        drawAttribution(g, width, height);
+        g.restore();
+
+        if (onFirstPaint != null && width > 0 && height > 0) {
+            Runnable callback = onFirstPaint;
+            onFirstPaint = null;
+            callback.run();
+        }
+    }
+
+    private void drawTile(GraphicsContext g, int x, int y, double screenX, double screenY) {
+        Image image = images.get(tileKey(zoom, x, y));
+        if (image != null) {
+            g.drawImage(image, screenX, screenY, TILE_SIZE, TILE_SIZE);
+            return;
+        }
+        requestTile(zoom, x, y);
+
+        for (int level = 1; level <= MAX_PARENT_LEVELS && zoom - level >= 0; level++) {
+            Image parent = images.get(tileKey(zoom - level, x >> level, y >> level));
+            if (parent != null) {
+                double size = (double) TILE_SIZE / (1 << level);
+                double sourceX = (x - ((x >> level) << level)) * size;
+                double sourceY = (y - ((y >> level) << level)) * size;
+                g.drawImage(parent, sourceX, sourceY, size, size, screenX, screenY, TILE_SIZE, TILE_SIZE);
+                return;
+            }
+        }
+    }
+
+    private void requestTile(int z, int x, int y) {
+        long key = tileKey(z, x, y);
+        if (loading.contains(key) || failed.contains(key)) {
+            return;
+        }
+        loading.add(key);
+        tileLoader.submit(() -> {
+            Image image = null;
+            // Beim schnellen Zoomen veraltete Anfragen überspringen
+            if (z == zoom) {
+                byte[] data = tileCache.getTile(z, x, y);
+                image = data != null ? new Image(new ByteArrayInputStream(data)) : null;
+            }
+            Image loaded = image;
+            Platform.runLater(() -> tileLoaded(z, x, y, loaded));
+        });
+    }
+
+    private void tileLoaded(int z, int x, int y, Image image) {
+        long key = tileKey(z, x, y);
+        loading.remove(key);
+        if (image == null) {
+            if (z == zoom) {
+                failed.add(key);
+            }
+            return;
+        }
+        if (image.isError()) {
+            logger.debug("Could not decode tile {}/{}/{}", z, x, y);
+            failed.add(key);
+            return;
+        }
+        images.put(key, image);
+        if (z != zoom) {
+            return;
+        }
+        // Nur die Fläche der neuen Kachel neu zeichnen (auch ihre Wiederholungen über die Datumsgrenze)
+        double originX = centerX - canvas.getWidth() / 2;
+        double originY = centerY - canvas.getHeight() / 2;
+        double world = worldSize();
+        double screenY = y * TILE_SIZE - originY;
+        for (double screenX = x * TILE_SIZE - originX - Math.ceil((x * TILE_SIZE - originX) / world) * world;
+             screenX < canvas.getWidth(); screenX += world) {
+            if (screenX + TILE_SIZE > 0) {
+                markDirty(screenX, screenY, TILE_SIZE, TILE_SIZE);
+            }
+        }
+    }
+
+    private void drawRoute(GraphicsContext g, double originX, double originY) {
+        if (route == null || route.length == 0) {
+            return;
+        }
+        double world = worldSize();
+        g.setStroke(ROUTE);
+        g.setLineWidth(4);
+        g.setLineCap(StrokeLineCap.ROUND);
+        g.setLineJoin(StrokeLineJoin.ROUND);
+        g.setLineDashes(routeDashed ? new double[]{10, 5} : null);
+        g.beginPath();
+        for (int i = 0; i < route.length; i++) {
+            double x = route[i][0] * world - originX;
+            double y = route[i][1] * world - originY;
+            if (i == 0) {
+                g.moveTo(x, y);
+            } else {
+                g.lineTo(x, y);
+            }
+        }
+        g.stroke();
+        g.setLineDashes((double[]) null);
+
+        drawMarker(g, route[0][0] * world - originX, route[0][1] * world - originY, START);
+        double[] last = route[route.length - 1];
+        drawMarker(g, last[0] * world - originX, last[1] * world - originY, END);
+    }
+
+    private void drawMarker(GraphicsContext g, double x, double y, Color color) {
+        g.setFill(color);
+        g.fillOval(x - 11, y - 11, 22, 22);
+        g.setStroke(Color.WHITE);
+        g.setLineWidth(3);
+        g.strokeOval(x - 11, y - 11, 22, 22);
+    }
+
+    private void drawAttribution(GraphicsContext g, double width, double height) {
+        String text = "© OpenStreetMap contributors";
+        g.setFill(Color.web("#ffffff", 0.7));
+        g.fillRect(width - 170, height - 16, 170, 16);
+        g.setFill(Color.web("#333333"));
+        g.setFont(Font.font(11));
+        g.setTextAlign(TextAlignment.RIGHT);
+        g.fillText(text, width - 4, height - 4);
+    }
+
+    // ==================== PROJECTION ====================
+
+    private double worldSize() {
+        return (double) TILE_SIZE * (1L << zoom);
+    }
+
+    private static long tileKey(int z, int x, int y) {
+        return ((long) z << 58) | ((long) x << 29) | y;
+    }
+
+    private static double mercatorX(double lon) {
+        return (lon + 180) / 360;
+    }
+
+    private static double mercatorY(double lat) {
+        double sin = Math.sin(Math.toRadians(Math.max(-85.05112878, Math.min(85.05112878, lat))));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+
+    private static double latitude(double mercatorY) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * mercatorY))));
+    }
+}
@@ -1,8 +1,11 @@
 package org.example.tourplanner.ui.views;
 
+import javafx.beans.binding.Bindings;
+import javafx.beans.value.ChangeListener;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.control.*;
+import javafx.scene.image.ImageView;
 import javafx.scene.layout.Pane;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
@@ -12,10 +15,29 @@ import javafx.concurrent.Worker;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
 import javafx.util.Callback;
+import netscape.javascript.JSObject;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.business.geo.ClusterIndex;
+import org.example.tourplanner.business.geo.LocationResolver;
+import org.example.tourplanner.business.geo.MapPolyline;
+import org.example.tourplanner.business.geo.PolylineEncoder;
+import org.example.tourplanner.business.geo.RouteGeometryStore;
+import org.example.tourplanner.business.routing.Isochrone;
+import org.example.tourplanner.business.routing.TransportProfile;
+import org.example.tourplanner.business.service.BackendPool;
+import org.example.tourplanner.business.service.BackendRouteService;
+import org.example.tourplanner.business.service.DataServices;
 import org.example.tourplanner.business.service.HttpImportExportService;
 import org.example.tourplanner.business.service.HttpReportService;
+import org.example.tourplanner.business.service.HttpTourLogService;
+import org.example.tourplanner.business.service.HttpTourService;
+import org.example.tourplanner.business.service.IsochroneService;
+import org.example.tourplanner.business.service.OfflineRouteService;
+import org.example.tourplanner.business.service.TourCorridorIndex;
+import org.example.tourplanner.business.sync.TourMerge;
+import org.example.tourplanner.business.tiles.TileService;
+import org.example.tourplanner.config.ConfigurationManager;
 import org.example.tourplanner.models.TourLog;
 import org.example.tourplanner.ui.viewmodels.MainViewModel;
 import org.example.tourplanner.ui.viewmodels.TourLogViewModel;
@@ -27,6 +49,9 @@ import java.net.URL;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
 import javafx.concurrent.Task;
 import javafx.scene.Cursor;
@@ -44,6 +69,13 @@ public class MainViewController {
     private final HttpReportService reportService = HttpReportService.getInstance();
     // Import/Export Service hinzugefügt
     private final HttpImportExportService importExportService = HttpImportExportService.getInstance();
+    private final IsochroneService isochroneService = IsochroneService.getInstance();
+    private final OfflineRouteService offlineRouteService = OfflineRouteService.getInstance();
+    private final TileService tileService = TileService.getInstance();
+    private static final List<Integer> ISOCHRONE_MINUTES = List.of(15, 30, 60);
+    private static final int THUMBNAIL_WIDTH = 48;
+    private static final int THUMBNAIL_HEIGHT = 32;
+    private final TourThumbnails tourThumbnails = new TourThumbnails(THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT);
 
 
 
@@ -52,10 +84,26 @@ public class MainViewController {
     private WebEngine mapWebEngine;
     private boolean mapLoaded = false;
     private boolean mapInitialized = false;
+    // map.renderer=canvas: Karte ohne WebView (Übersicht und Erreichbarkeit nur mit WebView)
+    private final boolean canvasRenderer = "canvas".equalsIgnoreCase(
+            ConfigurationManager.getInstance().getProperty("map.renderer", "webview").trim());
+    private CanvasMapView canvasMapView;
+    private long mapStartNanos;
+    private long mapStartHeapBytes;
+    // WebView hält Java-Objekte nur schwach, daher als Feld
+    private final MapBridge mapBridge = new MapBridge();
+
+    private Overview overview;
+    // Zeigt die Übersicht, sobald die Karte geladen ist; null, wenn nichts darauf wartet
+    private ChangeListener<Worker.State> overviewOnLoad;
+    // Zuletzt gemeldeter Kartenausschnitt {south, west, north, east}
+    private double[] mapViewBounds;
 
     // FXML Controls
     @FXML private TextField searchField;
+    @FXML private CheckBox mapAreaCheckBox;
     @FXML private ListView<TourViewModel> tourListView;
+    @FXML private Label pendingChangesLabel;
     @FXML private Label tourNameLabel;
     @FXML private Label tourFromLabel;
     @FXML private Label tourToLabel;
@@ -82,6 +130,8 @@ public class MainViewController {
         // Setup tour list
         tourListView.setItems(viewModel.getFilteredTours());
         tourListView.setCellFactory(createTourListCellFactory());
+        // Mehrfachauswahl zum gemeinsamen Löschen
+        tourListView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
         tourListView.getSelectionModel().selectedItemProperty().addListener(
                 (observable, oldValue, newValue) -> {
                     viewModel.selectedTourProperty().set(newValue);
@@ -89,6 +139,19 @@ public class MainViewController {
                 }
         );
 
+        // Noch nicht gesendete Änderungen anzeigen
+        pendingChangesLabel.textProperty().bind(Bindings.createStringBinding(() -> {
+            int count = viewModel.pendingChangesProperty().get();
+            return count == 1 ? "1 change pending" : count + " changes pending";
+        }, viewModel.pendingChangesProperty()));
+        pendingChangesLabel.visibleProperty().bind(viewModel.pendingChangesProperty().greaterThan(0));
+        pendingChangesLabel.managedProperty().bind(pendingChangesLabel.visibleProperty());
+        viewModel.tourConflictProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue != null) {
+                showTourConflictDialog(newValue);
+            }
+        });
+
         // Setup tour log table
         setupTourLogTableView();
         viewModel.selectedTourProperty().addListener((observable, oldValue, newValue) -> {
@@ -116,9 +179,16 @@ public class MainViewController {
     }
 
     private void initializeMapWebView() {
-        if (mapInitialized) return;
+        if (mapInitialized) {
+            // Nach "keine Tour ausgewählt" wieder einhängen
+            if (!mapPane.getChildren().contains(mapWebView)) {
+                mapPane.getChildren().setAll(mapWebView);
+            }
+            return;
+        }
 
         logger.info("Initializing map WebView");
+        markMapStart();
 
         mapWebView = new WebView();
         mapWebEngine = mapWebView.getEngine();
@@ -136,6 +206,15 @@ public class MainViewController {
             if (newValue == Worker.State.SUCCEEDED) {
                 mapLoaded = true;
                 logger.info("Map loaded successfully");
+                logMapStartup("WebView");
+                try {
+                    JSObject window = (JSObject) mapWebEngine.executeScript("window");
+                    window.setMember("javaConnector", mapBridge);
+                    mapWebEngine.executeScript("setTileUrl('"
+                            + escapeJavaScript(tileService.getTileUrlTemplate()) + "');");
+                } catch (Exception e) {
+                    logger.error("Error setting map tile URL", e);
+                }
             } else if (newValue == Worker.State.FAILED) {
                 logger.error("Failed to load map: {}", mapWebEngine.getLoadWorker().getException());
             }
@@ -145,6 +224,48 @@ public class MainViewController {
         loadMapHTML();
     }
 
+    private void initializeCanvasMap() {
+        if (canvasMapView != null) {
+            if (!mapPane.getChildren().contains(canvasMapView)) {
+                mapPane.getChildren().setAll(canvasMapView);
+            }
+            return;
+        }
+
+        logger.info("Initializing canvas map");
+        markMapStart();
+        canvasMapView = CanvasMapView.create(tileService.getCache());
+        canvasMapView.prefWidthProperty().bind(mapPane.widthProperty());
+        canvasMapView.prefHeightProperty().bind(mapPane.heightProperty());
+        canvasMapView.setOnFirstPaint(() -> logMapStartup("Canvas"));
+        canvasMapView.setOnViewChanged(bounds -> {
+            mapViewBounds = bounds;
+            if (mapAreaCheckBox.isSelected()) {
+                viewModel.setMapAreaFilter(bounds);
+            }
+        });
+        mapPane.getChildren().setAll(canvasMapView);
+    }
+
+    private void markMapStart() {
+        Runtime runtime = Runtime.getRuntime();
+        mapStartHeapBytes = runtime.totalMemory() - runtime.freeMemory();
+        mapStartNanos = System.nanoTime();
+    }
+
+    // Vergleich der beiden Renderer: Zeit bis zur ersten Anzeige und Heap-Zuwachs
+    private void logMapStartup(String renderer) {
+        if (mapStartNanos == 0) {
+            return;
+        }
+        Runtime runtime = Runtime.getRuntime();
+        long heapDelta = runtime.totalMemory() - runtime.freeMemory() - mapStartHeapBytes;
+        logger.info("{} map ready after {} ms, Java heap {} {} KB (native WebView memory not included)",
+                renderer, (System.nanoTime() - mapStartNanos) / 1_000_000,
+                heapDelta >= 0 ? "+" : "-", Math.abs(heapDelta) / 1024);
+        mapStartNanos = 0;
+    }
+
     private void loadMapHTML() {
         try {
             URL mapUrl = getClass().getResource("/org/example/tourplanner/ui/views/map.html");
@@ -180,6 +301,13 @@ public class MainViewController {
         double[] fromCoords = getCoordinatesForLocation(tour.fromProperty().get());
         double[] toCoords = getCoordinatesForLocation(tour.toProperty().get());
 
+        // Gespeicherte Geometrie vorhanden: direkt die echte Strecke zeichnen
+        RouteGeometryStore geometryStore = RouteGeometryStore.getInstance();
+        if (geometryStore != null && geometryStore.contains(routeKey(tour))) {
+            loadRouteGeometryAsync(tour);
+            return;
+        }
+
         try {
             String script = String.format(Locale.US,
                     "showSimpleRoute(%f, %f, %f, %f, '%s', '%s');",
@@ -194,48 +322,127 @@ public class MainViewController {
         } catch (Exception e) {
             logger.error("Error displaying route on map", e);
         }
+
+        // Luftlinie sofort, echte Strecke nachladen wenn ein Offline-Graph vorhanden ist
+        if (offlineRouteService.isAvailable()) {
+            loadRouteGeometryAsync(tour);
+        } else {
+            tileService.prefetchRoute(new double[][]{fromCoords, toCoords});
+        }
+    }
+
+    private void loadRouteGeometryAsync(TourViewModel tour) {
+        String from = tour.fromProperty().get();
+        String to = tour.toProperty().get();
+        String transportType = tour.transportTypeProperty().get();
+
+        Task<MapPolyline> geometryTask = new Task<>() {
+            @Override
+            protected MapPolyline call() throws Exception {
+                double[][] geometry = lookUpRouteGeometry(tour, from, to, transportType);
+                return geometry != null ? MapPolyline.of(geometry) : null;
+            }
+        };
+
+        geometryTask.setOnSucceeded(event -> {
+            MapPolyline polyline = geometryTask.getValue();
+            // Inzwischen eine andere Tour ausgewählt?
+            if (polyline == null || viewModel.selectedTourProperty().get() != tour) {
+                return;
+            }
+            tileService.prefetchRoute(PolylineEncoder.decode(polyline.getEncodedPoints()));
+            logger.info("Route geometry for {} -> {}: {} of {} points, {} chars encoded",
+                    from, to, polyline.getPointCount(), polyline.getOriginalPointCount(),
+                    polyline.getEncodedPoints().length());
+            try {
+                mapWebEngine.executeScript("showEncodedRoute('"
+                        + escapeJavaScript(polyline.getEncodedPoints()) + "', '"
+                        + polyline.getEncodedLevels() + "', '"
+                        + escapeJavaScript(from) + "', '" + escapeJavaScript(to) + "');");
+            } catch (Exception e) {
+                logger.error("Error displaying route geometry on map", e);
+            }
+        });
+
+        geometryTask.setOnFailed(event ->
+                logger.error("Could not load route geometry", geometryTask.getException()));
+
+        Thread geometryThread = new Thread(geometryTask);
+        geometryThread.setDaemon(true);
+        geometryThread.start();
+    }
+
+    /**
+     * Stored geometry or, if there is none, the offline route (which is then stored).
+     * Blocks, so only call it from a background thread.
+     */
+    private double[][] lookUpRouteGeometry(TourViewModel tour, String from, String to, String transportType) {
+        RouteGeometryStore geometryStore = RouteGeometryStore.getInstance();
+        long key = RouteGeometryStore.keyFor(from, to, transportType);
+        double[][] geometry = geometryStore != null ? geometryStore.get(key) : null;
+        if (geometry == null) {
+            geometry = offlineRouteService.routeGeometry(from, to, transportType);
+            if (geometry != null && geometryStore != null) {
+                try {
+                    geometryStore.put(key, geometry);
+                    TourCorridorIndex.getInstance().addOrUpdate(tour.getTour());
+                } catch (IOException e) {
+                    // Route trotzdem anzeigen, nur nicht gespeichert
+                    logger.warn("Could not store route geometry {} -> {}: {}", from, to, e.getMessage());
+                }
+            }
+        }
+        return geometry;
+    }
+
+    private void displayRouteOnCanvas(TourViewModel tour) {
+        String from = tour.fromProperty().get();
+        String to = tour.toProperty().get();
+        String transportType = tour.transportTypeProperty().get();
+        double[] fromCoords = getCoordinatesForLocation(from);
+        double[] toCoords = getCoordinatesForLocation(to);
+        canvasMapView.showSimpleRoute(fromCoords, toCoords);
+        logger.info("Displaying route on canvas: {} -> {}", from, to);
+
+        Task<double[][]> geometryTask = new Task<>() {
+            @Override
+            protected double[][] call() throws Exception {
+                return lookUpRouteGeometry(tour, from, to, transportType);
+            }
+        };
+
+        geometryTask.setOnSucceeded(event -> {
+            double[][] geometry = geometryTask.getValue();
+            if (viewModel.selectedTourProperty().get() != tour) {
+                return;
+            }
+            if (geometry == null || geometry.length < 2) {
+                tileService.prefetchRoute(new double[][]{fromCoords, toCoords});
+                return;
+            }
+            canvasMapView.showRoute(geometry);
+            tileService.prefetchRoute(geometry);
+        });
+
+        geometryTask.setOnFailed(event ->
+                logger.error("Could not load route geometry", geometryTask.getException()));
+
+        Thread geometryThread = new Thread(geometryTask);
+        geometryThread.setDaemon(true);
+        geometryThread.start();
+    }
+
+    private long routeKey(TourViewModel tour) {
+        return RouteGeometryStore.keyFor(tour.fromProperty().get(), tour.toProperty().get(),
+                tour.transportTypeProperty().get());
     }
 
     private String escapeJavaScript(String input) {
-        return input != null ? input.replace("'", "\\'").replace("\"", "\\\"") : "";
+        return input != null ? input.replace("\\", "\\\\").replace("'", "\\'").replace("\"", "\\\"") : "";
     }
 
     private double[] getCoordinatesForLocation(String location) {
-        if (location == null) return new double[]{47.6965, 13.3457};
-
-        return switch (location.toLowerCase().trim()) {
-            case "vienna", "wien" -> new double[]{48.2082, 16.3738};
-            case "salzburg" -> new double[]{47.8095, 13.0550};
-            case "graz" -> new double[]{47.0707, 15.4395};
-            case "linz" -> new double[]{48.3069, 14.2858};
-            case "innsbruck" -> new double[]{47.2692, 11.4041};
-            case "klagenfurt" -> new double[]{46.6250, 14.3050};
-            case "bregenz" -> new double[]{47.5031, 9.7471};
-            case "st. pölten", "st poelten" -> new double[]{48.2058, 15.6232};
-            case "eisenstadt" -> new double[]{47.8450, 16.5200};
-            case "villach" -> new double[]{46.6111, 13.8558};
-            case "wels" -> new double[]{48.1597, 14.0264};
-            case "dornbirn" -> new double[]{47.4124, 9.7436};
-            case "berlin" -> new double[]{52.5200, 13.4050};
-            case "munich", "münchen" -> new double[]{48.1351, 11.5820};
-            case "prague", "prag" -> new double[]{50.0755, 14.4378};
-            case "budapest" -> new double[]{47.4979, 19.0402};
-            case "zurich", "zürich" -> new double[]{47.3769, 8.5417};
-            case "amsterdam" -> new double[]{52.3676, 4.9041};
-            case "netherlands", "holland" -> new double[]{52.1326, 5.2913};
-            case "london" -> new double[]{51.5074, -0.1278};
-            case "paris" -> new double[]{48.8566, 2.3522};
-            case "brussels", "brüssel" -> new double[]{50.8503, 4.3517};
-            case "madrid" -> new double[]{40.4168, -3.7038};
-            case "barcelona" -> new double[]{41.3851, 2.1734};
-            case "lisbon", "lissabon" -> new double[]{38.7223, -9.1393};
-            case "rome", "rom" -> new double[]{41.9028, 12.4964};
-            case "milan", "mailand" -> new double[]{45.4642, 9.1900};
-            case "florence", "florenz" -> new double[]{43.7696, 11.2558};
-            case "venice", "venedig" -> new double[]{45.4408, 12.3155};
-            case "naples", "neapel" -> new double[]{40.8518, 14.2681};
-            default -> new double[]{47.6965, 13.3457}; // Austria center
-        };
+        return LocationResolver.resolveOrDefault(location);
     }
 
     // ==================== UI UPDATE METHODS ====================
@@ -260,6 +467,12 @@ public class MainViewController {
         tourDescriptionArea.setText(tour.descriptionProperty().get());
 
         // Initialize and display map
+        if (canvasRenderer) {
+            initializeCanvasMap();
+            displayRouteOnCanvas(tour);
+            logger.info("Updated tour details for: {}", tour.nameProperty().get());
+            return;
+        }
         initializeMapWebView();
         if (mapLoaded) {
             displayRouteOnMap(tour);
@@ -333,10 +546,31 @@ public class MainViewController {
 
     private Callback<ListView<TourViewModel>, ListCell<TourViewModel>> createTourListCellFactory() {
         return listView -> new ListCell<>() {
+            private final ImageView thumbnail = new ImageView();
+
+            {
+                thumbnail.setFitWidth(THUMBNAIL_WIDTH);
+                thumbnail.setFitHeight(THUMBNAIL_HEIGHT);
+                thumbnail.setPreserveRatio(true);
+            }
+
             @Override
             protected void updateItem(TourViewModel tour, boolean empty) {
                 super.updateItem(tour, empty);
-                setText(empty || tour == null ? null : tour.nameProperty().get());
+                if (empty || tour == null) {
+                    setText(null);
+                    setGraphic(null);
+                    return;
+                }
+                setText(tour.nameProperty().get());
+                thumbnail.setImage(null);
+                setGraphic(thumbnail);
+                // Zelle kann inzwischen eine andere Tour zeigen
+                tourThumbnails.load(tour.getTour(), image -> {
+                    if (getItem() == tour) {
+                        thumbnail.setImage(image);
+                    }
+                });
             }
         };
     }
@@ -404,6 +638,22 @@ public class MainViewController {
         alert.showAndWait();
     }
 
+    private void showTourConflictDialog(MainViewModel.TourConflict conflict) {
+        ButtonType keepMine = new ButtonType("Keep mine");
+        ButtonType useTheirs = new ButtonType("Use theirs");
+        StringBuilder fields = new StringBuilder();
+        for (TourMerge.Group group : conflict.getMerge().getConflicts()) {
+            fields.append("\n- ").append(group.name().toLowerCase());
+        }
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION, "", keepMine, useTheirs);
+        alert.setTitle("Tour Changed");
+        alert.setHeaderText("\"" + conflict.getTheirs().getName() + "\" was changed by someone else");
+        alert.setContentText("Both versions changed:" + fields
+                + "\n\nKeep your values for these fields, or use the saved ones?");
+        Optional<ButtonType> result = alert.showAndWait();
+        viewModel.resolveConflict(conflict, result.isPresent() && result.get() == keepMine);
+    }
+
     private void showNoTourSelectedWarning() {
         Alert alert = new Alert(Alert.AlertType.WARNING);
         alert.setTitle("No Tour Selected");
@@ -422,6 +672,16 @@ public class MainViewController {
 
     // ==================== ACTION HANDLERS ====================
 
+    @FXML
+    private void onMapAreaFilterAction() {
+        if (mapAreaCheckBox.isSelected() && mapViewBounds == null) {
+            showErrorDialog("Map Area Filter", "Open the map first (select a tour or show the overview).");
+            mapAreaCheckBox.setSelected(false);
+            return;
+        }
+        viewModel.setMapAreaFilter(mapAreaCheckBox.isSelected() ? mapViewBounds : null);
+    }
+
     @FXML private void onSearchAction() {
         // Automatically handled through binding
     }
@@ -449,9 +709,10 @@ public class MainViewController {
         if (selectedTour != null) {
             try {
                 Tour tour = selectedTour.getTour();
+                Tour before = selectedTour.copyTour();
                 if (showTourDialog(tour, "Edit Tour")) {
                     selectedTour.updateFromModel();
-                    viewModel.updateTour(selectedTour);
+                    viewModel.updateTour(selectedTour, before);
                     updateTourDetails(selectedTour);
                     logger.info("Tour updated: {}", tour.getName());
                 }
@@ -467,6 +728,20 @@ public class MainViewController {
     @FXML
     private void onDeleteTourAction() {
         logger.info("Delete tour action triggered");
+        List<TourViewModel> selectedTours = new ArrayList<>(tourListView.getSelectionModel().getSelectedItems());
+        if (selectedTours.size() > 1) {
+            Alert confirmDialog = new Alert(Alert.AlertType.CONFIRMATION);
+            confirmDialog.setTitle("Delete Tours");
+            confirmDialog.setHeaderText("Delete Tours");
+            confirmDialog.setContentText("Are you sure you want to delete the " + selectedTours.size() + " selected tours?");
+
+            confirmDialog.showAndWait().ifPresent(response -> {
+                if (response == ButtonType.OK) {
+                    viewModel.deleteTours(selectedTours);
+                }
+            });
+            return;
+        }
         TourViewModel selectedTour = viewModel.selectedTourProperty().get();
         if (selectedTour != null) {
             Alert confirmDialog = new Alert(Alert.AlertType.CONFIRMATION);
@@ -563,7 +838,12 @@ public class MainViewController {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle("About Tour Planner");
         alert.setHeaderText("Tour Planner Application");
-        alert.setContentText("Version 1.0\nA JavaFX MVVM application for planning tours");
+        alert.setContentText("Version 1.0\nA JavaFX MVVM application for planning tours"
+                + "\n\nMap tile cache: " + tileService.getStatistics()
+                + (DataServices.isEmbedded() ? "" : "\n\nBackend requests: " + BackendPool.getInstance().getStatistics()
+                        + "\nRoute calculation: " + BackendRouteService.getInstance().getStatistics()
+                        + "\nShared reads: " + HttpTourService.getInstance().getReadStatistics()
+                        + ", " + HttpTourLogService.getInstance().getReadStatistics()));
         alert.showAndWait();
     }
 
@@ -636,6 +916,280 @@ public class MainViewController {
         }
     }
 
+    @FXML
+    private void onShowReachabilityAction() {
+        logger.info("Reachability action triggered");
+        TourViewModel selectedTour = viewModel.selectedTourProperty().get();
+
+        if (selectedTour == null) {
+            showNoTourSelectedWarning();
+            return;
+        }
+        if (canvasRenderer) {
+            showErrorDialog("Reachability Not Available",
+                    "Reachability is only shown on the WebView map (map.renderer=webview).");
+            return;
+        }
+        if (!isochroneService.isAvailable()) {
+            showErrorDialog("Reachability Not Available",
+                    "Reachability needs an offline road graph (see offline.graph.path in application.properties).");
+            return;
+        }
+        if (!mapLoaded) {
+            logger.warn("Map not loaded yet, cannot display reachability");
+            return;
+        }
+
+        // Ohne unterstütztes Verkehrsmittel alle Profile vergleichen
+        TransportProfile tourProfile = TransportProfile.fromTransportType(selectedTour.transportTypeProperty().get());
+        List<TransportProfile> profiles = tourProfile != null
+                ? List.of(tourProfile)
+                : List.of(TransportProfile.values());
+        String from = selectedTour.fromProperty().get();
+
+        tourListView.getScene().setCursor(Cursor.WAIT);
+        Task<List<Isochrone>> isochroneTask = new Task<>() {
+            @Override
+            protected List<Isochrone> call() {
+                return isochroneService.computeIsochrones(from, profiles, ISOCHRONE_MINUTES);
+            }
+        };
+
+        isochroneTask.setOnSucceeded(event -> {
+            tourListView.getScene().setCursor(Cursor.DEFAULT);
+            List<Isochrone> isochrones = isochroneTask.getValue();
+            if (isochrones.isEmpty()) {
+                showErrorDialog("Reachability", "No reachable area could be computed for " + from + ".");
+                return;
+            }
+            try {
+                mapWebEngine.executeScript("showIsochrones(" + toIsochroneJson(isochrones) + ");");
+            } catch (Exception e) {
+                logger.error("Error displaying isochrones on map", e);
+            }
+        });
+
+        isochroneTask.setOnFailed(event -> {
+            tourListView.getScene().setCursor(Cursor.DEFAULT);
+            logger.error("Isochrone computation failed", isochroneTask.getException());
+            showErrorDialog("Reachability", "Error computing reachability: " + isochroneTask.getException().getMessage());
+        });
+
+        Thread isochroneThread = new Thread(isochroneTask);
+        isochroneThread.setDaemon(true);
+        isochroneThread.start();
+    }
+
+    @FXML
+    private void onShowOverviewAction() {
+        logger.info("Overview action triggered");
+        if (canvasRenderer) {
+            showErrorDialog("Overview", "The overview is only shown on the WebView map (map.renderer=webview).");
+            return;
+        }
+        List<TourViewModel> tours = List.copyOf(viewModel.getTours());
+        if (tours.isEmpty()) {
+            showErrorDialog("Overview", "There are no tours to show on the map.");
+            return;
+        }
+
+        String[] locations = new String[tours.size() * 2];
+        for (int i = 0; i < tours.size(); i++) {
+            locations[2 * i] = tours.get(i).fromProperty().get();
+            locations[2 * i + 1] = tours.get(i).toProperty().get();
+        }
+
+        initializeMapWebView();
+        tourListView.getScene().setCursor(Cursor.WAIT);
+        Task<Overview> indexTask = new Task<>() {
+            @Override
+            protected Overview call() {
+                // Unbekannte Orte haben keinen Punkt auf der Karte
+                double[] lats = new double[locations.length];
+                double[] lons = new double[locations.length];
+                int[] owners = new int[locations.length];
+                int count = 0;
+                for (int i = 0; i < locations.length; i++) {
+                    double[] coords = LocationResolver.resolve(locations[i]);
+                    if (coords != null) {
+                        lats[count] = coords[0];
+                        lons[count] = coords[1];
+                        owners[count] = i;
+                        count++;
+                    }
+                }
+                return new Overview(tours, Arrays.copyOf(owners, count),
+                        new ClusterIndex(Arrays.copyOf(lats, count), Arrays.copyOf(lons, count)));
+            }
+        };
+
+        indexTask.setOnSucceeded(event -> {
+            tourListView.getScene().setCursor(Cursor.DEFAULT);
+            overview = indexTask.getValue();
+            logger.info("Overview index with {} points of {} tours", overview.index.getPointCount(), tours.size());
+            if (mapLoaded) {
+                showOverviewOnMap();
+            } else {
+                // Nur für das erste Laden; ein späteres Neuladen der Seite zeigt die Übersicht nicht erneut
+                if (overviewOnLoad == null) {
+                    overviewOnLoad = (obs, oldValue, newValue) -> {
+                        if (newValue != Worker.State.SUCCEEDED && newValue != Worker.State.FAILED
+                                && newValue != Worker.State.CANCELLED) {
+                            return;
+                        }
+                        obs.removeListener(overviewOnLoad);
+                        overviewOnLoad = null;
+                        if (newValue == Worker.State.SUCCEEDED && mapLoaded) {
+                            showOverviewOnMap();
+                        }
+                    };
+                    mapWebEngine.getLoadWorker().stateProperty().addListener(overviewOnLoad);
+                }
+            }
+        });
+
+        indexTask.setOnFailed(event -> {
+            tourListView.getScene().setCursor(Cursor.DEFAULT);
+            logger.error("Building the overview failed", indexTask.getException());
+            showErrorDialog("Overview", "Error building the overview: " + indexTask.getException().getMessage());
+        });
+
+        Thread indexThread = new Thread(indexTask);
+        indexThread.setDaemon(true);
+        indexThread.start();
+    }
+
+    // Start- und Zielpunkte aller Touren; Punkt i gehört zu tours[locations[i] / 2], ungerade = Ziel
+    private static final class Overview {
+        final List<TourViewModel> tours;
+        final int[] locations;
+        final ClusterIndex index;
+
+        Overview(List<TourViewModel> tours, int[] locations, ClusterIndex index) {
+            this.tours = tours;
+            this.locations = locations;
+            this.index = index;
+        }
+    }
+
+    private void showOverviewOnMap() {
+        try {
+            mapWebEngine.executeScript("showOverview();");
+        } catch (Exception e) {
+            logger.error("Error displaying overview on map", e);
+        }
+    }
+
+    /**
+     * Called from map.html through window.javaConnector (public for the WebView bridge)
+     */
+    public class MapBridge {
+        /**
+         * Clusters in the visible area as JSON, queried after every pan or zoom
+         */
+        public String overviewClusters(double south, double west, double north, double east, int zoom) {
+            if (overview == null) {
+                return "[]";
+            }
+            return toClusterJson(overview.index.getClusters(south, west, north, east, zoom));
+        }
+
+        /**
+         * Map area after every pan or zoom; refreshes the "In map view" filter
+         */
+        public void mapViewChanged(double south, double west, double north, double east) {
+            mapViewBounds = new double[]{south, west, north, east};
+            if (mapAreaCheckBox.isSelected()) {
+                viewModel.setMapAreaFilter(mapViewBounds);
+            }
+        }
+
+        /**
+         * Selects the tour of a start or end point clicked in the overview
+         */
+        public void selectOverviewPoint(int point) {
+            if (overview == null || point < 0 || point >= overview.locations.length) {
+                return;
+            }
+            TourViewModel tour = overview.tours.get(overview.locations[point] / 2);
+            if (tourListView.getSelectionModel().getSelectedItem() == tour) {
+                displayRouteOnMap(tour);
+            } else {
+                tourListView.getSelectionModel().select(tour);
+                tourListView.scrollTo(tour);
+            }
+        }
+    }
+
+    private String toClusterJson(List<ClusterIndex.Cluster> clusters) {
+        StringBuilder json = new StringBuilder("[");
+        for (ClusterIndex.Cluster cluster : clusters) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            int location = overview.locations[cluster.getPoint()];
+            boolean end = location % 2 == 1;
+            json.append(String.format(Locale.US, "{\"lat\":%.6f,\"lng\":%.6f,\"count\":%d,\"zoom\":%d,\"point\":%d,\"end\":%b",
+                    cluster.getLatitude(), cluster.getLongitude(), cluster.getCount(),
+                    cluster.getExpansionZoom(), cluster.getPoint(), end));
+            // Namen nur für Einzelpunkte und Touren am selben Ort
+            if (cluster.getCount() == 1 || cluster.getExpansionZoom() < 0) {
+                TourViewModel tour = overview.tours.get(location / 2);
+                String name = tour.nameProperty().get() + (end ? " - Ziel: " + tour.toProperty().get()
+                        : " - Start: " + tour.fromProperty().get());
+                json.append(",\"name\":\"").append(escapeJson(name)).append('"');
+            }
+            json.append('}');
+        }
+        return json.append(']').toString();
+    }
+
+    private String escapeJson(String input) {
+        if (input == null) {
+            return "";
+        }
+        StringBuilder escaped = new StringBuilder(input.length());
+        for (char c : input.toCharArray()) {
+            switch (c) {
+                case '"' -> escaped.append("\\\"");
+                case '\\' -> escaped.append("\\\\");
+                case '<' -> escaped.append("&lt;");
+                default -> {
+                    if (c < 0x20) {
+                        escaped.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        escaped.append(c);
+                    }
+                }
+            }
+        }
+        return escaped.toString();
+    }
+
+    private String toIsochroneJson(List<Isochrone> isochrones) {
+        StringBuilder json = new StringBuilder("[");
+        for (Isochrone isochrone : isochrones) {
+            if (isochrone.getPolygon().length == 0) {
+                continue;
+            }
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append("{\"profile\":\"").append(isochrone.getProfile().name())
+                    .append("\",\"minutes\":").append(isochrone.getMinutes())
+                    .append(",\"coords\":[");
+            double[][] polygon = isochrone.getPolygon();
+            for (int i = 0; i < polygon.length; i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                json.append(String.format(Locale.US, "[%.6f,%.6f]", polygon[i][0], polygon[i][1]));
+            }
+            json.append("]}");
+        }
+        return json.append(']').toString();
+    }
+
     /**
      * Generate tour report asynchronously to avoid blocking the UI
      */
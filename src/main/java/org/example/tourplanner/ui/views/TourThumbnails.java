@@ -0,0 +1,58 @@
+package org.example.tourplanner.ui.views;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.example.tourplanner.business.thumbnails.RouteThumbnailService;
+import org.example.tourplanner.models.Tour;
+
+import java.lang.ref.SoftReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Route previews for the tour list cells. Decoded images are kept softly, so the
+ * garbage collector can drop them under memory pressure; they are decoded again on demand.
+ */
+class TourThumbnails {
+    private static final Logger logger = LogManager.getLogger(TourThumbnails.class);
+
+    private final RouteThumbnailService thumbnailService = RouteThumbnailService.getInstance();
+    private final Map<String, SoftReference<Image>> images = new ConcurrentHashMap<>();
+    private final int width;
+    private final int height;
+
+    TourThumbnails(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Calls onLoaded on the FX thread, right away if the image is in memory
+     */
+    void load(Tour tour, Consumer<Image> onLoaded) {
+        String key = tour.getFrom() + '|' + tour.getTo() + '|' + tour.getTransportType() + '|' + tour.getRouteImagePath();
+        SoftReference<Image> cached = images.get(key);
+        Image image = cached != null ? cached.get() : null;
+        if (image != null) {
+            onLoaded.accept(image);
+            return;
+        }
+
+        // Dekodieren und auf Zellengröße verkleinern im Worker-Thread (backgroundLoading=false)
+        thumbnailService.thumbnailFor(tour, file -> new Image(file.toUri().toString(), width, height, true, true, false))
+                .whenComplete((loaded, error) -> {
+                    if (error != null) {
+                        logger.warn("Could not load thumbnail for tour {}: {}", tour.getName(), error.getMessage());
+                        return;
+                    }
+                    if (loaded == null || loaded.isError()) {
+                        return;
+                    }
+                    images.put(key, new SoftReference<>(loaded));
+                    Platform.runLater(() -> onLoaded.accept(loaded));
+                });
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.tourplanner.business.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClusterIndexTest {
+
+    private static int total(List<ClusterIndex.Cluster> clusters) {
+        return clusters.stream().mapToInt(ClusterIndex.Cluster::getCount).sum();
+    }
+
+    @Test
+    public void testWholeWorldAtLowZoomCountsEveryPoint() {
+        // Wien, Graz, Salzburg und ein Punkt in Paris
+        double[] lats = {48.2082, 48.2090, 47.0707, 47.8095, 48.8566};
+        double[] lons = {16.3738, 16.3750, 15.4395, 13.0550, 2.3522};
+        ClusterIndex index = new ClusterIndex(lats, lons);
+
+        List<ClusterIndex.Cluster> world = index.getClusters(-90, -180, 90, 180, 0);
+        assertEquals(5, total(world));
+        assertTrue(world.size() < 5);
+
+        List<ClusterIndex.Cluster> detailed = index.getClusters(-90, -180, 90, 180, 12);
+        assertTrue(detailed.size() >= 4);
+        assertEquals(5, total(detailed));
+    }
+
+    @Test
+    public void testSinglePointKeepsItsIndexAndPosition() {
+        double[] lats = {48.2082, 47.0707};
+        double[] lons = {16.3738, 15.4395};
+        ClusterIndex index = new ClusterIndex(lats, lons);
+
+        List<ClusterIndex.Cluster> clusters = index.getClusters(46, 14, 49, 17, 10);
+
+        assertEquals(2, clusters.size());
+        for (ClusterIndex.Cluster cluster : clusters) {
+            assertEquals(1, cluster.getCount());
+            assertEquals(lats[cluster.getPoint()], cluster.getLatitude(), 1e-4);
+            assertEquals(lons[cluster.getPoint()], cluster.getLongitude(), 1e-4);
+        }
+    }
+
+    @Test
+    public void testBoundingBoxLimitsResult() {
+        double[] lats = {48.2082, 47.0707, 48.8566};
+        double[] lons = {16.3738, 15.4395, 2.3522};
+        ClusterIndex index = new ClusterIndex(lats, lons);
+
+        List<ClusterIndex.Cluster> paris = index.getClusters(48, 1, 49.5, 4, 9);
+
+        assertEquals(1, paris.size());
+        assertEquals(2, paris.get(0).getPoint());
+    }
+
+    @Test
+    public void testClusterSplitsAtExpansionZoom() {
+        // Zwei Punkte ca. 1 km auseinander
+        double[] lats = {47.0707, 47.0707};
+        double[] lons = {15.4395, 15.4527};
+        ClusterIndex index = new ClusterIndex(lats, lons);
+
+        ClusterIndex.Cluster cluster = index.getClusters(-90, -180, 90, 180, 3).get(0);
+        assertEquals(2, cluster.getCount());
+        int zoom = cluster.getExpansionZoom();
+        assertTrue(zoom > 3 && zoom <= ClusterIndex.MAX_LEVEL, "expansion zoom " + zoom);
+
+        assertEquals(1, index.getClusters(46, 14, 48, 17, zoom - 1).size());
+        assertEquals(2, index.getClusters(46, 14, 48, 17, zoom).size());
+    }
+
+    @Test
+    public void testPointsAtSameSpotNeverSplit() {
+        double[] lats = {48.2082, 48.2082, 48.2082};
+        double[] lons = {16.3738, 16.3738, 16.3738};
+        ClusterIndex index = new ClusterIndex(lats, lons);
+
+        List<ClusterIndex.Cluster> clusters = index.getClusters(48, 16, 49, 17, 19);
+
+        assertEquals(1, clusters.size());
+        assertEquals(3, clusters.get(0).getCount());
+        assertEquals(-1, clusters.get(0).getExpansionZoom());
+        assertEquals(-1, index.getClusters(-90, -180, 90, 180, 2).get(0).getExpansionZoom());
+    }
+
+    @Test
+    public void testViewportQueryOnHundredThousandToursStaysSmall() {
+        // 100.000 Touren mit Start und Ziel quer über Österreich
+        int n = 200_000;
+        Random random = new Random(7);
+        double[] lats = new double[n];
+        double[] lons = new double[n];
+        for (int i = 0; i < n; i++) {
+            lats[i] = 46.4 + random.nextDouble() * 2.6;
+            lons[i] = 9.5 + random.nextDouble() * 7.5;
+        }
+        ClusterIndex index = new ClusterIndex(lats, lons);
+        assertEquals(n, index.getPointCount());
+
+        // Ganz Österreich im Fenster (ca. 1000 x 600 px bei Zoom 7)
+        List<ClusterIndex.Cluster> overview = index.getClusters(46.4, 9.5, 49.0, 17.0, 7);
+        assertEquals(n, total(overview));
+        assertTrue(overview.size() < 300, "clusters " + overview.size());
+
+        // Stadtansicht: nur sichtbare Zellen, Summe passt zu den Punkten im Fenster
+        List<ClusterIndex.Cluster> city = index.getClusters(48.15, 16.25, 48.30, 16.50, 12);
+        assertTrue(city.size() < 300, "clusters " + city.size());
+        assertTrue(total(city) > 0);
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.tourplanner.business.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CorridorIndexTest {
+
+    // Hallstatt
+    private static final double LAT = 47.5622;
+    private static final double LON = 13.6493;
+
+    private static double[][] line(double fromLat, double fromLon, double toLat, double toLon, int points) {
+        double[][] result = new double[points][];
+        for (int i = 0; i < points; i++) {
+            double t = i / (double) (points - 1);
+            result[i] = new double[]{fromLat + t * (toLat - fromLat), fromLon + t * (toLon - fromLon)};
+        }
+        return result;
+    }
+
+    @Test
+    public void testRoutesPassingNearPointAreRankedByClosestApproach() {
+        CorridorIndex<String> index = new CorridorIndex<>(4);
+        // Nord-Süd durch den Ort, 1 km östlich vorbei, 10 km östlich vorbei
+        index.put("through", line(47.4, LON, 47.7, LON, 40));
+        index.put("east1km", line(47.4, LON + 0.0133, 47.7, LON + 0.0133, 40));
+        index.put("east10km", line(47.4, LON + 0.133, 47.7, LON + 0.133, 40));
+        // Endet 20 km vorher
+        index.put("before", line(47.0, LON, 47.38, LON, 40));
+
+        List<SpatialIndex.Hit<String>> hits = index.near(LAT, LON, 2);
+
+        assertEquals(2, hits.size());
+        assertEquals("through", hits.get(0).getKey());
+        assertEquals(0, hits.get(0).getDistanceKm(), 0.01);
+        assertEquals("east1km", hits.get(1).getKey());
+        assertEquals(1.0, hits.get(1).getDistanceKm(), 0.05);
+    }
+
+    @Test
+    public void testLongStraightSegmentIsFound() {
+        CorridorIndex<String> index = new CorridorIndex<>(2);
+        // Ein einziges Segment über 50 km, dessen Endpunkte weit weg liegen
+        index.put("straight", new double[][]{{LAT, LON - 0.35}, {LAT, LON + 0.35}});
+
+        assertEquals(1, index.near(LAT + 0.005, LON, 1).size());
+        assertTrue(index.near(LAT + 0.05, LON, 1).isEmpty());
+    }
+
+    @Test
+    public void testReplaceAndRemove() {
+        CorridorIndex<Long> index = new CorridorIndex<>(3);
+        index.put(1L, line(47.4, LON, 47.7, LON, 10));
+        index.put(1L, line(48.0, 16.0, 48.3, 16.4, 10));
+
+        assertEquals(1, index.size());
+        assertTrue(index.near(LAT, LON, 2).isEmpty());
+
+        index.put(2L, line(47.4, LON, 47.7, LON, 10));
+        assertTrue(index.remove(1L));
+        assertFalse(index.remove(1L));
+        assertEquals(List.of(2L), index.near(LAT, LON, 2).stream().map(SpatialIndex.Hit::getKey).toList());
+    }
+
+    @Test
+    public void testTensOfThousandsOfRoutesAnswerQuickly() {
+        Random random = new Random(5);
+        CorridorIndex<Integer> index = new CorridorIndex<>();
+        for (int r = 0; r < 20_000; r++) {
+            // Zufällige Routen mit ~300 Punkten über Österreich
+            double lat = 46.5 + random.nextDouble() * 2.4;
+            double lon = 9.6 + random.nextDouble() * 7.2;
+            double[][] points = new double[300][];
+            for (int i = 0; i < points.length; i++) {
+                lat += (random.nextDouble() - 0.45) * 0.004;
+                lon += (random.nextDouble() - 0.45) * 0.006;
+                points[i] = new double[]{lat, lon};
+            }
+            index.put(r, points);
+        }
+
+        index.near(LAT, LON, 2);
+        long start = System.nanoTime();
+        int found = 0;
+        for (int q = 0; q < 100; q++) {
+            found += index.near(46.5 + random.nextDouble() * 2.4, 9.6 + random.nextDouble() * 7.2, 2).size();
+        }
+        double millisPerQuery = (System.nanoTime() - start) / 1e6 / 100;
+
+        assertTrue(found > 0);
+        assertTrue(millisPerQuery < 50, "ms per query " + millisPerQuery);
+    }
+}
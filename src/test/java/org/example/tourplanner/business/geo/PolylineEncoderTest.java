@@ -0,0 +1,34 @@
+package org.example.tourplanner.business.geo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PolylineEncoderTest {
+
+    @Test
+    public void testKnownEncoding() {
+        // Beispiel aus der Dokumentation des Formats
+        double[][] points = {{38.5, -120.2}, {40.7, -120.95}, {43.252, -126.453}};
+
+        assertEquals("_p~iF~ps|U_ulLnnqC_mqNvxq`@", PolylineEncoder.encode(points));
+    }
+
+    @Test
+    public void testRoundTrip() {
+        double[][] points = {{47.0707, 15.4395}, {47.07071, 15.43951}, {48.2082, 16.3738}, {-33.9, 151.2}};
+
+        double[][] decoded = PolylineEncoder.decode(PolylineEncoder.encode(points));
+
+        assertEquals(points.length, decoded.length);
+        for (int i = 0; i < points.length; i++) {
+            assertEquals(points[i][0], decoded[i][0], 1e-5);
+            assertEquals(points[i][1], decoded[i][1], 1e-5);
+        }
+    }
+
+    @Test
+    public void testTruncatedInputIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PolylineEncoder.decode("_p~iF~ps|U_"));
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.tourplanner.business.geo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PolylineSimplifierTest {
+
+    @Test
+    public void testStraightLineKeepsOnlyEndpoints() {
+        double[][] line = new double[100][];
+        for (int i = 0; i < line.length; i++) {
+            line[i] = new double[]{47.0 + i * 0.001, 15.0};
+        }
+
+        double[][] simplified = PolylineSimplifier.simplify(line, 1.0);
+
+        assertEquals(2, simplified.length);
+        assertSame(line[0], simplified[0]);
+        assertSame(line[99], simplified[1]);
+    }
+
+    @Test
+    public void testCornerIsKept() {
+        double[][] line = {{47.0, 15.0}, {47.0, 15.01}, {47.01, 15.01}};
+
+        assertEquals(3, PolylineSimplifier.simplify(line, 10.0).length);
+        // Ecke liegt ca. 550 m neben der direkten Verbindung
+        assertEquals(2, PolylineSimplifier.simplify(line, 1000.0).length);
+    }
+
+    @Test
+    public void testZoomLevelsGrowWithDetail() {
+        double[][] route = wigglyRoute(50_000);
+        int[] levels = PolylineSimplifier.minZoomLevels(route, 1.0);
+
+        assertEquals(0, levels[0]);
+        assertEquals(0, levels[levels.length - 1]);
+        int visibleAtZoom8 = 0;
+        int visibleAtZoom16 = 0;
+        for (int level : levels) {
+            visibleAtZoom8 += level <= 8 ? 1 : 0;
+            visibleAtZoom16 += level <= 16 ? 1 : 0;
+        }
+        assertTrue(visibleAtZoom8 < visibleAtZoom16);
+        assertTrue(visibleAtZoom8 < 1000, "zoom 8: " + visibleAtZoom8);
+    }
+
+    @Test
+    public void testMapPolylineIsMuchSmallerThanRawCoordinates() {
+        double[][] route = wigglyRoute(50_000);
+
+        MapPolyline polyline = MapPolyline.of(route);
+
+        // Rohe JSON-Koordinaten brauchen ca. 40 Zeichen pro Punkt
+        assertTrue(polyline.getEncodedPoints().length() < route.length * 40 / 10,
+                "encoded length " + polyline.getEncodedPoints().length());
+        assertEquals(polyline.getPointCount(), polyline.getEncodedLevels().length());
+        assertEquals(polyline.getPointCount(), PolylineEncoder.decode(polyline.getEncodedPoints()).length);
+    }
+
+    // Wien -> Graz mit kleinen Kurven und Messrauschen
+    private static double[][] wigglyRoute(int n) {
+        double[][] points = new double[n][];
+        java.util.Random random = new java.util.Random(42);
+        for (int i = 0; i < n; i++) {
+            double t = i / (double) (n - 1);
+            points[i] = new double[]{
+                    48.2082 + (47.0707 - 48.2082) * t + 0.01 * Math.sin(t * 60) + random.nextGaussian() * 1e-6,
+                    16.3738 + (15.4395 - 16.3738) * t + 0.01 * Math.cos(t * 45) + random.nextGaussian() * 1e-6};
+        }
+        return points;
+    }
+}
@@ -0,0 +1,131 @@
+package org.example.tourplanner.business.geo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RouteGeometryStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testPutAndGetAcrossReopen() throws Exception {
+        Path file = tempDir.resolve("routes.bin");
+        double[][] route = zigzagRoute(500, 0);
+        long key = RouteGeometryStore.keyFor("Wien", "Graz", "Car");
+
+        RouteGeometryStore store = new RouteGeometryStore(file);
+        store.put(key, route);
+        assertRouteEquals(route, store.get(key));
+        store.close();
+
+        RouteGeometryStore reopened = new RouteGeometryStore(file);
+        assertEquals(1, reopened.size());
+        assertRouteEquals(route, reopened.get(key));
+        assertNull(reopened.get(RouteGeometryStore.keyFor("Wien", "Linz", "Car")));
+    }
+
+    @Test
+    public void testKeyIgnoresCaseAndWhitespace() {
+        assertEquals(RouteGeometryStore.keyFor("Wien", "Graz", "Car"),
+                RouteGeometryStore.keyFor(" wien", "GRAZ ", "car"));
+        assertNotEquals(RouteGeometryStore.keyFor("Wien", "Graz", "Car"),
+                RouteGeometryStore.keyFor("Graz", "Wien", "Car"));
+    }
+
+    @Test
+    public void testLaterRecordReplacesEarlierOne() throws Exception {
+        RouteGeometryStore store = new RouteGeometryStore(tempDir.resolve("routes.bin"));
+        long key = 42;
+        store.put(key, zigzagRoute(10, 0));
+        double[][] updated = zigzagRoute(20, 0.01);
+        store.put(key, updated);
+
+        assertEquals(1, store.size());
+        assertRouteEquals(updated, store.get(key));
+
+        long before = store.getFileSize();
+        store.compact();
+        assertTrue(store.getFileSize() < before);
+        assertRouteEquals(updated, store.get(key));
+    }
+
+    @Test
+    public void testTornRecordAtEndIsDropped() throws Exception {
+        Path file = tempDir.resolve("routes.bin");
+        RouteGeometryStore store = new RouteGeometryStore(file);
+        store.put(1, zigzagRoute(50, 0));
+        store.put(2, zigzagRoute(50, 0.5));
+        long complete = store.getFileSize();
+        store.close();
+
+        // Schreibvorgang mitten im zweiten Datensatz abgebrochen
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(complete - 7);
+        }
+
+        RouteGeometryStore reopened = new RouteGeometryStore(file);
+        assertNotNull(reopened.get(1));
+        assertNull(reopened.get(2));
+        reopened.put(3, zigzagRoute(5, 1));
+        assertNotNull(reopened.get(3));
+        assertEquals(2, reopened.size());
+    }
+
+    @Test
+    public void testThousandsOfRoutesFitInAFewMegabytes() throws Exception {
+        Path file = tempDir.resolve("routes.bin");
+        RouteGeometryStore store = new RouteGeometryStore(file);
+        for (int i = 0; i < 2000; i++) {
+            store.put(i, zigzagRoute(1000, i * 0.001));
+        }
+
+        assertEquals(2000, store.size());
+        assertTrue(Files.size(file) < 8 * 1024 * 1024, "size " + Files.size(file));
+        assertRouteEquals(zigzagRoute(1000, 1.234), store.get(1234));
+    }
+
+    @Test
+    public void testRejectsForeignFile() throws Exception {
+        Path file = tempDir.resolve("other.bin");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+
+        assertThrows(java.io.IOException.class, () -> new RouteGeometryStore(file));
+    }
+
+    // Straßenähnlicher Verlauf: kleine Schritte mit Richtungswechseln, ~30 m pro Punkt
+    private static double[][] zigzagRoute(int n, double offset) {
+        double[][] points = new double[n][];
+        for (int i = 0; i < n; i++) {
+            points[i] = new double[]{
+                    47.0 + offset + i * 0.0002 + (i % 7) * 0.00005,
+                    15.4 + offset + i * 0.0003 - (i % 5) * 0.00007};
+        }
+        return points;
+    }
+
+    private static void assertRouteEquals(double[][] expected, double[][] actual) {
+        assertNotNull(actual);
+        // Gespeichert wird vereinfacht: Endpunkte bleiben, Abweichung unter einem Meter
+        assertEquals(expected[0][0], actual[0][0], 1e-6);
+        assertEquals(expected[0][1], actual[0][1], 1e-6);
+        assertEquals(expected[expected.length - 1][0], actual[actual.length - 1][0], 1e-6);
+        assertEquals(expected[expected.length - 1][1], actual[actual.length - 1][1], 1e-6);
+        assertTrue(actual.length <= expected.length);
+        for (double[] point : expected) {
+            double nearest = Double.MAX_VALUE;
+            for (double[] candidate : actual) {
+                nearest = Math.min(nearest, GeoMath.haversineMeters(point[0], point[1], candidate[0], candidate[1]));
+            }
+            // Nur Punkte auf einer geraden Linie dürfen fehlen
+            assertTrue(nearest < 100, "point too far from stored route: " + nearest);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.tourplanner.business.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpatialIndexTest {
+
+    private static SpatialIndex<String> cities() {
+        SpatialIndex<String> index = new SpatialIndex<>();
+        index.put("Wien", 48.2082, 16.3738);
+        index.put("Graz", 47.0707, 15.4395);
+        index.put("Linz", 48.3069, 14.2858);
+        index.put("Wels", 48.1597, 14.0264);
+        index.put("Salzburg", 47.8095, 13.0550);
+        return index;
+    }
+
+    @Test
+    public void testRadiusQueryIsSortedByDistance() {
+        SpatialIndex<String> index = cities();
+
+        List<SpatialIndex.Hit<String>> hits = index.withinRadius(48.3069, 14.2858, 30);
+
+        assertEquals(2, hits.size());
+        assertEquals("Linz", hits.get(0).getKey());
+        assertEquals("Wels", hits.get(1).getKey());
+        assertEquals(23, hits.get(1).getDistanceKm(), 3);
+    }
+
+    @Test
+    public void testBoxQuery() {
+        SpatialIndex<String> index = cities();
+
+        List<String> inBox = index.withinBox(47.5, 13.5, 48.5, 16.5);
+
+        assertEquals(3, inBox.size());
+        assertTrue(inBox.containsAll(List.of("Wien", "Linz", "Wels")));
+    }
+
+    @Test
+    public void testUpdateMovesAndRemoveDeletesPoint() {
+        SpatialIndex<String> index = cities();
+
+        index.put("Linz", 47.0707, 15.4395);
+        assertTrue(index.withinRadius(48.3069, 14.2858, 5).isEmpty());
+        assertEquals(2, index.withinRadius(47.0707, 15.4395, 1).size());
+
+        assertTrue(index.remove("Graz"));
+        assertFalse(index.remove("Graz"));
+        assertEquals(4, index.size());
+        assertEquals("Linz", index.withinRadius(47.0707, 15.4395, 1).get(0).getKey());
+    }
+
+    @Test
+    public void testNearestFindsFarPointsAcrossEmptyCells() {
+        SpatialIndex<String> index = cities();
+        index.put("Paris", 48.8566, 2.3522);
+
+        List<SpatialIndex.Hit<String>> nearest = index.nearest(48.85, 2.35, 2);
+
+        assertEquals(2, nearest.size());
+        assertEquals("Paris", nearest.get(0).getKey());
+        assertEquals("Salzburg", nearest.get(1).getKey());
+    }
+
+    @Test
+    public void testNearestMatchesBruteForce() {
+        Random random = new Random(11);
+        SpatialIndex<Integer> index = new SpatialIndex<>();
+        List<double[]> points = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            double[] point = {46.4 + random.nextDouble() * 2.6, 9.5 + random.nextDouble() * 7.5};
+            points.add(point);
+            index.put(i, point[0], point[1]);
+        }
+
+        for (int q = 0; q < 20; q++) {
+            double lat = 46.4 + random.nextDouble() * 2.6;
+            double lon = 9.5 + random.nextDouble() * 7.5;
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < points.size(); i++) {
+                expected.add(i);
+            }
+            expected.sort(Comparator.comparingDouble(i ->
+                    GeoMath.haversineMeters(lat, lon, points.get(i)[0], points.get(i)[1])));
+
+            List<SpatialIndex.Hit<Integer>> hits = index.nearest(lat, lon, 10);
+            assertEquals(10, hits.size());
+            for (int k = 0; k < 10; k++) {
+                assertEquals(expected.get(k), hits.get(k).getKey());
+            }
+        }
+    }
+}
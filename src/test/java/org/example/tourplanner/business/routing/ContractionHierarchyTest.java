@@ -0,0 +1,99 @@
+package org.example.tourplanner.business.routing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContractionHierarchyTest {
+
+    private RoadGraph graph;
+    private NodeLocator locator;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        // Kleiner 5x5-Straßengraph bei Graz mit verschiedenen Straßentypen
+        graph = OsmGraphImporter.importFile(samplePath());
+        locator = new NodeLocator(graph);
+    }
+
+    static Path samplePath() throws URISyntaxException {
+        return Paths.get(ContractionHierarchyTest.class.getResource("sample-graph.osm").toURI());
+    }
+
+    private int nodeAt(int row, int col) {
+        return locator.nearest(47.07 + row * 0.005, 15.43 + col * 0.005, node -> true);
+    }
+
+    @Test
+    public void testImportOnlyKeepsRoadNodes() {
+        assertEquals(25, graph.nodeCount());
+        assertTrue(graph.edgeCount() > 0);
+    }
+
+    @Test
+    public void testHierarchyMatchesDijkstra() {
+        for (TransportProfile profile : TransportProfile.values()) {
+            ContractionHierarchy hierarchy = ContractionHierarchy.build(graph, profile);
+            DijkstraSearch dijkstra = new DijkstraSearch(graph, profile);
+
+            for (int source = 0; source < graph.nodeCount(); source++) {
+                for (int target = 0; target < graph.nodeCount(); target++) {
+                    OfflinePath expected = dijkstra.route(source, target);
+                    OfflinePath actual = hierarchy.route(source, target);
+
+                    if (expected == null) {
+                        assertNull(actual, profile + " " + source + " -> " + target);
+                        continue;
+                    }
+                    assertNotNull(actual, profile + " " + source + " -> " + target);
+                    assertEquals(expected.getTravelTimeDs(), actual.getTravelTimeDs(), profile + " " + source + " -> " + target);
+                    assertEquals(expected.getTravelTimeDs(), pathWeight(actual.getNodes(), profile));
+                    assertEquals(source, actual.getNodes()[0]);
+                    assertEquals(target, actual.getNodes()[actual.getNodes().length - 1]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCarRespectsOneway() {
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph, TransportProfile.CAR);
+
+        // Autobahn in Zeile 2 ist nur Richtung Osten befahrbar
+        OfflinePath east = hierarchy.route(nodeAt(2, 0), nodeAt(2, 4));
+        OfflinePath west = hierarchy.route(nodeAt(2, 4), nodeAt(2, 0));
+
+        assertNotNull(east);
+        assertNotNull(west);
+        assertEquals(5, east.getNodes().length);
+        assertTrue(west.getTravelTimeDs() > east.getTravelTimeDs());
+    }
+
+    @Test
+    public void testCarCannotUseFootwaysAndCycleways() {
+        // Knoten (4,2) liegt nur an Fußweg und Radweg
+        assertFalse(graph.isAccessible(nodeAt(4, 2), TransportProfile.CAR));
+        assertTrue(graph.isAccessible(nodeAt(4, 2), TransportProfile.WALKING));
+        assertTrue(graph.isAccessible(nodeAt(4, 2), TransportProfile.BICYCLE));
+    }
+
+    private long pathWeight(int[] nodes, TransportProfile profile) {
+        long total = 0;
+        for (int i = 0; i < nodes.length - 1; i++) {
+            int best = RoadGraph.UNREACHABLE;
+            for (int e = graph.firstEdge(nodes[i]); e < graph.firstEdge(nodes[i] + 1); e++) {
+                if (graph.edgeTarget(e) == nodes[i + 1]) {
+                    best = Math.min(best, graph.edgeWeight(e, profile));
+                }
+            }
+            assertNotEquals(RoadGraph.UNREACHABLE, best);
+            total += best;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.tourplanner.business.routing;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IsochroneCalculatorTest {
+
+    private RoadGraph graph;
+    private IsochroneCalculator calculator;
+    private int center;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        graph = OsmGraphImporter.importFile(ContractionHierarchyTest.samplePath());
+        calculator = new IsochroneCalculator(graph);
+        center = new NodeLocator(graph).nearest(47.08, 15.44, node -> true);
+    }
+
+    @Test
+    public void testReachableMatchesDijkstra() {
+        IsochroneCalculator.ReachableSet set = calculator.reachable(center, TransportProfile.BICYCLE, Integer.MAX_VALUE - 1);
+        DijkstraSearch dijkstra = new DijkstraSearch(graph, TransportProfile.BICYCLE);
+
+        int[] nodes = set.getNodes();
+        int[] times = set.getTimes();
+        for (int i = 0; i < nodes.length; i++) {
+            OfflinePath path = dijkstra.route(center, nodes[i]);
+            assertNotNull(path);
+            assertEquals(path.getTravelTimeDs(), times[i]);
+            // Zeiten sind aufsteigend sortiert
+            assertTrue(i == 0 || times[i - 1] <= times[i]);
+        }
+    }
+
+    @Test
+    public void testBudgetsArePrefixesOfOneSearch() {
+        IsochroneCalculator.ReachableSet set = calculator.reachable(center, TransportProfile.WALKING, 6000);
+        int small = set.countWithin(1800);
+        int large = set.countWithin(6000);
+
+        assertTrue(small >= 1);
+        assertTrue(small <= large);
+        assertEquals(set.getNodes().length, large);
+        assertEquals(center, set.getNodes()[0]);
+        for (int i = 0; i < large; i++) {
+            assertTrue(set.getTimes()[i] <= 6000);
+        }
+    }
+
+    @Test
+    public void testOutlineGrowsWithBudget() {
+        IsochroneCalculator.ReachableSet set = calculator.reachable(center, TransportProfile.CAR, 36000);
+
+        double[][] full = calculator.outline(set, 36000);
+        assertTrue(full.length >= 3);
+        assertEquals(0, calculator.outline(set, 0).length);
+        for (double[] point : full) {
+            assertTrue(point[0] >= 47.069 && point[0] <= 47.091);
+            assertTrue(point[1] >= 15.429 && point[1] <= 15.451);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.tourplanner.business.routing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoadGraphFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testWriteAndMapRoundTrip() throws Exception {
+        RoadGraph imported = OsmGraphImporter.importFile(ContractionHierarchyTest.samplePath());
+        Path file = tempDir.resolve("sample.graph");
+
+        RoadGraphFile.write(imported, file);
+        assertTrue(RoadGraphFile.isGraphFile(file));
+
+        RoadGraph mapped = RoadGraphFile.open(file);
+        assertEquals(imported.nodeCount(), mapped.nodeCount());
+        assertEquals(imported.edgeCount(), mapped.edgeCount());
+        for (int node = 0; node < imported.nodeCount(); node++) {
+            assertEquals(imported.latitudeE7(node), mapped.latitudeE7(node));
+            assertEquals(imported.longitudeE7(node), mapped.longitudeE7(node));
+            assertEquals(imported.firstEdge(node), mapped.firstEdge(node));
+        }
+        for (int edge = 0; edge < imported.edgeCount(); edge++) {
+            assertEquals(imported.edgeTarget(edge), mapped.edgeTarget(edge));
+            assertEquals(imported.edgeDistance(edge), mapped.edgeDistance(edge));
+            for (TransportProfile profile : TransportProfile.values()) {
+                assertEquals(imported.edgeWeight(edge, profile), mapped.edgeWeight(edge, profile));
+            }
+        }
+    }
+
+    @Test
+    public void testHierarchyOnMappedGraph() throws Exception {
+        Path file = tempDir.resolve("sample.graph");
+        RoadGraphFile.write(OsmGraphImporter.importFile(ContractionHierarchyTest.samplePath()), file);
+        RoadGraph mapped = RoadGraphFile.open(file);
+
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(mapped, TransportProfile.BICYCLE);
+        DijkstraSearch dijkstra = new DijkstraSearch(mapped, TransportProfile.BICYCLE);
+
+        OfflinePath expected = dijkstra.route(0, mapped.nodeCount() - 1);
+        OfflinePath actual = hierarchy.route(0, mapped.nodeCount() - 1);
+        assertNotNull(actual);
+        assertEquals(expected.getTravelTimeDs(), actual.getTravelTimeDs());
+    }
+
+    @Test
+    public void testRejectsOtherFiles() throws Exception {
+        Path file = tempDir.resolve("not-a-graph.graph");
+        Files.writeString(file, "<osm></osm>");
+
+        assertFalse(RoadGraphFile.isGraphFile(file));
+        assertThrows(IOException.class, () -> RoadGraphFile.open(file));
+    }
+}
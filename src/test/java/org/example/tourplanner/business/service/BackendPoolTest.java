@@ -0,0 +1,268 @@
+package org.example.tourplanner.business.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.classic.methods.HttpPut;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.example.tourplanner.config.HttpClientConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BackendPoolTest {
+
+    /**
+     * One backend replica answering every request under /api with a settable status and delay
+     */
+    private static class StubBackend {
+        final HttpServer server;
+        final AtomicInteger hits = new AtomicInteger();
+        volatile int status = 200;
+        volatile long delayMs;
+        volatile String body;
+
+        StubBackend() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/api", exchange -> {
+                exchange.getRequestBody().readAllBytes();
+                if (!exchange.getRequestURI().getPath().endsWith("/health")) {
+                    hits.incrementAndGet();
+                }
+                try {
+                    Thread.sleep(delayMs);
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                }
+                byte[] bytes = body != null ? body.getBytes(StandardCharsets.UTF_8) : null;
+                exchange.sendResponseHeaders(status, bytes != null ? bytes.length : -1);
+                if (bytes != null) {
+                    exchange.getResponseBody().write(bytes);
+                }
+                exchange.close();
+            });
+            server.start();
+        }
+
+        String baseUrl() {
+            return "http://127.0.0.1:" + server.getAddress().getPort() + "/api";
+        }
+    }
+
+    private final List<StubBackend> backends = new ArrayList<>();
+    private final CloseableHttpClient httpClient = HttpClientConfig.createBackendClient();
+
+    private StubBackend backend() throws IOException {
+        StubBackend backend = new StubBackend();
+        backends.add(backend);
+        return backend;
+    }
+
+    @AfterEach
+    public void stopBackends() {
+        for (StubBackend backend : backends) {
+            backend.server.stop(0);
+        }
+    }
+
+    private static int get(BackendPool pool, CloseableHttpClient httpClient, String url) throws IOException {
+        try (CloseableHttpResponse response = pool.execute(httpClient, new HttpGet(url))) {
+            return response.getCode();
+        }
+    }
+
+    @Test
+    public void testPrefersTheFasterBackend() throws Exception {
+        StubBackend fast = backend();
+        StubBackend slow = backend();
+        slow.delayMs = 40;
+        BackendPool pool = new BackendPool(List.of(slow.baseUrl(), fast.baseUrl()), "/health");
+        // Die Gesundheitsprüfungen messen beide, die erste Verbindung ist immer langsam
+        for (int i = 0; i < 3; i++) {
+            pool.probe();
+        }
+
+        for (int i = 0; i < 40; i++) {
+            assertEquals(200, get(pool, httpClient, slow.baseUrl() + "/tours/" + i));
+        }
+
+        assertEquals(40, fast.hits.get() + slow.hits.get());
+        assertTrue(fast.hits.get() >= 35, "fast backend got " + fast.hits.get());
+        assertTrue(pool.getNodes().get(0).getLatencyMillis() > pool.getNodes().get(1).getLatencyMillis());
+    }
+
+    @Test
+    public void testFailsOverAndEjectsAnUnreachableBackend() throws Exception {
+        StubBackend live = backend();
+        StubBackend dead = backend();
+        dead.server.stop(0);
+        BackendPool pool = new BackendPool(List.of(dead.baseUrl(), live.baseUrl()), "/health");
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, get(pool, httpClient, dead.baseUrl() + "/tours"));
+        }
+
+        assertEquals(10, live.hits.get());
+        BackendNode deadNode = pool.getNodes().get(0);
+        assertTrue(deadNode.isEjected());
+        assertEquals(BackendNode.EJECT_AFTER_FAILURES, deadNode.getFailures());
+        assertEquals(0, deadNode.getOutstanding());
+    }
+
+    @Test
+    public void testOnlyIdempotentRequestsAreRepeated() throws Exception {
+        StubBackend unavailable = backend();
+        StubBackend healthy = backend();
+        unavailable.status = 503;
+        BackendPool pool = new BackendPool(List.of(unavailable.baseUrl(), healthy.baseUrl()), "/health");
+
+        int refused = 0;
+        for (int i = 0; i < 10; i++) {
+            try (CloseableHttpResponse response = pool.execute(httpClient, new HttpPost(healthy.baseUrl() + "/tours"))) {
+                refused += response.getCode() == 503 ? 1 : 0;
+            }
+        }
+        // Ein Anlegen ohne Idempotenzschlüssel darf nicht doppelt ankommen
+        assertEquals(10, unavailable.hits.get() + healthy.hits.get());
+        assertEquals(unavailable.hits.get(), refused);
+
+        BackendPool fresh = new BackendPool(List.of(unavailable.baseUrl(), healthy.baseUrl()), "/health");
+        for (int i = 0; i < 5; i++) {
+            HttpPost create = new HttpPost(healthy.baseUrl() + "/tours");
+            create.setHeader("Idempotency-Key", "key-" + i);
+            try (CloseableHttpResponse response = fresh.execute(httpClient, create)) {
+                assertEquals(200, response.getCode());
+            }
+        }
+    }
+
+    @Test
+    public void testConditionalUpdatesAreNotRepeated() throws Exception {
+        StubBackend unavailable = backend();
+        StubBackend healthy = backend();
+        unavailable.status = 503;
+        BackendPool pool = new BackendPool(List.of(unavailable.baseUrl(), healthy.baseUrl()), "/health");
+
+        for (int i = 0; i < 10; i++) {
+            HttpPut update = new HttpPut(healthy.baseUrl() + "/tours/1");
+            update.setHeader("If-Match", "\"v1\"");
+            try (CloseableHttpResponse response = pool.execute(httpClient, update)) {
+                assertTrue(response.getCode() == 200 || response.getCode() == 503);
+            }
+        }
+        // Eine Wiederholung träfe auf die eben geschriebene Version und endete mit 412
+        assertEquals(10, unavailable.hits.get() + healthy.hits.get());
+    }
+
+    @Test
+    public void testHealthChecksEjectAndReadmit() throws Exception {
+        StubBackend flaky = backend();
+        StubBackend healthy = backend();
+        BackendPool pool = new BackendPool(List.of(flaky.baseUrl(), healthy.baseUrl()), "/health");
+        BackendNode flakyNode = pool.getNodes().get(0);
+
+        flaky.status = 503;
+        for (int i = 0; i < BackendNode.EJECT_AFTER_FAILURES; i++) {
+            pool.probe();
+        }
+        assertTrue(flakyNode.isEjected());
+        assertFalse(pool.getNodes().get(1).isEjected());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, get(pool, httpClient, flaky.baseUrl() + "/tours"));
+        }
+        assertEquals(0, flaky.hits.get());
+
+        flaky.status = 200;
+        pool.probe();
+        assertFalse(flakyNode.isEjected());
+    }
+
+    @Test
+    public void testTimeoutFollowsObservedResponseTimes() throws Exception {
+        StubBackend backend = backend();
+        BackendPool pool = new BackendPool(List.of(backend.baseUrl()), "/health");
+        assertEquals(AdaptiveTimeout.MAX_TIMEOUT_MS, pool.getTimeoutMillis(EndpointClass.TOURS));
+
+        for (int i = 0; i < AdaptiveTimeout.MIN_SAMPLES; i++) {
+            assertEquals(200, get(pool, httpClient, backend.baseUrl() + "/tours/" + i));
+        }
+        assertEquals(AdaptiveTimeout.MIN_TIMEOUT_MS, pool.getTimeoutMillis(EndpointClass.TOURS));
+        // Andere Klassen haben noch nichts gelernt
+        assertEquals(AdaptiveTimeout.MAX_TIMEOUT_MS, pool.getTimeoutMillis(EndpointClass.REPORTS));
+
+        backend.delayMs = 4_000;
+        long start = System.nanoTime();
+        assertThrows(IOException.class, () -> get(pool, httpClient, backend.baseUrl() + "/tours"));
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 3_500);
+        assertEquals(1, pool.getLimiter().getDropped());
+        assertEquals(0, pool.getLimiter().getInFlight());
+    }
+
+    @Test
+    public void testRequestsOverTheLimitAreRefused() throws Exception {
+        StubBackend backend = backend();
+        backend.delayMs = 500;
+        BackendPool pool = new BackendPool(List.of(backend.baseUrl()), "/health", new ConcurrencyLimiter(1, 0, 0));
+
+        Thread first = new Thread(() -> {
+            try {
+                get(pool, httpClient, backend.baseUrl() + "/reports/summary");
+            } catch (IOException ignored) {
+            }
+        });
+        first.start();
+        while (pool.getLimiter().getInFlight() == 0) {
+            Thread.sleep(1);
+        }
+        assertThrows(IOException.class, () -> get(pool, httpClient, backend.baseUrl() + "/tours"));
+        first.join(5000);
+
+        assertEquals(1, pool.getLimiter().getRejected());
+        assertEquals(1, backend.hits.get());
+        assertTrue(pool.getStatistics().contains("1 refused"));
+    }
+
+    @Test
+    public void testSlotIsHeldUntilTheBodyIsRead() throws Exception {
+        StubBackend backend = backend();
+        backend.body = "[]";
+        BackendPool pool = new BackendPool(List.of(backend.baseUrl()), "/health");
+
+        try (CloseableHttpResponse response = pool.execute(httpClient, new HttpGet(backend.baseUrl() + "/tours"))) {
+            assertEquals(1, pool.getLimiter().getInFlight());
+            assertEquals(1, pool.getNodes().get(0).getOutstanding());
+            assertEquals("[]", EntityUtils.toString(response.getEntity()));
+            assertEquals(0, pool.getLimiter().getInFlight());
+        }
+        assertEquals(0, pool.getLimiter().getInFlight());
+        assertEquals(0, pool.getNodes().get(0).getOutstanding());
+
+        // Ohne gelesenen Inhalt gibt erst das Schließen frei
+        CloseableHttpResponse unread = pool.execute(httpClient, new HttpGet(backend.baseUrl() + "/tours"));
+        assertEquals(1, pool.getLimiter().getInFlight());
+        unread.close();
+        assertEquals(0, pool.getLimiter().getInFlight());
+    }
+
+    @Test
+    public void testOtherHostsAreNotBalanced() throws Exception {
+        StubBackend backend = backend();
+        StubBackend elsewhere = backend();
+        BackendPool pool = new BackendPool(List.of(backend.baseUrl()), "/health");
+
+        assertEquals(200, get(pool, httpClient, elsewhere.baseUrl() + "/tiles/1"));
+
+        assertEquals(1, elsewhere.hits.get());
+        assertEquals(0, pool.getNodes().get(0).getRequests());
+    }
+}
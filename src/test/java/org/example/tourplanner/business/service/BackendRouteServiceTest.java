@@ -0,0 +1,133 @@
+package org.example.tourplanner.business.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.example.tourplanner.config.HttpClientConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BackendRouteServiceTest {
+    private static final String ROUTE_JSON =
+            "{\"success\":true,\"distance\":191.5,\"estimatedTime\":125,\"message\":\"Calculated\"}";
+
+    private HttpServer server;
+    private final AtomicInteger hits = new AtomicInteger();
+    // Fehler, die der Stub einstreut
+    private final AtomicInteger failNext = new AtomicInteger();
+    private final AtomicInteger slowNext = new AtomicInteger();
+    private volatile int failureStatus = 503;
+    private volatile long slowMs = 1500;
+
+    @BeforeEach
+    public void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/api/routes/calculate", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            hits.incrementAndGet();
+            if (slowNext.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                try {
+                    Thread.sleep(slowMs);
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failNext.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                exchange.sendResponseHeaders(failureStatus, -1);
+            } else {
+                byte[] body = ROUTE_JSON.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            }
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void stopStub() {
+        server.stop(0);
+    }
+
+    private BackendRouteService service(CircuitBreaker breaker, boolean hedging) {
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/api";
+        return new BackendRouteService(HttpClientConfig.createBackendClient(), baseUrl, breaker, hedging, 3, 10);
+    }
+
+    @Test
+    public void testServerErrorsAreRetried() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 5, 60_000);
+        BackendRouteService service = service(breaker, false);
+        failNext.set(2);
+
+        BackendRouteService.RouteCalculationResult result = service.calculateRoute("Vienna", "Graz", "Car");
+
+        assertTrue(result.isSuccess());
+        assertEquals(191.5, result.getDistance());
+        assertEquals(3, hits.get());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testClientErrorIsNotRetried() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 5, 60_000);
+        BackendRouteService service = service(breaker, false);
+        failureStatus = 400;
+        failNext.set(5);
+
+        assertFalse(service.calculateRoute("Vienna", "Nowhere", "Car").isSuccess());
+        assertEquals(1, hits.get());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testOpenCircuitFailsFastAndFallsBack() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 3, 60_000);
+        BackendRouteService service = service(breaker, false);
+        failNext.set(Integer.MAX_VALUE);
+
+        assertFalse(service.calculateRoute("Vienna", "Graz", "Car").isSuccess());
+        assertEquals(3, hits.get());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(service.isAvailable());
+
+        long start = System.nanoTime();
+        assertFalse(service.calculateRoute("Vienna", "Graz", "Car").isSuccess());
+        BackendRouteService.RouteCalculationResult fallback = RouteProviders
+                .fallback(service, new LocalRouteEstimator())
+                .calculateRoute("48.2082,16.3738", "47.0707,15.4395", "Car");
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 500);
+
+        assertTrue(fallback.isSuccess());
+        assertEquals("Estimated from straight-line distance", fallback.getMessage());
+        assertEquals(3, hits.get());
+        assertEquals(1, breaker.getRejected());
+    }
+
+    @Test
+    public void testSlowAnswerIsHedged() {
+        BackendRouteService service = service(new CircuitBreaker("test", 5, 60_000), true);
+        for (int i = 0; i < ResilientCall.HEDGE_MIN_SAMPLES; i++) {
+            assertTrue(service.calculateRoute("Vienna", "Graz", "Car").isSuccess());
+        }
+        slowNext.set(1);
+
+        long start = System.nanoTime();
+        BackendRouteService.RouteCalculationResult result = service.calculateRoute("Vienna", "Graz", "Car");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(result.isSuccess());
+        assertTrue(elapsedMs < slowMs, "took " + elapsedMs + " ms");
+        assertEquals(ResilientCall.HEDGE_MIN_SAMPLES + 2, hits.get());
+        assertTrue(service.getStatistics().contains("1 hedged (1 answered first)"), service.getStatistics());
+    }
+}
@@ -0,0 +1,184 @@
+package org.example.tourplanner.business.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.example.tourplanner.config.HttpClientConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchExecutorTest {
+
+    private HttpServer server;
+    private final List<String> requestBodies = Collections.synchronizedList(new ArrayList<>());
+    private int status = 200;
+    private String responseBody;
+
+    @BeforeEach
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/tours/batch", exchange -> {
+            requestBodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            byte[] body = responseBody != null ? responseBody.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length > 0 ? body.length : -1);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    private String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api/tours/batch";
+    }
+
+    @Test
+    public void testSendsChunksAndReportsProgress() {
+        BatchExecutor executor = new BatchExecutor("tours");
+        List<Integer> items = IntStream.range(0, 250).boxed().toList();
+        List<Integer> chunkSizes = new ArrayList<>();
+        List<Integer> progress = new ArrayList<>();
+
+        BatchResult<String> result = executor.run(items, chunk -> {
+            chunkSizes.add(chunk.size());
+            BatchResult<String> chunkResult = new BatchResult<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                if (chunk.get(i) == 42) {
+                    chunkResult.failed(i, "Invalid", 422);
+                } else {
+                    chunkResult.succeeded(i, "#" + chunk.get(i), 201);
+                }
+            }
+            return chunkResult;
+        }, item -> {
+            throw new AssertionError("No single requests expected");
+        }, (done, total) -> progress.add(done));
+
+        assertEquals(List.of(100, 100, 50), chunkSizes);
+        assertEquals(List.of(100, 200, 250), progress);
+        assertEquals(249, result.getSucceededCount());
+        assertEquals("#249", result.get(249));
+        assertEquals(422, result.getStatus(42));
+        assertEquals("Invalid", result.getError(42));
+    }
+
+    @Test
+    public void testFallsBackToParallelSingleRequests() {
+        BatchExecutor executor = new BatchExecutor("tours");
+        AtomicInteger batchCalls = new AtomicInteger();
+        AtomicInteger lastProgress = new AtomicInteger();
+        List<Long> items = List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L);
+
+        BatchResult<Boolean> result = executor.run(items, chunk -> {
+            batchCalls.incrementAndGet();
+            return null;
+        }, id -> id != 4L, (done, total) -> lastProgress.accumulateAndGet(done, Math::max));
+        executor.run(items, chunk -> {
+            batchCalls.incrementAndGet();
+            return null;
+        }, id -> true, BatchProgress.NONE);
+
+        // Nach der ersten Absage wird der Batch-Endpunkt vorerst nicht mehr versucht
+        assertEquals(1, batchCalls.get());
+        assertFalse(executor.isBatchSupported());
+        assertEquals(6, result.getSucceededCount());
+        assertFalse(result.isSucceeded(3));
+        assertFalse(result.isAnswered(3));
+        assertEquals(7, lastProgress.get());
+    }
+
+    @Test
+    public void testBatchEndpointIsTriedAgainLater() throws Exception {
+        BatchExecutor executor = new BatchExecutor("tours", 20);
+        AtomicInteger batchCalls = new AtomicInteger();
+        List<Long> items = List.of(1L, 2L);
+
+        executor.run(items, chunk -> {
+            batchCalls.incrementAndGet();
+            return null;
+        }, id -> true, BatchProgress.NONE);
+        assertFalse(executor.isBatchSupported());
+        Thread.sleep(40);
+
+        // Inzwischen kann ein anderes oder neueres Backend den Endpunkt haben
+        assertTrue(executor.isBatchSupported());
+        BatchResult<Boolean> result = executor.run(items, chunk -> {
+            batchCalls.incrementAndGet();
+            BatchResult<Boolean> chunkResult = new BatchResult<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                chunkResult.succeeded(i, Boolean.TRUE, 204);
+            }
+            return chunkResult;
+        }, id -> {
+            throw new AssertionError("No single requests expected");
+        }, BatchProgress.NONE);
+
+        assertEquals(2, batchCalls.get());
+        assertEquals(2, result.getSucceededCount());
+        assertTrue(executor.isBatchSupported());
+    }
+
+    @Test
+    public void testFailedChunkLeavesItemsUnanswered() {
+        BatchExecutor executor = new BatchExecutor("tours");
+
+        BatchResult<Boolean> result = executor.run(List.of(1L, 2L), chunk -> {
+            throw new IOException("Read timed out");
+        }, id -> {
+            throw new AssertionError("No single requests expected");
+        }, BatchProgress.NONE);
+
+        for (int i = 0; i < 2; i++) {
+            assertFalse(result.isSucceeded(i));
+            assertEquals(0, result.getStatus(i));
+            assertFalse(result.isAnswered(i));
+        }
+        assertTrue(executor.isBatchSupported());
+    }
+
+    @Test
+    public void testPostsOneRequestWithPerItemResults() throws IOException {
+        responseBody = """
+                {"results": [{"status": 204}, {"status": 404}, {"status": 403, "error": "Not your tour"}]}
+                """;
+        try (CloseableHttpClient client = HttpClientConfig.createBackendClient()) {
+            BatchResult<Boolean> result = BatchExecutor.post(client, new ObjectMapper(), url(), "delete",
+                    List.of(1L, 2L, 3L), (code, item) -> Boolean.TRUE);
+
+            assertEquals(1, requestBodies.size());
+            assertEquals("{\"operation\":\"delete\",\"items\":[1,2,3]}", requestBodies.get(0));
+            assertTrue(result.isSucceeded(0));
+            assertTrue(result.isSucceeded(1));
+            assertFalse(result.isSucceeded(2));
+            assertEquals(403, result.getStatus(2));
+            assertEquals("Not your tour", result.getError(2));
+            assertTrue(result.isAnswered(2));
+        }
+    }
+
+    @Test
+    public void testMissingEndpointGivesNull() throws IOException {
+        status = 404;
+        try (CloseableHttpClient client = HttpClientConfig.createBackendClient()) {
+            assertNull(BatchExecutor.post(client, new ObjectMapper(), url(), "delete",
+                    List.of(1L), (code, item) -> Boolean.TRUE));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.tourplanner.business.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local stand-in for the backend's /api/sync/events endpoint: keeps all published events,
+ * replays those after Last-Event-ID on connect and pushes new ones to open connections
+ */
+class ChangeEventStubServer implements AutoCloseable {
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "stub-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<String[]> events = new ArrayList<>();
+    private final List<String> lastEventIds = new CopyOnWriteArrayList<>();
+    private int generation;
+    private int status = 200;
+
+    ChangeEventStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/sync/events", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api/sync/events";
+    }
+
+    synchronized void setStatus(int status) {
+        this.status = status;
+    }
+
+    /**
+     * Stores the event with the next id and sends it to all connected clients
+     */
+    synchronized void publish(String type, String data) {
+        events.add(new String[]{String.valueOf(events.size() + 1), type, data});
+        notifyAll();
+    }
+
+    /**
+     * Ends all open connections, as a restarting backend or a broken network would
+     */
+    synchronized void dropConnections() {
+        generation++;
+        notifyAll();
+    }
+
+    /**
+     * Last-Event-ID header of every connection attempt (null if none was sent)
+     */
+    List<String> getLastEventIds() {
+        return lastEventIds;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String lastEventId = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+        lastEventIds.add(String.valueOf(lastEventId));
+        int code;
+        synchronized (this) {
+            code = status;
+        }
+        if (code != 200) {
+            exchange.sendResponseHeaders(code, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        try {
+            int sent = lastEventId != null ? Integer.parseInt(lastEventId) : 0;
+            int myGeneration;
+            synchronized (this) {
+                myGeneration = generation;
+            }
+            out.write(": connected\n\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            while (true) {
+                List<String[]> pending = new ArrayList<>();
+                synchronized (this) {
+                    while (sent >= events.size() && generation == myGeneration) {
+                        wait();
+                    }
+                    if (generation != myGeneration) {
+                        return;
+                    }
+                    pending.addAll(events.subList(sent, events.size()));
+                }
+                for (String[] event : pending) {
+                    String text = "id: " + event[0] + "\nevent: " + event[1] + "\ndata: " + event[2] + "\n\n";
+                    out.write(text.getBytes(StandardCharsets.UTF_8));
+                    sent++;
+                }
+                out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // Client hat die Verbindung geschlossen
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        dropConnections();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,135 @@
+package org.example.tourplanner.business.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChangeFeedClientTest {
+
+    private static final String TOUR = "{\"id\": %d, \"name\": \"%s\", \"fromLocation\": \"Wien\", "
+            + "\"toLocation\": \"Graz\", \"transportType\": \"Car\", \"updatedAt\": \"2024-09-01T12:00:00\"}";
+
+    private ChangeEventStubServer server;
+    private ChangeFeedClient client;
+    private final BlockingQueue<TourChanges> received = new LinkedBlockingQueue<>();
+    private final AtomicInteger resyncs = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new ChangeEventStubServer();
+        client = new ChangeFeedClient(server.url(), 20);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        client.stop();
+        server.close();
+    }
+
+    private void start() {
+        client.start(new ChangeFeedClient.Listener() {
+            @Override
+            public void changed(TourChanges changes) {
+                received.add(changes);
+            }
+
+            @Override
+            public void resync() {
+                resyncs.incrementAndGet();
+            }
+        });
+    }
+
+    private TourChanges next() throws InterruptedException {
+        TourChanges changes = received.poll(5, TimeUnit.SECONDS);
+        assertNotNull(changes, "no event received");
+        return changes;
+    }
+
+    @Test
+    public void testEventsArriveAsChanges() throws Exception {
+        start();
+        server.publish("tour-updated", TOUR.formatted(7, "Wien - Graz"));
+        server.publish("log-deleted", "{\"id\": 70, \"tourId\": 7}");
+
+        TourChanges updated = next();
+        assertFalse(updated.isComplete());
+        assertEquals("Wien - Graz", updated.getTours().get(0).getName());
+        assertEquals(Set.of(70L), next().getDeletedLogIds());
+        assertEquals("2", client.getLastEventId());
+        assertEquals(1, resyncs.get());
+    }
+
+    @Test
+    public void testReconnectResumesAfterLastEvent() throws Exception {
+        start();
+        server.publish("tour-created", TOUR.formatted(1, "Erste"));
+        assertEquals("Erste", next().getTours().get(0).getName());
+
+        server.dropConnections();
+        server.publish("tour-updated", TOUR.formatted(1, "Geändert"));
+        server.publish("tour-deleted", "{\"id\": 2}");
+
+        assertEquals("Geändert", next().getTours().get(0).getName());
+        assertEquals(Set.of(2L), next().getDeletedTourIds());
+        assertEquals(List.of("null", "1"), server.getLastEventIds());
+        // Beim Fortsetzen wurde nichts verpasst, also kein erneuter Abgleich
+        assertEquals(1, resyncs.get());
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    public void testResyncEventAsksForChanges() throws Exception {
+        start();
+        server.publish("resync", "{}");
+        server.publish("tour-deleted", "{\"id\": 5}");
+
+        assertEquals(Set.of(5L), next().getDeletedTourIds());
+        assertEquals(2, resyncs.get());
+    }
+
+    @Test
+    public void testUnreadableEventIsSkipped() throws Exception {
+        start();
+        server.publish("log-updated", "{\"id\": 3}");
+        server.publish("tour-deleted", "{\"id\": 9}");
+
+        assertEquals(Set.of(9L), next().getDeletedTourIds());
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    public void testMissingEndpointStopsTheFeed() throws Exception {
+        server.setStatus(404);
+        start();
+
+        Thread.sleep(300);
+        assertEquals(1, server.getLastEventIds().size());
+        assertFalse(client.isConnected());
+        assertEquals(0, resyncs.get());
+    }
+
+    @Test
+    public void testRetryFieldTakesOnlyDigitsWithinBounds() {
+        assertEquals(1_500, ChangeFeedClient.parseRetry("1500"));
+        assertEquals(ChangeFeedClient.MIN_RETRY_MS, ChangeFeedClient.parseRetry("0"));
+        assertEquals(ChangeFeedClient.MAX_RETRY_MS, ChangeFeedClient.parseRetry("99999999999999999999"));
+        assertEquals(-1, ChangeFeedClient.parseRetry("-5"));
+        assertEquals(-1, ChangeFeedClient.parseRetry("+5"));
+        assertEquals(-1, ChangeFeedClient.parseRetry(" 5"));
+        assertEquals(-1, ChangeFeedClient.parseRetry(""));
+
+        ChangeFeedClient slow = new ChangeFeedClient(server.url(), ChangeFeedClient.MAX_RETRY_MS);
+        long delay = slow.reconnectDelay(40);
+        assertTrue(delay >= ChangeFeedClient.MAX_RETRY_MS / 2 && delay <= ChangeFeedClient.MAX_RETRY_MS);
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.tourplanner.business.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrencyLimiterTest {
+
+    @Test
+    public void testLimitGrowsWhileUsedAndShrinksOnDrops() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(10, 4, 100);
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < limiter.getLimit(); i++) {
+                assertTrue(limiter.acquire());
+            }
+            while (limiter.getInFlight() > 0) {
+                limiter.succeeded();
+            }
+        }
+        int grown = limiter.getLimit();
+        assertTrue(grown > 10, "limit " + grown);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.acquire());
+        }
+        for (int i = 0; i < 3; i++) {
+            limiter.dropped();
+        }
+        assertEquals((int) (grown * 0.9 * 0.9 * 0.9), limiter.getLimit(), 1);
+        assertEquals(3, limiter.getDropped());
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.acquire());
+            limiter.dropped();
+        }
+        assertEquals(ConcurrencyLimiter.MIN_LIMIT, limiter.getLimit());
+    }
+
+    @Test
+    public void testUnusedLimitDoesNotGrow() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(10, 4, 100);
+        for (int i = 0; i < 200; i++) {
+            assertTrue(limiter.acquire());
+            limiter.succeeded();
+        }
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    public void testExcessRequestsWaitOrAreRefused() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 1, 300);
+        assertTrue(limiter.acquire());
+        assertTrue(limiter.acquire());
+
+        AtomicBoolean admitted = new AtomicBoolean();
+        Thread waiting = new Thread(() -> admitted.set(limiter.acquire()));
+        waiting.start();
+        while (limiter.getQueued() == 0) {
+            Thread.sleep(1);
+        }
+        // Warteschlange voll: sofort abgelehnt
+        assertFalse(limiter.acquire());
+        assertEquals(1, limiter.getRejected());
+
+        limiter.ignored();
+        waiting.join(2000);
+        assertTrue(admitted.get());
+        assertEquals(2, limiter.getInFlight());
+
+        long start = System.nanoTime();
+        assertFalse(limiter.acquire());
+        assertTrue((System.nanoTime() - start) / 1_000_000 >= 250);
+        assertEquals(2, limiter.getRejected());
+        assertEquals(0, limiter.getQueued());
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.tourplanner.business.service;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HttpTourChangeServiceTest {
+
+    private static final String CHANGES = """
+            {"serverTime": "2024-09-01T12:00:05",
+             "tours": [{"id": 7, "name": "Wien - Graz", "fromLocation": "Wien", "toLocation": "Graz",
+                        "transportType": "Car", "distance": 198.5, "updatedAt": "2024-09-01T11:59:00"}],
+             "logs": [{"id": 70, "tourId": 7, "comment": "Stau", "difficulty": 3, "totalDistance": 200.0,
+                       "totalTime": 150, "rating": 4, "updatedAt": "2024-09-01T12:00:01"}],
+             "deletedTourIds": [3],
+             "deletedLogIds": [31, 32]}
+            """;
+
+    private HttpServer server;
+    private final List<String> queries = new ArrayList<>();
+    private int status = 200;
+
+    @BeforeEach
+    public void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/sync/changes", exchange -> {
+            queries.add(exchange.getRequestURI().getRawQuery());
+            byte[] body = status == 200 ? CHANGES.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length > 0 ? body.length : -1);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    private HttpTourChangeService service() {
+        return new HttpTourChangeService("http://127.0.0.1:" + server.getAddress().getPort() + "/api");
+    }
+
+    @Test
+    public void testReadsChangesAndTombstones() {
+        TourChanges changes = service().getChangesSince(LocalDateTime.of(2024, 9, 1, 11, 0));
+
+        assertNotNull(changes);
+        assertFalse(changes.isComplete());
+        assertEquals("since=2024-09-01T11%3A00", queries.get(0));
+        assertEquals(LocalDateTime.of(2024, 9, 1, 12, 0, 5), changes.getUntil());
+        assertEquals("Wien - Graz", changes.getTours().get(0).getName());
+        assertEquals("Stau", changes.getLogsByTour().get(7L).get(0).getComment());
+        assertEquals(Set.of(3L), changes.getDeletedTourIds());
+        assertEquals(Set.of(31L, 32L), changes.getDeletedLogIds());
+        assertNull(changes.getLiveTourIds());
+        assertEquals(5, changes.size());
+    }
+
+    @Test
+    public void testWithoutSinceEverythingIsRequested() {
+        TourChanges changes = service().getChangesSince(null);
+
+        assertTrue(changes.isComplete());
+        assertNull(queries.get(0));
+    }
+
+    @Test
+    public void testMissingEndpointIsNotAskedAgain() {
+        status = 404;
+        HttpTourChangeService service = service();
+
+        assertNull(service.getChangesSince(null));
+        assertNull(service.getChangesSince(null));
+        assertEquals(1, queries.size());
+    }
+
+    @Test
+    public void testServerErrorIsAskedAgain() {
+        status = 503;
+        HttpTourChangeService service = service();
+
+        assertNull(service.getChangesSince(null));
+        status = 200;
+        assertNotNull(service.getChangesSince(null));
+        assertEquals(2, queries.size());
+    }
+}
@@ -0,0 +1,258 @@
+package org.example.tourplanner.business.service;
+
+import org.example.tourplanner.models.Tour;
+import org.example.tourplanner.models.TourLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JdbcBatchTest {
+
+    /**
+     * Driver for "jdbc:fake:" whose connection records every round trip instead of talking to a database
+     */
+    private static class FakeDriver implements Driver {
+        final List<String> calls = new ArrayList<>();
+        // Zeilen je Batch-Eintrag, die executeBatch meldet; fehlt die SQL, ist es 1
+        final Map<String, int[]> batchCounts = new HashMap<>();
+        String failingBatch;
+        long nextId = 100;
+
+        @Override
+        public Connection connect(String url, Properties info) {
+            return acceptsURL(url) ? connection() : null;
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url.startsWith("jdbc:fake:");
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return Logger.getGlobal();
+        }
+
+        private Connection connection() {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "prepareStatement" -> statement((String) args[0]);
+                        case "commit", "rollback" -> {
+                            calls.add(method.getName());
+                            yield null;
+                        }
+                        case "isClosed", "getAutoCommit" -> false;
+                        default -> null;
+                    });
+        }
+
+        private PreparedStatement statement(String sql) {
+            int[] batched = {0};
+            long[] firstId = {0};
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "addBatch" -> {
+                            batched[0]++;
+                            yield null;
+                        }
+                        case "clearBatch" -> {
+                            batched[0] = 0;
+                            yield null;
+                        }
+                        case "executeBatch" -> {
+                            calls.add("batch " + batched[0] + ": " + sql);
+                            if (sql.equals(failingBatch)) {
+                                throw new SQLException("constraint violated");
+                            }
+                            int[] counts = batchCounts.getOrDefault(sql, new int[0]);
+                            if (counts.length != batched[0]) {
+                                counts = new int[batched[0]];
+                                Arrays.fill(counts, 1);
+                            }
+                            firstId[0] = nextId;
+                            nextId += batched[0];
+                            batched[0] = 0;
+                            yield counts;
+                        }
+                        case "getGeneratedKeys" -> ids(firstId[0], (int) (nextId - firstId[0]));
+                        case "executeQuery" -> {
+                            calls.add("query: " + sql);
+                            yield ids(nextId++, 1);
+                        }
+                        case "executeUpdate" -> {
+                            calls.add("update: " + sql);
+                            yield 1;
+                        }
+                        case "isClosed" -> false;
+                        default -> null;
+                    });
+        }
+
+        private ResultSet ids(long first, int count) {
+            int[] row = {-1};
+            return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "next" -> ++row[0] < count;
+                        case "getLong" -> first + row[0];
+                        default -> null;
+                    });
+        }
+
+        List<String> callsStartingWith(String prefix) {
+            return calls.stream().filter(call -> call.startsWith(prefix)).toList();
+        }
+    }
+
+    private final FakeDriver driver = new FakeDriver();
+    private EmbeddedDatabase database;
+
+    @BeforeEach
+    public void registerDriver() throws SQLException {
+        DriverManager.registerDriver(driver);
+        database = new EmbeddedDatabase("jdbc:fake:test", "user", "secret");
+    }
+
+    @AfterEach
+    public void deregisterDriver() throws SQLException {
+        database.close();
+        DriverManager.deregisterDriver(driver);
+    }
+
+    private static Tour tour(Long id, String name) {
+        Tour tour = new Tour();
+        tour.setId(id);
+        tour.setName(name);
+        tour.setFrom("Vienna");
+        tour.setTo("Graz");
+        tour.setTransportType("Car");
+        return tour;
+    }
+
+    private static TourLog tourLog(Long id) {
+        TourLog tourLog = new TourLog();
+        tourLog.setId(id);
+        tourLog.setDate(LocalDateTime.of(2024, 5, 1, 10, 0));
+        tourLog.setComment("Nice");
+        tourLog.setDifficulty(2);
+        tourLog.setTotalDistance(12.5);
+        tourLog.setTotalTime(90);
+        tourLog.setRating(4);
+        return tourLog;
+    }
+
+    @Test
+    public void testCreateToursIsOneBatchInOneTransaction() {
+        JdbcTourService service = new JdbcTourService(database);
+        List<Tour> tours = List.of(tour(null, "A"), tour(null, "B"), tour(null, "C"));
+        int[] progress = {0};
+
+        BatchResult<Tour> result = service.createTours(tours, (done, total) -> progress[0] = done);
+
+        assertEquals(3, result.getSucceededCount());
+        assertEquals(List.of(100L, 101L, 102L), result.getSucceeded().stream().map(Tour::getId).toList());
+        assertNotNull(tours.get(0).getUpdatedAt());
+        assertEquals(1, driver.callsStartingWith("batch 3: INSERT INTO tours").size());
+        assertEquals(List.of(), driver.callsStartingWith("query"));
+        assertEquals(List.of("commit"), driver.callsStartingWith("commit"));
+        assertEquals(3, progress[0]);
+    }
+
+    @Test
+    public void testUpdateTourLogsReportsMissingLogs() {
+        JdbcTourLogService service = new JdbcTourLogService(database);
+        List<TourLog> tourLogs = List.of(tourLog(1L), tourLog(2L));
+        String update = "UPDATE tour_logs SET date = ?, comment = ?, difficulty = ?, "
+                + "total_distance = ?, total_time = ?, rating = ?, updated_at = ? WHERE id = ?";
+        driver.batchCounts.put(update, new int[]{1, 0});
+
+        BatchResult<TourLog> result = service.updateTourLogs(tourLogs, BatchProgress.NONE);
+
+        assertTrue(result.isSucceeded(0));
+        assertFalse(result.isSucceeded(1));
+        assertEquals("Not found", result.getError(1));
+        assertEquals(List.of("batch 2: " + update), driver.callsStartingWith("batch"));
+    }
+
+    @Test
+    public void testFailedBatchIsRolledBackAndSentOneByOne() {
+        JdbcTourService service = new JdbcTourService(database);
+        driver.failingBatch = "INSERT INTO tours (name, description, from_location, to_location, transport_type, "
+                + "distance, estimated_time, route_image_path, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        BatchResult<Tour> result = service.createTours(List.of(tour(null, "A"), tour(null, "B")), BatchProgress.NONE);
+
+        assertEquals(2, result.getSucceededCount());
+        assertEquals(List.of("rollback"), driver.callsStartingWith("rollback"));
+        assertEquals(2, driver.callsStartingWith("query: INSERT INTO tours").size());
+    }
+
+    @Test
+    public void testDeleteToursRemovesLogsAndToursInTwoBatches() {
+        JdbcTourService service = new JdbcTourService(database);
+
+        BatchResult<Boolean> result = service.deleteTours(List.of(1L, 2L, 3L), BatchProgress.NONE);
+
+        assertEquals(3, result.getSucceededCount());
+        assertEquals(List.of("batch 3: DELETE FROM tour_logs WHERE tour_id = ?", "batch 3: DELETE FROM tours WHERE id = ?"),
+                driver.callsStartingWith("batch"));
+        assertEquals(List.of(), driver.callsStartingWith("update"));
+    }
+
+    @Test
+    public void testTourLogBatches() {
+        JdbcTourLogService service = new JdbcTourLogService(database);
+
+        BatchResult<TourLog> created = service.createTourLogs(7L, List.of(tourLog(null), tourLog(null)), BatchProgress.NONE);
+        BatchResult<TourLog> updated = service.updateTourLogs(created.getSucceeded(), BatchProgress.NONE);
+        BatchResult<Boolean> deleted = service.deleteTourLogs(List.of(100L, 101L), BatchProgress.NONE);
+
+        assertEquals(List.of(100L, 101L), created.getSucceeded().stream().map(TourLog::getId).toList());
+        assertEquals(2, updated.getSucceededCount());
+        // So genau wie die Spalte, sonst weicht der Stand im Speicher vom gespeicherten ab
+        assertEquals(0, updated.get(0).getUpdatedAt().getNano() % 1000);
+        assertEquals(2, deleted.getSucceededCount());
+        assertEquals(3, driver.callsStartingWith("batch 2:").size());
+        assertEquals(3, driver.callsStartingWith("commit").size());
+        assertEquals(List.of(), driver.callsStartingWith("query"));
+        assertEquals(List.of(), driver.callsStartingWith("update"));
+    }
+}
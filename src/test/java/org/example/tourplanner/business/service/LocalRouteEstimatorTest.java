@@ -0,0 +1,90 @@
+package org.example.tourplanner.business.service;
+
+import org.example.tourplanner.business.geo.RouteGeometryStore;
+import org.example.tourplanner.models.Tour;
+import org.example.tourplanner.models.TourLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalRouteEstimatorTest {
+
+    private LocalRouteEstimator estimator;
+
+    @BeforeEach
+    public void setUp() {
+        estimator = new LocalRouteEstimator(key -> null);
+    }
+
+    @Test
+    public void testEstimateIsLongerThanStraightLine() {
+        // Wien - Graz Luftlinie ca. 145 km
+        BackendRouteService.RouteCalculationResult result = estimator.calculateRoute("Wien", "Graz", "Car");
+
+        assertTrue(result.isSuccess());
+        assertTrue(result.getDistance() > 145 && result.getDistance() < 250, "distance " + result.getDistance());
+        assertTrue(result.getEstimatedTime() > 60);
+    }
+
+    @Test
+    public void testUnknownLocationFails() {
+        BackendRouteService.RouteCalculationResult result = estimator.calculateRoute("Atlantis", "Graz", "Car");
+
+        assertFalse(result.isSuccess());
+    }
+
+    @Test
+    public void testCalibrationMovesSpeedTowardsLogs() {
+        double before = estimator.getSpeedKmh("Bicycle");
+
+        Tour tour = new Tour("Radtour", "", "Wien", "Linz", "Bicycle");
+        for (int i = 0; i < 10; i++) {
+            // 25 km/h laut Logs
+            tour.getTourLogs().add(new TourLog(LocalDateTime.now(), "", 5, 50.0, 120, 4));
+        }
+        estimator.calibrate(List.of(tour));
+
+        double after = estimator.getSpeedKmh("Bicycle");
+        assertTrue(after > before);
+        assertTrue(after < 25.0);
+        assertEquals(55.0, estimator.getSpeedKmh("Car"), 0.001);
+    }
+
+    @Test
+    public void testImplausibleLogsAreIgnored() {
+        Tour tour = new Tour("Tippfehler", "", "Wien", "Linz", "Walking");
+        tour.getTourLogs().add(new TourLog(LocalDateTime.now(), "", 5, 500.0, 1, 4));
+        estimator.calibrate(List.of(tour));
+
+        assertEquals(4.5, estimator.getSpeedKmh("Walking"), 0.001);
+    }
+
+    @Test
+    public void testDetourFactorFromCalculatedRoutes() {
+        // Luftlinie ca. 250 km, Route über das Mühlviertel ca. 318 km -> Faktor 1.27
+        Map<Long, double[][]> routes = Map.of(RouteGeometryStore.keyFor("Wien", "Salzburg", "Car"),
+                new double[][]{{48.2082, 16.3738}, {48.9, 14.6}, {47.8095, 13.0550}});
+        estimator = new LocalRouteEstimator(routes::get);
+        Tour tour = new Tour("Autobahn", "", "Wien", "Salzburg", "Car");
+        estimator.calibrate(List.of(tour, tour, tour));
+
+        double factor = estimator.getDetourFactor("Car");
+        assertTrue(factor < 1.30 && factor > 1.26, "factor " + factor);
+    }
+
+    @Test
+    public void testSavedEstimatesDoNotCalibrate() {
+        estimator = new LocalRouteEstimator(key -> null);
+        // Mit der eigenen Schätzung gespeichert, keine berechnete Route vorhanden
+        Tour tour = new Tour("Geschätzt", "", "Wien", "Salzburg", "Car");
+        tour.setDistance(400.0);
+        estimator.calibrate(List.of(tour, tour, tour));
+
+        assertEquals(1.30, estimator.getDetourFactor("Car"), 0.001);
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.tourplanner.business.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OfflineRouteServiceTest {
+
+    private OfflineRouteService routeService;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Path sample = Paths.get(getClass().getResource(
+                "/org/example/tourplanner/business/routing/sample-graph.osm").toURI());
+        routeService = new OfflineRouteService(sample);
+    }
+
+    @Test
+    public void testCalculateRouteWithCoordinates() {
+        BackendRouteService.RouteCalculationResult result =
+                routeService.calculateRoute("47.07,15.43", "47.09,15.45", "Car");
+
+        assertTrue(result.isSuccess(), result.getMessage());
+        assertTrue(result.getDistance() > 2.0);
+        assertTrue(result.getEstimatedTime() > 0);
+    }
+
+    @Test
+    public void testWalkingIsSlowerThanCar() {
+        BackendRouteService.RouteCalculationResult car =
+                routeService.calculateRoute("47.07,15.43", "47.09,15.45", "Car");
+        BackendRouteService.RouteCalculationResult walking =
+                routeService.calculateRoute("47.07,15.43", "47.09,15.45", "Walking");
+
+        assertTrue(walking.isSuccess());
+        assertTrue(walking.getEstimatedTime() > car.getEstimatedTime());
+    }
+
+    @Test
+    public void testUnsupportedTransportType() {
+        BackendRouteService.RouteCalculationResult result =
+                routeService.calculateRoute("47.07,15.43", "47.09,15.45", "Public Transport");
+
+        assertFalse(result.isSuccess());
+    }
+
+    @Test
+    public void testMissingGraphFile() {
+        OfflineRouteService missing = new OfflineRouteService(Paths.get("does-not-exist.osm"));
+
+        assertFalse(missing.isAvailable());
+        assertFalse(missing.calculateRoute("Graz", "Wien", "Car").isSuccess());
+    }
+}
@@ -0,0 +1,104 @@
+package org.example.tourplanner.business.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+    private final SingleFlight<Long, String> flight = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @Test
+    public void testConcurrentCallsShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(executor.submit(() -> flight.execute(7L, () -> {
+                loads.incrementAndGet();
+                await(release);
+                return "tour 7";
+            })));
+        }
+        while (flight.getShared() < 4) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("tour 7", result.get(2, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, flight.getLoads());
+        assertEquals(4, flight.getShared());
+    }
+
+    @Test
+    public void testFinishedLoadIsNotReused() {
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals("1", flight.execute(1L, () -> String.valueOf(loads.incrementAndGet())));
+        assertEquals("2", flight.execute(1L, () -> String.valueOf(loads.incrementAndGet())));
+        assertNull(flight.execute(2L, () -> null));
+        assertEquals(0, flight.getShared());
+        assertEquals(3, flight.getLoads());
+    }
+
+    @Test
+    public void testCallsAfterForgetAllStartANewLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> stale = executor.submit(() -> flight.execute(3L, () -> {
+            await(release);
+            return "before write";
+        }));
+        while (flight.getLoads() == 0) {
+            Thread.sleep(1);
+        }
+        flight.forgetAll();
+
+        assertEquals("after write", flight.execute(3L, () -> "after write"));
+        release.countDown();
+        assertEquals("before write", stale.get(2, TimeUnit.SECONDS));
+        assertEquals(2, flight.getLoads());
+        assertEquals(0, flight.getShared());
+    }
+
+    @Test
+    public void testFailureReachesEveryWaitingCaller() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> first = executor.submit(() -> flight.execute(4L, () -> {
+            await(release);
+            throw new IllegalStateException("backend gone");
+        }));
+        while (flight.getLoads() == 0) {
+            Thread.sleep(1);
+        }
+        Future<String> second = executor.submit(() -> flight.execute(4L, () -> "not called"));
+        while (flight.getShared() == 0) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        for (Future<String> result : List.of(first, second)) {
+            Exception e = assertThrows(Exception.class, () -> result.get(2, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof IllegalStateException, String.valueOf(e.getCause()));
+        }
+        assertEquals("again", flight.execute(4L, () -> "again"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
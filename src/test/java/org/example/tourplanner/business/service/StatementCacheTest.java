@@ -0,0 +1,92 @@
+package org.example.tourplanner.business.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatementCacheTest {
+
+    // Minimale Verbindung: merkt sich vorbereitete und geschlossene Statements
+    private final List<String> prepared = new ArrayList<>();
+    private final List<String> closed = new ArrayList<>();
+
+    private Connection fakeConnection() {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("prepareStatement")) {
+                        String sql = (String) args[0];
+                        prepared.add(sql);
+                        return fakeStatement(sql);
+                    }
+                    return null;
+                });
+    }
+
+    private PreparedStatement fakeStatement(String sql) {
+        boolean[] isClosed = {false};
+        return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        isClosed[0] = true;
+                        closed.add(sql);
+                        yield null;
+                    }
+                    case "isClosed" -> isClosed[0];
+                    default -> null;
+                });
+    }
+
+    @Test
+    public void testSameSqlReusesStatement() throws Exception {
+        StatementCache cache = new StatementCache(fakeConnection(), 4);
+
+        PreparedStatement first = cache.prepare("SELECT 1");
+        PreparedStatement second = cache.prepare("SELECT 1");
+
+        assertSame(first, second);
+        assertEquals(List.of("SELECT 1"), prepared);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedStatementIsClosed() throws Exception {
+        StatementCache cache = new StatementCache(fakeConnection(), 2);
+
+        cache.prepare("A");
+        cache.prepare("B");
+        cache.prepare("A");
+        cache.prepare("C");
+
+        assertEquals(List.of("B"), closed);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testClosedStatementIsPreparedAgain() throws Exception {
+        StatementCache cache = new StatementCache(fakeConnection(), 2);
+
+        cache.prepare("A").close();
+        cache.prepare("A");
+
+        assertEquals(List.of("A", "A"), prepared);
+    }
+
+    @Test
+    public void testClearClosesAll() throws Exception {
+        StatementCache cache = new StatementCache(fakeConnection(), 4);
+        cache.prepare("A");
+        cache.prepare("B");
+
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertEquals(2, closed.size());
+    }
+}
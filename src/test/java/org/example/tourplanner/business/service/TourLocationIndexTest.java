@@ -0,0 +1,82 @@
+package org.example.tourplanner.business.service;
+
+import org.example.tourplanner.models.Tour;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TourLocationIndexTest {
+
+    private TourLocationIndex index;
+
+    private static Tour tour(long id, String from, String to) {
+        Tour tour = new Tour("Tour " + id, "", from, to, "Car");
+        tour.setId(id);
+        return tour;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        index = new TourLocationIndex();
+        index.rebuild(List.of(
+                tour(1, "Linz", "Graz"),
+                tour(2, "Wels", "Wien"),
+                tour(3, "Wien", "Linz"),
+                tour(4, "Atlantis", "Salzburg")));
+    }
+
+    @Test
+    public void testParseLocationQuery() {
+        TourLocationIndex.Query query = TourLocationIndex.parse("wanderung near:St. Pölten 15,5 km");
+
+        assertEquals(TourLocationIndex.Anchor.NEAR, query.getAnchor());
+        assertEquals("St. Pölten", query.getLocation());
+        assertEquals(15.5, query.getRadiusKm(), 1e-9);
+        assertEquals("wanderung", query.getText());
+        assertNotNull(query.getCoordinates());
+
+        TourLocationIndex.Query defaults = TourLocationIndex.parse("from:48.3,14.28");
+        assertEquals(TourLocationIndex.Anchor.FROM, defaults.getAnchor());
+        assertEquals(TourLocationIndex.DEFAULT_RADIUS_KM, defaults.getRadiusKm(), 1e-9);
+        assertEquals("", defaults.getText());
+
+        TourLocationIndex.Query via = TourLocationIndex.parse("via:47.56,13.65");
+        assertEquals(TourLocationIndex.Anchor.VIA, via.getAnchor());
+        assertEquals(TourCorridorIndex.DEFAULT_CORRIDOR_KM, via.getRadiusKm(), 1e-9);
+
+        assertNull(TourLocationIndex.parse("Donauradweg"));
+    }
+
+    @Test
+    public void testToursStartingNearLinz() {
+        assertEquals(List.of(1L, 2L), index.within(TourLocationIndex.Anchor.FROM, 48.3069, 14.2858, 30));
+        assertEquals(List.of(3L), index.within(TourLocationIndex.Anchor.TO, 48.3069, 14.2858, 30));
+        assertEquals(Set.of(1L, 2L, 3L), Set.copyOf(index.matching(TourLocationIndex.parse("near:Linz 30km"))));
+    }
+
+    @Test
+    public void testUnknownLocationMatchesNothing() {
+        assertTrue(index.matching(TourLocationIndex.parse("near:Atlantis")).isEmpty());
+        // Tour 4 hat nur ein bekanntes Ziel
+        assertEquals(List.of(4L), index.within(TourLocationIndex.Anchor.NEAR, 47.8095, 13.0550, 5));
+    }
+
+    @Test
+    public void testUpdateAndDeleteAreIncremental() {
+        index.addOrUpdate(tour(1, "Innsbruck", "Graz"));
+        assertEquals(List.of(2L), index.within(TourLocationIndex.Anchor.FROM, 48.3069, 14.2858, 30));
+
+        index.remove(2L);
+        assertTrue(index.within(TourLocationIndex.Anchor.FROM, 48.3069, 14.2858, 30).isEmpty());
+        assertEquals(Set.of(1L, 3L, 4L), index.withinBox(46.5, 10.0, 48.5, 16.0));
+    }
+
+    @Test
+    public void testNearestStarts() {
+        assertEquals(List.of(2L, 1L), index.nearestStarts(48.16, 14.03, 2));
+    }
+}
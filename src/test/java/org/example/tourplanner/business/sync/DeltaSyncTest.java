@@ -0,0 +1,96 @@
+package org.example.tourplanner.business.sync;
+
+import org.example.tourplanner.business.service.TourChangeService;
+import org.example.tourplanner.business.service.TourChanges;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeltaSyncTest {
+
+    private static final LocalDateTime T1 = LocalDateTime.of(2024, 9, 1, 12, 0);
+    private static final LocalDateTime T2 = LocalDateTime.of(2024, 9, 1, 12, 30);
+
+    /**
+     * Records the requested "since" values and answers with the queued changes (null = failure)
+     */
+    private static class FakeChangeService implements TourChangeService {
+        final List<LocalDateTime> requests = new ArrayList<>();
+        final Deque<LocalDateTime> untils = new ArrayDeque<>();
+        boolean failing;
+
+        @Override
+        public TourChanges getChangesSince(LocalDateTime since) {
+            requests.add(since);
+            if (failing) {
+                return null;
+            }
+            return new TourChanges(since, untils.poll(), List.of(), Map.of(), Set.of(), Set.of());
+        }
+    }
+
+    @Test
+    public void testFirstPollGetsEverythingThenOnlyChanges() {
+        FakeChangeService service = new FakeChangeService();
+        service.untils.add(T1);
+        service.untils.add(T2);
+        DeltaSync sync = new DeltaSync(service);
+
+        assertTrue(sync.poll().isComplete());
+        assertFalse(sync.poll().isComplete());
+        sync.poll();
+
+        assertNull(service.requests.get(0));
+        assertEquals(T1.minus(DeltaSync.OVERLAP), service.requests.get(1));
+        assertEquals(T2.minus(DeltaSync.OVERLAP), service.requests.get(2));
+        assertEquals(T2, sync.getHighWaterMark());
+    }
+
+    @Test
+    public void testFailureKeepsTheMark() {
+        FakeChangeService service = new FakeChangeService();
+        service.untils.add(T1);
+        DeltaSync sync = new DeltaSync(service);
+        sync.poll();
+
+        service.failing = true;
+        assertNull(sync.poll());
+        service.failing = false;
+        sync.poll();
+
+        assertEquals(T1.minus(DeltaSync.OVERLAP), service.requests.get(2));
+        assertEquals(T1, sync.getHighWaterMark());
+    }
+
+    @Test
+    public void testMarkNeverMovesBack() {
+        FakeChangeService service = new FakeChangeService();
+        service.untils.add(T2);
+        service.untils.add(T1);
+        DeltaSync sync = new DeltaSync(service);
+        sync.poll();
+        sync.poll();
+
+        assertEquals(T2, sync.getHighWaterMark());
+    }
+
+    @Test
+    public void testResetLoadsEverythingAgain() {
+        FakeChangeService service = new FakeChangeService();
+        service.untils.add(T1);
+        DeltaSync sync = new DeltaSync(service);
+        sync.poll();
+
+        sync.reset();
+        assertTrue(sync.poll().isComplete());
+        assertNull(service.requests.get(1));
+    }
+}
@@ -0,0 +1,131 @@
+package org.example.tourplanner.business.sync;
+
+import org.example.tourplanner.models.Tour;
+import org.example.tourplanner.models.TourLog;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MerkleTreeTest {
+
+    /**
+     * The "backend": a tree over other tours that counts what it is asked for
+     */
+    private static class CountingSource implements MerkleSource {
+        final MerkleTree tree;
+        int rangesAsked;
+        int toursReturned;
+
+        CountingSource(List<Tour> tours) {
+            tree = MerkleTree.build(tours);
+        }
+
+        @Override
+        public List<RangeDigest> rangeDigests(List<IdRange> ranges) {
+            rangesAsked += ranges.size();
+            return tree.rangeDigests(ranges);
+        }
+
+        @Override
+        public Map<Long, Long> tourDigests(List<IdRange> ranges) {
+            Map<Long, Long> digests = tree.tourDigests(ranges);
+            toursReturned += digests.size();
+            return digests;
+        }
+    }
+
+    private static List<Tour> tours(int count) {
+        List<Tour> tours = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tours.add(tour(3 + i * 7L, "Tour " + i));
+        }
+        return tours;
+    }
+
+    private static Tour tour(long id, String name) {
+        Tour tour = new Tour(name, "Description", "Wien", "Graz", "Bike");
+        tour.setId(id);
+        tour.setDistance(id * 1.5);
+        return tour;
+    }
+
+    @Test
+    void equalToursNeedOneRequest() {
+        List<Tour> tours = tours(1_000);
+        CountingSource remote = new CountingSource(tours(1_000));
+
+        MerkleDiff diff = MerkleReconciler.diff(MerkleTree.build(tours), remote);
+
+        assertTrue(diff.isEmpty());
+        assertEquals(1, diff.getRequests());
+        assertEquals(1, remote.rangesAsked);
+    }
+
+    @Test
+    void findsChangedNewAndDeletedTours() {
+        List<Tour> local = tours(500);
+        List<Tour> remoteTours = tours(500);
+        remoteTours.get(10).setName("Renamed");
+        remoteTours.get(200).getTourLogs().add(new TourLog(LocalDateTime.of(2024, 5, 1, 8, 0), "Nice", 2, 12.5, 90, 4));
+        remoteTours.add(tour(100_000, "New"));
+        Tour removed = remoteTours.remove(300);
+
+        MerkleDiff diff = MerkleReconciler.diff(MerkleTree.build(local), new CountingSource(remoteTours));
+
+        assertEquals(Set.of(remoteTours.get(10).getId(), remoteTours.get(200).getId(), 100_000L), diff.getChangedIds());
+        assertEquals(Set.of(removed.getId()), diff.getDeletedIds());
+    }
+
+    @Test
+    void fewChangesAmongManyToursStayCheap() {
+        List<Tour> local = tours(100_000);
+        List<Tour> remoteTours = tours(100_000);
+        remoteTours.get(17).setDescription("Changed");
+        remoteTours.get(54_321).setDistance(1);
+        remoteTours.get(99_998).setEstimatedTime(42);
+        CountingSource remote = new CountingSource(remoteTours);
+
+        MerkleDiff diff = MerkleReconciler.diff(MerkleTree.build(local), remote);
+
+        assertEquals(3, diff.getChangedIds().size());
+        assertTrue(diff.getDeletedIds().isEmpty());
+        assertTrue(diff.getRequests() <= 6, "requests: " + diff.getRequests());
+        // Je Bereich etwa 50 Bytes JSON, also wenige Kilobyte statt aller Touren
+        assertTrue(remote.rangesAsked < 200, "ranges: " + remote.rangesAsked);
+        assertTrue(remote.toursReturned <= 3 * MerkleTree.LEAF_SIZE, "tours: " + remote.toursReturned);
+    }
+
+    @Test
+    void temporaryIdsAreLeftOut() {
+        List<Tour> local = tours(50);
+        local.add(tour(-5, "Offline"));
+
+        MerkleDiff diff = MerkleReconciler.diff(MerkleTree.build(local), new CountingSource(tours(50)));
+
+        assertEquals(50, MerkleTree.build(local).size());
+        assertTrue(diff.isEmpty());
+    }
+
+    @Test
+    void digestIgnoresTimestampsAndLogOrder() {
+        Tour a = tour(1, "Same");
+        Tour b = tour(1, "Same");
+        b.setUpdatedAt(LocalDateTime.now());
+        TourLog first = new TourLog(LocalDateTime.of(2024, 5, 1, 8, 0), "One", 1, 5, 30, 3);
+        first.setId(1L);
+        TourLog second = new TourLog(LocalDateTime.of(2024, 5, 2, 8, 0), "Two", 2, 6, 40, 4);
+        second.setId(2L);
+        a.getTourLogs().addAll(List.of(first, second));
+        b.getTourLogs().addAll(List.of(second, first));
+
+        assertEquals(MerkleTree.tourDigest(a), MerkleTree.tourDigest(b));
+        b.setTransportType("Hike");
+        assertNotEquals(MerkleTree.tourDigest(a), MerkleTree.tourDigest(b));
+    }
+}
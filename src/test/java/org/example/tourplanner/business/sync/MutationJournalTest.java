@@ -0,0 +1,225 @@
+package org.example.tourplanner.business.sync;
+
+import org.example.tourplanner.models.Tour;
+import org.example.tourplanner.models.TourLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MutationJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private static Tour tour(long id, String name) {
+        Tour tour = new Tour(name, "Beschreibung", "Wien", "Linz", "Bike");
+        tour.setId(id);
+        tour.setDistance(185.0);
+        return tour;
+    }
+
+    @Test
+    public void testPendingMutationsSurviveReopen() throws Exception {
+        Path file = dir.resolve("mutations.journal");
+        MutationJournal journal = MutationJournal.open(file);
+        Mutation create = journal.append(Mutation.createTour(tour(-5, "Donauradweg")));
+        journal.append(Mutation.updateTour(tour(7, "Traunsee")));
+        journal.acknowledge(create.getSequence(), 42L);
+        journal.close();
+
+        MutationJournal reopened = MutationJournal.open(file);
+        List<Mutation> pending = reopened.pending();
+
+        assertEquals(1, pending.size());
+        assertEquals(Mutation.Type.UPDATE_TOUR, pending.get(0).getType());
+        assertEquals("Traunsee", pending.get(0).getTour().getName());
+        assertEquals(42L, reopened.resolve(-5L));
+        assertEquals(create.getSequence() + 2, reopened.append(Mutation.deleteTour(7L)).getSequence());
+        reopened.close();
+    }
+
+    @Test
+    public void testTornTailIsCutOff() throws Exception {
+        Path file = dir.resolve("mutations.journal");
+        MutationJournal journal = MutationJournal.open(file);
+        journal.append(Mutation.deleteTour(1L));
+        journal.append(Mutation.deleteTour(2L));
+        journal.close();
+
+        // Absturz mitten im letzten Eintrag
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        long truncatedSize = Files.size(file);
+
+        MutationJournal reopened = MutationJournal.open(file);
+        assertEquals(1, reopened.size());
+        assertEquals(1L, reopened.first().getTourId());
+        assertTrue(Files.size(file) < truncatedSize);
+
+        reopened.append(Mutation.deleteTour(3L));
+        reopened.close();
+        MutationJournal again = MutationJournal.open(file);
+        assertEquals(List.of(1L, 3L), again.pending().stream().map(Mutation::getTourId).toList());
+        again.close();
+    }
+
+    @Test
+    public void testLaterMutationsUseAssignedIds() throws Exception {
+        MutationJournal journal = MutationJournal.open(dir.resolve("mutations.journal"));
+        Mutation createTour = journal.append(Mutation.createTour(tour(-1, "Neu")));
+        TourLog log = new TourLog(LocalDateTime.of(2024, 6, 1, 9, 0), "Erste Fahrt", 2, 180.0, 600, 5);
+        log.setId(-2L);
+        Mutation createLog = journal.append(Mutation.createLog(-1L, log));
+        journal.append(Mutation.deleteLog(-1L, -2L));
+
+        journal.acknowledge(createTour.getSequence(), 100L);
+        assertEquals(100L, journal.first().getTourId());
+        assertEquals(-2L, journal.first().getLogId());
+
+        journal.acknowledge(createLog.getSequence(), 200L);
+        Mutation delete = journal.first();
+        assertEquals(Mutation.Type.DELETE_LOG, delete.getType());
+        assertEquals(100L, delete.getTourId());
+        assertEquals(200L, delete.getLogId());
+        journal.close();
+    }
+
+    @Test
+    public void testCompactionKeepsPendingMutationsAndIdMapping() throws Exception {
+        Path file = dir.resolve("mutations.journal");
+        MutationJournal journal = MutationJournal.open(file);
+        Mutation create = journal.append(Mutation.createTour(tour(-1, "Neu")));
+        journal.append(Mutation.updateTour(tour(-1, "Neu, geändert")));
+        for (int i = 0; i < 100; i++) {
+            journal.acknowledge(journal.append(Mutation.deleteTour((long) i)).getSequence(), null);
+        }
+        journal.acknowledge(create.getSequence(), 55L);
+        long sizeBefore = Files.size(file);
+        journal.compact();
+        assertTrue(Files.size(file) < sizeBefore);
+        journal.close();
+
+        MutationJournal reopened = MutationJournal.open(file);
+        assertEquals(1, reopened.size());
+        assertEquals(55L, reopened.first().getTourId());
+        assertEquals("Neu, geändert", reopened.first().getTour().getName());
+        assertEquals(55L, reopened.resolve(-1L));
+        reopened.close();
+    }
+
+    @Test
+    public void testCompactionDropsIdMappingsOfEarlierSessions() throws Exception {
+        Path file = dir.resolve("mutations.journal");
+        MutationJournal journal = MutationJournal.open(file);
+        Mutation create = journal.append(Mutation.createTour(tour(-1, "Alt")));
+        journal.append(Mutation.updateTour(tour(-1, "Alt, geändert")));
+        journal.acknowledge(create.getSequence(), 55L);
+        journal.close();
+
+        MutationJournal reopened = MutationJournal.open(file);
+        Mutation second = reopened.append(Mutation.createTour(tour(-2, "Neu")));
+        reopened.acknowledge(second.getSequence(), 56L);
+        reopened.compact();
+        // Die offene Änderung steht schon aufgelöst in der Datei, nur die eigene Zuordnung bleibt
+        assertEquals(-1L, reopened.resolve(-1L));
+        assertEquals(56L, reopened.resolve(-2L));
+        reopened.close();
+
+        MutationJournal again = MutationJournal.open(file);
+        assertEquals(55L, again.first().getTourId());
+        assertEquals(-1L, again.resolve(-1L));
+        assertEquals(56L, again.resolve(-2L));
+        again.close();
+    }
+
+    @Test
+    public void testInMemoryJournalWorksWithoutFile() {
+        MutationJournal journal = MutationJournal.inMemory();
+        Mutation mutation = journal.append(Mutation.deleteTour(9L));
+
+        assertEquals(1, journal.size());
+        journal.acknowledge(mutation.getSequence(), null);
+        assertNull(journal.first());
+        journal.close();
+    }
+
+    @Test
+    public void testUnsentUpdatesAreMergedInPlace() throws Exception {
+        Path file = dir.resolve("mutations.journal");
+        MutationJournal journal = MutationJournal.open(file);
+        Mutation first = journal.appendOrMerge(Mutation.updateTour(tour(7, "Traunsee")));
+        journal.appendOrMerge(Mutation.deleteTour(8L));
+        for (int i = 1; i <= 5; i++) {
+            journal.appendOrMerge(Mutation.updateTour(tour(7, "Traunsee " + i)));
+        }
+
+        assertEquals(2, journal.size());
+        assertEquals(first.getSequence(), journal.first().getSequence());
+        assertEquals("Traunsee 5", journal.first().getTour().getName());
+        journal.close();
+
+        // Die zusammengeführte Änderung ersetzt die alte auch nach dem Neustart an ihrer Stelle
+        MutationJournal reopened = MutationJournal.open(file);
+        assertEquals(List.of(Mutation.Type.UPDATE_TOUR, Mutation.Type.DELETE_TOUR),
+                reopened.pending().stream().map(Mutation::getType).toList());
+        assertEquals("Traunsee 5", reopened.first().getTour().getName());
+        reopened.close();
+    }
+
+    @Test
+    public void testCreatesDeletesAndSentUpdatesAreNotMerged() {
+        MutationJournal journal = MutationJournal.inMemory();
+        journal.appendOrMerge(Mutation.createTour(tour(-3, "Neu")));
+        journal.appendOrMerge(Mutation.updateTour(tour(-3, "Neu, geändert")));
+        journal.appendOrMerge(Mutation.updateTour(tour(5, "Gesendet")));
+        journal.appendOrMerge(Mutation.deleteTour(6L));
+        journal.appendOrMerge(Mutation.updateTour(tour(6, "Nach dem Löschen")));
+
+        assertEquals(5, journal.size());
+        journal.acknowledge(journal.take().getSequence(), 30L);
+        journal.acknowledge(journal.take().getSequence(), null);
+        // Wird gerade gesendet, die nächste Änderung muss eigens folgen
+        Mutation sending = journal.take();
+        journal.appendOrMerge(Mutation.updateTour(tour(5, "Später")));
+
+        assertEquals(4, journal.size());
+        assertEquals("Gesendet", journal.first().getTour().getName());
+        assertEquals(sending.getSequence(), journal.first().getSequence());
+        assertEquals("Später", journal.pending().get(3).getTour().getName());
+        journal.close();
+    }
+
+    @Test
+    public void testUpdatesAreRebasedOnOwnNewVersion() {
+        LocalDateTime loaded = LocalDateTime.of(2024, 5, 1, 10, 0);
+        LocalDateTime saved = loaded.plusMinutes(3);
+        MutationJournal journal = MutationJournal.inMemory();
+        Tour edited = tour(7, "Traunsee");
+        edited.setUpdatedAt(loaded);
+        journal.append(Mutation.updateTour(edited));
+        journal.append(Mutation.deleteTour(8L));
+        journal.append(Mutation.updateTour(edited));
+
+        journal.acknowledge(journal.take().getSequence(), null);
+        journal.recordVersion(7L, saved);
+
+        // Die eigene gespeicherte Version darf die nächste Änderung nicht als Konflikt abweisen
+        assertEquals(saved, journal.pending().get(1).getTour().getUpdatedAt());
+        journal.appendOrMerge(Mutation.updateTour(tour(7, "Ohne Version")));
+        assertEquals(saved, journal.pending().get(1).getTour().getUpdatedAt());
+        assertEquals("Ohne Version", journal.pending().get(1).getTour().getName());
+
+        assertEquals(1, journal.discardUpdates(7L).size());
+        assertEquals(List.of(Mutation.Type.DELETE_TOUR), journal.pending().stream().map(Mutation::getType).toList());
+        journal.close();
+    }
+}
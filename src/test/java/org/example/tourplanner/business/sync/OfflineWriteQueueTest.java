@@ -0,0 +1,373 @@
+package org.example.tourplanner.business.sync;
+
+import org.example.tourplanner.business.service.BatchProgress;
+import org.example.tourplanner.models.Tour;
+import org.example.tourplanner.models.TourLog;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OfflineWriteQueueTest {
+
+    /**
+     * Records what was sent; answers with the scripted outcomes, then DONE with ids from 1000 on
+     */
+    private static class FakeTarget implements MutationTarget {
+        final List<Mutation> sent = new ArrayList<>();
+        final Deque<Outcome> script = new ArrayDeque<>();
+        final List<Integer> runs = new ArrayList<>();
+        // Offene Änderungen, die der Recorder beim Senden zuletzt gemeldet bekam
+        final List<Integer> pendingSeen = new ArrayList<>();
+        Recorder observer;
+        long nextId = 1000;
+
+        @Override
+        public List<Outcome> sendRun(List<Mutation> run, BatchProgress progress) {
+            synchronized (this) {
+                runs.add(run.size());
+            }
+            return MutationTarget.super.sendRun(run, progress);
+        }
+
+        @Override
+        public synchronized Outcome send(Mutation mutation) {
+            sent.add(mutation);
+            if (observer != null) {
+                pendingSeen.add(observer.lastPending);
+            }
+            if (!script.isEmpty()) {
+                return script.poll();
+            }
+            return Outcome.done(mutation.isCreate() ? nextId++ : null);
+        }
+    }
+
+    private static class Recorder implements OfflineWriteQueue.Listener {
+        final List<Long> assignedIds = new ArrayList<>();
+        final List<Mutation> rejected = new ArrayList<>();
+        final List<Mutation> conflicted = new ArrayList<>();
+        final List<LocalDateTime> versions = new ArrayList<>();
+        volatile int lastPending;
+        final CountDownLatch drained;
+
+        Recorder(int expectedEvents) {
+            drained = new CountDownLatch(expectedEvents);
+        }
+
+        @Override
+        public synchronized void acknowledged(Mutation mutation, Long assignedId) {
+            assignedIds.add(assignedId);
+            drained.countDown();
+        }
+
+        @Override
+        public synchronized void rejected(Mutation mutation, String reason) {
+            rejected.add(mutation);
+            drained.countDown();
+        }
+
+        @Override
+        public synchronized void conflicted(Mutation mutation, String reason) {
+            conflicted.add(mutation);
+            drained.countDown();
+        }
+
+        @Override
+        public synchronized void versionChanged(Long tourId, LocalDateTime version) {
+            versions.add(version);
+            drained.countDown();
+        }
+
+        @Override
+        public void pendingChanged(int pendingCount) {
+            lastPending = pendingCount;
+        }
+    }
+
+    private static Tour tour(long id) {
+        Tour tour = new Tour("Offline", "", "Salzburg", "Hallein", "Walk");
+        tour.setId(id);
+        return tour;
+    }
+
+    private static TourLog log() {
+        TourLog log = new TourLog(LocalDateTime.of(2024, 7, 1, 7, 30), "Nebel", 2, 15.5, 240, 4);
+        log.setId(OfflineWriteQueue.newTemporaryId());
+        return log;
+    }
+
+    @Test
+    public void testReplaysInOrderWithAssignedIds() throws Exception {
+        FakeTarget target = new FakeTarget();
+        OfflineWriteQueue queue = new OfflineWriteQueue(MutationJournal.inMemory(), target, 1, 10);
+        Recorder recorder = new Recorder(3);
+        queue.addListener(recorder);
+
+        long tourId = OfflineWriteQueue.newTemporaryId();
+        long logId = OfflineWriteQueue.newTemporaryId();
+        TourLog log = new TourLog(LocalDateTime.of(2024, 7, 1, 7, 30), "Nebel", 2, 15.5, 240, 4);
+        log.setId(logId);
+        queue.submit(Mutation.createTour(tour(tourId)));
+        queue.submit(Mutation.createLog(tourId, log));
+        queue.submit(Mutation.deleteTour(tourId));
+        assertEquals(3, queue.getPendingCount());
+        assertTrue(queue.hasPendingFor(tourId));
+
+        queue.start();
+        assertTrue(recorder.drained.await(5, TimeUnit.SECONDS));
+
+        assertEquals(List.of(Mutation.Type.CREATE_TOUR, Mutation.Type.CREATE_LOG, Mutation.Type.DELETE_TOUR),
+                target.sent.stream().map(Mutation::getType).toList());
+        assertEquals(1000L, target.sent.get(1).getTourId());
+        assertEquals(1000L, target.sent.get(2).getTourId());
+        assertEquals(1001L, queue.resolveId(logId));
+        assertEquals(0, queue.getPendingCount());
+        queue.shutdown();
+    }
+
+    @Test
+    public void testRetriesUntilBackendIsReachable() throws Exception {
+        FakeTarget target = new FakeTarget();
+        target.script.add(MutationTarget.Outcome.retry("Connection refused"));
+        target.script.add(MutationTarget.Outcome.retry("HTTP 503"));
+        OfflineWriteQueue queue = new OfflineWriteQueue(MutationJournal.inMemory(), target, 1, 10);
+        Recorder recorder = new Recorder(1);
+        queue.addListener(recorder);
+
+        queue.submit(Mutation.updateTour(tour(3)));
+        queue.start();
+        assertTrue(recorder.drained.await(5, TimeUnit.SECONDS));
+
+        assertEquals(3, target.sent.size());
+        assertTrue(recorder.rejected.isEmpty());
+        queue.shutdown();
+    }
+
+    @Test
+    public void testChangesOfRejectedCreateAreDropped() throws Exception {
+        FakeTarget target = new FakeTarget();
+        target.script.add(MutationTarget.Outcome.rejected("HTTP 400"));
+        OfflineWriteQueue queue = new OfflineWriteQueue(MutationJournal.inMemory(), target, 1, 10);
+        Recorder recorder = new Recorder(3);
+        queue.addListener(recorder);
+
+        long tourId = OfflineWriteQueue.newTemporaryId();
+        queue.submit(Mutation.createTour(tour(tourId)));
+        queue.submit(Mutation.updateTour(tour(tourId)));
+        queue.submit(Mutation.deleteTour(8L));
+        queue.start();
+        assertTrue(recorder.drained.await(5, TimeUnit.SECONDS));
+
+        // Die Änderung der abgelehnten Tour wird nicht mehr gesendet
+        assertEquals(List.of(Mutation.Type.CREATE_TOUR, Mutation.Type.DELETE_TOUR),
+                target.sent.stream().map(Mutation::getType).toList());
+        assertEquals(2, recorder.rejected.size());
+        queue.shutdown();
+    }
+
+    @Test
+    public void testBurstOfEditsIsSentOnce() throws Exception {
+        FakeTarget target = new FakeTarget();
+        OfflineWriteQueue queue = new OfflineWriteQueue(MutationJournal.inMemory(), target, 1, 10, 200);
+        Recorder recorder = new Recorder(2);
+        queue.addListener(recorder);
+        queue.start();
+
+        for (int i = 0; i < 20; i++) {
+            Tour tour = tour(4);
+            tour.setName("Edit " + i);
+            queue.submit(Mutation.updateTour(tour));
+        }
+        queue.submit(Mutation.deleteTour(5L));
+        assertTrue(recorder.drained.await(5, TimeUnit.SECONDS));
+
+        assertEquals(List.of(Mutation.Type.UPDATE_TOUR, Mutation.Type.DELETE_TOUR),
+                target.sent.stream().map(Mutation::getType).toList());
+        assertEquals("Edit 19", target.sent.get(0).getTour().getName());
+        assertEquals(19, queue.getMergedCount());
+        queue.shutdown();
+    }
+
+    @Test
+    public void testLeftOverChangesAreSentWithoutTheWindow() throws Exception {
+        FakeTarget target = new FakeTarget();
+        OfflineWriteQueue queue = new OfflineWriteQueue(MutationJournal.inMemory(), target, 1, 10, 60_000);
+        Recorder recorder = new Recorder(1);
+        queue.addListener(recorder);
+        queue.submit(Mutation.updateTour(tour(4)));
+
+        queue.start();
+        assertTrue(recorder.drained.await(5, TimeUnit.SECONDS));
+        assertEquals(1, target.sent.size());
+        queue.shutdown();
+    }
+
+    @Test
+    public void testShutdownSendsWithoutWaitingForTheWindow() {
+        FakeTarget target = new FakeTarget();
+        OfflineWriteQueue queue = new OfflineWriteQueue(MutationJournal.inMemory(), target, 1, 10, 60_000);
+        queue.start();
+
+        queue.submit(Mutation.updateTour(tour(4)));
+        queue.shutdown();
+
+        assertEquals(1, target.sent.size());
+        assertEquals(0, queue.getPendingCount());
+    }
+
+    @Test
+    public void testConsecutiveDeletesAreSentTogether() throws Exception {
+        FakeTarget target = new FakeTarget();
+        OfflineWriteQueue queue = new OfflineWriteQueue(MutationJournal.inMemory(), target, 1, 10);
+        Recorder recorder = new Recorder(7);
+        queue.addListener(recorder);
+
+        for (long id = 1; id <= 5; id++) {
+            queue.submit(Mutation.deleteTour(id));
+        }
+        queue.submit(Mutation.updateTour(tour(9)));
+        queue.submit(Mutation.deleteTour(6L));
+        queue.start();
+        assertTrue(recorder.drained.await(5, TimeUnit.SECONDS));
+
+        assertEquals(List.of(5), target.runs);
+        assertEquals(7, target.sent.size());
+        assertEquals(Mutation.Type.UPDATE_TOUR, target.sent.get(5).getType());
+        queue.shutdown();
+    }
+
+    @Test
+    public void testPendingCountFollowsTheRun() throws Exception {
+        FakeTarget target = new FakeTarget();
+        OfflineWriteQueue queue = new OfflineWriteQueue(MutationJournal.inMemory(), target, 1, 10);
+        Recorder recorder = new Recorder(3);
+        target.observer = recorder;
+        queue.addListener(recorder);
+
+        for (long id = 1; id <= 3; id++) {
+            queue.submit(Mutation.deleteTour(id));
+        }
+        queue.start();
+        assertTrue(recorder.drained.await(5, TimeUnit.SECONDS));
+
+        assertEquals(List.of(3, 2, 1), target.pendingSeen);
+        queue.shutdown();
+        assertEquals(0, recorder.lastPending);
+    }
+
+    @Test
+    public void testLogsOfOneTourAreCreatedTogether() throws Exception {
+        FakeTarget target = new FakeTarget();
+        OfflineWriteQueue queue = new OfflineWriteQueue(MutationJournal.inMemory(), target, 1, 10);
+        Recorder recorder = new Recorder(6);
+        queue.addListener(recorder);
+
+        for (int i = 0; i < 3; i++) {
+            queue.submit(Mutation.createLog(7L, log()));
+        }
+        queue.submit(Mutation.createLog(8L, log()));
+        queue.submit(Mutation.updateTour(tour(7)));
+        queue.submit(Mutation.updateTour(tour(8)));
+        queue.start();
+        assertTrue(recorder.drained.await(5, TimeUnit.SECONDS));
+
+        // Touränderungen tragen die erwartete Version und gehen einzeln
+        assertEquals(List.of(3), target.runs);
+        assertEquals(6, target.sent.size());
+        queue.shutdown();
+    }
+
+    @Test
+    public void testRetryInARunResendsOnlyWhatFailed() throws Exception {
+        FakeTarget target = new FakeTarget();
+        target.script.add(MutationTarget.Outcome.done(500L));
+        target.script.add(MutationTarget.Outcome.retry("HTTP 503"));
+        target.script.add(MutationTarget.Outcome.done(501L));
+        OfflineWriteQueue queue = new OfflineWriteQueue(MutationJournal.inMemory(), target, 1, 10);
+        Recorder recorder = new Recorder(3);
+        queue.addListener(recorder);
+
+        for (int i = 0; i < 3; i++) {
+            queue.submit(Mutation.createLog(7L, log()));
+        }
+        queue.start();
+        assertTrue(recorder.drained.await(5, TimeUnit.SECONDS));
+
+        // Das erste Log ist angelegt und wird nicht noch einmal gesendet
+        assertEquals(4, target.sent.size());
+        assertEquals(target.sent.get(1).getSequence(), target.sent.get(2).getSequence());
+        assertEquals(3, target.sent.stream().map(Mutation::getSequence).distinct().count());
+        assertEquals(List.of(500L, 501L, 1000L), recorder.assignedIds);
+        queue.shutdown();
+    }
+
+    @Test
+    public void testConflictDropsLaterUpdatesOfTheTour() throws Exception {
+        FakeTarget target = new FakeTarget();
+        target.script.add(MutationTarget.Outcome.conflict("HTTP 412"));
+        MutationJournal journal = MutationJournal.inMemory();
+        OfflineWriteQueue queue = new OfflineWriteQueue(journal, target, 1, 10);
+        Recorder recorder = new Recorder(2);
+        queue.addListener(recorder);
+
+        queue.submit(Mutation.updateTour(tour(3)));
+        queue.submit(Mutation.updateTour(tour(4)));
+        // Bereits gesendet geglaubt, daher nicht zusammengeführt: wird mit dem Konflikt verworfen
+        journal.append(Mutation.updateTour(tour(3)));
+        queue.start();
+        assertTrue(recorder.drained.await(5, TimeUnit.SECONDS));
+
+        assertEquals(List.of(3L, 4L), target.sent.stream().map(Mutation::getTourId).toList());
+        assertEquals(1, recorder.conflicted.size());
+        assertTrue(recorder.rejected.isEmpty());
+        assertEquals(0, queue.getPendingCount());
+        queue.shutdown();
+    }
+
+    @Test
+    public void testNextUpdateExpectsTheSavedVersion() throws Exception {
+        LocalDateTime loaded = LocalDateTime.of(2024, 5, 1, 10, 0);
+        LocalDateTime saved = loaded.plusSeconds(1);
+        FakeTarget target = new FakeTarget();
+        target.script.add(MutationTarget.Outcome.done(null, saved));
+        OfflineWriteQueue queue = new OfflineWriteQueue(MutationJournal.inMemory(), target, 1, 10);
+        Recorder recorder = new Recorder(2);
+        queue.addListener(recorder);
+        queue.start();
+
+        Tour edited = tour(3);
+        edited.setUpdatedAt(loaded);
+        queue.submit(Mutation.updateTour(edited));
+        assertTrue(recorder.drained.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(saved), recorder.versions);
+
+        // Das UI hat die neue Version noch nicht übernommen
+        queue.submit(Mutation.updateTour(edited));
+        queue.drain(1000);
+        assertEquals(2, target.sent.size());
+        assertEquals(saved, target.sent.get(1).getTour().getUpdatedAt());
+        queue.shutdown();
+    }
+
+    @Test
+    public void testBackoffGrowsAndIsCapped() {
+        OfflineWriteQueue queue = new OfflineWriteQueue(MutationJournal.inMemory(), new FakeTarget(), 1000, 60_000);
+
+        for (int i = 0; i < 20; i++) {
+            long first = queue.backoff(1);
+            assertTrue(first >= 500 && first <= 1000);
+            long fourth = queue.backoff(4);
+            assertTrue(fourth >= 4000 && fourth <= 8000);
+            long late = queue.backoff(40);
+            assertTrue(late >= 30_000 && late <= 60_000);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.tourplanner.business.sync;
+
+import org.example.tourplanner.models.Tour;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TourMergeTest {
+
+    private static Tour tour(String name, String description, String to) {
+        Tour tour = new Tour(name, description, "Graz", to, "Bike");
+        tour.setId(12L);
+        tour.setDistance(120.0);
+        tour.setEstimatedTime(300);
+        return tour;
+    }
+
+    @Test
+    public void testChangesToDifferentFieldsAreCombined() {
+        Tour base = tour("Murradweg", "Flach", "Maribor");
+        Tour mine = tour("Murradweg Süd", "Flach", "Maribor");
+        Tour theirs = tour("Murradweg", "Flach, mit Einkehr", "Maribor");
+        theirs.setUpdatedAt(LocalDateTime.of(2024, 6, 2, 9, 15));
+
+        TourMerge merge = TourMerge.merge(base, mine, theirs);
+
+        assertFalse(merge.hasConflicts());
+        assertEquals("Murradweg Süd", merge.getMerged().getName());
+        assertEquals("Flach, mit Einkehr", merge.getMerged().getDescription());
+        // Gespeichert wird auf der aktuellen Version
+        assertEquals(theirs.getUpdatedAt(), merge.getMerged().getUpdatedAt());
+    }
+
+    @Test
+    public void testSameFieldChangedOnBothSidesIsAConflict() {
+        Tour base = tour("Murradweg", "Flach", "Maribor");
+        Tour mine = tour("Murradweg", "Flach", "Ptuj");
+        Tour theirs = tour("Murradweg", "Flach", "Bad Radkersburg");
+        theirs.setName("Murradweg (gesperrt)");
+
+        TourMerge merge = TourMerge.merge(base, mine, theirs);
+
+        assertEquals(List.of(TourMerge.Group.ROUTE), merge.getConflicts());
+        assertEquals("Ptuj", merge.getMerged().getTo());
+        assertEquals("Murradweg (gesperrt)", merge.getMerged().getName());
+    }
+
+    @Test
+    public void testIdenticalChangesAndUnknownBase() {
+        Tour mine = tour("Murradweg", "Neu", "Maribor");
+        Tour theirs = tour("Murradweg", "Neu", "Ptuj");
+
+        assertFalse(TourMerge.merge(tour("Murradweg", "Alt", "Maribor"), mine, theirs).hasConflicts());
+        // Ohne Ausgangsstand ist jede Abweichung ein Konflikt
+        assertEquals(List.of(TourMerge.Group.ROUTE), TourMerge.merge(null, mine, theirs).getConflicts());
+    }
+}
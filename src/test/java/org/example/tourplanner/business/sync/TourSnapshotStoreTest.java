@@ -0,0 +1,82 @@
+package org.example.tourplanner.business.sync;
+
+import org.example.tourplanner.models.Tour;
+import org.example.tourplanner.models.TourLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TourSnapshotStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private static Tour tour(long id, String name) {
+        Tour tour = new Tour(name, "Beschreibung mit Ümlauten", "Wien", "Graz", "Car");
+        tour.setId(id);
+        tour.setDistance(198.5);
+        tour.setEstimatedTime(130);
+        tour.setUpdatedAt(LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_000_000));
+        TourLog log = new TourLog(LocalDateTime.of(2024, 5, 2, 8, 0), "Stau bei Wiener Neustadt", 3, 200.1, 150, 4);
+        log.setId(id * 10);
+        tour.addTourLog(log);
+        return tour;
+    }
+
+    @Test
+    public void testSaveAndLoadKeepsToursAndLogs() throws Exception {
+        TourSnapshotStore store = new TourSnapshotStore(dir.resolve("tours.snapshot"));
+        Tour withoutDescription = tour(2, "Ohne Beschreibung");
+        withoutDescription.setDescription(null);
+        withoutDescription.setUpdatedAt(null);
+
+        store.save(List.of(tour(1, "Wien - Graz"), withoutDescription));
+        List<Tour> loaded = store.load();
+
+        assertEquals(2, loaded.size());
+        assertTrue(TourSnapshotStore.sameContent(tour(1, "Wien - Graz"), loaded.get(0)));
+        assertTrue(TourSnapshotStore.sameContent(withoutDescription, loaded.get(1)));
+        assertNull(loaded.get(1).getDescription());
+        assertEquals("Stau bei Wiener Neustadt", loaded.get(0).getTourLogs().get(0).getComment());
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 15, 30, 123_000_000), loaded.get(0).getUpdatedAt());
+    }
+
+    @Test
+    public void testMissingFileGivesEmptySnapshot() {
+        TourSnapshotStore store = new TourSnapshotStore(dir.resolve("missing.snapshot"));
+
+        assertTrue(store.load().isEmpty());
+    }
+
+    @Test
+    public void testDamagedFileIsIgnored() throws Exception {
+        Path file = dir.resolve("tours.snapshot");
+        TourSnapshotStore store = new TourSnapshotStore(file);
+        store.save(List.of(tour(1, "Wien - Graz")));
+
+        byte[] data = Files.readAllBytes(file);
+        data[30] ^= 0x55;
+        Files.write(file, data);
+        assertTrue(store.load().isEmpty());
+
+        Files.write(file, Arrays.copyOf(data, data.length / 2));
+        assertTrue(store.load().isEmpty());
+    }
+
+    @Test
+    public void testSameContentDetectsChangedLogs() {
+        Tour changed = tour(1, "Wien - Graz");
+        changed.getTourLogs().get(0).setRating(5);
+
+        assertTrue(TourSnapshotStore.sameContent(tour(1, "Wien - Graz"), tour(1, "Wien - Graz")));
+        assertFalse(TourSnapshotStore.sameContent(tour(1, "Wien - Graz"), changed));
+        assertFalse(TourSnapshotStore.sameContent(tour(1, "Wien - Graz"), tour(1, "Wien - Linz")));
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.tourplanner.business.thumbnails;
+
+import org.example.tourplanner.models.Tour;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RouteThumbnailServiceTest {
+
+    @TempDir
+    Path cacheDir;
+
+    private static final double[][] WIEN_GRAZ = {{48.2082, 16.3738}, {47.8, 16.2}, {47.0707, 15.4395}};
+
+    @Test
+    public void testRenderedPngHasRequestedSizeAndRouteColors() throws Exception {
+        byte[] png = RouteThumbnailRenderer.renderPng(WIEN_GRAZ, 96, 64);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        assertEquals(96, image.getWidth());
+        assertEquals(64, image.getHeight());
+        assertTrue(containsColor(image, 0x007BFF));
+        assertTrue(containsColor(image, 0x28A745));
+        assertTrue(containsColor(image, 0xDC3545));
+    }
+
+    @Test
+    public void testContentKeyDependsOnRouteAndSize() {
+        String key = ThumbnailCache.contentKey(WIEN_GRAZ, 96, 64);
+
+        assertEquals(64, key.length());
+        assertEquals(key, ThumbnailCache.contentKey(WIEN_GRAZ.clone(), 96, 64));
+        assertNotEquals(key, ThumbnailCache.contentKey(WIEN_GRAZ, 48, 32));
+        assertNotEquals(key, ThumbnailCache.contentKey(new double[][]{{48.2082, 16.3738}, {47.0707, 15.4395}}, 96, 64));
+    }
+
+    @Test
+    public void testSameRouteIsRenderedOnce() throws Exception {
+        RouteThumbnailService service = new RouteThumbnailService(new ThumbnailCache(cacheDir), null);
+
+        Path first = service.renderOrLoad("Wien", "Graz", "Car", null);
+        assertNotNull(first);
+        assertTrue(first.startsWith(cacheDir));
+        long modified = Files.getLastModifiedTime(first).toMillis();
+
+        // Andere Tour, gleiche Strecke: dieselbe Datei
+        Path second = service.renderOrLoad("Vienna", "Graz", "Bicycle", null);
+        assertEquals(first, second);
+        assertEquals(modified, Files.getLastModifiedTime(second).toMillis());
+    }
+
+    @Test
+    public void testUnknownRouteFallsBackToRouteImage() throws Exception {
+        RouteThumbnailService service = new RouteThumbnailService(new ThumbnailCache(cacheDir), null);
+        Path routeImage = Files.write(cacheDir.resolve("route.png"), RouteThumbnailRenderer.renderPng(WIEN_GRAZ, 20, 20));
+
+        assertNull(service.renderOrLoad("Atlantis", "Graz", "Car", null));
+        assertEquals(routeImage, service.renderOrLoad("Atlantis", "Graz", "Car", routeImage.toString()));
+        assertNull(service.renderOrLoad("Atlantis", "Graz", "Car", cacheDir.resolve("missing.png").toString()));
+    }
+
+    @Test
+    public void testDecodingRunsOnWorkerThread() throws Exception {
+        RouteThumbnailService service = new RouteThumbnailService(new ThumbnailCache(cacheDir), null);
+        Tour tour = new Tour("Linz - Wels", "", "Linz", "Wels", "Car");
+
+        String thread = service.thumbnailFor(tour, file -> Thread.currentThread().getName()).get();
+
+        assertEquals("thumbnail-worker", thread);
+    }
+
+    private static boolean containsColor(BufferedImage image, int rgb) {
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                if ((image.getRGB(x, y) & 0xFFFFFF) == rgb) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,183 @@
+package org.example.tourplanner.business.tiles;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TileCacheTest {
+
+    @TempDir
+    Path cacheDir;
+
+    // Ersatz für tile.openstreetmap.org: liefert "z/x/y" als Kachelinhalt
+    private HttpServer upstream;
+    private final AtomicInteger upstreamRequests = new AtomicInteger();
+    private final Set<Integer> upstreamConnections = ConcurrentHashMap.newKeySet();
+    private String upstreamTemplate;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        upstream = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        upstream.createContext("/", exchange -> {
+            upstreamRequests.incrementAndGet();
+            upstreamConnections.add(exchange.getRemoteAddress().getPort());
+            String path = exchange.getRequestURI().getPath();
+            if (path.startsWith("/missing")) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                byte[] body = path.substring(1).getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+            exchange.close();
+        });
+        upstream.start();
+        upstreamTemplate = "http://127.0.0.1:" + upstream.getAddress().getPort() + "/{z}/{x}/{y}.png";
+    }
+
+    @AfterEach
+    public void tearDown() {
+        upstream.stop(0);
+    }
+
+    @Test
+    public void testSecondRequestIsServedFromDisk() {
+        TileCache cache = new TileCache(cacheDir, upstreamTemplate, 1024 * 1024);
+
+        assertEquals("5/17/11.png", new String(cache.getTile(5, 17, 11), StandardCharsets.UTF_8));
+        assertEquals("5/17/11.png", new String(cache.getTile(5, 17, 11), StandardCharsets.UTF_8));
+
+        assertEquals(1, upstreamRequests.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRatio(), 0.0001);
+        assertTrue(Files.isRegularFile(cacheDir.resolve("5/17/11.png")));
+    }
+
+    @Test
+    public void testCacheSurvivesRestart() {
+        new TileCache(cacheDir, upstreamTemplate, 1024 * 1024).getTile(3, 4, 2);
+
+        TileCache reopened = new TileCache(cacheDir, upstreamTemplate, 1024 * 1024);
+
+        assertEquals(1, reopened.getTileCount());
+        assertNotNull(reopened.getTile(3, 4, 2));
+        assertEquals(1, upstreamRequests.get());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedTileIsEvicted() {
+        // Jede Kachel ist 11 Bytes groß ("4/10/10.png"), Platz für zwei
+        TileCache cache = new TileCache(cacheDir, upstreamTemplate, 24);
+        cache.getTile(4, 10, 10);
+        cache.getTile(4, 11, 11);
+        cache.getTile(4, 10, 10);
+        cache.getTile(4, 12, 12);
+
+        assertTrue(cache.contains(4, 10, 10));
+        assertFalse(cache.contains(4, 11, 11));
+        assertTrue(cache.contains(4, 12, 12));
+        assertFalse(Files.exists(cacheDir.resolve("4/11/11.png")));
+        assertTrue(cache.getSizeBytes() <= 24);
+    }
+
+    @Test
+    public void testDownloadsReuseTheUpstreamConnection() {
+        TileCache cache = new TileCache(cacheDir, upstreamTemplate, 1024 * 1024);
+
+        for (int x = 0; x < 8; x++) {
+            assertNotNull(cache.getTile(3, x, 2));
+        }
+        cache.close();
+
+        assertEquals(8, upstreamRequests.get());
+        assertEquals(1, upstreamConnections.size());
+        assertNull(cache.getTile(3, 0, 3));
+    }
+
+    @Test
+    public void testUpstreamErrorIsNotCached() {
+        TileCache cache = new TileCache(cacheDir, "http://127.0.0.1:" + upstream.getAddress().getPort()
+                + "/missing/{z}/{x}/{y}.png", 1024 * 1024);
+
+        assertNull(cache.getTile(2, 1, 1));
+        assertNull(cache.getTile(2, 1, 1));
+
+        assertEquals(2, upstreamRequests.get());
+        assertEquals(2, cache.getUpstreamErrors());
+        assertEquals(0, cache.getTileCount());
+    }
+
+    @Test
+    public void testInvalidTileIsRejectedWithoutRequest() {
+        TileCache cache = new TileCache(cacheDir, upstreamTemplate, 1024 * 1024);
+
+        assertNull(cache.getTile(2, 4, 0));
+        assertEquals(0, upstreamRequests.get());
+    }
+
+    @Test
+    public void testPrefetchDoesNotCountAsHitOrMiss() {
+        TileCache cache = new TileCache(cacheDir, upstreamTemplate, 1024 * 1024);
+
+        assertTrue(cache.prefetch(6, 34, 22));
+        assertTrue(cache.prefetch(6, 34, 22));
+        assertNotNull(cache.getTile(6, 34, 22));
+
+        assertEquals(1, upstreamRequests.get());
+        assertEquals(1.0, cache.getHitRatio(), 0.0001);
+    }
+
+    @Test
+    public void testTileServerServesCachedTiles() throws Exception {
+        TileCache cache = new TileCache(cacheDir, upstreamTemplate, 1024 * 1024);
+        TileServer server = new TileServer(cache);
+        server.start();
+        try {
+            String url = server.getUrlTemplate().replace("{z}", "7").replace("{x}", "68").replace("{y}", "45");
+            HttpURLConnection connection = (HttpURLConnection) URI.create(url).toURL().openConnection();
+            assertEquals(200, connection.getResponseCode());
+            assertEquals("image/png", connection.getHeaderField("Content-Type"));
+            try (InputStream in = connection.getInputStream()) {
+                assertEquals("7/68/45.png", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+
+            HttpURLConnection invalid = (HttpURLConnection) URI.create(
+                    server.getUrlTemplate().replace("{z}/{x}/{y}.png", "abc")).toURL().openConnection();
+            assertEquals(404, invalid.getResponseCode());
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testTilesAlongRouteCoverBothEnds() {
+        double[][] route = {{48.2082, 16.3738}, {47.0707, 15.4395}};
+
+        Set<TileMath.Tile> tiles = TileMath.tilesAlong(route, 10);
+
+        assertTrue(tiles.contains(new TileMath.Tile(10, TileMath.tileX(16.3738, 10), TileMath.tileY(48.2082, 10))));
+        assertTrue(tiles.contains(new TileMath.Tile(10, TileMath.tileX(15.4395, 10), TileMath.tileY(47.0707, 10))));
+        // Wien-Graz sind ca. 3 Kacheln breit und 5 hoch: keine Lücken, aber auch keine Fläche
+        assertTrue(tiles.size() >= 5 && tiles.size() <= 10, "tiles " + tiles.size());
+    }
+}